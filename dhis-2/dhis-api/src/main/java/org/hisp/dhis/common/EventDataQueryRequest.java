@@ -142,6 +142,12 @@ public class EventDataQueryRequest
 
     private boolean totalPages;
 
+    private boolean keysetPaging;
+
+    private String pageCursor;
+
+    private boolean estimatedCount;
+
     private RequestTypeAware.EndpointItem endpointItem;
 
     /**
@@ -191,6 +197,9 @@ public class EventDataQueryRequest
         queryRequest.pageSize = this.pageSize;
         queryRequest.paging = this.paging;
         queryRequest.totalPages = this.totalPages;
+        queryRequest.keysetPaging = this.keysetPaging;
+        queryRequest.pageCursor = this.pageCursor;
+        queryRequest.estimatedCount = this.estimatedCount;
         queryRequest.endpointItem = this.endpointItem;
         return request;
     }
@@ -248,6 +257,9 @@ public class EventDataQueryRequest
                 .coordinatesOnly( criteria.isCoordinatesOnly() )
                 .coordinateOuFallback( criteria.isCoordinateOuFallback() )
                 .totalPages( criteria.isTotalPages() )
+                .keysetPaging( criteria.isKeysetPaging() || criteria.getPageCursor() != null )
+                .pageCursor( criteria.getPageCursor() )
+                .estimatedCount( criteria.isEstimatedCount() )
                 .endpointItem( criteria.getEndpointItem() );
 
             if ( criteria.getDimension() == null )
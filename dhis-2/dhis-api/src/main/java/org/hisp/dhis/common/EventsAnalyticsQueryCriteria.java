@@ -326,4 +326,22 @@ public class EventsAnalyticsQueryCriteria extends RequestTypeAware
      * The default is true (always total pages flag activated).
      */
     private boolean totalPages = true;
+
+    /**
+     * Whether to page with a cursor on the sort columns instead of an offset.
+     * The total pages flag is ignored when set.
+     */
+    private boolean keysetPaging;
+
+    /**
+     * The opaque cursor of the page to fetch, as returned in the pager of the
+     * previous page. Implies keyset paging.
+     */
+    private String pageCursor;
+
+    /**
+     * Whether the total for total pages may be estimated from planner
+     * statistics instead of being counted exactly.
+     */
+    private boolean estimatedCount;
 }
@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.common;
+
+import java.util.List;
+
+/**
+ * Adapter interface to write tabular data row by row to different output
+ * formats like JSON, CSV and XLS without first collecting the rows in a
+ * {@link Grid}.
+ *
+ * Data is written by the following method call sequence:
+ * <ol>
+ * <li>{@link #writeHeaders(List)}</li>
+ * <li>0 or more times {@link #writeRow(List)}</li>
+ * <li>{@link #close()}</li>
+ * </ol>
+ *
+ * All methods might throw an {@link java.io.UncheckedIOException}, which is
+ * typically the case when the client has disconnected.
+ */
+public interface GridRowWriter extends AutoCloseable
+{
+    /**
+     * Writes the headers of the tabular data. Afterwards the output should be
+     * ready for calls to {@link #writeRow(List)}.
+     *
+     * @param headers the list of {@link GridHeader}.
+     */
+    void writeHeaders( List<GridHeader> headers );
+
+    /**
+     * Writes a single row of values, in the same order as the headers.
+     *
+     * @param row the list of values.
+     */
+    void writeRow( List<Object> row );
+
+    /**
+     * Adds the document footer to the output and closes the document.
+     */
+    @Override
+    void close();
+}
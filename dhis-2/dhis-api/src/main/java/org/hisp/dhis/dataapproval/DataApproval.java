@@ -215,10 +215,24 @@ public class DataApproval
         return da;
     }
 
+    /**
+     * Returns a cache key starting with {@link #getCacheKeyPrefix()}, followed
+     * by the organisation unit path and the approval level, so that cached
+     * entries can be selected by workflow, period, attribute option combo and
+     * organisation unit hierarchy.
+     */
     public String getCacheKey()
     {
-        return dataApprovalLevel.getUid() + "-" + workflow.getUid() + "-" + period.getUid() +
-            "-" + organisationUnit.getUid() + "-" + attributeOptionCombo.getUid();
+        return getCacheKeyPrefix() + organisationUnit.getPath() + "-" + dataApprovalLevel.getUid();
+    }
+
+    /**
+     * Returns the part of the cache key identifying the workflow, period and
+     * attribute option combo.
+     */
+    public String getCacheKeyPrefix()
+    {
+        return workflow.getUid() + "-" + period.getUid() + "-" + attributeOptionCombo.getUid() + "-";
     }
 
     // -------------------------------------------------------------------------
@@ -155,4 +155,17 @@ public interface DataApprovalStore
         CategoryCombo attributeCombo,
         Set<CategoryOptionCombo> attributeOptionCombos, List<DataApprovalLevel> userApprovalLevels,
         Map<Integer, DataApprovalLevel> levelMap );
+
+    /**
+     * Recomputes the materialized approval states of the given workflow from
+     * its data approvals. The states are kept up to date when approvals
+     * change, but depend as well on data set assignments, attribute option
+     * organisation unit mappings and the acceptance setting, which are only
+     * accounted for by this refresh. Does nothing if the states are not
+     * enabled.
+     *
+     * @param workflow the workflow.
+     * @return the number of states stored.
+     */
+    int refreshDataApprovalStates( DataApprovalWorkflow workflow );
 }
@@ -31,6 +31,7 @@ import static org.hisp.dhis.common.OrganisationUnitSelectionMode.SELECTED;
 
 import java.util.Date;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.BlockingQueue;
 
@@ -105,7 +106,7 @@ public class DataExportParams
 
     private IdSchemes outputIdSchemes;
 
-    private BlockingQueue<DeflatedDataValue> blockingQueue;
+    private BlockingQueue<List<DeflatedDataValue>> blockingQueue;
 
     // -------------------------------------------------------------------------
     // Constructors
@@ -559,12 +560,12 @@ public class DataExportParams
         return this;
     }
 
-    public BlockingQueue<DeflatedDataValue> getBlockingQueue()
+    public BlockingQueue<List<DeflatedDataValue>> getBlockingQueue()
     {
         return blockingQueue;
     }
 
-    public DataExportParams setBlockingQueue( BlockingQueue<DeflatedDataValue> blockingQueue )
+    public DataExportParams setBlockingQueue( BlockingQueue<List<DeflatedDataValue>> blockingQueue )
     {
         this.blockingQueue = blockingQueue;
         return this;
@@ -63,6 +63,13 @@ public interface DataValueStore
      */
     public static final TimeUnit DDV_QUEUE_TIMEOUT_UNIT = TimeUnit.MINUTES;
 
+    /**
+     * Maximum number of {@see DeflatedDataValue} in one batch on the queue.
+     * Values are otherwise batched by organisation unit, so this only caps the
+     * size of batches for organisation units with very many values.
+     */
+    public static final int DDV_QUEUE_BATCH_SIZE = 1000;
+
     // -------------------------------------------------------------------------
     // Basic DataValue
     // -------------------------------------------------------------------------
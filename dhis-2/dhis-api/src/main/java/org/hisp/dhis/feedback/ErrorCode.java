@@ -123,6 +123,7 @@ public enum ErrorCode
     E2206( "Max results exceeds the allowed max limit: `{0}`" ),
     E2207( "Data start date must be before data end date" ),
     E2208( "Non-numeric data values encountered during outlier value detection" ),
+    E2209( "Data start date and data end date cannot be used with precomputed statistics" ),
 
     /* Followup analysis */
     E2300( "At least one data element or data set must be specified" ),
@@ -335,6 +336,9 @@ public enum ErrorCode
     E7229( "Operator `{0}` does not allow missing value" ),
     E7230( "Header param `{0}` does not exist" ),
     E7231( "Legacy `{0}` can be updated only through event visualizations" ),
+    E7232( "Keyset paging does not support sorting by: `{0}`" ),
+    E7233( "Page cursor is invalid: `{0}`" ),
+    E7234( "Tile coordinates are invalid: `{0}`" ),
 
     /* Org unit analytics */
     E7300( "At least one organisation unit must be specified" ),
@@ -0,0 +1,194 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.period;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.hisp.dhis.calendar.Calendar;
+import org.hisp.dhis.calendar.DateTimeUnit;
+import org.joda.time.DateTimeConstants;
+import org.joda.time.DateTimeZone;
+import org.joda.time.LocalDate;
+
+/**
+ * Pre-computed lookup table of the periods of a period type in a calendar.
+ * Periods are indexed by day, so that finding the period containing a date is
+ * a single array access, and by ISO period string. The index covers the years
+ * from {@link #FIRST_YEAR} until {@link #YEARS_AHEAD} years after the year in
+ * which it was built, dates outside of this range are not found and must be
+ * resolved by the caller.
+ * <p>
+ * Indexes are built lazily and are bound to the default time zone at the time
+ * of building, lookups in another time zone are not found.
+ *
+ * @see PeriodType#createPeriod(Date)
+ */
+final class PeriodIndex
+{
+    static final int FIRST_YEAR = 1970;
+
+    static final int YEARS_AHEAD = 10;
+
+    /**
+     * Indexes by calendar name and period type name.
+     */
+    private static final Map<String, Map<String, PeriodIndex>> INDEXES = new ConcurrentHashMap<>();
+
+    private final DateTimeZone timeZone;
+
+    private final long firstDay;
+
+    private final Period[] periods;
+
+    private final Map<String, Period> isoPeriods;
+
+    private PeriodIndex( DateTimeZone timeZone, long firstDay, Period[] periods, Map<String, Period> isoPeriods )
+    {
+        this.timeZone = timeZone;
+        this.firstDay = firstDay;
+        this.periods = periods;
+        this.isoPeriods = isoPeriods;
+    }
+
+    /**
+     * Returns the index of the given period type in the given calendar,
+     * building it if it does not exist.
+     *
+     * @param periodType the period type.
+     * @param calendar the calendar.
+     * @return the {@link PeriodIndex}.
+     */
+    static PeriodIndex of( PeriodType periodType, Calendar calendar )
+    {
+        return INDEXES.computeIfAbsent( calendar.name(), name -> new ConcurrentHashMap<>() )
+            .computeIfAbsent( periodType.getName(), name -> build( periodType, calendar ) );
+    }
+
+    /**
+     * Removes all indexes.
+     */
+    static void invalidate()
+    {
+        INDEXES.clear();
+    }
+
+    /**
+     * Returns the period containing the given date, or null if the date is not
+     * covered by this index.
+     *
+     * @param date the date.
+     * @return the {@link Period} or null.
+     */
+    Period get( Date date )
+    {
+        if ( timeZone != DateTimeZone.getDefault() )
+        {
+            return null;
+        }
+
+        long day = toDay( date.getTime(), timeZone ) - firstDay;
+
+        return day >= 0 && day < periods.length ? periods[(int) day] : null;
+    }
+
+    /**
+     * Returns the period with the given ISO period string, or null if no such
+     * period is covered by this index.
+     *
+     * @param isoPeriod the ISO period string.
+     * @return the {@link Period} or null.
+     */
+    Period get( String isoPeriod )
+    {
+        return timeZone == DateTimeZone.getDefault() ? isoPeriods.get( isoPeriod ) : null;
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    private static PeriodIndex build( PeriodType periodType, Calendar calendar )
+    {
+        DateTimeZone timeZone = DateTimeZone.getDefault();
+        LocalDate first = new LocalDate( FIRST_YEAR, 1, 1 );
+        LocalDate last = new LocalDate( new LocalDate().getYear() + YEARS_AHEAD, 12, 31 );
+
+        long firstDay = toDay( first.toDate().getTime(), timeZone );
+        long lastDay = toDay( last.toDate().getTime(), timeZone );
+
+        Period[] periods = new Period[(int) (lastDay - firstDay + 1)];
+        Map<String, Period> isoPeriods = new HashMap<>();
+
+        LocalDate date = first;
+
+        try
+        {
+            while ( !date.isAfter( last ) )
+            {
+                Period period = periodType.createPeriod(
+                    calendar.fromIso( DateTimeUnit.fromJdkDate( date.toDate() ) ), calendar );
+
+                long start = toDay( period.getStartDate().getTime(), timeZone );
+                long end = toDay( period.getEndDate().getTime(), timeZone );
+                long current = toDay( date.toDate().getTime(), timeZone );
+
+                if ( start > current || end < current )
+                {
+                    break; // Period does not contain the date, stop indexing
+                }
+
+                for ( long day = Math.max( start, firstDay ); day <= Math.min( end, lastDay ); day++ )
+                {
+                    periods[(int) (day - firstDay)] = period;
+                }
+
+                isoPeriods.put( period.getIsoDate(), period );
+
+                date = new LocalDate( period.getEndDate() ).plusDays( 1 );
+            }
+        }
+        catch ( RuntimeException ex )
+        {
+            // Calendar does not support the date, keep periods indexed so far
+        }
+
+        return new PeriodIndex( timeZone, firstDay, periods, isoPeriods );
+    }
+
+    /**
+     * Returns the number of days since the epoch of the local date of the
+     * given time in the given time zone, without allocating.
+     */
+    private static long toDay( long time, DateTimeZone timeZone )
+    {
+        return Math.floorDiv( time + timeZone.getOffset( time ), DateTimeConstants.MILLIS_PER_DAY );
+    }
+}
@@ -64,8 +64,8 @@ import com.google.common.collect.Maps;
 public abstract class PeriodType
     implements Serializable
 {
-    // Cache for period lookup, uses calendar.name() + periodType.getName() +
-    // date.getTime() as key
+    // Cache for period lookup of dates not covered by PeriodIndex, uses
+    // calendar.name() + periodType.getName() + date.getTime() as key
 
     private static Cache<Period> PERIOD_CACHE = new SimpleCacheBuilder<Period>()
         .forRegion( "periodCache" )
@@ -93,6 +93,7 @@ public abstract class PeriodType
     public static void invalidatePeriodCache()
     {
         PERIOD_CACHE.invalidateAll();
+        PeriodIndex.invalidate();
     }
 
     /**
@@ -308,6 +309,13 @@ public abstract class PeriodType
      */
     public Period createPeriod( final Date date )
     {
+        Period period = PeriodIndex.of( this, getCalendar() ).get( date );
+
+        if ( period != null )
+        {
+            return period;
+        }
+
         return PERIOD_CACHE.get( getCacheKey( date ), s -> createPeriod( createCalendarInstance( date ) ) );
     }
 
@@ -330,6 +338,13 @@ public abstract class PeriodType
      */
     public Period createPeriod( final Date date, final org.hisp.dhis.calendar.Calendar calendar )
     {
+        Period period = PeriodIndex.of( this, calendar ).get( date );
+
+        if ( period != null )
+        {
+            return period;
+        }
+
         return PERIOD_CACHE.get( getCacheKey( calendar, date ),
             p -> createPeriod( calendar.fromIso( DateTimeUnit.fromJdkDate( date ) ), calendar ) );
     }
@@ -478,6 +493,14 @@ public abstract class PeriodType
         {
             PeriodType periodType = getPeriodTypeFromIsoString( isoPeriod );
 
+            Period period = periodType != null ? PeriodIndex.of( periodType, getCalendar() ).get( isoPeriod ) : null;
+
+            if ( period != null )
+            {
+                return new Period( periodType, new Date( period.getStartDate().getTime() ),
+                    new Date( period.getEndDate().getTime() ), period.getIsoDate() );
+            }
+
             try
             {
                 return periodType != null ? periodType.createPeriod( isoPeriod ) : null;
@@ -29,8 +29,10 @@ package org.hisp.dhis.resourcetable;
 
 import static java.time.LocalDate.now;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 import org.hisp.dhis.common.CodeGenerator;
 
@@ -99,6 +101,20 @@ public abstract class ResourceTable<T>
         return "alter table " + getTempTableName() + " rename to " + getTableName() + ";";
     }
 
+    /**
+     * Provides a select SQL statement which returns a single text value
+     * representing a checksum of the source data of this resource table. When
+     * the checksum is equal to the checksum recorded for the current resource
+     * table, the table is up to date and regeneration is skipped. Returns an
+     * empty optional by default, meaning the table is always regenerated.
+     *
+     * @return an optional select SQL statement returning a checksum.
+     */
+    public Optional<String> getSourceChecksumStatement()
+    {
+        return Optional.empty();
+    }
+
     // -------------------------------------------------------------------------
     // Protected methods
     // -------------------------------------------------------------------------
@@ -108,6 +124,48 @@ public abstract class ResourceTable<T>
         return CodeGenerator.generateCode( 5 );
     }
 
+    /**
+     * Returns a select SQL statement combining the given checksum expressions
+     * into a single checksum.
+     *
+     * @param checksums the checksum expressions, see
+     *        {@link #getChecksumOf(String, String)}.
+     * @return a select SQL statement.
+     */
+    protected static String getChecksumStatement( String... checksums )
+    {
+        return "select md5(concat_ws('|', " + Arrays.stream( checksums )
+            .collect( Collectors.joining( ", " ) ) + "))";
+    }
+
+    /**
+     * Returns a SQL expression for the checksum of the given columns of all
+     * rows in the given table.
+     *
+     * @param table the table name.
+     * @param columns the comma separated column names, where the first column
+     *        should be the primary key.
+     * @return a SQL expression.
+     */
+    protected static String getChecksumOf( String table, String columns )
+    {
+        return "(select count(*) || ':' || md5(coalesce(string_agg(concat_ws(':', " + columns + "), ',' order by "
+            + columns + "), '')) from " + table + ")";
+    }
+
+    /**
+     * Returns a SQL expression for the checksum of all rows in the given table.
+     * Should only be used for narrow tables such as join tables.
+     *
+     * @param table the table name.
+     * @return a SQL expression.
+     */
+    protected static String getChecksumOf( String table )
+    {
+        return "(select count(*) || ':' || md5(coalesce(string_agg(t::text, ',' order by t::text), '')) from "
+            + table + " t)";
+    }
+
     // -------------------------------------------------------------------------
     // Abstract methods
     // -------------------------------------------------------------------------
@@ -40,7 +40,6 @@ import java.util.Map.Entry;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.ConcurrentLinkedDeque;
-import java.util.concurrent.ForkJoinPool;
 import java.util.function.BiFunction;
 import java.util.function.Consumer;
 import java.util.function.Function;
@@ -353,8 +352,10 @@ public interface JobProgress
     }
 
     /**
-     * Runs the work items of a stage with the given parallelism. At most a
-     * parallelism equal to the number of available processor cores is used.
+     * Runs the work items of a stage with the given parallelism. The items are
+     * processed by a pool of worker threads dedicated to this stage so that at
+     * most the given number of items is processed at the same time. The
+     * workers are named after the calling thread.
      * <p>
      * If the parallelism is smaller or equal to 1 the items are processed
      * sequentially using {@link #runStage(Collection, Function, Consumer)}.
@@ -362,7 +363,11 @@ public interface JobProgress
      * While the items are processed in parallel this method is synchronous for
      * the caller and will first return when all work is done.
      * <p>
-     * If cancellation is requested work items might be skipped entirely.
+     * If cancellation is requested work items which have not yet started are
+     * skipped. Work items which are running are allowed to complete.
+     * <p>
+     * The summary of each completed work item reports its duration and the
+     * time it waited for a free worker.
      *
      * @param parallelism number of items that at maximum should be processed in
      *        parallel
@@ -380,36 +385,10 @@ public interface JobProgress
         {
             return runStage( items, description, work );
         }
-        int cores = Runtime.getRuntime().availableProcessors();
-        boolean useCustomPool = parallelism >= cores;
-
-        Callable<Boolean> task = () -> items.parallelStream().map( item -> {
-            if ( isCancellationRequested() )
-            {
-                return false;
-            }
-            startingWorkItem( description.apply( item ) );
-            try
-            {
-                work.accept( item );
-                completedWorkItem( null );
-                return true;
-            }
-            catch ( Exception ex )
-            {
-                failedWorkItem( ex );
-                return false;
-            }
-        } ).reduce( Boolean::logicalAnd ).orElse( false );
-
-        ForkJoinPool pool = useCustomPool ? new ForkJoinPool( parallelism ) : null;
-        try
+        int poolSize = Math.max( 1, Math.min( parallelism, items.size() ) );
+        try ( JobStageExecutor executor = new JobStageExecutor( Thread.currentThread().getName(), poolSize ) )
         {
-            // this might not be obvious but running a parallel stream
-            // as task in a FJP makes the stream use the pool
-            boolean allSuccessful = pool == null
-                ? task.call()
-                : pool.submit( task ).get();
+            boolean allSuccessful = executor.run( this, items, description, work );
             if ( allSuccessful )
             {
                 completedStage( null );
@@ -433,13 +412,6 @@ public interface JobProgress
         {
             failedStage( ex );
         }
-        finally
-        {
-            if ( pool != null )
-            {
-                pool.shutdown();
-            }
-        }
         return false;
     }
 
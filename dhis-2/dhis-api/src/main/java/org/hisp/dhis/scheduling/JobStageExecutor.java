@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.scheduling;
+
+import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * A fixed size pool of worker threads used to run the work items of a single
+ * stage in parallel. Unlike a parallel stream on the common fork-join pool the
+ * number of items processed at the same time never exceeds the parallelism,
+ * and the pool is not shared with other jobs or requests.
+ * <p>
+ * Items wait in a queue until a worker is free. When cancellation of the job
+ * is requested items still waiting are dropped while running items are
+ * allowed to complete.
+ * <p>
+ * The summary of each completed item reports how long it ran and how long it
+ * waited in the queue.
+ */
+final class JobStageExecutor implements AutoCloseable
+{
+    /**
+     * How often the caller checks for cancellation while waiting for items.
+     */
+    private static final long CANCELLATION_POLL_MILLIS = 500;
+
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * @param threadNamePrefix prefix of the names of the worker threads
+     * @param parallelism maximum number of items processed in parallel
+     */
+    JobStageExecutor( String threadNamePrefix, int parallelism )
+    {
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor( parallelism, parallelism, 0L, MILLISECONDS,
+            new LinkedBlockingQueue<>(), runnable -> {
+                Thread thread = new Thread( runnable, threadNamePrefix + "-worker-" + threadCount.incrementAndGet() );
+                thread.setDaemon( true );
+                return thread;
+            } );
+    }
+
+    /**
+     * Runs all items and waits for them to complete or be cancelled.
+     *
+     * @return true if all items were processed successful, otherwise false
+     * @throws InterruptedException when the caller is interrupted while
+     *         waiting
+     */
+    <T> boolean run( JobProgress progress, Collection<T> items, Function<T, String> description,
+        Consumer<T> work )
+        throws InterruptedException
+    {
+        List<Future<Boolean>> futures = new ArrayList<>( items.size() );
+        for ( T item : items )
+        {
+            long queuedTime = System.nanoTime();
+            futures.add( executor.submit( () -> runItem( progress, item, description, work, queuedTime ) ) );
+        }
+        boolean allSuccessful = true;
+        for ( Future<Boolean> future : futures )
+        {
+            allSuccessful &= await( progress, future, futures );
+        }
+        return allSuccessful;
+    }
+
+    private static <T> boolean runItem( JobProgress progress, T item, Function<T, String> description,
+        Consumer<T> work, long queuedTime )
+    {
+        if ( progress.isCancellationRequested() )
+        {
+            return false;
+        }
+        long startedTime = System.nanoTime();
+        progress.startingWorkItem( description.apply( item ) );
+        try
+        {
+            work.accept( item );
+            long completedTime = System.nanoTime();
+            progress.completedWorkItem( format( "%d ms (queued %d ms)",
+                NANOSECONDS.toMillis( completedTime - startedTime ),
+                NANOSECONDS.toMillis( startedTime - queuedTime ) ) );
+            return true;
+        }
+        catch ( Exception ex )
+        {
+            progress.failedWorkItem( ex );
+            return false;
+        }
+    }
+
+    private static boolean await( JobProgress progress, Future<Boolean> future, List<Future<Boolean>> futures )
+        throws InterruptedException
+    {
+        while ( true )
+        {
+            if ( progress.isCancellationRequested() )
+            {
+                // running items are not interrupted, only queued are dropped
+                futures.forEach( f -> f.cancel( false ) );
+            }
+            try
+            {
+                return future.get( CANCELLATION_POLL_MILLIS, MILLISECONDS );
+            }
+            catch ( TimeoutException ex )
+            {
+                // check for cancellation and wait again
+            }
+            catch ( CancellationException | ExecutionException ex )
+            {
+                return false;
+            }
+        }
+    }
+
+    @Override
+    public void close()
+    {
+        executor.shutdownNow();
+    }
+}
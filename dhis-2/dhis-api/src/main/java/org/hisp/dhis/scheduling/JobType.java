@@ -79,6 +79,8 @@ public enum JobType
     PROGRAM_NOTIFICATIONS( true ),
     VALIDATION_RESULTS_NOTIFICATION( false ),
     CREDENTIALS_EXPIRY_ALERT( false ),
+    OUTLIER_DETECTION_STATISTICS( true ),
+    DATA_APPROVAL_STATE_CHECK( true ),
     MONITORING( true, SchedulingType.CRON, MonitoringJobParameters.class, Map.of(
         "relativePeriods", "/api/periodTypes/relativePeriodTypes",
         "validationRuleGroups", "/api/validationRuleGroups" ) ),
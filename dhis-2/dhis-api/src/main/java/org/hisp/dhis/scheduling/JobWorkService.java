@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.scheduling;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Runs the work items of a job stage on all instances of a cluster.
+ * <p>
+ * The items are published to a queue shared by the instances. Idle instances
+ * claim items, execute them with the {@link JobWorkHandler} of the work type
+ * and report back. Failed items are retried. The publishing instance works on
+ * the items too, and reports the progress of all items to its
+ * {@link JobProgress}.
+ */
+public interface JobWorkService
+{
+    /**
+     * Runs the items of a stage which has been started with
+     * {@link JobProgress#startingStage(String, int)}. If work distribution is
+     * not enabled the items are run locally using
+     * {@link JobProgress#runStageInParallel(int, java.util.Collection, Function, java.util.function.Consumer)}.
+     * <p>
+     * This method is synchronous for the caller and will first return when all
+     * items are done.
+     *
+     * @param progress the progress of the job
+     * @param workType the work type of a {@link JobWorkHandler}
+     * @param parallelism number of items to process in parallel when running
+     *        locally
+     * @param items the work items
+     * @param description function to extract a description for a work item
+     * @return true if all items were processed successful, otherwise false
+     * @throws IllegalArgumentException if there is no handler for the work
+     *         type
+     */
+    boolean runStageDistributed( JobProgress progress, String workType, int parallelism, List<String> items,
+        Function<String, String> description );
+}
@@ -58,6 +58,10 @@ public class AnalyticsJobParameters
 
     private boolean skipResourceTables = false;
 
+    private int warmUpDashboards = 0;
+
+    private int warmUpTimeLimit = 600;
+
     public AnalyticsJobParameters()
     {
     }
@@ -121,6 +125,39 @@ public class AnalyticsJobParameters
         this.skipResourceTables = skipResourceTables;
     }
 
+    /**
+     * @return the number of most viewed dashboards whose analytics queries are
+     *         run after the update to warm up the analytics cache, 0 to skip.
+     *         In a cluster only the cache of the node running the job is
+     *         warmed up.
+     */
+    @JsonProperty
+    @JacksonXmlProperty( namespace = DxfNamespaces.DXF_2_0 )
+    public int getWarmUpDashboards()
+    {
+        return warmUpDashboards;
+    }
+
+    public void setWarmUpDashboards( int warmUpDashboards )
+    {
+        this.warmUpDashboards = warmUpDashboards;
+    }
+
+    /**
+     * @return the time limit in seconds for warming up the analytics cache.
+     */
+    @JsonProperty
+    @JacksonXmlProperty( namespace = DxfNamespaces.DXF_2_0 )
+    public int getWarmUpTimeLimit()
+    {
+        return warmUpTimeLimit;
+    }
+
+    public void setWarmUpTimeLimit( int warmUpTimeLimit )
+    {
+        this.warmUpTimeLimit = warmUpTimeLimit;
+    }
+
     @Override
     public Optional<ErrorReport> validate()
     {
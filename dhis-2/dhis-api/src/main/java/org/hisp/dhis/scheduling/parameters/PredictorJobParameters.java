@@ -57,6 +57,12 @@ public class PredictorJobParameters
 
     private List<String> predictorGroups = new ArrayList<>();
 
+    /**
+     * Number of threads to predict with. Predictors run one at a time on a
+     * single thread unless this is greater than one.
+     */
+    private int parallelism = 1;
+
     public PredictorJobParameters()
     {
     }
@@ -120,6 +126,18 @@ public class PredictorJobParameters
         this.predictorGroups = predictorGroups;
     }
 
+    @JsonProperty
+    @JacksonXmlProperty( namespace = DxfNamespaces.DXF_2_0 )
+    public int getParallelism()
+    {
+        return parallelism;
+    }
+
+    public void setParallelism( int parallelism )
+    {
+        this.parallelism = parallelism;
+    }
+
     @Override
     public Optional<ErrorReport> validate()
     {
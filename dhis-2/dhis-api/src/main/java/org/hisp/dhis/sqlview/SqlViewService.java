@@ -32,6 +32,7 @@ import java.util.Map;
 import java.util.regex.Pattern;
 
 import org.hisp.dhis.common.Grid;
+import org.hisp.dhis.common.GridRowWriter;
 import org.hisp.dhis.common.IllegalQueryException;
 
 /**
@@ -100,6 +101,31 @@ public interface SqlViewService
     Grid getSqlViewGrid( SqlView sqlView, Map<String, String> criteria, Map<String, String> variables,
         List<String> filters, List<String> fields );
 
+    /**
+     * Streams the SQL view row by row to the given writer. Checks if the SQL
+     * query is valid. Rows are fetched from the database through a cursor in
+     * batches of {@link SqlViewStreamParams#getFetchSize()} and are never
+     * collected in a {@link Grid}, which makes this suitable for large data
+     * extracts.
+     *
+     * @param sqlView the SQL view to render.
+     * @param criteria the criteria on the format key:value, will be applied as
+     *        criteria on the SQL result set.
+     * @param variables the variables on the format key:value, will be
+     *        substituted with variables inside the SQL view.
+     * @param filters the filters.
+     * @param fields the fields.
+     * @param params the {@link SqlViewStreamParams}.
+     * @param writer the {@link GridRowWriter}.
+     * @return the number of rows written.
+     * @throws {@link IllegalQueryException} if the SQL query is invalid.
+     * @throws {@link org.hisp.dhis.common.QueryRuntimeException} if the
+     *         timeout elapsed or streaming was cancelled, in which case only
+     *         part of the rows were written.
+     */
+    long streamSqlView( SqlView sqlView, Map<String, String> criteria, Map<String, String> variables,
+        List<String> filters, List<String> fields, SqlViewStreamParams params, GridRowWriter writer );
+
     /**
      * Validates the given SQL view. Checks include:
      *
@@ -28,6 +28,7 @@
 package org.hisp.dhis.sqlview;
 
 import org.hisp.dhis.common.Grid;
+import org.hisp.dhis.common.GridRowWriter;
 import org.hisp.dhis.common.IdentifiableObjectStore;
 
 /**
@@ -46,6 +47,21 @@ public interface SqlViewStore
 
     void populateSqlViewGrid( Grid grid, String sql );
 
+    /**
+     * Executes the given SQL through a forward-only cursor and writes each row
+     * to the given writer as it is fetched, so that the result set is never
+     * held in memory.
+     *
+     * @param sql the SQL string.
+     * @param params the {@link SqlViewStreamParams}.
+     * @param writer the {@link GridRowWriter} to write headers and rows to.
+     * @return the number of rows written.
+     * @throws org.hisp.dhis.common.QueryRuntimeException if the timeout
+     *         elapsed or streaming was cancelled after part of the rows were
+     *         written.
+     */
+    long streamSqlView( String sql, SqlViewStreamParams params, GridRowWriter writer );
+
     /**
      * Tests the given SQL for validity.
      *
@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.sqlview;
+
+import java.util.function.BooleanSupplier;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Parameters for streaming the result of a {@link SqlView} through a
+ * forward-only database cursor.
+ */
+@ToString
+@Getter
+@Builder( toBuilder = true )
+@AllArgsConstructor( access = AccessLevel.PRIVATE )
+public final class SqlViewStreamParams
+{
+    public static final int DEFAULT_FETCH_SIZE = 1000;
+
+    /**
+     * Number of rows to fetch from the database per round trip.
+     */
+    @Builder.Default
+    private final int fetchSize = DEFAULT_FETCH_SIZE;
+
+    /**
+     * Max number of rows to stream, 0 means no limit.
+     */
+    private final int maxRows;
+
+    /**
+     * Timeout in seconds for the whole stream, 0 means no timeout.
+     */
+    private final int timeoutSeconds;
+
+    /**
+     * Polled between fetches, when returning true the query is cancelled, the
+     * cursor closed and streaming fails.
+     */
+    @ToString.Exclude
+    @Builder.Default
+    private final BooleanSupplier cancellationRequested = () -> false;
+
+    public boolean hasMaxRows()
+    {
+        return maxRows > 0;
+    }
+
+    public boolean hasTimeout()
+    {
+        return timeoutSeconds > 0;
+    }
+}
@@ -37,6 +37,7 @@ import org.hisp.dhis.dataelement.DataElementOperand;
 import org.hisp.dhis.dataset.DataSet;
 import org.hisp.dhis.organisationunit.OrganisationUnit;
 import org.hisp.dhis.period.Period;
+import org.hisp.dhis.scheduling.JobProgress;
 
 /**
  * @author Jim Grace
@@ -56,6 +57,19 @@ public interface ValidationService
      */
     List<ValidationResult> validationAnalysis( ValidationAnalysisParams parameters );
 
+    /**
+     * Start a validation analysis, based on the supplied parameters, using a
+     * work-stealing pool which splits the organisation units by subtree. If
+     * results are persisted, they are saved in batches as they are found and
+     * are only returned if notifications are sent for them. Progress is
+     * reported to the given {@link JobProgress}.
+     *
+     * @param parameters the parameters to base the analysis on.
+     * @param progress the job progress to report to.
+     * @return a collection of ValidationResults found.
+     */
+    List<ValidationResult> validationAnalysis( ValidationAnalysisParams parameters, JobProgress progress );
+
     /**
      * Get validation rule expression details for a validation run.
      *
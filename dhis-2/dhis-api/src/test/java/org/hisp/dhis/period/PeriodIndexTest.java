@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.period;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.Date;
+
+import org.hisp.dhis.calendar.Calendar;
+import org.hisp.dhis.calendar.DateTimeUnit;
+import org.hisp.dhis.calendar.impl.EthiopianCalendar;
+import org.hisp.dhis.calendar.impl.Iso8601Calendar;
+import org.hisp.dhis.calendar.impl.NepaliCalendar;
+import org.joda.time.LocalDate;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class PeriodIndexTest
+{
+    @AfterEach
+    void tearDown()
+    {
+        PeriodType.invalidatePeriodCache();
+    }
+
+    @Test
+    void testGetByDateMatchesCalendar()
+    {
+        assertIndexMatchesCalendar( Iso8601Calendar.getInstance() );
+    }
+
+    @Test
+    void testGetByDateMatchesEthiopianCalendar()
+    {
+        assertIndexMatchesCalendar( EthiopianCalendar.getInstance() );
+    }
+
+    @Test
+    void testGetByDateMatchesNepaliCalendar()
+    {
+        assertIndexMatchesCalendar( NepaliCalendar.getInstance() );
+    }
+
+    @Test
+    void testGetByIsoPeriod()
+    {
+        Calendar calendar = Iso8601Calendar.getInstance();
+
+        for ( PeriodType periodType : PeriodType.PERIOD_TYPES )
+        {
+            PeriodIndex index = PeriodIndex.of( periodType, calendar );
+            Period period = periodType.createPeriod( new LocalDate( 2021, 6, 15 ).toDate(), calendar );
+
+            assertSame( period, index.get( period.getIsoDate() ), periodType.getName() );
+        }
+    }
+
+    @Test
+    void testGetOutsideRange()
+    {
+        PeriodIndex index = PeriodIndex.of( new MonthlyPeriodType(), Iso8601Calendar.getInstance() );
+
+        assertNull( index.get( new LocalDate( PeriodIndex.FIRST_YEAR - 1, 12, 31 ).toDate() ) );
+        assertNull( index.get( new LocalDate( 2200, 1, 1 ).toDate() ) );
+        assertNull( index.get( "219901" ) );
+        assertNotNull( index.get( new LocalDate( PeriodIndex.FIRST_YEAR, 1, 1 ).toDate() ) );
+    }
+
+    @Test
+    void testCreatePeriodOutsideRange()
+    {
+        Period period = new MonthlyPeriodType().createPeriod( new LocalDate( 1950, 3, 10 ).toDate(),
+            Iso8601Calendar.getInstance() );
+
+        assertEquals( "195003", period.getIsoDate() );
+    }
+
+    @Test
+    void testGetPeriodFromIsoStringReturnsNewInstance()
+    {
+        Period periodA = PeriodType.getPeriodFromIsoString( "202103" );
+        Period periodB = PeriodType.getPeriodFromIsoString( "202103" );
+
+        assertEquals( periodA, periodB );
+        assertNotSame( periodA, periodB );
+        assertEquals( new LocalDate( 2021, 3, 1 ).toDate(), periodA.getStartDate() );
+        assertEquals( new LocalDate( 2021, 3, 31 ).toDate(), periodA.getEndDate() );
+    }
+
+    private void assertIndexMatchesCalendar( Calendar calendar )
+    {
+        LocalDate last = new LocalDate( 2025, 12, 31 );
+
+        for ( PeriodType periodType : PeriodType.PERIOD_TYPES )
+        {
+            PeriodIndex index = PeriodIndex.of( periodType, calendar );
+
+            for ( LocalDate date = new LocalDate( 2015, 1, 1 ); !date.isAfter( last ); date = date.plusDays( 1 ) )
+            {
+                Date jdkDate = date.toDate();
+                Period expected = periodType.createPeriod( calendar.fromIso( DateTimeUnit.fromJdkDate( jdkDate ) ),
+                    calendar );
+
+                assertEquals( expected, index.get( jdkDate ), periodType.getName() + " " + date );
+                assertEquals( expected.getIsoDate(), index.get( jdkDate ).getIsoDate() );
+            }
+        }
+    }
+}
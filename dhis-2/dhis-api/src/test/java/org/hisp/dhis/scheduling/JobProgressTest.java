@@ -38,6 +38,7 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.matches;
 import static org.mockito.Mockito.atLeast;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
@@ -54,6 +55,7 @@ import java.util.Map;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 import java.util.stream.IntStream;
@@ -68,6 +70,7 @@ import org.junit.jupiter.api.Test;
  */
 class JobProgressTest
 {
+    private static final String ITEM_TIMING = "\\d+ ms \\(queued \\d+ ms\\)";
 
     @Test
     void testRunStage_Stream()
@@ -226,6 +229,36 @@ class JobProgressTest
         runStageInParallel_Success( max( 2, Runtime.getRuntime().availableProcessors() / 2 ) );
     }
 
+    @Test
+    void testRunStageInParallel_NamedWorkers()
+    {
+        List<String> threadNames = new CopyOnWriteArrayList<>();
+        JobProgress progress = newMockJobProgress();
+        assertTrue( progress.runStageInParallel( 2, asList( 1, 2, 3, 4 ), String::valueOf,
+            value -> threadNames.add( Thread.currentThread().getName() ) ) );
+        String prefix = Thread.currentThread().getName() + "-worker-";
+        assertEquals( 4, threadNames.size() );
+        assertTrue( threadNames.stream().allMatch( name -> name.startsWith( prefix ) ), threadNames::toString );
+        assertTrue( new HashSet<>( threadNames ).size() <= 2, "too many workers" );
+    }
+
+    @Test
+    void testRunStageInParallel_Cancelled()
+    {
+        AtomicBoolean cancelled = new AtomicBoolean();
+        List<Integer> worked = new CopyOnWriteArrayList<>();
+        JobProgress progress = newMockJobProgress();
+        when( progress.isCancellationRequested() ).thenAnswer( invocation -> cancelled.get() );
+        List<Integer> items = IntStream.range( 0, 20 ).boxed().collect( toList() );
+        assertFalse( progress.runStageInParallel( 2, items, String::valueOf, value -> {
+            worked.add( value );
+            cancelled.set( true );
+        } ) );
+        assertTrue( worked.size() < items.size(), "queued items were not skipped" );
+        verify( progress ).failedStage( any( CancellationException.class ) );
+        verify( progress, never() ).completedStage( any() );
+    }
+
     private static void runStageInParallel_Success( int parallelism )
     {
         AtomicInteger enterCount = new AtomicInteger();
@@ -252,7 +285,7 @@ class JobProgressTest
         assertEquals( itemCount, exitCount.get() );
         assertTrue( maxConcurrentCount.get() <= parallelism, "too much parallel work" );
         verify( progress, times( itemCount ) ).startingWorkItem( anyString() );
-        verify( progress, times( itemCount ) ).completedWorkItem( null );
+        verify( progress, times( itemCount ) ).completedWorkItem( matches( ITEM_TIMING ) );
         verify( progress ).completedStage( null );
         verify( progress, never() ).failedWorkItem( anyString() );
         verify( progress, never() ).failedWorkItem( any( Exception.class ) );
@@ -292,7 +325,7 @@ class JobProgressTest
         assertEquals( itemCount, exitCount.get() );
         assertTrue( maxConcurrentCount.get() <= parallelism, "too much parallel work" );
         verify( progress, times( itemCount ) ).startingWorkItem( anyString() );
-        verify( progress, times( successCount ) ).completedWorkItem( null );
+        verify( progress, times( successCount ) ).completedWorkItem( matches( ITEM_TIMING ) );
         verify( progress ).completedStage( null );
         verify( progress, never() ).failedWorkItem( anyString() );
         verify( progress, times( errorCount ) ).failedWorkItem( any( Exception.class ) );
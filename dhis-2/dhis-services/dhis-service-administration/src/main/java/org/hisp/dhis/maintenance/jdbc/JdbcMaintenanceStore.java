@@ -85,19 +85,37 @@ public class JdbcMaintenanceStore
     @Override
     public int deleteZeroDataValues()
     {
-        String sql = "delete from datavalue dv " + "where dv.dataelementid in ( " + "select de.dataelementid "
+        String zeroValues = "from datavalue dv " + "where dv.dataelementid in ( " + "select de.dataelementid "
             + "from dataelement de " + "where de.aggregationtype = 'SUM' " + "and de.zeroissignificant is false ) "
-            + "and dv.value = '0';";
+            + "and dv.value = '0'";
 
-        return jdbcTemplate.update( sql );
+        // Statistics of affected combinations are recomputed on next refresh
+
+        String statisticsSql = "delete from datavaluestatistics s "
+            + "where (s.dataelementid, s.sourceid, s.categoryoptioncomboid, s.attributeoptioncomboid) in ( "
+            + "select dv.dataelementid, dv.sourceid, dv.categoryoptioncomboid, dv.attributeoptioncomboid "
+            + zeroValues + " );";
+
+        jdbcTemplate.update( statisticsSql );
+
+        return jdbcTemplate.update( "delete " + zeroValues + ";" );
     }
 
     @Override
     public int deleteSoftDeletedDataValues()
     {
-        String sql = "delete from datavalue dv " + "where dv.deleted is true;";
+        String deletedValues = "from datavalue dv " + "where dv.deleted is true";
+
+        // Statistics of affected combinations are recomputed on next refresh
+
+        String statisticsSql = "delete from datavaluestatistics s "
+            + "where (s.dataelementid, s.sourceid, s.categoryoptioncomboid, s.attributeoptioncomboid) in ( "
+            + "select dv.dataelementid, dv.sourceid, dv.categoryoptioncomboid, dv.attributeoptioncomboid "
+            + deletedValues + " );";
+
+        jdbcTemplate.update( statisticsSql );
 
-        return jdbcTemplate.update( sql );
+        return jdbcTemplate.update( "delete " + deletedValues + ";" );
     }
 
     @Override
@@ -89,6 +89,16 @@ public class DataOrgUnitMergeHandler
             .addValue( "target_id", request.getTarget().getId() );
 
         jdbcTemplate.update( sql, params );
+        jdbcTemplate.update( getMergeDataValueStatisticsSql(), params );
+    }
+
+    /**
+     * Removes the outlier detection statistics of the source and target org
+     * units, which are recomputed from the merged data values on next refresh.
+     */
+    private String getMergeDataValueStatisticsSql()
+    {
+        return "delete from datavaluestatistics where sourceid in (:source_ids) or sourceid = :target_id;";
     }
 
     private String getMergeDataValuesDiscardSql()
@@ -29,6 +29,8 @@ package org.hisp.dhis.resourcetable.jdbc;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
 
@@ -42,9 +44,16 @@ import org.hisp.dhis.jdbc.StatementBuilder;
 import org.hisp.dhis.resourcetable.ResourceTable;
 import org.hisp.dhis.resourcetable.ResourceTableStore;
 import org.hisp.dhis.system.util.Clock;
+import org.hisp.dhis.util.DateUtils;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 
+import com.google.common.hash.Hashing;
+
 /**
  * @author Lars Helge Overland
  */
@@ -53,6 +62,11 @@ import org.springframework.stereotype.Service;
 public class JdbcResourceTableStore
     implements ResourceTableStore
 {
+    /**
+     * Number of rows written per round trip when populating tables with COPY.
+     */
+    private static final int COPY_CHUNK_SIZE = 10000;
+
     // -------------------------------------------------------------------------
     // Dependencies
     // -------------------------------------------------------------------------
@@ -90,10 +104,24 @@ public class JdbcResourceTableStore
 
         final Clock clock = new Clock().startClock();
         final String createTableSql = resourceTable.getCreateTempTableStatement();
+        final String analyzeTableSql = statementBuilder.getAnalyze( resourceTable.getTableName() );
+
+        // ---------------------------------------------------------------------
+        // Skip if source data is unchanged since last generation
+        // ---------------------------------------------------------------------
+
+        final String checksum = getChecksum( resourceTable, createTableSql );
+
+        if ( checksum != null && checksum.equals( getRecordedChecksum( resourceTable ) ) )
+        {
+            log.info( String.format( "Resource table '%s' is up to date, skipping", resourceTable.getTableName() ) );
+
+            return;
+        }
+
         final Optional<String> populateTableSql = resourceTable.getPopulateTempTableStatement();
         final Optional<List<Object[]>> populateTableContent = resourceTable.getPopulateTempTableContent();
         final List<String> createIndexSql = resourceTable.getCreateIndexStatements();
-        final String analyzeTableSql = statementBuilder.getAnalyze( resourceTable.getTableName() );
 
         // ---------------------------------------------------------------------
         // Drop temporary table if it exists
@@ -132,7 +160,10 @@ public class JdbcResourceTableStore
             {
                 int columns = content.get( 0 ).length;
 
-                batchUpdate( columns, resourceTable.getTempTableName(), content );
+                if ( !copyIn( resourceTable.getTempTableName(), content ) )
+                {
+                    batchUpdate( columns, resourceTable.getTempTableName(), content );
+                }
             }
         }
 
@@ -162,6 +193,15 @@ public class JdbcResourceTableStore
             jdbcTemplate.execute( sql );
         }
 
+        // ---------------------------------------------------------------------
+        // Record checksum, travels with the table through the swap
+        // ---------------------------------------------------------------------
+
+        if ( checksum != null )
+        {
+            jdbcTemplate.execute( "comment on table " + resourceTable.getTempTableName() + " is '" + checksum + "'" );
+        }
+
         // ---------------------------------------------------------------------
         // Swap tables
         // ---------------------------------------------------------------------
@@ -211,4 +251,142 @@ public class JdbcResourceTableStore
 
         jdbcTemplate.batchUpdate( builder.toString(), batchArgs );
     }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    /**
+     * Returns the checksum of the source data of the given resource table
+     * combined with the given create table statement, so that changes to the
+     * table structure are detected as well. Returns null if the resource table
+     * does not support change detection or the checksum could not be computed.
+     */
+    private String getChecksum( ResourceTable<?> resourceTable, String createTableSql )
+    {
+        Optional<String> checksumSql = resourceTable.getSourceChecksumStatement();
+
+        if ( !checksumSql.isPresent() )
+        {
+            return null;
+        }
+
+        try
+        {
+            String sourceChecksum = jdbcTemplate.queryForObject( checksumSql.get(), String.class );
+
+            return sourceChecksum != null ? Hashing.sha256()
+                .hashString( createTableSql + sourceChecksum, StandardCharsets.UTF_8 ).toString() : null;
+        }
+        catch ( DataAccessException ex )
+        {
+            log.warn( String.format( "Could not compute checksum for resource table: '%s'",
+                resourceTable.getTableName() ), ex );
+
+            return null;
+        }
+    }
+
+    /**
+     * Returns the checksum recorded as comment on the current resource table,
+     * or null if the table does not exist or has no checksum.
+     */
+    private String getRecordedChecksum( ResourceTable<?> resourceTable )
+    {
+        if ( !dbmsManager.tableExists( resourceTable.getTableName() ) )
+        {
+            return null;
+        }
+
+        try
+        {
+            return jdbcTemplate.queryForObject( "select obj_description('" + resourceTable.getTableName()
+                + "'::regclass, 'pg_class')", String.class );
+        }
+        catch ( DataAccessException ex )
+        {
+            log.debug( String.format( "Could not read checksum for resource table: '%s'",
+                resourceTable.getTableName() ), ex );
+
+            return null;
+        }
+    }
+
+    /**
+     * Populates the given table with the given content using the PostgreSQL
+     * COPY protocol, which is considerably faster than batched inserts for
+     * large tables.
+     *
+     * @return true if the content was copied, false if COPY is not supported
+     *         by the database.
+     */
+    private boolean copyIn( String tableName, List<Object[]> content )
+    {
+        Boolean copied = jdbcTemplate.execute( (ConnectionCallback<Boolean>) connection -> {
+            if ( !connection.isWrapperFor( PGConnection.class ) )
+            {
+                return false;
+            }
+
+            CopyIn copyIn = connection.unwrap( PGConnection.class ).getCopyAPI()
+                .copyIn( "copy " + tableName + " from stdin with (format csv)" );
+
+            try
+            {
+                for ( int i = 0; i < content.size(); i += COPY_CHUNK_SIZE )
+                {
+                    byte[] chunk = toCsv( content.subList( i, Math.min( i + COPY_CHUNK_SIZE, content.size() ) ) );
+
+                    copyIn.writeToCopy( chunk, 0, chunk.length );
+                }
+
+                copyIn.endCopy();
+            }
+            finally
+            {
+                if ( copyIn.isActive() )
+                {
+                    copyIn.cancelCopy();
+                }
+            }
+
+            return true;
+        } );
+
+        return Boolean.TRUE.equals( copied );
+    }
+
+    /**
+     * Writes the given rows as CSV. Null values are written as unquoted empty
+     * values which COPY interprets as null, while other values are quoted.
+     */
+    private byte[] toCsv( List<Object[]> rows )
+    {
+        StringBuilder csv = new StringBuilder();
+
+        for ( Object[] row : rows )
+        {
+            for ( int i = 0; i < row.length; i++ )
+            {
+                if ( i > 0 )
+                {
+                    csv.append( ',' );
+                }
+
+                Object value = row[i];
+
+                if ( value != null )
+                {
+                    String text = value instanceof Date ? DateUtils.getLongDateString( (Date) value )
+                        : String.valueOf( value );
+
+                    csv.append( '"' ).append( text.replace( "\"", "\"\"" ) ).append( '"' );
+                }
+            }
+
+            csv.append( '\n' );
+        }
+
+        return csv.toString().getBytes( StandardCharsets.UTF_8 );
+    }
 }
@@ -105,6 +105,19 @@ public class CategoryOptionComboNameResourceTable
         return Optional.of( batchArgs );
     }
 
+    @Override
+    public Optional<String> getSourceChecksumStatement()
+    {
+        return Optional.of( getChecksumStatement(
+            getChecksumOf( "categorycombo", "categorycomboid, name" ),
+            getChecksumOf( "categoryoptioncombo", "categoryoptioncomboid, name, ignoreapproval" ),
+            getChecksumOf( "dataelementcategoryoption", "categoryoptionid, startdate, enddate" ),
+            getChecksumOf( "categorycombos_categories" ),
+            getChecksumOf( "categorycombos_optioncombos" ),
+            getChecksumOf( "categories_categoryoptions" ),
+            getChecksumOf( "categoryoptioncombos_categoryoptions" ) ) );
+    }
+
     @Override
     public List<String> getCreateIndexStatements()
     {
@@ -111,6 +111,17 @@ public class DataElementGroupSetResourceTable
         return Optional.empty();
     }
 
+    @Override
+    public Optional<String> getSourceChecksumStatement()
+    {
+        return Optional.of( getChecksumStatement(
+            getChecksumOf( "dataelement", "dataelementid, name" ),
+            getChecksumOf( "dataelementgroup", "dataelementgroupid, uid, name" ),
+            getChecksumOf( "dataelementgroupset", "dataelementgroupsetid, uid, name" ),
+            getChecksumOf( "dataelementgroupmembers" ),
+            getChecksumOf( "dataelementgroupsetmembers" ) ) );
+    }
+
     @Override
     public List<String> getCreateIndexStatements()
     {
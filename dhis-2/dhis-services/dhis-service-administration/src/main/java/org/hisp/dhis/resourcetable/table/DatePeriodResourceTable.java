@@ -122,6 +122,15 @@ public class DatePeriodResourceTable
         return Optional.of( batchArgs );
     }
 
+    @Override
+    public Optional<String> getSourceChecksumStatement()
+    {
+        return Optional.of( getChecksumStatement(
+            "'" + PeriodType.getCalendar().name() + "'",
+            "'" + OLDEST_YEAR_PERIOD_SUPPORTED + "'",
+            "'" + NEWEST_YEAR_PERIOD_SUPPORTED + "'" ) );
+    }
+
     @Override
     public List<String> getCreateIndexStatements()
     {
@@ -111,6 +111,17 @@ public class IndicatorGroupSetResourceTable
         return Optional.empty();
     }
 
+    @Override
+    public Optional<String> getSourceChecksumStatement()
+    {
+        return Optional.of( getChecksumStatement(
+            getChecksumOf( "indicator", "indicatorid, name" ),
+            getChecksumOf( "indicatorgroup", "indicatorgroupid, uid, name" ),
+            getChecksumOf( "indicatorgroupset", "indicatorgroupsetid, uid, name" ),
+            getChecksumOf( "indicatorgroupmembers" ),
+            getChecksumOf( "indicatorgroupsetmembers" ) ) );
+    }
+
     @Override
     public List<String> getCreateIndexStatements()
     {
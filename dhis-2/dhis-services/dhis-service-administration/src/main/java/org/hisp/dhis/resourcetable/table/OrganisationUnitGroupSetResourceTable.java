@@ -164,6 +164,17 @@ public class OrganisationUnitGroupSetResourceTable
         return Optional.empty();
     }
 
+    @Override
+    public Optional<String> getSourceChecksumStatement()
+    {
+        return Optional.of( getChecksumStatement(
+            getChecksumOf( "organisationunit", "organisationunitid, name, path" ),
+            getChecksumOf( "orgunitgroup", "orgunitgroupid, uid, name" ),
+            getChecksumOf( "orgunitgroupset", "orgunitgroupsetid, uid, name, includesubhierarchyinanalytics" ),
+            getChecksumOf( "orgunitgroupmembers" ),
+            getChecksumOf( "orgunitgroupsetmembers" ) ) );
+    }
+
     @Override
     public List<String> getCreateIndexStatements()
     {
@@ -137,6 +137,13 @@ public class OrganisationUnitStructureResourceTable
         return Optional.of( batchArgs );
     }
 
+    @Override
+    public Optional<String> getSourceChecksumStatement()
+    {
+        return Optional.of( getChecksumStatement(
+            getChecksumOf( "organisationunit", "organisationunitid, uid, name, path" ) ) );
+    }
+
     @Override
     public List<String> getCreateIndexStatements()
     {
@@ -134,6 +134,14 @@ public class PeriodResourceTable
         return Optional.of( batchArgs );
     }
 
+    @Override
+    public Optional<String> getSourceChecksumStatement()
+    {
+        return Optional.of( getChecksumStatement(
+            "'" + PeriodType.getCalendar().name() + "'",
+            getChecksumOf( "period", "periodid, periodtypeid, startdate, enddate" ) ) );
+    }
+
     @Override
     public List<String> getCreateIndexStatements()
     {
@@ -42,6 +42,7 @@ import lombok.extern.slf4j.Slf4j;
 
 import org.apache.commons.lang3.ObjectUtils;
 import org.hisp.dhis.common.Grid;
+import org.hisp.dhis.common.GridRowWriter;
 import org.hisp.dhis.common.IllegalQueryException;
 import org.hisp.dhis.commons.util.SqlHelper;
 import org.hisp.dhis.external.conf.ConfigurationKey;
@@ -188,6 +189,21 @@ public class DefaultSqlViewService
         return grid;
     }
 
+    @Override
+    public long streamSqlView( SqlView sqlView, Map<String, String> criteria, Map<String, String> variables,
+        List<String> filters, List<String> fields, SqlViewStreamParams params, GridRowWriter writer )
+    {
+        canAccess( sqlView );
+        validateSqlView( sqlView, criteria, variables );
+
+        log.info( String.format( "Streaming data for SQL view: '%s' with params: %s", sqlView.getUid(), params ) );
+
+        String sql = sqlView.isQuery() ? getSqlForQuery( sqlView, criteria, variables, filters, fields )
+            : getSqlForView( sqlView, criteria, filters, fields );
+
+        return sqlViewStore.streamSqlView( sql, params, writer );
+    }
+
     private void canAccess( SqlView sqlView )
     {
         User currentUser = currentUserService.getCurrentUser();
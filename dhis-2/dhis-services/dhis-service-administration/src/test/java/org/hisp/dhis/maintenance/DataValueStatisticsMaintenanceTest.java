@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.maintenance;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+
+import org.hisp.dhis.IntegrationTestBase;
+import org.hisp.dhis.analytics.AggregationType;
+import org.hisp.dhis.category.CategoryOptionCombo;
+import org.hisp.dhis.category.CategoryService;
+import org.hisp.dhis.common.IdentifiableObjectManager;
+import org.hisp.dhis.common.ValueType;
+import org.hisp.dhis.dataelement.DataElement;
+import org.hisp.dhis.datavalue.DataValue;
+import org.hisp.dhis.datavalue.DataValueService;
+import org.hisp.dhis.organisationunit.OrganisationUnit;
+import org.hisp.dhis.outlierdetection.service.DataValueStatisticsManager;
+import org.hisp.dhis.period.MonthlyPeriodType;
+import org.hisp.dhis.period.Period;
+import org.hisp.dhis.period.PeriodService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Tests that hard deletes of data values through the maintenance service keep
+ * the precomputed data value statistics correct.
+ */
+class DataValueStatisticsMaintenanceTest extends IntegrationTestBase
+{
+    private static final double DELTA = 0.01;
+
+    @Autowired
+    private IdentifiableObjectManager idObjectManager;
+
+    @Autowired
+    private PeriodService periodService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private DataValueService dataValueService;
+
+    @Autowired
+    private DataValueStatisticsManager statisticsManager;
+
+    @Autowired
+    private MaintenanceService maintenanceService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private DataElement deA;
+
+    private Period m01, m02, m03, m04, m05, m06;
+
+    private OrganisationUnit ouA;
+
+    private CategoryOptionCombo coc;
+
+    @Override
+    public void setUpTest()
+    {
+        MonthlyPeriodType pt = new MonthlyPeriodType();
+        m01 = pt.createPeriod( "202001" );
+        m02 = pt.createPeriod( "202002" );
+        m03 = pt.createPeriod( "202003" );
+        m04 = pt.createPeriod( "202004" );
+        m05 = pt.createPeriod( "202005" );
+        m06 = pt.createPeriod( "202006" );
+        List.of( m01, m02, m03, m04, m05, m06 ).forEach( periodService::addPeriod );
+        deA = createDataElement( 'A', ValueType.INTEGER, AggregationType.SUM );
+        deA.setZeroIsSignificant( true );
+        idObjectManager.save( deA );
+        ouA = createOrganisationUnit( 'A' );
+        idObjectManager.save( ouA );
+        coc = categoryService.getDefaultCategoryOptionCombo();
+    }
+
+    @Test
+    void testDeleteZeroDataValues()
+    {
+        addDataValues( "31", "34", "38", "39", "33", "0" );
+        refreshStatistics();
+        assertStatistics( 6L, 29.17 );
+        deA.setZeroIsSignificant( false );
+        idObjectManager.update( deA );
+        assertEquals( 1, maintenanceService.deleteZeroDataValues() );
+        refreshStatistics();
+        assertStatistics( 5L, 35d );
+    }
+
+    @Test
+    void testDeleteSoftDeletedDataValues()
+    {
+        addDataValues( "31", "34", "38", "39", "33", "81" );
+        refreshStatistics();
+        assertStatistics( 6L, 42.67 );
+        dataValueService.deleteDataValue( dataValueService.getDataValue( deA, m06, ouA, coc, coc ) );
+        assertEquals( 1, maintenanceService.deleteSoftDeletedDataValues() );
+        refreshStatistics();
+        assertStatistics( 5L, 35d );
+    }
+
+    /**
+     * Adds data values for consecutive periods and marks them as last updated
+     * before the refresh margin, so that a refresh only recomputes
+     * combinations without statistics.
+     */
+    private void addDataValues( String... values )
+    {
+        List<Period> periods = List.of( m01, m02, m03, m04, m05, m06 );
+        for ( int i = 0; i < values.length; i++ )
+        {
+            dataValueService.addDataValue( new DataValue( deA, periods.get( i ), ouA, coc, coc, values[i] ) );
+        }
+        jdbcTemplate.update( "update datavalue set lastupdated = now() - interval '1 day'" );
+    }
+
+    private void refreshStatistics()
+    {
+        statisticsManager.refreshStatistics( List.of( deA.getId() ) );
+    }
+
+    private void assertStatistics( long valueCount, double mean )
+    {
+        assertEquals( valueCount, jdbcTemplate.queryForObject(
+            "select valuecount from datavaluestatistics where sourceid = ?", Long.class, ouA.getId() ) );
+        assertEquals( mean, jdbcTemplate.queryForObject(
+            "select mean from datavaluestatistics where sourceid = ?", Double.class, ouA.getId() ), DELTA );
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.resourcetable.jdbc;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+
+import org.hisp.dhis.analytics.AnalyticsTableHookService;
+import org.hisp.dhis.dbms.DbmsManager;
+import org.hisp.dhis.jdbc.statementbuilder.PostgreSQLStatementBuilder;
+import org.hisp.dhis.resourcetable.ResourceTable;
+import org.hisp.dhis.resourcetable.ResourceTableType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.google.common.hash.Hashing;
+
+/**
+ * Tests that resource tables are skipped when their recorded checksum matches
+ * the source data, and rebuilt otherwise.
+ */
+@ExtendWith( MockitoExtension.class )
+class JdbcResourceTableStoreTest
+{
+    private static final String CREATE_SQL = "create table _orgunitstructure_temp (organisationunitid integer)";
+
+    private static final String CHECKSUM_SQL = "select md5('source')";
+
+    private static final String SOURCE_CHECKSUM = "a1b2c3";
+
+    @Mock
+    private AnalyticsTableHookService analyticsTableHookService;
+
+    @Mock
+    private DbmsManager dbmsManager;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private JdbcResourceTableStore store;
+
+    private final ResourceTable<?> table = new ChecksumResourceTable();
+
+    @BeforeEach
+    void setUp()
+    {
+        store = new JdbcResourceTableStore( analyticsTableHookService, dbmsManager,
+            new PostgreSQLStatementBuilder(), jdbcTemplate );
+    }
+
+    @Test
+    void testSkipWhenChecksumUnchanged()
+    {
+        when( jdbcTemplate.queryForObject( CHECKSUM_SQL, String.class ) ).thenReturn( SOURCE_CHECKSUM );
+        when( dbmsManager.tableExists( "_orgunitstructure" ) ).thenReturn( true );
+        when( jdbcTemplate.queryForObject( startsWith( "select obj_description" ), eq( String.class ) ) )
+            .thenReturn( getExpectedChecksum() );
+
+        store.generateResourceTable( table );
+
+        verify( jdbcTemplate, never() ).execute( anyString() );
+    }
+
+    @Test
+    void testRebuildWhenChecksumChanged()
+    {
+        when( jdbcTemplate.queryForObject( CHECKSUM_SQL, String.class ) ).thenReturn( SOURCE_CHECKSUM );
+        when( dbmsManager.tableExists( "_orgunitstructure" ) ).thenReturn( true );
+        when( jdbcTemplate.queryForObject( startsWith( "select obj_description" ), eq( String.class ) ) )
+            .thenReturn( "outdated" );
+
+        store.generateResourceTable( table );
+
+        verify( jdbcTemplate ).execute( CREATE_SQL );
+        verify( jdbcTemplate ).execute( "comment on table _orgunitstructure_temp is '" + getExpectedChecksum() + "'" );
+        verify( jdbcTemplate ).execute( table.getDropTableStatement() );
+        verify( jdbcTemplate ).execute( table.getRenameTempTableStatement() );
+    }
+
+    @Test
+    void testRebuildWhenTableMissing()
+    {
+        when( jdbcTemplate.queryForObject( CHECKSUM_SQL, String.class ) ).thenReturn( SOURCE_CHECKSUM );
+
+        store.generateResourceTable( table );
+
+        verify( jdbcTemplate ).execute( CREATE_SQL );
+        verify( jdbcTemplate ).execute( "comment on table _orgunitstructure_temp is '" + getExpectedChecksum() + "'" );
+        verify( jdbcTemplate, never() ).execute( table.getDropTableStatement() );
+        verify( jdbcTemplate ).execute( table.getRenameTempTableStatement() );
+    }
+
+    @Test
+    void testRebuildWhenChecksumUnavailable()
+    {
+        when( jdbcTemplate.queryForObject( CHECKSUM_SQL, String.class ) ).thenReturn( null );
+
+        store.generateResourceTable( table );
+
+        verify( jdbcTemplate ).execute( CREATE_SQL );
+        verify( jdbcTemplate, never() ).execute( startsWith( "comment on table" ) );
+        verify( jdbcTemplate ).execute( table.getRenameTempTableStatement() );
+    }
+
+    private String getExpectedChecksum()
+    {
+        return Hashing.sha256().hashString( CREATE_SQL + SOURCE_CHECKSUM, StandardCharsets.UTF_8 ).toString();
+    }
+
+    private static class ChecksumResourceTable
+        extends ResourceTable<Object>
+    {
+        @Override
+        public ResourceTableType getTableType()
+        {
+            return ResourceTableType.ORG_UNIT_STRUCTURE;
+        }
+
+        @Override
+        public String getCreateTempTableStatement()
+        {
+            return CREATE_SQL;
+        }
+
+        @Override
+        public Optional<String> getPopulateTempTableStatement()
+        {
+            return Optional.of( "insert into _orgunitstructure_temp values (1)" );
+        }
+
+        @Override
+        public Optional<List<Object[]>> getPopulateTempTableContent()
+        {
+            return Optional.empty();
+        }
+
+        @Override
+        public List<String> getCreateIndexStatements()
+        {
+            return List.of();
+        }
+
+        @Override
+        public Optional<String> getSourceChecksumStatement()
+        {
+            return Optional.of( CHECKSUM_SQL );
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.resourcetable.table;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the source checksum statements of resource tables which support
+ * change detection.
+ */
+class ResourceTableChecksumTest
+{
+    @Test
+    void testOrganisationUnitStructureChecksum()
+    {
+        String sql = new OrganisationUnitStructureResourceTable( null, null, 4 )
+            .getSourceChecksumStatement().get();
+
+        assertEquals( "select md5(concat_ws('|', (select count(*) || ':' || md5(coalesce(string_agg("
+            + "concat_ws(':', organisationunitid, uid, name, path), ',' order by organisationunitid, uid, name, path), "
+            + "'')) from organisationunit)))", sql );
+    }
+
+    @Test
+    void testGroupSetChecksumIncludesMembers()
+    {
+        String sql = new OrganisationUnitGroupSetResourceTable( List.of(), true, 4 )
+            .getSourceChecksumStatement().get();
+
+        assertTrue( sql.contains( "from orgunitgroupmembers t" ) );
+        assertTrue( sql.contains( "from orgunitgroupsetmembers t" ) );
+    }
+
+    @Test
+    void testNoChecksumByDefault()
+    {
+        assertFalse( new CategoryOptionComboResourceTable( null ).getSourceChecksumStatement().isPresent() );
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.sqlview;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.hisp.dhis.DhisSpringTest;
+import org.hisp.dhis.common.GridHeader;
+import org.hisp.dhis.common.GridRowWriter;
+import org.hisp.dhis.common.QueryRuntimeException;
+import org.hisp.dhis.dbms.DbmsManager;
+import org.hisp.dhis.feedback.ErrorCode;
+import org.hisp.dhis.organisationunit.OrganisationUnitService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Tests streaming of SQL views through {@link SqlViewStore}.
+ */
+class SqlViewStoreTest extends DhisSpringTest
+{
+    private static final String SQL = "select uid, name from organisationunit order by name";
+
+    @Autowired
+    private SqlViewStore sqlViewStore;
+
+    @Autowired
+    private OrganisationUnitService organisationUnitService;
+
+    @Autowired
+    private DbmsManager dbmsManager;
+
+    @Override
+    public void setUpTest()
+    {
+        organisationUnitService.addOrganisationUnit( createOrganisationUnit( 'A' ) );
+        organisationUnitService.addOrganisationUnit( createOrganisationUnit( 'B' ) );
+        organisationUnitService.addOrganisationUnit( createOrganisationUnit( 'C' ) );
+
+        dbmsManager.flushSession();
+    }
+
+    @Test
+    void testStreamSqlView()
+    {
+        RowCollector writer = new RowCollector();
+
+        long rows = sqlViewStore.streamSqlView( SQL, SqlViewStreamParams.builder().fetchSize( 2 ).build(),
+            writer );
+
+        assertEquals( 3, rows );
+        assertEquals( 2, writer.headers.size() );
+        assertEquals( 3, writer.rows.size() );
+        assertEquals( "OrganisationUnitA", writer.rows.get( 0 ).get( 1 ) );
+        assertEquals( "OrganisationUnitC", writer.rows.get( 2 ).get( 1 ) );
+    }
+
+    @Test
+    void testStreamSqlViewMaxRows()
+    {
+        RowCollector writer = new RowCollector();
+
+        long rows = sqlViewStore.streamSqlView( SQL, SqlViewStreamParams.builder().maxRows( 2 ).build(), writer );
+
+        assertEquals( 2, rows );
+        assertEquals( 2, writer.rows.size() );
+        assertEquals( "OrganisationUnitB", writer.rows.get( 1 ).get( 1 ) );
+    }
+
+    @Test
+    void testStreamSqlViewCancelled()
+    {
+        RowCollector writer = new RowCollector();
+
+        AtomicInteger polls = new AtomicInteger();
+
+        SqlViewStreamParams params = SqlViewStreamParams.builder()
+            .fetchSize( 1 )
+            .cancellationRequested( () -> polls.incrementAndGet() > 1 )
+            .build();
+
+        assertThrows( QueryRuntimeException.class, () -> sqlViewStore.streamSqlView( SQL, params, writer ) );
+
+        assertEquals( 2, writer.headers.size() );
+        assertEquals( 1, writer.rows.size() );
+    }
+
+    @Test
+    void testStreamSqlViewTimeout()
+    {
+        RowCollector writer = new RowCollector()
+        {
+            @Override
+            public void writeRow( List<Object> row )
+            {
+                super.writeRow( row );
+
+                sleep( 1100 );
+            }
+        };
+
+        SqlViewStreamParams params = SqlViewStreamParams.builder()
+            .fetchSize( 1 )
+            .timeoutSeconds( 1 )
+            .build();
+
+        QueryRuntimeException ex = assertThrows( QueryRuntimeException.class,
+            () -> sqlViewStore.streamSqlView( SQL, params, writer ) );
+
+        assertEquals( ErrorCode.E7131, ex.getErrorCode() );
+        assertEquals( 1, writer.rows.size() );
+    }
+
+    private static void sleep( long millis )
+    {
+        try
+        {
+            Thread.sleep( millis );
+        }
+        catch ( InterruptedException ex )
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class RowCollector
+        implements GridRowWriter
+    {
+        private final List<GridHeader> headers = new ArrayList<>();
+
+        private final List<List<Object>> rows = new ArrayList<>();
+
+        @Override
+        public void writeHeaders( List<GridHeader> headers )
+        {
+            this.headers.addAll( headers );
+        }
+
+        @Override
+        public void writeRow( List<Object> row )
+        {
+            rows.add( row );
+        }
+
+        @Override
+        public void close()
+        {
+        }
+    }
+}
@@ -70,6 +70,18 @@ public class AnalyticsTableUpdateParams
      */
     private Set<String> skipPrograms = new HashSet<>();
 
+    /**
+     * Number of most viewed dashboards to warm up the analytics cache for
+     * after the update, 0 to skip. Only the cache of the local node is warmed
+     * up.
+     */
+    private int warmUpDashboards;
+
+    /**
+     * Time limit in seconds for warming up the analytics cache.
+     */
+    private int warmUpTimeLimit;
+
     /**
      * Job ID.
      */
@@ -119,6 +131,16 @@ public class AnalyticsTableUpdateParams
         return skipPrograms;
     }
 
+    public int getWarmUpDashboards()
+    {
+        return warmUpDashboards;
+    }
+
+    public int getWarmUpTimeLimit()
+    {
+        return warmUpTimeLimit;
+    }
+
     public JobConfiguration getJobId()
     {
         return jobId;
@@ -169,6 +191,7 @@ public class AnalyticsTableUpdateParams
             .add( "skip resource tables", skipResourceTables )
             .add( "skip table types", skipTableTypes )
             .add( "skip programs", skipPrograms )
+            .add( "warm up dashboards", warmUpDashboards )
             .add( "start time", DateUtils.getLongDateString( startTime ) )
             .toString();
     }
@@ -212,6 +235,8 @@ public class AnalyticsTableUpdateParams
         params.skipResourceTables = this.skipResourceTables;
         params.skipTableTypes = new HashSet<>( this.skipTableTypes );
         params.skipPrograms = new HashSet<>( this.skipPrograms );
+        params.warmUpDashboards = this.warmUpDashboards;
+        params.warmUpTimeLimit = this.warmUpTimeLimit;
         params.jobId = this.jobId;
         params.startTime = this.startTime;
         params.lastSuccessfulUpdate = this.lastSuccessfulUpdate;
@@ -276,6 +301,13 @@ public class AnalyticsTableUpdateParams
             return this;
         }
 
+        public Builder withWarmUp( int warmUpDashboards, int warmUpTimeLimit )
+        {
+            this.params.warmUpDashboards = warmUpDashboards;
+            this.params.warmUpTimeLimit = warmUpTimeLimit;
+            return this;
+        }
+
         public Builder withJobId( JobConfiguration jobId )
         {
             this.params.jobId = jobId;
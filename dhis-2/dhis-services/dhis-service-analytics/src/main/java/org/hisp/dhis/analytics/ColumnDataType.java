@@ -43,7 +43,8 @@ public enum ColumnDataType
     DOUBLE( "double precision" ),
     BOOLEAN( "boolean" ),
     GEOMETRY( "geometry" ),
-    GEOMETRY_POINT( "geometry(Point, 4326)" );
+    GEOMETRY_POINT( "geometry(Point, 4326)" ),
+    HLL_HASHVAL( "hll_hashval" );
 
     String value;
 
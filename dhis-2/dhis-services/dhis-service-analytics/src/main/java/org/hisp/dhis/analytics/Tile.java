@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.analytics;
+
+import java.util.Locale;
+
+import lombok.Value;
+
+import org.hisp.dhis.common.IllegalQueryException;
+import org.hisp.dhis.feedback.ErrorCode;
+import org.hisp.dhis.feedback.ErrorMessage;
+
+/**
+ * Coordinates of a map tile in the web mercator (EPSG:3857) tiling scheme,
+ * with the origin in the top left corner.
+ */
+@Value
+public class Tile
+{
+    /**
+     * The maximum supported zoom level.
+     */
+    public static final int MAX_ZOOM = 22;
+
+    /**
+     * The half width of the web mercator projection in meters.
+     */
+    private static final double MERCATOR_EXTENT = 20037508.342789244;
+
+    int z;
+
+    int x;
+
+    int y;
+
+    /**
+     * Creates a tile and validates that the coordinates are within the tile
+     * grid of the zoom level.
+     *
+     * @param z the zoom level.
+     * @param x the column.
+     * @param y the row.
+     * @return a {@link Tile}.
+     * @throws IllegalQueryException if the coordinates are invalid.
+     */
+    public static Tile of( int z, int x, int y )
+    {
+        if ( z < 0 || z > MAX_ZOOM || x < 0 || y < 0 || x >= (1 << z) || y >= (1 << z) )
+        {
+            throw new IllegalQueryException( new ErrorMessage( ErrorCode.E7234, z + "/" + x + "/" + y ) );
+        }
+
+        return new Tile( z, x, y );
+    }
+
+    /**
+     * Returns the envelope of the tile in EPSG:3857 as xmin, ymin, xmax, ymax.
+     *
+     * @return the envelope.
+     */
+    public double[] getEnvelope()
+    {
+        double size = 2 * MERCATOR_EXTENT / (1 << z);
+
+        double xmin = -MERCATOR_EXTENT + x * size;
+        double ymax = MERCATOR_EXTENT - y * size;
+
+        return new double[] { xmin, ymax - size, xmin + size, ymax };
+    }
+
+    /**
+     * Returns the bounding box of the tile in EPSG:4326 as a comma separated
+     * string of min longitude, min latitude, max longitude and max latitude.
+     *
+     * @return the bounding box.
+     */
+    public String getBbox()
+    {
+        double[] envelope = getEnvelope();
+
+        return String.format( Locale.ROOT, "%.8f,%.8f,%.8f,%.8f", toLongitude( envelope[0] ),
+            toLatitude( envelope[1] ), toLongitude( envelope[2] ), toLatitude( envelope[3] ) );
+    }
+
+    private static double toLongitude( double x )
+    {
+        return x / MERCATOR_EXTENT * 180;
+    }
+
+    private static double toLatitude( double y )
+    {
+        return Math.toDegrees( Math.atan( Math.sinh( y / MERCATOR_EXTENT * Math.PI ) ) );
+    }
+
+    @Override
+    public String toString()
+    {
+        return z + "/" + x + "/" + y;
+    }
+}
@@ -37,6 +37,7 @@ import java.util.function.Function;
 import org.apache.commons.lang3.SerializationUtils;
 import org.apache.commons.logging.Log;
 import org.hisp.dhis.analytics.DataQueryParams;
+import org.hisp.dhis.analytics.metrics.AnalyticsMetrics;
 import org.hisp.dhis.cache.Cache;
 import org.hisp.dhis.cache.CacheProvider;
 import org.hisp.dhis.common.Grid;
@@ -55,17 +56,26 @@ public class AnalyticsCache
 
     private final AnalyticsCacheSettings analyticsCacheSettings;
 
+    private final AnalyticsMetrics analyticsMetrics;
+
+    private final AnalyticsResultStore analyticsResultStore;
+
     /**
      * Default constructor. Note that a default expiration time is set, as as
      * the TTL will always be overwritten during cache put operations.
      */
     public AnalyticsCache( final CacheProvider cacheProvider,
-        final AnalyticsCacheSettings analyticsCacheSettings )
+        final AnalyticsCacheSettings analyticsCacheSettings, final AnalyticsMetrics analyticsMetrics,
+        final AnalyticsResultStore analyticsResultStore )
     {
         checkNotNull( cacheProvider );
         checkNotNull( analyticsCacheSettings );
+        checkNotNull( analyticsMetrics );
+        checkNotNull( analyticsResultStore );
 
         this.analyticsCacheSettings = analyticsCacheSettings;
+        this.analyticsMetrics = analyticsMetrics;
+        this.analyticsResultStore = analyticsResultStore;
         long initialExpirationTime = analyticsCacheSettings.fixedExpirationTimeOrDefault();
         this.queryCache = cacheProvider.createAnalyticsResponseCache(
             Duration.ofSeconds( initialExpirationTime ) );
@@ -85,6 +95,9 @@ public class AnalyticsCache
      * will be fetched by the function provided. In this case, the fetched Grid
      * will be cached, so the next consumers can hit the cache only.
      *
+     * If the {@link AnalyticsResultStore} is enabled it is consulted before
+     * fetching, and fetched Grids are stored in it as well.
+     *
      * The TTL of the cached object will be set accordingly to the cache
      * settings available at
      * {@link org.hisp.dhis.analytics.cache.AnalyticsCacheSettings}.
@@ -97,18 +110,34 @@ public class AnalyticsCache
     {
         final Optional<Grid> cachedGrid = get( params.getKey() );
 
+        analyticsMetrics.recordCacheLookup( cachedGrid.isPresent() );
+
         if ( cachedGrid.isPresent() )
         {
             return getGridClone( cachedGrid.get() );
         }
-        else
-        {
-            final Grid grid = function.apply( params );
 
-            put( params, grid );
+        final Optional<Grid> storedGrid = analyticsResultStore.get( params.getKey() );
+
+        if ( storedGrid.isPresent() )
+        {
+            put( params, storedGrid.get() );
 
-            return getGridClone( grid );
+            return storedGrid.get();
         }
+
+        // Capture the version before fetching, so that a grid computed from
+        // tables replaced meanwhile is not stored as valid for the new tables
+
+        final long tableVersion = analyticsResultStore.isEnabled() ? analyticsResultStore.getTableVersion() : 0L;
+
+        final Grid grid = function.apply( params );
+
+        put( params, grid );
+
+        analyticsResultStore.put( params.getKey(), grid, tableVersion );
+
+        return getGridClone( grid );
     }
 
     /**
@@ -150,7 +179,9 @@ public class AnalyticsCache
     }
 
     /**
-     * Clears the current cache by removing all existing entries.
+     * Clears the current cache by removing all existing entries. The
+     * {@link AnalyticsResultStore} is not cleared, as its results are bound to
+     * the analytics table version.
      */
     public void invalidateAll()
     {
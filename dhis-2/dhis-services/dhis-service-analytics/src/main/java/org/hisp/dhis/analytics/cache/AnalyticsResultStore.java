@@ -0,0 +1,227 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.analytics.cache;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.apache.commons.logging.LogFactory.getLog;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.lang3.SerializationUtils;
+import org.apache.commons.logging.Log;
+import org.hisp.dhis.common.Grid;
+import org.hisp.dhis.external.conf.ConfigurationKey;
+import org.hisp.dhis.external.conf.DhisConfigurationProvider;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Second tier of the {@link AnalyticsCache} which persists analytics results
+ * in the analyticsresult table. Results are stored with the analytics table
+ * version and are valid until the next analytics table update. Unlike the
+ * cache, the store survives restarts and cache clearing and is shared by the
+ * instances of a cluster.
+ *
+ * The results of previous table versions are removed once per table update,
+ * with the first result stored for a new version. The store is bounded in
+ * size. Every time a tenth of the maximum size has been written by an
+ * instance, the least recently used results beyond the maximum size are
+ * evicted.
+ *
+ * Failures of the store are logged and otherwise ignored, so that analytics
+ * requests do not fail because of it.
+ */
+@Component
+public class AnalyticsResultStore
+{
+    private static final Log log = getLog( AnalyticsResultStore.class );
+
+    private static final long BYTES_PER_MB = 1024L * 1024L;
+
+    private static final int EVICTION_FRACTION = 10;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final AnalyticsTableVersion analyticsTableVersion;
+
+    private final boolean enabled;
+
+    private final long maxSize;
+
+    private final long evictionThreshold;
+
+    private final AtomicLong purgedVersion = new AtomicLong( -1L );
+
+    private final AtomicLong bytesSinceEviction = new AtomicLong();
+
+    public AnalyticsResultStore( final JdbcTemplate jdbcTemplate, final AnalyticsTableVersion analyticsTableVersion,
+        final DhisConfigurationProvider config )
+    {
+        checkNotNull( jdbcTemplate );
+        checkNotNull( analyticsTableVersion );
+        checkNotNull( config );
+
+        this.jdbcTemplate = jdbcTemplate;
+        this.analyticsTableVersion = analyticsTableVersion;
+        this.enabled = config.isEnabled( ConfigurationKey.ANALYTICS_RESULT_STORE_ENABLED );
+        this.maxSize = Long.parseLong( config.getProperty( ConfigurationKey.ANALYTICS_RESULT_STORE_MAX_SIZE ) )
+            * BYTES_PER_MB;
+        this.evictionThreshold = Math.max( 1L, maxSize / EVICTION_FRACTION );
+    }
+
+    public boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    /**
+     * Returns the current analytics table version, to be captured before a
+     * result is computed and passed to {@link #put(String, Grid, long)}.
+     *
+     * @return the analytics table version.
+     */
+    public long getTableVersion()
+    {
+        return analyticsTableVersion.getVersion();
+    }
+
+    /**
+     * Returns the result stored for the given key and the current analytics
+     * table version.
+     *
+     * @param key the key of the analytics query.
+     * @return the stored Grid, or empty if not present.
+     */
+    public Optional<Grid> get( final String key )
+    {
+        if ( !enabled )
+        {
+            return Optional.empty();
+        }
+
+        try
+        {
+            final List<byte[]> contents = jdbcTemplate.queryForList(
+                "select content from analyticsresult where resultkey = ? and tableversion = ?",
+                byte[].class, key, analyticsTableVersion.getVersion() );
+
+            if ( contents.isEmpty() )
+            {
+                return Optional.empty();
+            }
+
+            jdbcTemplate.update( "update analyticsresult set lastaccessed = now() where resultkey = ?", key );
+
+            return Optional.of( SerializationUtils.deserialize( contents.get( 0 ) ) );
+        }
+        catch ( DataAccessException ex )
+        {
+            log.warn( "Failed to read analytics result from store", ex );
+
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Stores the result for the given key and the given analytics table
+     * version. A result stored for a later table version is not overwritten.
+     *
+     * @param key the key of the analytics query.
+     * @param grid the result Grid.
+     * @param version the analytics table version captured before the result
+     *        was computed.
+     */
+    public void put( final String key, final Grid grid, final long version )
+    {
+        if ( !enabled )
+        {
+            return;
+        }
+
+        final byte[] content = SerializationUtils.serialize( grid );
+
+        try
+        {
+            jdbcTemplate.update( "insert into analyticsresult " +
+                "(resultkey, tableversion, content, size, created, lastaccessed) " +
+                "values (?, ?, ?, ?, now(), now()) " +
+                "on conflict (resultkey) do update set tableversion = excluded.tableversion, " +
+                "content = excluded.content, size = excluded.size, created = excluded.created, " +
+                "lastaccessed = excluded.lastaccessed " +
+                "where analyticsresult.tableversion <= excluded.tableversion",
+                key, version, content, content.length );
+
+            purgePreviousVersions( version );
+
+            if ( bytesSinceEviction.addAndGet( content.length ) >= evictionThreshold )
+            {
+                bytesSinceEviction.set( 0L );
+
+                evictLeastRecentlyUsed();
+            }
+        }
+        catch ( DataAccessException ex )
+        {
+            log.warn( "Failed to write analytics result to store", ex );
+        }
+    }
+
+    /**
+     * Removes the results of table versions before the given version, once
+     * for each new version.
+     */
+    private void purgePreviousVersions( final long version )
+    {
+        final long purged = purgedVersion.get();
+
+        if ( version > purged && purgedVersion.compareAndSet( purged, version ) )
+        {
+            jdbcTemplate.update( "delete from analyticsresult where tableversion < ?", version );
+        }
+    }
+
+    /**
+     * Removes the least recently used results beyond the maximum size.
+     */
+    private void evictLeastRecentlyUsed()
+    {
+        final int evicted = jdbcTemplate.update( "delete from analyticsresult where resultkey in (" +
+            "select resultkey from (" +
+            "select resultkey, sum(size) over (order by lastaccessed desc, resultkey) as cumulativesize " +
+            "from analyticsresult) r " +
+            "where r.cumulativesize > ?)", maxSize );
+
+        if ( evicted > 0 )
+        {
+            log.debug( String.format( "Evicted %d analytics results from store", evicted ) );
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.analytics.cache;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import org.hisp.dhis.analytics.DataQueryParams;
+import org.hisp.dhis.analytics.Tile;
+import org.hisp.dhis.cache.Cache;
+import org.hisp.dhis.cache.CacheProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * Server-side cache of analytics vector tiles. Tiles are keyed by the query key,
+ * the tile coordinates and the analytics table version, which changes with each
+ * successful analytics table update. Tiles of previous table versions are
+ * therefore never served and expire from the cache by themselves, also when the
+ * tables are updated on another instance.
+ */
+@Component
+public class AnalyticsTileCache
+{
+    private final Cache<byte[]> tileCache;
+
+    private final AnalyticsTableVersion analyticsTableVersion;
+
+    public AnalyticsTileCache( final CacheProvider cacheProvider, final AnalyticsTableVersion analyticsTableVersion )
+    {
+        checkNotNull( cacheProvider );
+        checkNotNull( analyticsTableVersion );
+
+        this.tileCache = cacheProvider.createAnalyticsTileCache();
+        this.analyticsTableVersion = analyticsTableVersion;
+    }
+
+    /**
+     * Returns the cached tile for the given query and tile, or fetches and
+     * caches it if not present. A tile fetched as null is not cached, so that
+     * a tile requested before the analytics tables exist is fetched again.
+     *
+     * @param params the query parameters.
+     * @param tile the {@link Tile}.
+     * @param fetcher fetches the tile from the database.
+     * @return the tile, or null if fetched as null.
+     */
+    public byte[] getOrFetch( final DataQueryParams params, final Tile tile, final Supplier<byte[]> fetcher )
+    {
+        final String key = getKey( params, tile );
+
+        final Optional<byte[]> cachedTile = tileCache.getIfPresent( key );
+
+        if ( cachedTile.isPresent() )
+        {
+            return cachedTile.get();
+        }
+
+        final byte[] fetchedTile = fetcher.get();
+
+        if ( fetchedTile != null )
+        {
+            tileCache.put( key, fetchedTile );
+        }
+
+        return fetchedTile;
+    }
+
+    private String getKey( final DataQueryParams params, final Tile tile )
+    {
+        return params.getKey() + "-" + tile + "-" + analyticsTableVersion.getVersion();
+    }
+}
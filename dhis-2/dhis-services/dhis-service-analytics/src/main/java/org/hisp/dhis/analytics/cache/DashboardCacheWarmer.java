@@ -0,0 +1,204 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.analytics.cache;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+import org.hisp.dhis.analytics.AnalyticsService;
+import org.hisp.dhis.analytics.EventDataType;
+import org.hisp.dhis.analytics.event.EventAnalyticsService;
+import org.hisp.dhis.common.AnalyticalObject;
+import org.hisp.dhis.common.IdentifiableObjectManager;
+import org.hisp.dhis.commons.util.SystemUtils;
+import org.hisp.dhis.dashboard.Dashboard;
+import org.hisp.dhis.dashboard.DashboardItem;
+import org.hisp.dhis.datastatistics.DataStatisticsEventType;
+import org.hisp.dhis.eventvisualization.EventVisualization;
+import org.hisp.dhis.scheduling.JobProgress;
+import org.hisp.dhis.visualization.Visualization;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Warms up the {@link AnalyticsCache} after an analytics table update by
+ * running the analytics queries of the visualizations of the most viewed
+ * dashboards, ranked by dashboard views in the data statistics.
+ *
+ * The queries run in parallel on half of the available cores within a time
+ * limit. Items not started within the time limit are skipped. Failing queries
+ * are logged and do not fail the job.
+ *
+ * The queries run without a current user, so no user constraints apply. As
+ * the cache key is taken after user constraints are applied, the results are
+ * only served to users whose queries are not constrained. Visualizations with
+ * user organisation units are skipped, as they resolve differently for every
+ * user. The analytics cache is local, so in a cluster only the cache of the
+ * node running the job is warmed up.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DashboardCacheWarmer
+{
+    private final AnalyticsCache analyticsCache;
+
+    private final AnalyticsService analyticsService;
+
+    private final EventAnalyticsService eventAnalyticsService;
+
+    private final IdentifiableObjectManager manager;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Runs the analytics queries of the given number of most viewed
+     * dashboards as a process of the given job progress.
+     *
+     * @param dashboardCount the number of dashboards.
+     * @param timeLimit the time limit in seconds.
+     * @param progress the job progress.
+     */
+    public void warmUp( int dashboardCount, int timeLimit, JobProgress progress )
+    {
+        if ( dashboardCount <= 0 || !analyticsCache.isEnabled() )
+        {
+            return;
+        }
+
+        long deadline = System.currentTimeMillis() + SECONDS.toMillis( timeLimit );
+
+        progress.startingProcess( "Analytics cache warm-up" );
+
+        progress.startingStage( "Finding " + dashboardCount + " most viewed dashboards" );
+        List<WarmUpItem> items = progress.runStage( List.of(),
+            () -> transactionTemplate.execute( status -> getItems( dashboardCount ) ) );
+
+        int parallelism = Math.max( 1, SystemUtils.getCpuCores() / 2 );
+
+        progress.startingStage( "Running analytics queries of " + items.size() + " visualizations", items.size() );
+        progress.runStageInParallel( parallelism, items, WarmUpItem::toString,
+            item -> warmUp( item, deadline ) );
+
+        progress.completedProcess( null );
+    }
+
+    private List<WarmUpItem> getItems( int dashboardCount )
+    {
+        List<String> dashboardUids = jdbcTemplate.queryForList(
+            "select favoriteuid from datastatisticsevent where eventtype = ? " +
+                "group by favoriteuid order by count(*) desc limit ?",
+            String.class, DataStatisticsEventType.DASHBOARD_VIEW.name(), dashboardCount );
+
+        Set<WarmUpItem> items = new LinkedHashSet<>();
+
+        for ( Dashboard dashboard : manager.getByUidOrdered( Dashboard.class, dashboardUids ) )
+        {
+            for ( DashboardItem item : dashboard.getItems() )
+            {
+                if ( isUserSpecific( item ) )
+                {
+                    log.debug( "Skipping analytics cache warm-up of dashboard item {} with user org units",
+                        item.getUid() );
+                }
+                else if ( item.getVisualization() != null )
+                {
+                    items.add( new WarmUpItem( Visualization.class, item.getVisualization().getUid() ) );
+                }
+                else if ( item.getEventVisualization() != null
+                    && item.getEventVisualization().getDataType() == EventDataType.AGGREGATED_VALUES )
+                {
+                    items.add( new WarmUpItem( EventVisualization.class, item.getEventVisualization().getUid() ) );
+                }
+            }
+        }
+
+        return List.copyOf( items );
+    }
+
+    private static boolean isUserSpecific( DashboardItem item )
+    {
+        return (item.getVisualization() != null && item.getVisualization().hasUserOrgUnit())
+            || (item.getEventVisualization() != null && item.getEventVisualization().hasUserOrgUnit());
+    }
+
+    private void warmUp( WarmUpItem item, long deadline )
+    {
+        if ( System.currentTimeMillis() >= deadline )
+        {
+            log.debug( "Skipping analytics cache warm-up of {} after time limit", item );
+            return;
+        }
+
+        try
+        {
+            transactionTemplate.execute( status -> {
+                AnalyticalObject object = manager.get( item.getType(), item.getUid() );
+
+                if ( object instanceof Visualization )
+                {
+                    analyticsService.getAggregatedDataValues( object );
+                }
+                else if ( object instanceof EventVisualization )
+                {
+                    eventAnalyticsService.getAggregatedEventData( object );
+                }
+
+                return null;
+            } );
+        }
+        catch ( RuntimeException ex )
+        {
+            log.warn( "Analytics cache warm-up of {} failed: {}", item, ex.getMessage() );
+        }
+    }
+
+    @Value
+    private static class WarmUpItem
+    {
+        Class<? extends AnalyticalObject> type;
+
+        String uid;
+
+        @Override
+        public String toString()
+        {
+            return type.getSimpleName() + " " + uid;
+        }
+    }
+}
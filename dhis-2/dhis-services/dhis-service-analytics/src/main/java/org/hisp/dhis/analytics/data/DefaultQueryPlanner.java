@@ -42,6 +42,7 @@ import java.util.function.Function;
 
 import lombok.extern.slf4j.Slf4j;
 
+import org.apache.commons.lang3.tuple.Pair;
 import org.hisp.dhis.analytics.AggregationType;
 import org.hisp.dhis.analytics.AnalyticsAggregationType;
 import org.hisp.dhis.analytics.AnalyticsTableType;
@@ -51,6 +52,7 @@ import org.hisp.dhis.analytics.DataType;
 import org.hisp.dhis.analytics.Partitions;
 import org.hisp.dhis.analytics.QueryPlanner;
 import org.hisp.dhis.analytics.QueryPlannerParams;
+import org.hisp.dhis.analytics.metrics.AnalyticsMetrics;
 import org.hisp.dhis.analytics.partition.PartitionManager;
 import org.hisp.dhis.analytics.table.PartitionUtils;
 import org.hisp.dhis.analytics.util.PeriodOffsetUtils;
@@ -74,6 +76,8 @@ import org.springframework.stereotype.Component;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 
+import io.micrometer.core.instrument.Timer;
+
 /**
  * @author Lars Helge Overland
  */
@@ -82,13 +86,21 @@ import com.google.common.collect.Lists;
 public class DefaultQueryPlanner
     implements QueryPlanner
 {
+    private static final String CUSTOM_GROUPER = "custom";
+
+    private static final String SPLIT_PREFIX = "split_";
+
     private final PartitionManager partitionManager;
 
-    public DefaultQueryPlanner( PartitionManager partitionManager )
+    private final AnalyticsMetrics analyticsMetrics;
+
+    public DefaultQueryPlanner( PartitionManager partitionManager, AnalyticsMetrics analyticsMetrics )
     {
         checkNotNull( partitionManager );
+        checkNotNull( analyticsMetrics );
 
         this.partitionManager = partitionManager;
+        this.analyticsMetrics = analyticsMetrics;
     }
 
     // -------------------------------------------------------------------------
@@ -97,6 +109,20 @@ public class DefaultQueryPlanner
 
     @Override
     public DataQueryGroups planQuery( DataQueryParams params, QueryPlannerParams plannerParams )
+    {
+        Timer.Sample sample = analyticsMetrics.start();
+
+        try
+        {
+            return planQueryGroups( params, plannerParams );
+        }
+        finally
+        {
+            analyticsMetrics.recordPlanning( sample, params, plannerParams.getTableType() );
+        }
+    }
+
+    private DataQueryGroups planQueryGroups( DataQueryParams params, QueryPlannerParams plannerParams )
     {
         params = PeriodOffsetUtils.addShiftedPeriods( params );
 
@@ -110,24 +136,26 @@ public class DefaultQueryPlanner
 
         final List<DataQueryParams> queries = Lists.newArrayList( params );
 
-        List<Function<DataQueryParams, List<DataQueryParams>>> groupers = new ImmutableList.Builder<Function<DataQueryParams, List<DataQueryParams>>>()
-            .add( q -> groupByOrgUnitLevel( q ) )
-            .add( q -> groupByPeriodType( q ) )
-            .add( q -> groupByDataType( q ) )
-            .add( q -> groupByQueryMods( q ) )
-            .add( q -> groupByAggregationType( q ) )
-            .add( q -> groupByDaysInPeriod( q ) )
-            .add( q -> groupByDataPeriodType( q ) )
-            .add( q -> groupByPeriod( q ) )
-            .addAll( plannerParams.getQueryGroupers() )
-            .build();
+        ImmutableList.Builder<Pair<String, Function<DataQueryParams, List<DataQueryParams>>>> builder = new ImmutableList.Builder<Pair<String, Function<DataQueryParams, List<DataQueryParams>>>>()
+            .add( Pair.of( "orgUnitLevel", q -> groupByOrgUnitLevel( q ) ) )
+            .add( Pair.of( "periodType", q -> groupByPeriodType( q ) ) )
+            .add( Pair.of( "dataType", q -> groupByDataType( q ) ) )
+            .add( Pair.of( "queryMods", q -> groupByQueryMods( q ) ) )
+            .add( Pair.of( "aggregationType", q -> groupByAggregationType( q ) ) )
+            .add( Pair.of( "daysInPeriod", q -> groupByDaysInPeriod( q ) ) )
+            .add( Pair.of( "dataPeriodType", q -> groupByDataPeriodType( q ) ) )
+            .add( Pair.of( "period", q -> groupByPeriod( q ) ) );
+
+        plannerParams.getQueryGroupers().forEach( grouper -> builder.add( Pair.of( CUSTOM_GROUPER, grouper ) ) );
 
-        for ( Function<DataQueryParams, List<DataQueryParams>> grouper : groupers )
+        for ( Pair<String, Function<DataQueryParams, List<DataQueryParams>>> grouper : builder.build() )
         {
             List<DataQueryParams> currentQueries = Lists.newArrayList( queries );
             queries.clear();
 
-            currentQueries.forEach( query -> queries.addAll( grouper.apply( query ) ) );
+            currentQueries.forEach( query -> queries.addAll( grouper.getValue().apply( query ) ) );
+
+            analyticsMetrics.recordSubQueries( grouper.getKey(), plannerParams.getTableType(), queries.size() );
         }
 
         // ---------------------------------------------------------------------
@@ -147,6 +175,9 @@ public class DefaultQueryPlanner
         {
             queryGroups = splitByDimension( queryGroups, dim, plannerParams.getOptimalQueries() );
 
+            analyticsMetrics.recordSubQueries( SPLIT_PREFIX + dim, plannerParams.getTableType(),
+                queryGroups.getAllQueries().size() );
+
             if ( queryGroups.isOptimal( plannerParams.getOptimalQueries() ) )
             {
                 break;
@@ -71,6 +71,7 @@ import org.hisp.dhis.analytics.DataType;
 import org.hisp.dhis.analytics.MeasureFilter;
 import org.hisp.dhis.analytics.QueryPlanner;
 import org.hisp.dhis.analytics.analyze.ExecutionPlanStore;
+import org.hisp.dhis.analytics.metrics.AnalyticsMetrics;
 import org.hisp.dhis.analytics.table.PartitionUtils;
 import org.hisp.dhis.analytics.util.AnalyticsSqlUtils;
 import org.hisp.dhis.analytics.util.AnalyticsUtils;
@@ -101,6 +102,8 @@ import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 
+import io.micrometer.core.instrument.Timer;
+
 /**
  * This class is responsible for producing aggregated data values. It reads data
  * from the analytics table.
@@ -130,16 +133,21 @@ public class JdbcAnalyticsManager
 
     private final ExecutionPlanStore executionPlanStore;
 
+    private final AnalyticsMetrics analyticsMetrics;
+
     public JdbcAnalyticsManager( QueryPlanner queryPlanner,
-        @Qualifier( "readOnlyJdbcTemplate" ) JdbcTemplate jdbcTemplate, ExecutionPlanStore executionPlanStore )
+        @Qualifier( "readOnlyJdbcTemplate" ) JdbcTemplate jdbcTemplate, ExecutionPlanStore executionPlanStore,
+        AnalyticsMetrics analyticsMetrics )
     {
         checkNotNull( queryPlanner );
         checkNotNull( jdbcTemplate );
         checkNotNull( executionPlanStore );
+        checkNotNull( analyticsMetrics );
 
         this.queryPlanner = queryPlanner;
         this.jdbcTemplate = jdbcTemplate;
         this.executionPlanStore = executionPlanStore;
+        this.analyticsMetrics = analyticsMetrics;
     }
 
     // -------------------------------------------------------------------------
@@ -192,7 +200,7 @@ public class JdbcAnalyticsManager
 
             try
             {
-                map = getKeyValueMap( params, sql, maxLimit );
+                map = getKeyValueMap( params, tableType, sql, maxLimit );
             }
             catch ( BadSqlGrammarException ex )
             {
@@ -689,51 +697,61 @@ public class JdbcAnalyticsManager
      * Retrieves data from the database based on the given query and SQL and
      * puts into a value key and value mapping.
      */
-    private Map<String, Object> getKeyValueMap( DataQueryParams params, String sql, int maxLimit )
+    private Map<String, Object> getKeyValueMap( DataQueryParams params, AnalyticsTableType tableType, String sql,
+        int maxLimit )
     {
         Map<String, Object> map = new HashMap<>();
 
         log.debug( String.format( "Analytics SQL: %s", sql ) );
 
-        SqlRowSet rowSet = jdbcTemplate.queryForRowSet( sql );
+        Timer.Sample sample = analyticsMetrics.start();
 
-        int counter = 0;
-
-        while ( rowSet.next() )
+        try
         {
-            boolean exceedsMaxLimit = maxLimit > 0 && ++counter > maxLimit;
+            SqlRowSet rowSet = jdbcTemplate.queryForRowSet( sql );
+
+            int counter = 0;
 
-            if ( exceedsMaxLimit )
+            while ( rowSet.next() )
             {
-                throwIllegalQueryEx( ErrorCode.E7128, maxLimit );
-            }
+                boolean exceedsMaxLimit = maxLimit > 0 && ++counter > maxLimit;
 
-            StringBuilder key = new StringBuilder();
+                if ( exceedsMaxLimit )
+                {
+                    throwIllegalQueryEx( ErrorCode.E7128, maxLimit );
+                }
 
-            for ( DimensionalObject dim : params.getDimensions() )
-            {
-                String value = dim.isFixed() ? dim.getDimensionName() : rowSet.getString( dim.getDimensionName() );
+                StringBuilder key = new StringBuilder();
 
-                String queryModsId = params.getQueryModsId( dim );
+                for ( DimensionalObject dim : params.getDimensions() )
+                {
+                    String value = dim.isFixed() ? dim.getDimensionName() : rowSet.getString( dim.getDimensionName() );
 
-                key.append( value ).append( queryModsId ).append( DIMENSION_SEP );
-            }
+                    String queryModsId = params.getQueryModsId( dim );
 
-            key.deleteCharAt( key.length() - 1 );
+                    key.append( value ).append( queryModsId ).append( DIMENSION_SEP );
+                }
 
-            if ( params.isDataType( TEXT ) )
-            {
-                String value = rowSet.getString( VALUE_ID );
+                key.deleteCharAt( key.length() - 1 );
 
-                map.put( key.toString(), value );
-            }
-            else // NUMERIC
-            {
-                Double value = rowSet.getDouble( VALUE_ID );
+                if ( params.isDataType( TEXT ) )
+                {
+                    String value = rowSet.getString( VALUE_ID );
 
-                map.put( key.toString(), value );
+                    map.put( key.toString(), value );
+                }
+                else // NUMERIC
+                {
+                    Double value = rowSet.getDouble( VALUE_ID );
+
+                    map.put( key.toString(), value );
+                }
             }
         }
+        finally
+        {
+            analyticsMetrics.recordSqlQuery( sample, params, tableType, map.size() );
+        }
 
         return map;
     }
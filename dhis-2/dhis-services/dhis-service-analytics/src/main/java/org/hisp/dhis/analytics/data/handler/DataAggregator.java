@@ -39,11 +39,14 @@ import static org.hisp.dhis.common.DimensionalObject.DATA_X_DIM_ID;
 import javax.annotation.PostConstruct;
 
 import org.hisp.dhis.analytics.DataQueryParams;
+import org.hisp.dhis.analytics.metrics.AnalyticsMetrics;
 import org.hisp.dhis.common.DimensionalObject;
 import org.hisp.dhis.common.Grid;
 import org.hisp.dhis.system.grid.ListGrid;
 import org.springframework.stereotype.Component;
 
+import io.micrometer.core.instrument.Timer;
+
 /**
  * Class responsible for aggregating all necessary data, provided by the
  * handlers, into the Grid object
@@ -57,15 +60,20 @@ public class DataAggregator
 
     private final DataHandler dataHandler;
 
-    public DataAggregator( HeaderHandler headerHandler, MetadataHandler metadataHandler, DataHandler dataHandler )
+    private final AnalyticsMetrics analyticsMetrics;
+
+    public DataAggregator( HeaderHandler headerHandler, MetadataHandler metadataHandler, DataHandler dataHandler,
+        AnalyticsMetrics analyticsMetrics )
     {
         checkNotNull( headerHandler );
         checkNotNull( metadataHandler );
         checkNotNull( dataHandler );
+        checkNotNull( analyticsMetrics );
 
         this.headerHandler = headerHandler;
         this.metaDataHandler = metadataHandler;
         this.dataHandler = dataHandler;
+        this.analyticsMetrics = analyticsMetrics;
     }
 
     /**
@@ -75,6 +83,20 @@ public class DataAggregator
      * @return a grid with aggregated data.
      */
     public Grid getAggregatedDataValueGrid( DataQueryParams params )
+    {
+        Timer.Sample sample = analyticsMetrics.start();
+
+        try
+        {
+            return getGrid( params );
+        }
+        finally
+        {
+            analyticsMetrics.recordGridAssembly( sample, params );
+        }
+    }
+
+    private Grid getGrid( DataQueryParams params )
     {
         params = preHandleQuery( params );
 
@@ -110,13 +132,22 @@ public class DataAggregator
         // Meta-data
         // ---------------------------------------------------------------------
 
-        metaDataHandler.addMetaData( params, grid );
+        Timer.Sample sample = analyticsMetrics.start();
 
-        metaDataHandler.handleDataValueSet( params, grid );
+        try
+        {
+            metaDataHandler.addMetaData( params, grid );
 
-        metaDataHandler.applyIdScheme( params, grid );
+            metaDataHandler.handleDataValueSet( params, grid );
 
-        postHandleGrid( params, grid );
+            metaDataHandler.applyIdScheme( params, grid );
+
+            postHandleGrid( params, grid );
+        }
+        finally
+        {
+            analyticsMetrics.recordPostProcessing( sample, params );
+        }
 
         return grid;
     }
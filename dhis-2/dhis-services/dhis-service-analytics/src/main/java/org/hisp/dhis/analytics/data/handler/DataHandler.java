@@ -57,6 +57,7 @@ import static org.hisp.dhis.analytics.OutputFormat.ANALYTICS;
 import static org.hisp.dhis.analytics.event.EventQueryParams.fromDataQueryParams;
 import static org.hisp.dhis.analytics.util.AnalyticsUtils.convertDxToOperand;
 import static org.hisp.dhis.analytics.util.AnalyticsUtils.findDimensionalItems;
+import static org.hisp.dhis.analytics.util.AnalyticsUtils.getDatabaseServerCpus;
 import static org.hisp.dhis.analytics.util.AnalyticsUtils.getDoubleMap;
 import static org.hisp.dhis.analytics.util.AnalyticsUtils.getRoundedValue;
 import static org.hisp.dhis.analytics.util.AnalyticsUtils.getRoundedValueObject;
@@ -93,11 +94,9 @@ import static org.hisp.dhis.common.ReportingRateMetric.ACTUAL_REPORTS_ON_TIME;
 import static org.hisp.dhis.common.ReportingRateMetric.EXPECTED_REPORTS;
 import static org.hisp.dhis.common.ReportingRateMetric.REPORTING_RATE_ON_TIME;
 import static org.hisp.dhis.commons.util.DebugUtils.getStackTrace;
-import static org.hisp.dhis.commons.util.SystemUtils.getCpuCores;
 import static org.hisp.dhis.dataelement.DataElementOperand.TotalType.values;
 import static org.hisp.dhis.period.PeriodType.getPeriodTypeFromIsoString;
 import static org.hisp.dhis.setting.SettingKey.ANALYTICS_MAX_LIMIT;
-import static org.hisp.dhis.setting.SettingKey.DATABASE_SERVER_CPUS;
 import static org.hisp.dhis.system.grid.GridUtils.getGridIndexByDimensionItem;
 import static org.hisp.dhis.system.util.MathUtils.getRounded;
 import static org.hisp.dhis.system.util.MathUtils.getWithin;
@@ -129,6 +128,7 @@ import org.hisp.dhis.analytics.RawAnalyticsManager;
 import org.hisp.dhis.analytics.analyze.ExecutionPlanStore;
 import org.hisp.dhis.analytics.event.EventAnalyticsService;
 import org.hisp.dhis.analytics.event.EventQueryParams;
+import org.hisp.dhis.analytics.metrics.AnalyticsMetrics;
 import org.hisp.dhis.analytics.resolver.ExpressionResolver;
 import org.hisp.dhis.analytics.resolver.ExpressionResolvers;
 import org.hisp.dhis.common.BaseDimensionalObject;
@@ -154,6 +154,8 @@ import org.hisp.dhis.setting.SystemSettingManager;
 import org.hisp.dhis.util.Timer;
 import org.springframework.stereotype.Component;
 
+import io.micrometer.core.instrument.Timer.Sample;
+
 /**
  * This component is responsible for handling and retrieving data based on the
  * input provided to the public methods. The main goal is to correctly populate
@@ -191,11 +193,13 @@ public class DataHandler
 
     private final ExecutionPlanStore executionPlanStore;
 
+    private final AnalyticsMetrics analyticsMetrics;
+
     public DataHandler( EventAnalyticsService eventAnalyticsService, RawAnalyticsManager rawAnalyticsManager,
         ConstantService constantService, ExpressionResolvers resolvers, ExpressionService expressionService,
         QueryPlanner queryPlanner, QueryValidator queryValidator, SystemSettingManager systemSettingManager,
         AnalyticsManager analyticsManager, OrganisationUnitService organisationUnitService,
-        ExecutionPlanStore executionPlanStore )
+        ExecutionPlanStore executionPlanStore, AnalyticsMetrics analyticsMetrics )
     {
         checkNotNull( eventAnalyticsService );
         checkNotNull( rawAnalyticsManager );
@@ -208,6 +212,7 @@ public class DataHandler
         checkNotNull( analyticsManager );
         checkNotNull( organisationUnitService );
         checkNotNull( executionPlanStore );
+        checkNotNull( analyticsMetrics );
 
         this.eventAnalyticsService = eventAnalyticsService;
         this.rawAnalyticsManager = rawAnalyticsManager;
@@ -220,6 +225,7 @@ public class DataHandler
         this.analyticsManager = analyticsManager;
         this.organisationUnitService = organisationUnitService;
         this.executionPlanStore = executionPlanStore;
+        this.analyticsMetrics = analyticsMetrics;
     }
 
     void addPerformanceMetrics( DataQueryParams params, Grid grid )
@@ -1098,7 +1104,7 @@ public class DataHandler
     {
         queryValidator.validateMaintenanceMode();
 
-        int optimalQueries = getWithin( getProcessNo(), 1, MAX_QUERIES );
+        int optimalQueries = getWithin( getDatabaseServerCpus( systemSettingManager ), 1, MAX_QUERIES );
 
         int maxLimit = params.isIgnoreLimit() ? 0
             : systemSettingManager.getIntSetting( ANALYTICS_MAX_LIMIT );
@@ -1117,9 +1123,18 @@ public class DataHandler
 
         Map<String, Object> map = new HashMap<>();
 
-        for ( List<DataQueryParams> queries : queryGroups.getSequentialQueries() )
+        Sample sample = analyticsMetrics.start();
+
+        try
+        {
+            for ( List<DataQueryParams> queries : queryGroups.getSequentialQueries() )
+            {
+                executeQueries( tableType, maxLimit, map, queries );
+            }
+        }
+        finally
         {
-            executeQueries( tableType, maxLimit, map, queries );
+            analyticsMetrics.recordExecution( sample, params, tableType );
         }
 
         timer.getTime( "Got analytics values" );
@@ -1166,20 +1181,6 @@ public class DataHandler
         }
     }
 
-    /**
-     * Gets the number of available cores. Uses explicit number from system
-     * setting if available. Detects number of cores from current server runtime
-     * if not.
-     *
-     * @return the number of available cores.
-     */
-    private int getProcessNo()
-    {
-        Integer cores = systemSettingManager.getIntegerSetting( DATABASE_SERVER_CPUS );
-
-        return (cores == null || cores == 0) ? getCpuCores() : cores;
-    }
-
     /**
      * Generates aggregated values for the given query. Creates a mapping
      * between a dimension key and the aggregated value. The dimension key is a
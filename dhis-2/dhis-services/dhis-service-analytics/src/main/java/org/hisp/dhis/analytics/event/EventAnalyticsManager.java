@@ -28,6 +28,7 @@
 package org.hisp.dhis.analytics.event;
 
 import org.hisp.dhis.analytics.Rectangle;
+import org.hisp.dhis.analytics.Tile;
 import org.hisp.dhis.common.Grid;
 
 /**
@@ -44,4 +45,14 @@ public interface EventAnalyticsManager
     long getEventCount( EventQueryParams params );
 
     Rectangle getRectangle( EventQueryParams params );
+
+    /**
+     * Returns the events of the given query within the given tile, clustered
+     * and encoded as a Mapbox vector tile.
+     *
+     * @param params the {@link EventQueryParams}.
+     * @param tile the {@link Tile}.
+     * @return the vector tile, or null if the analytics tables do not exist.
+     */
+    byte[] getEventTile( EventQueryParams params, Tile tile );
 }
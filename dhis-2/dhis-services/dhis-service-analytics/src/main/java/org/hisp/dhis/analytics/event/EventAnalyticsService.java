@@ -31,6 +31,7 @@ import java.util.List;
 
 import org.hisp.dhis.analytics.AnalyticsMetaDataKey;
 import org.hisp.dhis.analytics.Rectangle;
+import org.hisp.dhis.analytics.Tile;
 import org.hisp.dhis.common.AnalyticalObject;
 import org.hisp.dhis.common.Grid;
 
@@ -146,4 +147,15 @@ public interface EventAnalyticsService
      */
     Rectangle getRectangle( EventQueryParams params );
 
+    /**
+     * Returns a Mapbox vector tile with the events matching the given query
+     * which fall within the given tile, clustered on a grid of the cluster size
+     * in tile pixels. Tiles are cached per query and analytics table version.
+     *
+     * @param params the event query parameters.
+     * @param tile the {@link Tile}.
+     * @return the vector tile as protobuf bytes.
+     */
+    byte[] getEventTile( EventQueryParams params, Tile tile );
+
 }
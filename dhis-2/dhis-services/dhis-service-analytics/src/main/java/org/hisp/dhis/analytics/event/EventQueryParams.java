@@ -183,6 +183,22 @@ public class EventQueryParams
      */
     private boolean totalPages;
 
+    /**
+     * Whether to page with a cursor on the sort columns instead of an offset.
+     */
+    private boolean keysetPaging;
+
+    /**
+     * The cursor of the page to fetch when keyset paging, null for the first
+     * page.
+     */
+    private String pageCursor;
+
+    /**
+     * Whether the total for total pages may be estimated.
+     */
+    private boolean estimatedCount;
+
     /**
      * The value sort order.
      */
@@ -327,6 +343,9 @@ public class EventQueryParams
         params.pageSize = this.pageSize;
         params.paging = this.paging;
         params.totalPages = this.totalPages;
+        params.keysetPaging = this.keysetPaging;
+        params.pageCursor = this.pageCursor;
+        params.estimatedCount = this.estimatedCount;
         params.sortOrder = this.sortOrder;
         params.limit = this.limit;
         params.outputType = this.outputType;
@@ -439,6 +458,9 @@ public class EventQueryParams
             .addIgnoreNull( "page", page )
             .addIgnoreNull( "pageSize", pageSize )
             .addIgnoreNull( "paging", paging )
+            .addIgnoreNull( "keysetPaging", keysetPaging )
+            .addIgnoreNull( "pageCursor", pageCursor )
+            .addIgnoreNull( "estimatedCount", estimatedCount )
             .addIgnoreNull( "sortOrder", sortOrder )
             .addIgnoreNull( "limit", limit )
             .addIgnoreNull( "outputType", outputType )
@@ -835,6 +857,26 @@ public class EventQueryParams
         return totalPages;
     }
 
+    public boolean isKeysetPaging()
+    {
+        return keysetPaging && isPaging();
+    }
+
+    public String getPageCursor()
+    {
+        return pageCursor;
+    }
+
+    public boolean hasPageCursor()
+    {
+        return pageCursor != null;
+    }
+
+    public boolean isEstimatedCount()
+    {
+        return estimatedCount;
+    }
+
     public int getPageWithDefault()
     {
         return page != null && page > 0 ? page : 1;
@@ -1349,6 +1391,24 @@ public class EventQueryParams
             return this;
         }
 
+        public Builder withKeysetPaging( boolean keysetPaging )
+        {
+            this.params.keysetPaging = keysetPaging;
+            return this;
+        }
+
+        public Builder withPageCursor( String pageCursor )
+        {
+            this.params.pageCursor = pageCursor;
+            return this;
+        }
+
+        public Builder withEstimatedCount( boolean estimatedCount )
+        {
+            this.params.estimatedCount = estimatedCount;
+            return this;
+        }
+
         public Builder withPartitions( Partitions partitions )
         {
             this.params.partitions = partitions;
@@ -59,6 +59,7 @@ import org.hisp.dhis.analytics.event.EventQueryValidator;
 import org.hisp.dhis.analytics.util.AnalyticsUtils;
 import org.hisp.dhis.calendar.Calendar;
 import org.hisp.dhis.common.BaseIdentifiableObject;
+import org.hisp.dhis.common.CursorPager;
 import org.hisp.dhis.common.DimensionItemKeywords;
 import org.hisp.dhis.common.DimensionalItemObject;
 import org.hisp.dhis.common.DimensionalObject;
@@ -211,9 +212,21 @@ public abstract class AbstractAnalyticsService
     {
         if ( params.isPaging() )
         {
-            Pager pager = params.isTotalPages()
-                ? new Pager( params.getPageWithDefault(), count, params.getPageSizeWithDefault() )
-                : new SlimPager( params.getPageWithDefault(), params.getPageSizeWithDefault(), grid.hasLastDataRow() );
+            Pager pager;
+
+            if ( params.isKeysetPaging() )
+            {
+                pager = new CursorPager( params.getPageWithDefault(), params.getPageSizeWithDefault(),
+                    grid.hasLastDataRow(),
+                    (String) grid.getInternalMetaData().get( JdbcEventAnalyticsManager.NEXT_PAGE_CURSOR_KEY ) );
+            }
+            else
+            {
+                pager = params.isTotalPages()
+                    ? new Pager( params.getPageWithDefault(), count, params.getPageSizeWithDefault() )
+                    : new SlimPager( params.getPageWithDefault(), params.getPageSizeWithDefault(),
+                        grid.hasLastDataRow() );
+            }
 
             grid.getMetaData().put( PAGER.getKey(), pager );
         }
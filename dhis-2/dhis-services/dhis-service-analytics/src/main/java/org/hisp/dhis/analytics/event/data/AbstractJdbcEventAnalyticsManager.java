@@ -52,7 +52,9 @@ import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collector;
 import java.util.stream.Collectors;
 
@@ -87,6 +89,7 @@ import org.hisp.dhis.period.Period;
 import org.hisp.dhis.program.AnalyticsType;
 import org.hisp.dhis.program.ProgramIndicator;
 import org.hisp.dhis.program.ProgramIndicatorService;
+import org.hisp.dhis.system.database.DatabaseInfo;
 import org.hisp.dhis.system.util.MathUtils;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.dao.DataAccessResourceFailureException;
@@ -127,21 +130,39 @@ public abstract class AbstractJdbcEventAnalyticsManager
 
     protected final ExecutionPlanStore executionPlanStore;
 
+    /**
+     * Indicates whether distinct counts of tracked entity instances and
+     * enrollments are approximated with HyperLogLog from the hash columns of
+     * the analytics tables.
+     */
+    protected final boolean approximateDistinctCount;
+
+    /**
+     * Analytics tables and hash columns known to exist, as table name and
+     * column name separated by a dot. Only found columns are remembered, as
+     * tables generated before approximate distinct counts were enabled get
+     * the hash columns with the next analytics table update.
+     */
+    private final Set<String> existingHashColumns = ConcurrentHashMap.newKeySet();
+
     public AbstractJdbcEventAnalyticsManager( @Qualifier( "readOnlyJdbcTemplate" ) JdbcTemplate jdbcTemplate,
         StatementBuilder statementBuilder, ProgramIndicatorService programIndicatorService,
-        ProgramIndicatorSubqueryBuilder programIndicatorSubqueryBuilder, ExecutionPlanStore executionPlanStore )
+        ProgramIndicatorSubqueryBuilder programIndicatorSubqueryBuilder, ExecutionPlanStore executionPlanStore,
+        DatabaseInfo databaseInfo )
     {
         checkNotNull( jdbcTemplate );
         checkNotNull( statementBuilder );
         checkNotNull( programIndicatorService );
         checkNotNull( programIndicatorSubqueryBuilder );
         checkNotNull( executionPlanStore );
+        checkNotNull( databaseInfo );
 
         this.jdbcTemplate = jdbcTemplate;
         this.statementBuilder = statementBuilder;
         this.programIndicatorService = programIndicatorService;
         this.programIndicatorSubqueryBuilder = programIndicatorSubqueryBuilder;
         this.executionPlanStore = executionPlanStore;
+        this.approximateDistinctCount = databaseInfo.isHllSupport();
     }
 
     /**
@@ -573,7 +594,7 @@ public abstract class AbstractJdbcEventAnalyticsManager
             {
                 if ( EventOutputType.TRACKED_ENTITY_INSTANCE.equals( outputType ) && params.isProgramRegistration() )
                 {
-                    return "count(distinct tei)";
+                    return getDistinctCount( params, "tei", "teihash" );
                 }
                 else // EVENT
                 {
@@ -584,7 +605,7 @@ public abstract class AbstractJdbcEventAnalyticsManager
             {
                 if ( EventOutputType.TRACKED_ENTITY_INSTANCE.equals( outputType ) && params.isProgramRegistration() )
                 {
-                    return "count(distinct " + quoteAlias( "tei" ) + ")";
+                    return getDistinctCount( params, quoteAlias( "tei" ), "teihash" );
                 }
                 else if ( EventOutputType.ENROLLMENT.equals( outputType ) )
                 {
@@ -592,7 +613,7 @@ public abstract class AbstractJdbcEventAnalyticsManager
                     {
                         return "count(" + quoteAlias( "pi" ) + ")";
                     }
-                    return "count(distinct " + quoteAlias( "pi" ) + ")";
+                    return getDistinctCount( params, quoteAlias( "pi" ), "pihash" );
                 }
                 else // EVENT
                 {
@@ -602,6 +623,68 @@ public abstract class AbstractJdbcEventAnalyticsManager
         }
     }
 
+    /**
+     * Returns an SQL expression counting the distinct values of the given
+     * column. If approximate distinct counts are enabled the hll hashes stored
+     * for the column during analytics table population are aggregated into a
+     * HyperLogLog sketch of the postgresql-hll extension, which uses constant
+     * memory instead of sorting or hashing all distinct values. With the
+     * default sketch parameters the relative standard error is about 2.3%
+     * (1.04 / sqrt(2048)).
+     * <p>
+     * Analytics tables generated before approximate distinct counts were
+     * enabled have no hash columns, in which case the distinct values are
+     * counted exactly.
+     *
+     * @param params the {@link EventQueryParams}.
+     * @param column the column.
+     * @param hashColumn the name of the column holding the hll hashes of the
+     *        column.
+     * @return the SQL expression.
+     */
+    protected String getDistinctCount( EventQueryParams params, String column, String hashColumn )
+    {
+        return approximateDistinctCount && hasHashColumn( params.getTableName(), hashColumn )
+            ? "round(hll_cardinality(hll_add_agg(" + quoteAlias( hashColumn ) + ")))::bigint"
+            : "count(distinct " + column + ")";
+    }
+
+    /**
+     * Indicates whether the given analytics table has the given hash column.
+     *
+     * @param tableName the analytics table name.
+     * @param hashColumn the hash column name.
+     * @return true if the table has the column.
+     */
+    private boolean hasHashColumn( String tableName, String hashColumn )
+    {
+        if ( tableName == null )
+        {
+            return false;
+        }
+
+        String key = tableName.toLowerCase() + "." + hashColumn;
+
+        if ( existingHashColumns.contains( key ) )
+        {
+            return true;
+        }
+
+        Boolean exists = jdbcTemplate.queryForObject( "select exists (select 1 from information_schema.columns "
+            + "where table_name = ? and column_name = ?)", Boolean.class, tableName.toLowerCase(), hashColumn );
+
+        if ( Boolean.TRUE.equals( exists ) )
+        {
+            existingHashColumns.add( key );
+
+            return true;
+        }
+
+        log.debug( "Analytics table {} has no column {}, counting distinct values exactly", tableName, hashColumn );
+
+        return false;
+    }
+
     /**
      * Creates a coordinate base column "selector" for the given item name. The
      * item is expected to be of type Coordinate.
@@ -63,7 +63,9 @@ import org.hisp.dhis.analytics.AnalyticsSecurityManager;
 import org.hisp.dhis.analytics.DataQueryParams;
 import org.hisp.dhis.analytics.EventAnalyticsDimensionalItem;
 import org.hisp.dhis.analytics.Rectangle;
+import org.hisp.dhis.analytics.Tile;
 import org.hisp.dhis.analytics.cache.AnalyticsCache;
+import org.hisp.dhis.analytics.cache.AnalyticsTileCache;
 import org.hisp.dhis.analytics.data.handler.SchemaIdResponseMapper;
 import org.hisp.dhis.analytics.event.EnrollmentAnalyticsManager;
 import org.hisp.dhis.analytics.event.EventAnalyticsManager;
@@ -184,6 +186,8 @@ public class DefaultEventAnalyticsService
 
     private final AnalyticsCache analyticsCache;
 
+    private final AnalyticsTileCache tileCache;
+
     final SchemaIdResponseMapper schemaIdResponseMapper;
 
     public DefaultEventAnalyticsService( DataElementService dataElementService,
@@ -191,7 +195,7 @@ public class DefaultEventAnalyticsService
         EventDataQueryService eventDataQueryService, AnalyticsSecurityManager securityManager,
         EventQueryPlanner queryPlanner, EventQueryValidator queryValidator, DatabaseInfo databaseInfo,
         AnalyticsCache analyticsCache, EnrollmentAnalyticsManager enrollmentAnalyticsManager,
-        SchemaIdResponseMapper schemaIdResponseMapper )
+        SchemaIdResponseMapper schemaIdResponseMapper, AnalyticsTileCache tileCache )
     {
         super( securityManager, queryValidator );
 
@@ -203,6 +207,7 @@ public class DefaultEventAnalyticsService
         checkNotNull( databaseInfo );
         checkNotNull( analyticsCache );
         checkNotNull( schemaIdResponseMapper );
+        checkNotNull( tileCache );
 
         this.dataElementService = dataElementService;
         this.trackedEntityAttributeService = trackedEntityAttributeService;
@@ -213,6 +218,7 @@ public class DefaultEventAnalyticsService
         this.analyticsCache = analyticsCache;
         this.enrollmentAnalyticsManager = enrollmentAnalyticsManager;
         this.schemaIdResponseMapper = schemaIdResponseMapper;
+        this.tileCache = tileCache;
     }
 
     // -------------------------------------------------------------------------
@@ -730,6 +736,32 @@ public class DefaultEventAnalyticsService
         return eventAnalyticsManager.getRectangle( params );
     }
 
+    @Override
+    public byte[] getEventTile( EventQueryParams params, Tile tile )
+    {
+        if ( !databaseInfo.isSpatialSupport() )
+        {
+            throwIllegalQueryEx( ErrorCode.E7218 );
+        }
+
+        params = new EventQueryParams.Builder( params )
+            .withGeometryOnly( true )
+            .withBbox( tile.getBbox() )
+            .withStartEndDatesForPeriods()
+            .build();
+
+        securityManager.decideAccessEventQuery( params );
+
+        queryValidator.validate( params );
+
+        EventQueryParams plannedParams = queryPlanner.planEventQuery( params );
+
+        byte[] mvt = tileCache.getOrFetch( params, tile,
+            () -> eventAnalyticsManager.getEventTile( plannedParams, tile ) );
+
+        return mvt != null ? mvt : new byte[0];
+    }
+
     /**
      * Creates a grid with headers.
      *
@@ -817,7 +849,7 @@ public class DefaultEventAnalyticsService
         {
             eventAnalyticsManager.getEvents( params, grid, queryValidator.getMaxLimit() );
 
-            if ( params.isPaging() && params.isTotalPages() )
+            if ( params.isPaging() && params.isTotalPages() && !params.isKeysetPaging() )
             {
                 count = eventAnalyticsManager.getEventCount( params );
             }
@@ -231,6 +231,9 @@ public class DefaultEventDataQueryService
             .withPageSize( request.getPageSize() )
             .withPaging( request.isPaging() )
             .withTotalPages( request.isTotalPages() )
+            .withKeysetPaging( request.isKeysetPaging() )
+            .withPageCursor( request.getPageCursor() )
+            .withEstimatedCount( request.isEstimatedCount() )
             .withProgramStatuses( request.getProgramStatus() )
             .withApiVersion( request.getApiVersion() );
 
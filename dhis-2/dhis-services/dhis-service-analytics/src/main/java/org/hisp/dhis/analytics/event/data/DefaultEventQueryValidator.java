@@ -42,6 +42,7 @@ import org.hisp.dhis.common.IllegalQueryException;
 import org.hisp.dhis.common.MaintenanceModeException;
 import org.hisp.dhis.common.QueryFilter;
 import org.hisp.dhis.common.QueryItem;
+import org.hisp.dhis.commons.collection.ListUtils;
 import org.hisp.dhis.feedback.ErrorCode;
 import org.hisp.dhis.feedback.ErrorMessage;
 import org.hisp.dhis.setting.SettingKey;
@@ -90,6 +91,40 @@ public class DefaultEventQueryValidator
         }
     }
 
+    /**
+     * Validates that the sort items can be seeked on and that the page cursor,
+     * if any, matches the sort items.
+     *
+     * @param params the {@link EventQueryParams}.
+     * @return an {@link ErrorMessage}, or null if valid.
+     */
+    private ErrorMessage validateKeysetPaging( EventQueryParams params )
+    {
+        List<QueryItem> sortItems = ListUtils.union( params.getAsc(), params.getDesc() );
+
+        for ( QueryItem item : sortItems )
+        {
+            if ( EventPageCursor.getColumn( item ) == null )
+            {
+                return new ErrorMessage( ErrorCode.E7232, item.getItemId() );
+            }
+        }
+
+        if ( params.hasPageCursor() )
+        {
+            try
+            {
+                EventPageCursor.decode( params.getPageCursor(), sortItems.size() + 1 );
+            }
+            catch ( IllegalQueryException ex )
+            {
+                return new ErrorMessage( ErrorCode.E7233, params.getPageCursor() );
+            }
+        }
+
+        return null;
+    }
+
     @Override
     public ErrorMessage validateForErrorMessage( EventQueryParams params )
     {
@@ -165,6 +200,10 @@ public class DefaultEventQueryValidator
         {
             error = new ErrorMessage( ErrorCode.E7228, params.getFallbackCoordinateField() );
         }
+        else if ( params.isKeysetPaging() )
+        {
+            error = validateKeysetPaging( params );
+        }
 
         for ( QueryItem item : params.getItemsAndItemFilters() )
         {
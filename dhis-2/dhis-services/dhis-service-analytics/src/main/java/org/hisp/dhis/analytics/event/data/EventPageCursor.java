@@ -0,0 +1,197 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.analytics.event.data;
+
+import static org.hisp.dhis.analytics.util.AnalyticsSqlUtils.quoteAlias;
+import static org.hisp.dhis.common.DimensionItemType.DATA_ELEMENT;
+import static org.hisp.dhis.common.DimensionItemType.PROGRAM_INDICATOR;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+import org.hisp.dhis.common.IllegalQueryException;
+import org.hisp.dhis.common.QueryItem;
+import org.hisp.dhis.feedback.ErrorCode;
+import org.hisp.dhis.feedback.ErrorMessage;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Keyset (seek) paging support for event queries. A page cursor holds the
+ * values of the sort columns and the event identifier of the last row of a
+ * page. The next page is fetched by seeking past that row instead of skipping
+ * an offset, so deep pages cost the same as the first page.
+ * <p>
+ * The cursor is opaque to clients: a URL-safe Base64 encoded JSON array of the
+ * values as text.
+ */
+final class EventPageCursor
+{
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final TypeReference<List<String>> VALUES_TYPE = new TypeReference<>()
+    {
+    };
+
+    /**
+     * Prefix of the select aliases of the keyset columns.
+     */
+    static final String KEYSET_COLUMN_PREFIX = "keyset_";
+
+    private EventPageCursor()
+    {
+        throw new UnsupportedOperationException( "util" );
+    }
+
+    /**
+     * Returns the analytics table column to seek on for a sort item, or null if
+     * the item is computed in the select clause and can't be used in a where
+     * clause. The column is qualified with the table alias, as select aliases
+     * such as the program stage prefixed data element alias can't be referred
+     * to in select expressions and where clauses.
+     *
+     * @param item the sort item.
+     * @return the quoted column, or null.
+     */
+    static String getColumn( QueryItem item )
+    {
+        if ( item.getItem().getDimensionItemType() == PROGRAM_INDICATOR )
+        {
+            return null;
+        }
+
+        if ( item.getItem().getDimensionItemType() == DATA_ELEMENT && item.hasRepeatableStageParams() )
+        {
+            return null;
+        }
+
+        return quoteAlias( item.getItem().getUid() );
+    }
+
+    /**
+     * Encodes the keyset values of the last row of a page.
+     *
+     * @param values the values, in order of the keyset columns.
+     * @return the page cursor.
+     */
+    static String encode( List<String> values )
+    {
+        try
+        {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString( MAPPER.writeValueAsBytes( values ) );
+        }
+        catch ( IOException ex )
+        {
+            throw new IllegalStateException( "Failed to encode page cursor", ex );
+        }
+    }
+
+    /**
+     * Decodes a page cursor.
+     *
+     * @param cursor the page cursor.
+     * @param columnCount the expected number of keyset columns.
+     * @return the values, in order of the keyset columns.
+     * @throws IllegalQueryException if the cursor is invalid.
+     */
+    static List<String> decode( String cursor, int columnCount )
+    {
+        try
+        {
+            List<String> values = MAPPER.readValue( Base64.getUrlDecoder().decode( cursor ), VALUES_TYPE );
+
+            if ( values != null && values.size() == columnCount )
+            {
+                return values;
+            }
+        }
+        catch ( IOException | IllegalArgumentException ex )
+        {
+            // Handled below
+        }
+
+        throw new IllegalQueryException( new ErrorMessage( ErrorCode.E7233, cursor ) );
+    }
+
+    /**
+     * Returns a where condition selecting the rows after the row with the
+     * given keyset values. Null values are ordered as by PostgreSQL, last when
+     * ascending and first when descending. The last column must be unique and
+     * not null.
+     *
+     * @param columns the keyset columns.
+     * @param ascending whether each keyset column is sorted ascending.
+     * @param values the keyset values of the last row of the previous page.
+     * @return the where condition.
+     */
+    static String getSeekCondition( List<String> columns, List<Boolean> ascending, List<String> values )
+    {
+        List<String> alternatives = new ArrayList<>();
+
+        String equalPrefix = "";
+
+        for ( int i = 0; i < columns.size(); i++ )
+        {
+            String column = columns.get( i );
+            String value = values.get( i );
+
+            String after = getAfterCondition( column, ascending.get( i ), value );
+
+            if ( after != null )
+            {
+                alternatives.add( "(" + equalPrefix + after + ")" );
+            }
+
+            equalPrefix += (value == null ? column + " is null" : column + " = " + literal( value )) + " and ";
+        }
+
+        return alternatives.isEmpty() ? "false" : "(" + String.join( " or ", alternatives ) + ")";
+    }
+
+    /**
+     * Returns the condition for a column value to sort after the given value,
+     * or null if no value can sort after it.
+     */
+    private static String getAfterCondition( String column, boolean ascending, String value )
+    {
+        if ( ascending )
+        {
+            return value == null ? null : "(" + column + " > " + literal( value ) + " or " + column + " is null)";
+        }
+
+        return value == null ? column + " is not null" : column + " < " + literal( value );
+    }
+
+    private static String literal( String value )
+    {
+        return "'" + value.replace( "'", "''" ) + "'";
+    }
+}
@@ -48,9 +48,13 @@ import static org.hisp.dhis.feedback.ErrorCode.E7133;
 import static org.hisp.dhis.util.DateUtils.getMediumDateString;
 import static org.postgresql.util.PSQLState.DIVISION_BY_ZERO;
 
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 import lombok.extern.slf4j.Slf4j;
@@ -59,6 +63,7 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.math3.util.Precision;
 import org.hisp.dhis.analytics.AggregationType;
 import org.hisp.dhis.analytics.Rectangle;
+import org.hisp.dhis.analytics.Tile;
 import org.hisp.dhis.analytics.analyze.ExecutionPlanStore;
 import org.hisp.dhis.analytics.event.EventAnalyticsManager;
 import org.hisp.dhis.analytics.event.EventQueryParams;
@@ -83,6 +88,7 @@ import org.hisp.dhis.organisationunit.OrganisationUnit;
 import org.hisp.dhis.period.Period;
 import org.hisp.dhis.program.AnalyticsType;
 import org.hisp.dhis.program.ProgramIndicatorService;
+import org.hisp.dhis.system.database.DatabaseInfo;
 import org.postgresql.util.PSQLException;
 import org.springframework.dao.DataAccessResourceFailureException;
 import org.springframework.dao.DataIntegrityViolationException;
@@ -112,15 +118,34 @@ public class JdbcEventAnalyticsManager
 
     private static final String ORG_UNIT_UID_LEVEL_COLUMN_PREFIX = "uidlevel";
 
+    /**
+     * Key of the next page cursor in the internal meta data of the grid.
+     */
+    public static final String NEXT_PAGE_CURSOR_KEY = "nextPageCursor";
+
+    private static final String TILE_LAYER = "events";
+
+    private static final int TILE_EXTENT = 4096;
+
+    private static final int TILE_BUFFER = 64;
+
+    /**
+     * Default cluster grid size for tiles in tile pixels.
+     */
+    private static final long DEFAULT_TILE_CLUSTER_SIZE = 64;
+
+    private static final Pattern PLAN_ROWS_PATTERN = Pattern.compile( "\"Plan Rows\":\\s*(\\d+)" );
+
     private final EventTimeFieldSqlRenderer timeFieldSqlRenderer;
 
     public JdbcEventAnalyticsManager( JdbcTemplate jdbcTemplate, StatementBuilder statementBuilder,
         ProgramIndicatorService programIndicatorService,
         ProgramIndicatorSubqueryBuilder programIndicatorSubqueryBuilder,
-        EventTimeFieldSqlRenderer timeFieldSqlRenderer, ExecutionPlanStore executionPlanStore )
+        EventTimeFieldSqlRenderer timeFieldSqlRenderer, ExecutionPlanStore executionPlanStore,
+        DatabaseInfo databaseInfo )
     {
         super( jdbcTemplate, statementBuilder, programIndicatorService, programIndicatorSubqueryBuilder,
-            executionPlanStore );
+            executionPlanStore, databaseInfo );
         this.timeFieldSqlRenderer = timeFieldSqlRenderer;
     }
 
@@ -157,17 +182,28 @@ public class JdbcEventAnalyticsManager
 
         int rowsRed = 0;
 
+        boolean keyset = params.isKeysetPaging();
+
+        int pageSize = keyset ? params.getPageSizeWithDefault() : params.getPageSize();
+
+        List<String> lastKeyset = null;
+
         grid.setLastDataRow( true );
 
         while ( rowSet.next() )
         {
-            if ( ++rowsRed > params.getPageSize() && !params.isTotalPages() )
+            if ( ++rowsRed > pageSize && (keyset || !params.isTotalPages()) )
             {
                 grid.setLastDataRow( false );
 
                 continue;
             }
 
+            if ( keyset )
+            {
+                lastKeyset = getKeysetValues( params, rowSet );
+            }
+
             grid.addRow();
 
             int index = 1;
@@ -187,6 +223,97 @@ public class JdbcEventAnalyticsManager
                 index++;
             }
         }
+
+        if ( keyset && !grid.hasLastDataRow() && lastKeyset != null )
+        {
+            grid.getInternalMetaData().put( NEXT_PAGE_CURSOR_KEY, EventPageCursor.encode( lastKeyset ) );
+        }
+    }
+
+    /**
+     * Returns the SQL for a page of events when keyset paging. The sort
+     * columns and the event identifier are selected as text after the grid
+     * columns and make up the keyset, which is seeked past when a page cursor
+     * is given. One row more than the page size is fetched to detect the last
+     * page.
+     *
+     * @param params the {@link EventQueryParams}.
+     * @return the SQL statement.
+     */
+    @Override
+    String getEventsOrEnrollmentsSql( EventQueryParams params, int maxLimit )
+    {
+        if ( !params.isKeysetPaging() )
+        {
+            return super.getEventsOrEnrollmentsSql( params, maxLimit );
+        }
+
+        List<String> columns = new ArrayList<>();
+        List<Boolean> ascending = new ArrayList<>();
+
+        params.getAsc().forEach( item -> {
+            columns.add( EventPageCursor.getColumn( item ) );
+            ascending.add( true );
+        } );
+
+        params.getDesc().forEach( item -> {
+            columns.add( EventPageCursor.getColumn( item ) );
+            ascending.add( false );
+        } );
+
+        columns.add( quoteAlias( "psi" ) );
+        ascending.add( true );
+
+        String sql = getSelectClause( params ).trim();
+
+        for ( int i = 0; i < columns.size(); i++ )
+        {
+            sql += "," + columns.get( i ) + "::text as " + quote( EventPageCursor.KEYSET_COLUMN_PREFIX + i );
+        }
+
+        sql += " " + getFromClause( params );
+
+        String where = getWhereClause( params );
+
+        sql += where;
+
+        if ( params.hasPageCursor() )
+        {
+            List<String> values = EventPageCursor.decode( params.getPageCursor(), columns.size() );
+
+            sql += (StringUtils.isBlank( where ) ? " where " : " and ") +
+                EventPageCursor.getSeekCondition( columns, ascending, values ) + " ";
+        }
+
+        List<String> orderBy = new ArrayList<>();
+
+        for ( int i = 0; i < columns.size(); i++ )
+        {
+            orderBy.add( columns.get( i ) + (ascending.get( i ) ? " asc" : " desc") );
+        }
+
+        sql += "order by " + String.join( ",", orderBy ) + " ";
+
+        sql += "limit " + (params.getPageSizeWithDefault() + 1);
+
+        return sql;
+    }
+
+    /**
+     * Returns the keyset values of the current row of the given row set.
+     */
+    private List<String> getKeysetValues( EventQueryParams params, SqlRowSet rowSet )
+    {
+        int columnCount = params.getAsc().size() + params.getDesc().size() + 1;
+
+        List<String> values = new ArrayList<>( columnCount );
+
+        for ( int i = 0; i < columnCount; i++ )
+        {
+            values.add( rowSet.getString( EventPageCursor.KEYSET_COLUMN_PREFIX + i ) );
+        }
+
+        return values;
     }
 
     @Override
@@ -231,6 +358,55 @@ public class JdbcEventAnalyticsManager
         return grid;
     }
 
+    @Override
+    public byte[] getEventTile( EventQueryParams params, Tile tile )
+    {
+        double[] envelope = tile.getEnvelope();
+
+        String tileEnvelope = String.format( Locale.ROOT, "ST_MakeEnvelope(%f,%f,%f,%f,3857)",
+            envelope[0], envelope[1], envelope[2], envelope[3] );
+
+        long clusterSize = params.hasClusterSize() ? params.getClusterSize() : DEFAULT_TILE_CLUSTER_SIZE;
+
+        String sql = "select ST_AsMVT(t, '" + TILE_LAYER + "', " + TILE_EXTENT + ", 'geom') from (" +
+            "select ST_Centroid(ST_Collect(geom)) as geom, count(psi) as count, " +
+            "case when count(psi) = 1 then min(psi) end as event from (" +
+            "select ST_AsMVTGeom(ST_Transform(ST_Centroid(" + quoteAlias( params.getCoordinateField() ) +
+            "), 3857), " + tileEnvelope + ", " + TILE_EXTENT + ", " + TILE_BUFFER + ", true) as geom, psi ";
+
+        sql += getFromClause( params );
+
+        sql += getWhereClause( params );
+
+        sql += ") as p where geom is not null " +
+            "group by ST_SnapToGrid(geom, " + clusterSize + ")) as t";
+
+        log.debug( String.format( "Analytics event tile SQL: %s", sql ) );
+
+        try
+        {
+            byte[] mvt = jdbcTemplate.queryForObject( sql, byte[].class );
+
+            return mvt != null ? mvt : new byte[0];
+        }
+        catch ( BadSqlGrammarException ex )
+        {
+            log.info( AnalyticsUtils.ERR_MSG_TABLE_NOT_EXISTING, ex );
+
+            return null;
+        }
+        catch ( DataAccessResourceFailureException ex )
+        {
+            log.warn( E7131.getMessage(), ex );
+            throw new QueryRuntimeException( E7131, ex );
+        }
+        catch ( DataIntegrityViolationException ex )
+        {
+            log.warn( E7132.getMessage(), ex );
+            throw new QueryRuntimeException( E7132, ex );
+        }
+    }
+
     @Override
     public long getEventCount( EventQueryParams params )
     {
@@ -250,6 +426,10 @@ public class JdbcEventAnalyticsManager
             {
                 executionPlanStore.addExecutionPlan( params.getExplainOrderId(), sql );
             }
+            else if ( params.isEstimatedCount() )
+            {
+                count = getEstimatedEventCount( params );
+            }
             else
             {
                 count = jdbcTemplate.queryForObject( sql, Long.class );
@@ -273,6 +453,35 @@ public class JdbcEventAnalyticsManager
         return count;
     }
 
+    /**
+     * Returns the number of rows of the event query as estimated by the query
+     * planner from table statistics, which avoids scanning all matching rows.
+     * Falls back to an exact count if no estimate is available.
+     *
+     * @param params the {@link EventQueryParams}.
+     * @return the estimated number of events.
+     */
+    private long getEstimatedEventCount( EventQueryParams params )
+    {
+        String sql = "explain (format json) select 1 " + getFromClause( params ) + getWhereClause( params );
+
+        log.debug( "Analytics event estimated count SQL: " + sql );
+
+        String plan = jdbcTemplate.queryForObject( sql, String.class );
+
+        Matcher matcher = plan != null ? PLAN_ROWS_PATTERN.matcher( plan ) : null;
+
+        if ( matcher != null && matcher.find() )
+        {
+            return Long.parseLong( matcher.group( 1 ) );
+        }
+
+        log.debug( "No row estimate in query plan, counting events" );
+
+        return jdbcTemplate.queryForObject(
+            "select count(1) " + getFromClause( params ) + getWhereClause( params ), Long.class );
+    }
+
     @Override
     public Rectangle getRectangle( EventQueryParams params )
     {
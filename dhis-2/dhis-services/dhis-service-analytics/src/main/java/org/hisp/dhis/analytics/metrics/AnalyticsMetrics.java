@@ -0,0 +1,275 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.analytics.metrics;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import org.hisp.dhis.analytics.AnalyticsTableType;
+import org.hisp.dhis.analytics.DataQueryParams;
+import org.hisp.dhis.analytics.Partitions;
+import org.hisp.dhis.external.conf.ConfigurationKey;
+import org.hisp.dhis.external.conf.DhisConfigurationProvider;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+
+/**
+ * Records the time spent and the work done in each stage of the aggregate
+ * analytics pipeline, from query planning to serialization of the response.
+ * The meters are registered with the application {@link MeterRegistry} and are
+ * exposed by the Prometheus scrape endpoint.
+ *
+ * Recording is enabled with {@link ConfigurationKey#MONITORING_ANALYTICS_ENABLED}.
+ * When disabled, the meters are registered with an empty composite registry
+ * and all operations are no-ops.
+ *
+ * Timers are started with {@link #start()}, which returns {@code null} when
+ * the recording is disabled, and stopped with one of the stage methods.
+ */
+@Component
+public class AnalyticsMetrics
+{
+    private static final String PREFIX = "analytics.";
+
+    private static final String TAG_TABLE_TYPE = "tableType";
+
+    private static final String TAG_OUTPUT_FORMAT = "outputFormat";
+
+    private static final String NONE = "none";
+
+    private final MeterRegistry registry;
+
+    private final boolean enabled;
+
+    public AnalyticsMetrics( MeterRegistry registry, DhisConfigurationProvider config )
+    {
+        checkNotNull( registry );
+        checkNotNull( config );
+
+        this.enabled = config.isEnabled( ConfigurationKey.MONITORING_ANALYTICS_ENABLED );
+        this.registry = enabled ? registry : new CompositeMeterRegistry();
+    }
+
+    public boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    /**
+     * Starts timing a stage.
+     *
+     * @return a timer sample, or null if recording is disabled.
+     */
+    public Timer.Sample start()
+    {
+        return enabled ? Timer.start( registry ) : null;
+    }
+
+    /**
+     * Records the planning of a query into query groups.
+     *
+     * @param sample the sample returned by {@link #start()}.
+     * @param params the planned {@link DataQueryParams}.
+     * @param tableType the {@link AnalyticsTableType}.
+     */
+    public void recordPlanning( Timer.Sample sample, DataQueryParams params, AnalyticsTableType tableType )
+    {
+        stop( sample, "query.planning", "Time spent planning analytics queries",
+            Tags.of( TAG_TABLE_TYPE, getTableType( tableType ), TAG_OUTPUT_FORMAT, getOutputFormat( params ) ) );
+    }
+
+    /**
+     * Records the number of queries a query was split into by a planning
+     * criterion, such as the period type or the organisation unit level.
+     *
+     * @param criterion the splitting criterion.
+     * @param tableType the {@link AnalyticsTableType}.
+     * @param queries the number of queries after splitting.
+     */
+    public void recordSubQueries( String criterion, AnalyticsTableType tableType, int queries )
+    {
+        if ( !enabled )
+        {
+            return;
+        }
+
+        DistributionSummary.builder( PREFIX + "query.subqueries" )
+            .description( "Number of queries an analytics query is split into per planning criterion" )
+            .tags( TAG_TABLE_TYPE, getTableType( tableType ), "criterion", criterion )
+            .register( registry )
+            .record( queries );
+    }
+
+    /**
+     * Records the execution of all query groups of a planned query, including
+     * the time spent waiting for the asynchronous SQL queries.
+     *
+     * @param sample the sample returned by {@link #start()}.
+     * @param params the {@link DataQueryParams}.
+     * @param tableType the {@link AnalyticsTableType}.
+     */
+    public void recordExecution( Timer.Sample sample, DataQueryParams params, AnalyticsTableType tableType )
+    {
+        stop( sample, "query.execution", "Time spent executing planned analytics queries",
+            Tags.of( TAG_TABLE_TYPE, getTableType( tableType ), TAG_OUTPUT_FORMAT, getOutputFormat( params ) ) );
+    }
+
+    /**
+     * Records the execution of a SQL query against the analytics tables,
+     * tagged with the partition of the query.
+     *
+     * @param sample the sample returned by {@link #start()}.
+     * @param params the executed {@link DataQueryParams}.
+     * @param tableType the {@link AnalyticsTableType}.
+     * @param rows the number of rows read, which is less than the number of
+     *        rows returned when the query failed.
+     */
+    public void recordSqlQuery( Timer.Sample sample, DataQueryParams params, AnalyticsTableType tableType, int rows )
+    {
+        if ( !enabled )
+        {
+            return;
+        }
+
+        Tags tags = Tags.of( TAG_TABLE_TYPE, getTableType( tableType ), "partition", getPartition( params ) );
+
+        stop( sample, "query.sql", "Time spent executing analytics SQL queries", tags );
+
+        DistributionSummary.builder( PREFIX + "query.rows" )
+            .description( "Number of rows returned by analytics SQL queries" )
+            .tags( tags )
+            .register( registry )
+            .record( rows );
+    }
+
+    /**
+     * Records the assembly of a grid, from the headers to the meta-data.
+     *
+     * @param sample the sample returned by {@link #start()}.
+     * @param params the {@link DataQueryParams}.
+     */
+    public void recordGridAssembly( Timer.Sample sample, DataQueryParams params )
+    {
+        stop( sample, "grid.assembly", "Time spent assembling analytics grids",
+            Tags.of( TAG_OUTPUT_FORMAT, getOutputFormat( params ) ) );
+    }
+
+    /**
+     * Records the post-processing of a grid, including meta-data, identifier
+     * schemes and sorting.
+     *
+     * @param sample the sample returned by {@link #start()}.
+     * @param params the {@link DataQueryParams}.
+     */
+    public void recordPostProcessing( Timer.Sample sample, DataQueryParams params )
+    {
+        stop( sample, "grid.postprocessing", "Time spent post-processing analytics grids",
+            Tags.of( TAG_OUTPUT_FORMAT, getOutputFormat( params ) ) );
+    }
+
+    /**
+     * Records a lookup in the analytics response cache.
+     *
+     * @param hit whether the response was found in the cache.
+     */
+    public void recordCacheLookup( boolean hit )
+    {
+        if ( !enabled )
+        {
+            return;
+        }
+
+        Counter.builder( PREFIX + "cache.requests" )
+            .description( "Number of lookups in the analytics response cache" )
+            .tag( "result", hit ? "hit" : "miss" )
+            .register( registry )
+            .increment();
+    }
+
+    /**
+     * Records the serialization of a response.
+     *
+     * @param sample the sample returned by {@link #start()}.
+     * @param format the response format, such as csv or xls.
+     */
+    public void recordSerialization( Timer.Sample sample, String format )
+    {
+        stop( sample, "serialization", "Time spent serializing analytics responses",
+            Tags.of( "format", format ) );
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    private void stop( Timer.Sample sample, String name, String description, Tags tags )
+    {
+        if ( !enabled || sample == null )
+        {
+            return;
+        }
+
+        sample.stop( Timer.builder( PREFIX + name )
+            .description( description )
+            .tags( tags )
+            .publishPercentileHistogram()
+            .register( registry ) );
+    }
+
+    private static String getTableType( AnalyticsTableType tableType )
+    {
+        return tableType != null ? tableType.name().toLowerCase() : NONE;
+    }
+
+    private static String getOutputFormat( DataQueryParams params )
+    {
+        return params != null && params.getOutputFormat() != null ? params.getOutputFormat().name().toLowerCase()
+            : NONE;
+    }
+
+    /**
+     * Returns the partition of the query, being the year of the partition or
+     * "multiple" if the query spans more than one partition.
+     */
+    private static String getPartition( DataQueryParams params )
+    {
+        Partitions partitions = params.getPartitions();
+
+        if ( partitions == null || !partitions.hasAny() )
+        {
+            return NONE;
+        }
+
+        return partitions.hasOne() ? String.valueOf( partitions.getAny() ) : "multiple";
+    }
+}
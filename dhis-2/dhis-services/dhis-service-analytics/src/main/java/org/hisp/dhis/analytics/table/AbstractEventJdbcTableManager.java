@@ -293,4 +293,32 @@ public abstract class AbstractEventJdbcTableManager
 
         return columns;
     }
+
+    /**
+     * Returns columns with the hll hashes of the enrollment and, for programs
+     * with registration, the tracked entity instance, from which approximate
+     * distinct counts are aggregated at query time. Returns no columns if
+     * approximate distinct counts are not supported.
+     *
+     * @param program the {@link Program}.
+     * @return a list of {@link AnalyticsTableColumn}.
+     */
+    protected List<AnalyticsTableColumn> getHllHashColumns( Program program )
+    {
+        List<AnalyticsTableColumn> columns = new ArrayList<>();
+
+        if ( databaseInfo.isHllSupport() )
+        {
+            columns.add( new AnalyticsTableColumn( quote( "pihash" ), ColumnDataType.HLL_HASHVAL,
+                "hll_hash_text(pi.uid)" ).withSkipIndex( true ) );
+
+            if ( program.isRegistration() )
+            {
+                columns.add( new AnalyticsTableColumn( quote( "teihash" ), ColumnDataType.HLL_HASHVAL,
+                    "hll_hash_text(tei.uid)" ).withSkipIndex( true ) );
+            }
+        }
+
+        return columns;
+    }
 }
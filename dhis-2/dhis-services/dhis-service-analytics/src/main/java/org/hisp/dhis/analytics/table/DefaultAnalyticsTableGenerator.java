@@ -27,12 +27,14 @@
  */
 package org.hisp.dhis.analytics.table;
 
+import static org.hisp.dhis.analytics.util.AnalyticsUtils.getProcessNo;
 import static org.hisp.dhis.util.DateUtils.getLongDateString;
 
 import java.util.Date;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -44,6 +46,7 @@ import org.hisp.dhis.analytics.AnalyticsTableService;
 import org.hisp.dhis.analytics.AnalyticsTableType;
 import org.hisp.dhis.analytics.AnalyticsTableUpdateParams;
 import org.hisp.dhis.analytics.cache.AnalyticsCache;
+import org.hisp.dhis.analytics.cache.DashboardCacheWarmer;
 import org.hisp.dhis.commons.collection.CollectionUtils;
 import org.hisp.dhis.commons.util.DebugUtils;
 import org.hisp.dhis.message.MessageService;
@@ -73,6 +76,8 @@ public class DefaultAnalyticsTableGenerator
 
     private final AnalyticsCache analyticsCache;
 
+    private final DashboardCacheWarmer dashboardCacheWarmer;
+
     // TODO introduce last successful timestamps per table type
 
     @Override
@@ -144,6 +149,8 @@ public class DefaultAnalyticsTableGenerator
         }
 
         analyticsCache.invalidateAll();
+
+        dashboardCacheWarmer.warmUp( params.getWarmUpDashboards(), params.getWarmUpTimeLimit(), progress );
     }
 
     @Override
@@ -179,9 +186,12 @@ public class DefaultAnalyticsTableGenerator
     {
         resourceTableService.dropAllSqlViews( progress );
 
+        // OrganisationUnit structure is referenced by other resource tables
+
+        progress.startingStage( "Generating OrganisationUnit structures" );
+        progress.runStage( resourceTableService::generateOrganisationUnitStructures );
+
         Map<String, Runnable> generators = new LinkedHashMap<>();
-        generators.put( "generating OrganisationUnit structures",
-            resourceTableService::generateOrganisationUnitStructures );
         generators.put( "generating DataSetOrganisationUnitCategory table",
             resourceTableService::generateDataSetOrganisationUnitCategoryTable );
         generators.put( "generating CategoryOptionCombo names",
@@ -197,8 +207,14 @@ public class DefaultAnalyticsTableGenerator
         generators.put( "generating DatePeriod table", resourceTableService::generateDatePeriodTable );
         generators.put( "generating  CategoryOptionCombo table",
             resourceTableService::generateCategoryOptionComboTable );
+
+        int parallelism = Math.min( getProcessNo( systemSettingManager ), generators.size() );
+
+        log.info( "Generate resource tables task number: " + parallelism );
+
         progress.startingStage( "Generating resource tables", generators.size() );
-        progress.runStage( generators );
+        progress.runStageInParallel( parallelism, generators.entrySet(), Entry::getKey,
+            entry -> entry.getValue().run() );
 
         resourceTableService.createAllSqlViews( progress );
     }
@@ -29,6 +29,7 @@ package org.hisp.dhis.analytics.table;
 
 import static org.hisp.dhis.analytics.util.AnalyticsIndexHelper.getIndexName;
 import static org.hisp.dhis.analytics.util.AnalyticsIndexHelper.getIndexes;
+import static org.hisp.dhis.analytics.util.AnalyticsUtils.getProcessNo;
 import static org.hisp.dhis.util.DateUtils.getLongDateString;
 
 import java.util.Collection;
@@ -46,12 +47,10 @@ import org.hisp.dhis.analytics.AnalyticsTableService;
 import org.hisp.dhis.analytics.AnalyticsTableType;
 import org.hisp.dhis.analytics.AnalyticsTableUpdateParams;
 import org.hisp.dhis.common.IdentifiableObjectUtils;
-import org.hisp.dhis.commons.util.SystemUtils;
 import org.hisp.dhis.dataelement.DataElementService;
 import org.hisp.dhis.organisationunit.OrganisationUnitService;
 import org.hisp.dhis.resourcetable.ResourceTableService;
 import org.hisp.dhis.scheduling.JobProgress;
-import org.hisp.dhis.setting.SettingKey;
 import org.hisp.dhis.setting.SystemSettingManager;
 import org.hisp.dhis.system.util.Clock;
 
@@ -82,7 +81,7 @@ public class DefaultAnalyticsTableService
     @Override
     public void update( AnalyticsTableUpdateParams params, JobProgress progress )
     {
-        final int processNo = getProcessNo();
+        final int processNo = getProcessNo( systemSettingManager );
 
         int tableUpdates = 0;
 
@@ -239,7 +238,7 @@ public class DefaultAnalyticsTableService
     private void populateTables( AnalyticsTableUpdateParams params, List<AnalyticsTablePartition> partitions,
         JobProgress progress )
     {
-        int parallelism = Math.min( getProcessNo(), partitions.size() );
+        int parallelism = Math.min( getProcessNo( systemSettingManager ), partitions.size() );
         log.info( "Populate table task number: " + parallelism );
 
         progress.runStageInParallel( parallelism, partitions, AnalyticsTablePartition::getTableName,
@@ -268,7 +267,8 @@ public class DefaultAnalyticsTableService
             if ( !dataElements.isEmpty() )
             {
                 progress.startingStage( "Applying aggregation level " + level + " " + tableType, partitions.size() );
-                progress.runStageInParallel( getProcessNo(), partitions, AnalyticsTablePartition::getTableName,
+                progress.runStageInParallel( getProcessNo( systemSettingManager ), partitions,
+                    AnalyticsTablePartition::getTableName,
                     partition -> tableManager.applyAggregationLevels( partition, dataElements, level ) );
 
                 aggLevels += dataElements.size();
@@ -283,8 +283,8 @@ public class DefaultAnalyticsTableService
      */
     private void vacuumTables( List<AnalyticsTablePartition> partitions, JobProgress progress )
     {
-        progress.runStageInParallel( getProcessNo(), partitions, AnalyticsTablePartition::getTableName,
-            tableManager::vacuumTables );
+        progress.runStageInParallel( getProcessNo( systemSettingManager ), partitions,
+            AnalyticsTablePartition::getTableName, tableManager::vacuumTables );
     }
 
     /**
@@ -294,7 +294,7 @@ public class DefaultAnalyticsTableService
     {
         AnalyticsTableType type = getAnalyticsTableType();
         log.info( "No of analytics table indexes: " + indexes.size() );
-        progress.runStageInParallel( getProcessNo(), indexes,
+        progress.runStageInParallel( getProcessNo( systemSettingManager ), indexes,
             index -> getIndexName( index, type ).replace( "\"", "" ),
             tableManager::createIndex );
     }
@@ -323,19 +323,4 @@ public class DefaultAnalyticsTableService
 
         resourceTableService.createAllSqlViews( progress );
     }
-
-    /**
-     * Gets the number of available cores. Uses explicit number from system
-     * setting if available. Detects number of cores from current server runtime
-     * if not. Subtracts one to the number of cores if greater than two to allow
-     * one core for general system operations.
-     */
-    private int getProcessNo()
-    {
-        Integer cores = systemSettingManager.getIntegerSetting( SettingKey.DATABASE_SERVER_CPUS );
-
-        cores = (cores == null || cores == 0) ? SystemUtils.getCpuCores() : cores;
-
-        return cores > 2 ? (cores - 1) : cores;
-    }
 }
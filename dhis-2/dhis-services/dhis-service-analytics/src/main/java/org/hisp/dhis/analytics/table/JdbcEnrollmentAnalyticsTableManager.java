@@ -208,6 +208,8 @@ public class JdbcEnrollmentAnalyticsTableManager
             columns.add( new AnalyticsTableColumn( quote( "tei" ), CHARACTER_11, "tei.uid" ) );
         }
 
+        columns.addAll( getHllHashColumns( program ) );
+
         return filterDimensionColumns( columns );
     }
 
@@ -427,6 +427,8 @@ public class JdbcEventAnalyticsTableManager
             columns.add( new AnalyticsTableColumn( quote( "tei" ), CHARACTER_11, "tei.uid" ) );
         }
 
+        columns.addAll( getHllHashColumns( program ) );
+
         return filterDimensionColumns( columns );
     }
 
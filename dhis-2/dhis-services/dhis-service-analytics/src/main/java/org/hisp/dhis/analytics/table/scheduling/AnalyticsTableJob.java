@@ -75,6 +75,7 @@ public class AnalyticsTableJob implements Job
             .withSkipResourceTables( parameters.isSkipResourceTables() )
             .withSkipTableTypes( parameters.getSkipTableTypes() )
             .withSkipPrograms( parameters.getSkipPrograms() )
+            .withWarmUp( parameters.getWarmUpDashboards(), parameters.getWarmUpTimeLimit() )
             .withJobId( jobConfiguration )
             .withStartTime( new Date() )
             .build();
@@ -73,6 +73,7 @@ import org.hisp.dhis.common.NameableObjectUtils;
 import org.hisp.dhis.common.QueryItem;
 import org.hisp.dhis.common.RegexUtils;
 import org.hisp.dhis.common.ValueType;
+import org.hisp.dhis.commons.util.SystemUtils;
 import org.hisp.dhis.commons.util.TextUtils;
 import org.hisp.dhis.dataelement.DataElement;
 import org.hisp.dhis.dataelement.DataElementOperand;
@@ -90,6 +91,8 @@ import org.hisp.dhis.period.PeriodType;
 import org.hisp.dhis.program.Program;
 import org.hisp.dhis.program.ProgramIndicator;
 import org.hisp.dhis.program.ProgramStage;
+import org.hisp.dhis.setting.SettingKey;
+import org.hisp.dhis.setting.SystemSettingManager;
 import org.hisp.dhis.system.util.MathUtils;
 import org.hisp.dhis.util.DateUtils;
 import org.joda.time.DateTime;
@@ -967,4 +970,36 @@ public class AnalyticsUtils
         return periodIndex < row.size() && row.get( periodIndex ) instanceof String
             && PeriodType.getPeriodFromIsoString( (String) row.get( periodIndex ) ) != null;
     }
+
+    /**
+     * Gets the number of database server CPUs. Uses explicit number from
+     * system setting if available. Detects number of cores from current
+     * server runtime if not.
+     *
+     * @param systemSettingManager the {@link SystemSettingManager}.
+     * @return the number of available cores.
+     */
+    public static int getDatabaseServerCpus( SystemSettingManager systemSettingManager )
+    {
+        Integer cores = systemSettingManager.getIntegerSetting( SettingKey.DATABASE_SERVER_CPUS );
+
+        return (cores == null || cores == 0) ? SystemUtils.getCpuCores() : cores;
+    }
+
+    /**
+     * Gets the number of processes for parallel work on analytics and
+     * resource tables, which is the number of database server CPUs, see
+     * {@link #getDatabaseServerCpus(SystemSettingManager)}. Subtracts one to
+     * the number of cores if greater than two to allow one core for general
+     * system operations.
+     *
+     * @param systemSettingManager the {@link SystemSettingManager}.
+     * @return the number of processes.
+     */
+    public static int getProcessNo( SystemSettingManager systemSettingManager )
+    {
+        int cores = getDatabaseServerCpus( systemSettingManager );
+
+        return cores > 2 ? (cores - 1) : cores;
+    }
 }
@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.analytics;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.hisp.dhis.common.IllegalQueryException;
+import org.hisp.dhis.feedback.ErrorCode;
+import org.hisp.dhis.system.util.ValidationUtils;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link Tile}.
+ */
+class TileTest
+{
+    private static final double EXTENT = 20037508.342789244;
+
+    @Test
+    void testGetEnvelope()
+    {
+        assertArrayEquals( new double[] { -EXTENT, -EXTENT, EXTENT, EXTENT }, Tile.of( 0, 0, 0 ).getEnvelope(),
+            0.001 );
+        assertArrayEquals( new double[] { 0, 0, EXTENT, EXTENT }, Tile.of( 1, 1, 0 ).getEnvelope(), 0.001 );
+        assertArrayEquals( new double[] { -EXTENT, -EXTENT, 0, 0 }, Tile.of( 1, 0, 1 ).getEnvelope(), 0.001 );
+    }
+
+    @Test
+    void testGetBbox()
+    {
+        assertEquals( "-180.00000000,-85.05112878,180.00000000,85.05112878", Tile.of( 0, 0, 0 ).getBbox() );
+        assertEquals( "0.00000000,0.00000000,180.00000000,85.05112878", Tile.of( 1, 1, 0 ).getBbox() );
+        assertTrue( ValidationUtils.bboxIsValid( Tile.of( 12, 2048, 1361 ).getBbox() ) );
+    }
+
+    @Test
+    void testInvalidCoordinates()
+    {
+        IllegalQueryException ex = assertThrows( IllegalQueryException.class, () -> Tile.of( 1, 2, 0 ) );
+        assertEquals( ErrorCode.E7234, ex.getErrorCode() );
+
+        assertThrows( IllegalQueryException.class, () -> Tile.of( -1, 0, 0 ) );
+        assertThrows( IllegalQueryException.class, () -> Tile.of( 23, 0, 0 ) );
+    }
+}
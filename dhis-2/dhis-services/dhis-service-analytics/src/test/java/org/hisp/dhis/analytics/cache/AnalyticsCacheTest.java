@@ -29,13 +29,18 @@ package org.hisp.dhis.analytics.cache;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 import java.time.Duration;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 
 import org.hisp.dhis.analytics.DataQueryParams;
+import org.hisp.dhis.analytics.metrics.AnalyticsMetrics;
 import org.hisp.dhis.cache.Cache;
 import org.hisp.dhis.cache.CacheBuilder;
 import org.hisp.dhis.cache.DefaultCacheProvider;
@@ -81,7 +86,8 @@ class AnalyticsCacheTest
         Mockito.<Cache<Grid>> when( cacheProvider.createAnalyticsResponseCache( any( Duration.class ) ) )
             .thenReturn( cache );
 
-        final AnalyticsCache analyticsCache = new AnalyticsCache( cacheProvider, settings );
+        final AnalyticsCache analyticsCache = new AnalyticsCache( cacheProvider, settings,
+            mock( AnalyticsMetrics.class ), mock( AnalyticsResultStore.class ) );
 
         final Grid grid = new ListGrid();
         grid.addHeader( new GridHeader( "Header1" ) )
@@ -124,4 +130,37 @@ class AnalyticsCacheTest
 
         assertEquals( 2, optCachedGrid.get().getRows().size() );
     }
+
+    @Test
+    void storeResultWithTableVersionBeforeFetch()
+    {
+        final AnalyticsCacheSettings settings = new AnalyticsCacheSettings( systemSettingManager );
+
+        final Cache<Grid> cache = new LocalCache<>( new SimpleCacheBuilder<Grid>()
+            .expireAfterWrite( 1L, TimeUnit.MINUTES ) );
+
+        Mockito.<Cache<Grid>> when( cacheProvider.createAnalyticsResponseCache( any( Duration.class ) ) )
+            .thenReturn( cache );
+
+        final AnalyticsResultStore store = mock( AnalyticsResultStore.class );
+
+        when( store.isEnabled() ).thenReturn( true );
+        when( store.get( any( String.class ) ) ).thenReturn( Optional.empty() );
+        when( store.getTableVersion() ).thenReturn( 1L );
+
+        final AnalyticsCache analyticsCache = new AnalyticsCache( cacheProvider, settings,
+            mock( AnalyticsMetrics.class ), store );
+
+        DataQueryParams params = DataQueryParams.newBuilder()
+            .withDataElements( Lists.newArrayList( new DataElement( "dataElementA" ) ) )
+            .build();
+
+        analyticsCache.getOrFetch( params, p -> {
+            // the analytics tables are replaced while the grid is computed
+            when( store.getTableVersion() ).thenReturn( 2L );
+            return new ListGrid();
+        } );
+
+        verify( store ).put( eq( params.getKey() ), any( Grid.class ), eq( 1L ) );
+    }
 }
@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.analytics.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.apache.commons.lang3.SerializationUtils;
+import org.hisp.dhis.common.Grid;
+import org.hisp.dhis.common.GridHeader;
+import org.hisp.dhis.external.conf.ConfigurationKey;
+import org.hisp.dhis.external.conf.DhisConfigurationProvider;
+import org.hisp.dhis.system.grid.ListGrid;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@ExtendWith( MockitoExtension.class )
+class AnalyticsResultStoreTest
+{
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private AnalyticsTableVersion analyticsTableVersion;
+
+    @Mock
+    private DhisConfigurationProvider config;
+
+    @Test
+    void getReturnsEmptyWhenDisabled()
+    {
+        AnalyticsResultStore store = newStore( false );
+
+        assertFalse( store.get( "key" ).isPresent() );
+
+        verifyNoInteractions( jdbcTemplate );
+    }
+
+    @Test
+    void getReturnsResultOfCurrentTableVersion()
+    {
+        Grid grid = new ListGrid();
+        grid.addHeader( new GridHeader( "Header1" ) ).addRow().addValue( "Value11" );
+
+        when( analyticsTableVersion.getVersion() ).thenReturn( 42L );
+        when( jdbcTemplate.queryForList( anyString(), eq( byte[].class ), eq( "key" ), eq( 42L ) ) )
+            .thenReturn( List.of( SerializationUtils.serialize( grid ) ) );
+
+        Optional<Grid> stored = newStore( true ).get( "key" );
+
+        assertTrue( stored.isPresent() );
+        assertEquals( 1, stored.get().getHeaderWidth() );
+        assertEquals( "Value11", stored.get().getRow( 0 ).get( 0 ) );
+        verify( jdbcTemplate ).update( "update analyticsresult set lastaccessed = now() where resultkey = ?", "key" );
+    }
+
+    @Test
+    void putStoresResultWithGivenTableVersion()
+    {
+        newStore( true ).put( "key", newGrid( "Value11" ), 7L );
+
+        verify( jdbcTemplate ).update( startsWith( "insert into analyticsresult" ), eq( "key" ), eq( 7L ),
+            any( byte[].class ), anyInt() );
+        verifyNoInteractions( analyticsTableVersion );
+    }
+
+    @Test
+    void putPurgesPreviousTableVersionsOncePerVersion()
+    {
+        AnalyticsResultStore store = newStore( true );
+
+        store.put( "keyA", newGrid( "Value11" ), 7L );
+        store.put( "keyB", newGrid( "Value11" ), 7L );
+        store.put( "keyC", newGrid( "Value11" ), 8L );
+        store.put( "keyD", newGrid( "Value11" ), 7L );
+
+        verify( jdbcTemplate, times( 1 ) ).update( "delete from analyticsresult where tableversion < ?", 7L );
+        verify( jdbcTemplate, times( 1 ) ).update( "delete from analyticsresult where tableversion < ?", 8L );
+    }
+
+    @Test
+    void putEvictsLeastRecentlyUsedAfterThreshold()
+    {
+        AnalyticsResultStore store = newStore( true, "1" );
+
+        store.put( "keyA", newGrid( "Value11" ), 7L );
+
+        verify( jdbcTemplate, never() ).update( startsWith( "delete from analyticsresult where resultkey in" ),
+            eq( 1024L * 1024L ) );
+
+        store.put( "keyB", newGrid( "x".repeat( 200_000 ) ), 7L );
+
+        verify( jdbcTemplate, times( 1 ) ).update( startsWith( "delete from analyticsresult where resultkey in" ),
+            eq( 1024L * 1024L ) );
+    }
+
+    private Grid newGrid( String value )
+    {
+        Grid grid = new ListGrid();
+        grid.addHeader( new GridHeader( "Header1" ) ).addRow().addValue( value );
+        return grid;
+    }
+
+    private AnalyticsResultStore newStore( boolean enabled )
+    {
+        return newStore( enabled, "1024" );
+    }
+
+    private AnalyticsResultStore newStore( boolean enabled, String maxSize )
+    {
+        when( config.isEnabled( ConfigurationKey.ANALYTICS_RESULT_STORE_ENABLED ) ).thenReturn( enabled );
+        when( config.getProperty( ConfigurationKey.ANALYTICS_RESULT_STORE_MAX_SIZE ) ).thenReturn( maxSize );
+
+        return new AnalyticsResultStore( jdbcTemplate, analyticsTableVersion, config );
+    }
+}
@@ -0,0 +1,226 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.analytics.cache;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.nullable;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.hisp.dhis.analytics.AnalyticsService;
+import org.hisp.dhis.analytics.EventDataType;
+import org.hisp.dhis.analytics.event.EventAnalyticsService;
+import org.hisp.dhis.common.IdentifiableObjectManager;
+import org.hisp.dhis.dashboard.Dashboard;
+import org.hisp.dhis.dashboard.DashboardItem;
+import org.hisp.dhis.eventvisualization.EventVisualization;
+import org.hisp.dhis.scheduling.JobProgress;
+import org.hisp.dhis.visualization.Visualization;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@ExtendWith( MockitoExtension.class )
+@MockitoSettings( strictness = Strictness.LENIENT )
+class DashboardCacheWarmerTest
+{
+    @Mock
+    private AnalyticsCache analyticsCache;
+
+    @Mock
+    private AnalyticsService analyticsService;
+
+    @Mock
+    private EventAnalyticsService eventAnalyticsService;
+
+    @Mock
+    private IdentifiableObjectManager manager;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private DashboardCacheWarmer warmer;
+
+    @BeforeEach
+    void setUp()
+    {
+        warmer = new DashboardCacheWarmer( analyticsCache, analyticsService, eventAnalyticsService, manager,
+            jdbcTemplate, transactionTemplate );
+
+        when( transactionTemplate.execute( any() ) )
+            .thenAnswer( invocation -> invocation.<TransactionCallback<?>> getArgument( 0 ).doInTransaction( null ) );
+    }
+
+    @Test
+    void warmUpRunsQueriesOfMostViewedDashboards()
+    {
+        Visualization visualization = new Visualization( "Visualization" );
+        visualization.setUid( "visualizatA" );
+
+        EventVisualization aggregated = new EventVisualization( "Aggregated" );
+        aggregated.setUid( "eventvisuA" );
+        aggregated.setDataType( EventDataType.AGGREGATED_VALUES );
+
+        EventVisualization lineList = new EventVisualization( "Line list" );
+        lineList.setUid( "eventvisuB" );
+        lineList.setDataType( EventDataType.EVENTS );
+
+        Dashboard dashboard = new Dashboard( "Dashboard" );
+        dashboard.setItems( List.of( newItem( visualization, null ), newItem( null, aggregated ),
+            newItem( null, lineList ), newItem( visualization, null ) ) );
+
+        when( analyticsCache.isEnabled() ).thenReturn( true );
+        when( jdbcTemplate.queryForList( anyString(), eq( String.class ), any(), any() ) )
+            .thenReturn( List.of( "dashboardA" ) );
+        when( manager.getByUidOrdered( Dashboard.class, List.of( "dashboardA" ) ) ).thenReturn( List.of( dashboard ) );
+        when( manager.get( Visualization.class, "visualizatA" ) ).thenReturn( visualization );
+        when( manager.get( EventVisualization.class, "eventvisuA" ) ).thenReturn( aggregated );
+
+        warmer.warmUp( 5, 60, newMockJobProgress() );
+
+        verify( analyticsService ).getAggregatedDataValues( visualization );
+        verify( eventAnalyticsService ).getAggregatedEventData( aggregated );
+        verify( eventAnalyticsService, never() ).getAggregatedEventData( lineList );
+    }
+
+    @Test
+    void warmUpDoesNothingWhenCacheIsDisabled()
+    {
+        when( analyticsCache.isEnabled() ).thenReturn( false );
+
+        warmer.warmUp( 5, 60, newMockJobProgress() );
+
+        verifyNoInteractions( jdbcTemplate, analyticsService, eventAnalyticsService );
+    }
+
+    @Test
+    void warmUpSkipsVisualizationsWithUserOrgUnits()
+    {
+        Visualization visualization = new Visualization( "Visualization" );
+        visualization.setUid( "visualizatA" );
+        visualization.setUserOrganisationUnit( true );
+
+        mockDashboard( newItem( visualization, null ) );
+
+        warmer.warmUp( 5, 60, newMockJobProgress() );
+
+        verifyNoInteractions( analyticsService );
+    }
+
+    @Test
+    void warmUpSkipsRemainingItemsAfterTimeLimit()
+    {
+        Visualization visualization = new Visualization( "Visualization" );
+        visualization.setUid( "visualizatA" );
+
+        mockDashboard( newItem( visualization, null ) );
+
+        JobProgress progress = newMockJobProgress();
+
+        warmer.warmUp( 5, 0, progress );
+
+        verifyNoInteractions( analyticsService );
+        verify( progress ).completedProcess( null );
+    }
+
+    @Test
+    void warmUpContinuesAfterFailingQuery()
+    {
+        Visualization failing = new Visualization( "Failing" );
+        failing.setUid( "visualizatA" );
+
+        Visualization visualization = new Visualization( "Visualization" );
+        visualization.setUid( "visualizatB" );
+
+        mockDashboard( newItem( failing, null ), newItem( visualization, null ) );
+        when( manager.get( Visualization.class, "visualizatA" ) ).thenReturn( failing );
+        when( manager.get( Visualization.class, "visualizatB" ) ).thenReturn( visualization );
+        when( analyticsService.getAggregatedDataValues( failing ) )
+            .thenThrow( new IllegalStateException( "Query failed" ) );
+
+        JobProgress progress = newMockJobProgress();
+
+        warmer.warmUp( 5, 60, progress );
+
+        verify( analyticsService ).getAggregatedDataValues( visualization );
+        verify( progress, never() ).failedStage( nullable( String.class ) );
+        verify( progress, never() ).failedStage( any( Exception.class ) );
+        verify( progress ).completedProcess( null );
+    }
+
+    private void mockDashboard( DashboardItem... items )
+    {
+        Dashboard dashboard = new Dashboard( "Dashboard" );
+        dashboard.setItems( List.of( items ) );
+
+        when( analyticsCache.isEnabled() ).thenReturn( true );
+        when( jdbcTemplate.queryForList( anyString(), eq( String.class ), any(), any() ) )
+            .thenReturn( List.of( "dashboardA" ) );
+        when( manager.getByUidOrdered( Dashboard.class, List.of( "dashboardA" ) ) ).thenReturn( List.of( dashboard ) );
+    }
+
+    private static DashboardItem newItem( Visualization visualization, EventVisualization eventVisualization )
+    {
+        DashboardItem item = new DashboardItem();
+        item.setVisualization( visualization );
+        item.setEventVisualization( eventVisualization );
+        return item;
+    }
+
+    @SuppressWarnings( "unchecked" )
+    private static JobProgress newMockJobProgress()
+    {
+        JobProgress progress = mock( JobProgress.class );
+        when( progress.runStage( any(), any(), any(), any() ) ).thenCallRealMethod();
+        when( progress.runStage( any( Stream.class ), any(), any() ) ).thenCallRealMethod();
+        when( progress.runStage( any( Collection.class ), any(), any() ) ).thenCallRealMethod();
+        when( progress.runStage( any(), any() ) ).thenCallRealMethod();
+        when( progress.runStageInParallel( anyInt(), any(), any(), any() ) ).thenCallRealMethod();
+        return progress;
+    }
+}
@@ -35,6 +35,11 @@ import static org.hisp.dhis.common.DimensionalObject.DATA_X_DIM_ID;
 import static org.hisp.dhis.common.DimensionalObject.ORGUNIT_DIM_ID;
 import static org.hisp.dhis.common.DimensionalObject.PERIOD_DIM_ID;
 import static org.hisp.dhis.common.DimensionalObjectUtils.getList;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import org.hisp.dhis.analytics.AggregationType;
@@ -44,9 +49,11 @@ import org.hisp.dhis.analytics.DataQueryParams;
 import org.hisp.dhis.analytics.DataType;
 import org.hisp.dhis.analytics.QueryPlanner;
 import org.hisp.dhis.analytics.analyze.ExecutionPlanStore;
+import org.hisp.dhis.analytics.metrics.AnalyticsMetrics;
 import org.hisp.dhis.analytics.partition.PartitionManager;
 import org.hisp.dhis.common.BaseDimensionalObject;
 import org.hisp.dhis.common.DimensionType;
+import org.hisp.dhis.common.QueryRuntimeException;
 import org.hisp.dhis.common.ValueType;
 import org.hisp.dhis.dataelement.DataElement;
 import org.hisp.dhis.organisationunit.OrganisationUnit;
@@ -60,6 +67,7 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.support.rowset.SqlRowSet;
 
@@ -93,16 +101,19 @@ class JdbcAnalyticsManagerTest
     @Mock
     private ExecutionPlanStore executionPlanStore;
 
+    @Mock
+    private AnalyticsMetrics analyticsMetrics;
+
     @BeforeEach
     public void setUp()
     {
-        QueryPlanner queryPlanner = new DefaultQueryPlanner( partitionManager );
+        QueryPlanner queryPlanner = new DefaultQueryPlanner( partitionManager, mock( AnalyticsMetrics.class ) );
 
         mockRowSet();
 
         when( jdbcTemplate.queryForRowSet( sql.capture() ) ).thenReturn( rowSet );
 
-        subject = new JdbcAnalyticsManager( queryPlanner, jdbcTemplate, executionPlanStore );
+        subject = new JdbcAnalyticsManager( queryPlanner, jdbcTemplate, executionPlanStore, analyticsMetrics );
     }
 
     @Test
@@ -145,6 +156,19 @@ class JdbcAnalyticsManagerTest
         assertExpectedLastSql( "desc" );
     }
 
+    @Test
+    void verifySqlQueryRecordedWhenQueryFails()
+    {
+        DataQueryParams params = createParams( AggregationType.SUM );
+
+        when( rowSet.next() ).thenThrow( new DataAccessResourceFailureException( "Connection lost" ) );
+
+        assertThrows( QueryRuntimeException.class,
+            () -> subject.getAggregatedDataValues( params, AnalyticsTableType.DATA_VALUE, 20000 ) );
+
+        verify( analyticsMetrics ).recordSqlQuery( any(), any(), eq( AnalyticsTableType.DATA_VALUE ), eq( 0 ) );
+    }
+
     private void mockRowSet()
     {
         // Simulate no rows
@@ -41,6 +41,8 @@ import static org.hisp.dhis.DhisConvenienceTest.getDate;
 import static org.hisp.dhis.analytics.AnalyticsAggregationType.fromAggregationType;
 import static org.hisp.dhis.analytics.util.AnalyticsSqlUtils.quote;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -49,6 +51,7 @@ import java.util.List;
 
 import org.hisp.dhis.analytics.AggregationType;
 import org.hisp.dhis.analytics.AnalyticsAggregationType;
+import org.hisp.dhis.analytics.EventOutputType;
 import org.hisp.dhis.analytics.analyze.ExecutionPlanStore;
 import org.hisp.dhis.analytics.event.EventQueryParams;
 import org.hisp.dhis.analytics.event.data.programindicator.DefaultProgramIndicatorSubqueryBuilder;
@@ -69,6 +72,8 @@ import org.hisp.dhis.program.AnalyticsType;
 import org.hisp.dhis.program.Program;
 import org.hisp.dhis.program.ProgramIndicator;
 import org.hisp.dhis.program.ProgramIndicatorService;
+import org.hisp.dhis.program.ProgramType;
+import org.hisp.dhis.system.database.DatabaseInfo;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -106,11 +111,7 @@ class AbstractJdbcEventAnalyticsManagerTest extends
     @BeforeEach
     public void setUp()
     {
-        StatementBuilder statementBuilder = new PostgreSQLStatementBuilder();
-        DefaultProgramIndicatorSubqueryBuilder programIndicatorSubqueryBuilder = new DefaultProgramIndicatorSubqueryBuilder(
-            programIndicatorService );
-        subject = new JdbcEventAnalyticsManager( jdbcTemplate, statementBuilder, programIndicatorService,
-            programIndicatorSubqueryBuilder, new EventTimeFieldSqlRenderer( statementBuilder ), executionPlanStore );
+        subject = newEventAnalyticsManager( false );
 
         // data init
 
@@ -292,6 +293,50 @@ class AbstractJdbcEventAnalyticsManagerTest extends
         assertThat( clause, is( "avg(select * from table)" ) );
     }
 
+    @Test
+    void verifyGetAggregateClauseWithTrackedEntityInstanceOutputType()
+    {
+        programA.setProgramType( ProgramType.WITH_REGISTRATION );
+
+        EventQueryParams params = new EventQueryParams.Builder( createRequestParams() )
+            .withProgram( programA )
+            .withOutputType( EventOutputType.TRACKED_ENTITY_INSTANCE )
+            .build();
+
+        assertThat( subject.getAggregateClause( params ), is( "count(distinct ax.\"tei\")" ) );
+    }
+
+    @Test
+    void verifyGetAggregateClauseWithTrackedEntityInstanceOutputTypeAndApproximateDistinctCount()
+    {
+        programA.setProgramType( ProgramType.WITH_REGISTRATION );
+
+        EventQueryParams params = new EventQueryParams.Builder( createRequestParams() )
+            .withProgram( programA )
+            .withOutputType( EventOutputType.TRACKED_ENTITY_INSTANCE )
+            .build();
+
+        when( jdbcTemplate.queryForObject( anyString(), eq( Boolean.class ), eq( params.getTableName().toLowerCase() ),
+            eq( "teihash" ) ) ).thenReturn( true );
+
+        assertThat( newEventAnalyticsManager( true ).getAggregateClause( params ),
+            is( "round(hll_cardinality(hll_add_agg(ax.\"teihash\")))::bigint" ) );
+    }
+
+    @Test
+    void verifyGetAggregateClauseWithApproximateDistinctCountFallsBackWithoutHashColumn()
+    {
+        EventQueryParams params = new EventQueryParams.Builder( createRequestParams() )
+            .withProgram( programA )
+            .withOutputType( EventOutputType.ENROLLMENT )
+            .build();
+
+        when( jdbcTemplate.queryForObject( anyString(), eq( Boolean.class ), eq( params.getTableName().toLowerCase() ),
+            eq( "pihash" ) ) ).thenReturn( false );
+
+        assertThat( newEventAnalyticsManager( true ).getAggregateClause( params ), is( "count(distinct ax.\"pi\")" ) );
+    }
+
     @Test
     void verifyGetColumnsWithAttributeOrgUnitTypeAndCoordinatesReturnsFetchesCoordinatesFromOrgUnite()
     {
@@ -392,4 +437,17 @@ class AbstractJdbcEventAnalyticsManagerTest extends
             containsString(
                 "and ax.\"uidlevel0\" in ('ouabcdefghA','ouabcdefghB','ouabcdefghC')" ) );
     }
+
+    private JdbcEventAnalyticsManager newEventAnalyticsManager( boolean approximateDistinctCount )
+    {
+        StatementBuilder statementBuilder = new PostgreSQLStatementBuilder();
+        DefaultProgramIndicatorSubqueryBuilder programIndicatorSubqueryBuilder = new DefaultProgramIndicatorSubqueryBuilder(
+            programIndicatorService );
+        DatabaseInfo databaseInfo = new DatabaseInfo();
+        databaseInfo.setHllSupport( approximateDistinctCount );
+
+        return new JdbcEventAnalyticsManager( jdbcTemplate, statementBuilder, programIndicatorService,
+            programIndicatorSubqueryBuilder, new EventTimeFieldSqlRenderer( statementBuilder ), executionPlanStore,
+            databaseInfo );
+    }
 }
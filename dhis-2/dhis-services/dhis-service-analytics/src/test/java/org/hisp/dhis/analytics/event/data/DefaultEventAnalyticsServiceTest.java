@@ -31,16 +31,25 @@ import static org.hisp.dhis.DhisConvenienceTest.createOrganisationUnit;
 import static org.hisp.dhis.DhisConvenienceTest.createPeriod;
 import static org.hisp.dhis.DhisConvenienceTest.createProgram;
 import static org.hisp.dhis.common.DimensionalObjectUtils.getList;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.atMost;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.concurrent.TimeUnit;
+
 import org.hisp.dhis.analytics.AnalyticsSecurityManager;
 import org.hisp.dhis.analytics.Partitions;
+import org.hisp.dhis.analytics.Tile;
 import org.hisp.dhis.analytics.cache.AnalyticsCache;
+import org.hisp.dhis.analytics.cache.AnalyticsTileCache;
 import org.hisp.dhis.analytics.data.handler.SchemaIdResponseMapper;
 import org.hisp.dhis.analytics.event.EnrollmentAnalyticsManager;
 import org.hisp.dhis.analytics.event.EventAnalyticsManager;
@@ -48,16 +57,24 @@ import org.hisp.dhis.analytics.event.EventDataQueryService;
 import org.hisp.dhis.analytics.event.EventQueryParams;
 import org.hisp.dhis.analytics.event.EventQueryPlanner;
 import org.hisp.dhis.analytics.event.EventQueryValidator;
+import org.hisp.dhis.cache.Cache;
+import org.hisp.dhis.cache.CacheProvider;
+import org.hisp.dhis.cache.LocalCache;
+import org.hisp.dhis.cache.SimpleCacheBuilder;
 import org.hisp.dhis.common.IdScheme;
+import org.hisp.dhis.common.IllegalQueryException;
 import org.hisp.dhis.dataelement.DataElementService;
+import org.hisp.dhis.feedback.ErrorCode;
 import org.hisp.dhis.organisationunit.OrganisationUnit;
 import org.hisp.dhis.program.Program;
+import org.hisp.dhis.setting.SystemSettingManager;
 import org.hisp.dhis.system.database.DatabaseInfo;
 import org.hisp.dhis.trackedentity.TrackedEntityAttributeService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
+import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import com.google.common.collect.Sets;
@@ -106,12 +123,16 @@ class DefaultEventAnalyticsServiceTest
     @Mock
     private SchemaIdResponseMapper schemaIdResponseMapper;
 
+    @Mock
+    private AnalyticsTileCache tileCache;
+
     @BeforeEach
     public void setUp()
     {
         defaultEventAnalyticsService = new DefaultEventAnalyticsService( dataElementService,
             trackedEntityAttributeService, eventAnalyticsManager, eventDataQueryService, securityManager, queryPlanner,
-            eventQueryValidator, databaseInfo, analyticsCache, enrollmentAnalyticsManager, schemaIdResponseMapper );
+            eventQueryValidator, databaseInfo, analyticsCache, enrollmentAnalyticsManager, schemaIdResponseMapper,
+            tileCache );
     }
 
     @Test
@@ -158,6 +179,86 @@ class DefaultEventAnalyticsServiceTest
         verify( schemaIdResponseMapper, never() ).getSchemeIdResponseMap( mockParams );
     }
 
+    @Test
+    void testGetEventTileIsCached()
+    {
+        final EventQueryParams params = mockTileQuery();
+        final DefaultEventAnalyticsService service = createServiceWithTileCache();
+        final Tile tile = Tile.of( 4, 8, 7 );
+        final byte[] mvt = new byte[] { 1, 2, 3 };
+
+        when( eventAnalyticsManager.getEventTile( params, tile ) ).thenReturn( mvt );
+
+        assertArrayEquals( mvt, service.getEventTile( params, tile ) );
+        assertArrayEquals( mvt, service.getEventTile( params, tile ) );
+
+        verify( eventAnalyticsManager, times( 1 ) ).getEventTile( params, tile );
+    }
+
+    @Test
+    void testGetEventTileNotCachedWhenTablesMissing()
+    {
+        final EventQueryParams params = mockTileQuery();
+        final DefaultEventAnalyticsService service = createServiceWithTileCache();
+        final Tile tile = Tile.of( 4, 8, 7 );
+
+        when( eventAnalyticsManager.getEventTile( params, tile ) ).thenReturn( null );
+
+        assertArrayEquals( new byte[0], service.getEventTile( params, tile ) );
+        assertArrayEquals( new byte[0], service.getEventTile( params, tile ) );
+
+        verify( eventAnalyticsManager, times( 2 ) ).getEventTile( params, tile );
+    }
+
+    @Test
+    void testGetEventTileRejectsInvalidClusterSize()
+    {
+        final EventQueryParams params = new EventQueryParams.Builder( mockEventQueryParams(
+            createOrganisationUnit( 'A' ), createProgram( 'A' ), null ) ).withClusterSize( 0L ).build();
+
+        when( databaseInfo.isSpatialSupport() ).thenReturn( true );
+        doThrow( new IllegalQueryException( ErrorCode.E7212 ) ).when( eventQueryValidator )
+            .validate( any( EventQueryParams.class ) );
+
+        assertThrows( IllegalQueryException.class,
+            () -> defaultEventAnalyticsService.getEventTile( params, Tile.of( 4, 8, 7 ) ) );
+
+        verify( eventAnalyticsManager, never() ).getEventTile( any(), any() );
+    }
+
+    /**
+     * Stubs a tile query which is planned into the given parameters, so that
+     * the manager is invoked with the same parameters.
+     */
+    private EventQueryParams mockTileQuery()
+    {
+        final EventQueryParams params = mockEventQueryParams( createOrganisationUnit( 'A' ), createProgram( 'A' ),
+            null );
+
+        when( databaseInfo.isSpatialSupport() ).thenReturn( true );
+        when( queryPlanner.planEventQuery( any( EventQueryParams.class ) ) ).thenReturn( params );
+
+        return params;
+    }
+
+    /**
+     * Creates the service with a local tile cache instead of the mocked one.
+     */
+    private DefaultEventAnalyticsService createServiceWithTileCache()
+    {
+        final CacheProvider cacheProvider = mock( CacheProvider.class );
+
+        Mockito.<Cache<byte[]>> when( cacheProvider.createAnalyticsTileCache() )
+            .thenReturn( new LocalCache<>( new SimpleCacheBuilder<byte[]>().expireAfterWrite( 1L, TimeUnit.MINUTES ) ) );
+
+        final AnalyticsTileCache realTileCache = new AnalyticsTileCache( cacheProvider,
+            mock( SystemSettingManager.class ) );
+
+        return new DefaultEventAnalyticsService( dataElementService, trackedEntityAttributeService,
+            eventAnalyticsManager, eventDataQueryService, securityManager, queryPlanner, eventQueryValidator,
+            databaseInfo, analyticsCache, enrollmentAnalyticsManager, schemaIdResponseMapper, realTileCache );
+    }
+
     private EventQueryParams mockEventQueryParams( final OrganisationUnit mockOrgUnit, final Program mockProgram,
         final IdScheme scheme )
     {
@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.analytics.event.data;
+
+import static org.hisp.dhis.analytics.event.data.JdbcEventAnalyticsManager.NEXT_PAGE_CURSOR_KEY;
+import static org.hisp.dhis.common.DimensionalObjectUtils.getList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.hisp.dhis.IntegrationTestBase;
+import org.hisp.dhis.analytics.event.EventAnalyticsManager;
+import org.hisp.dhis.analytics.event.EventQueryParams;
+import org.hisp.dhis.common.Grid;
+import org.hisp.dhis.common.GridHeader;
+import org.hisp.dhis.common.QueryItem;
+import org.hisp.dhis.common.ValueType;
+import org.hisp.dhis.dataelement.DataElement;
+import org.hisp.dhis.organisationunit.OrganisationUnit;
+import org.hisp.dhis.program.Program;
+import org.hisp.dhis.program.ProgramStage;
+import org.hisp.dhis.program.ProgramType;
+import org.hisp.dhis.system.grid.ListGrid;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Tests keyset paging of event queries against an analytics event table.
+ */
+class EventKeysetPagingTest extends IntegrationTestBase
+{
+    @Autowired
+    private EventAnalyticsManager eventAnalyticsManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private OrganisationUnit ouA;
+
+    private Program programA;
+
+    private ProgramStage stageA;
+
+    private DataElement deA;
+
+    private String table;
+
+    @Override
+    public void setUpTest()
+    {
+        ouA = createOrganisationUnit( 'A' );
+        ouA.setPath( "/" + ouA.getUid() );
+        programA = createProgram( 'A' );
+        programA.setProgramType( ProgramType.WITHOUT_REGISTRATION );
+        stageA = createProgramStage( 'A', programA );
+        deA = createDataElement( 'A' );
+
+        table = "analytics_event_" + programA.getUid().toLowerCase();
+
+        jdbcTemplate.execute( "create table " + table + " (psi character(11) not null, ps character(11), "
+            + "executiondate timestamp, storedby varchar(255), createdbydisplayname varchar(255), "
+            + "lastupdatedbydisplayname varchar(255), lastupdated timestamp, psigeometry geometry, "
+            + "longitude double precision, latitude double precision, ouname text, oucode text, "
+            + "pistatus varchar(50), psistatus varchar(50), quarterly text, ou character(11), "
+            + "uidlevel1 character(11), \"" + deA.getUid() + "\" double precision)" );
+
+        insertEvent( "eventUid001", 1d );
+        insertEvent( "eventUid002", 2d );
+        insertEvent( "eventUid003", 2d );
+        insertEvent( "eventUid004", 3d );
+        insertEvent( "eventUid005", null );
+    }
+
+    @Override
+    public void tearDownTest()
+    {
+        jdbcTemplate.execute( "drop table if exists " + table );
+    }
+
+    @Test
+    void testSeekToNextPageByStageDataElement()
+    {
+        Grid firstPage = getPage( null );
+
+        assertEquals( List.of( "eventUid001", "eventUid002" ), getEvents( firstPage ) );
+
+        String cursor = (String) firstPage.getInternalMetaData().get( NEXT_PAGE_CURSOR_KEY );
+
+        assertNotNull( cursor );
+
+        Grid secondPage = getPage( cursor );
+
+        assertEquals( List.of( "eventUid003", "eventUid004" ), getEvents( secondPage ) );
+
+        cursor = (String) secondPage.getInternalMetaData().get( NEXT_PAGE_CURSOR_KEY );
+
+        assertNotNull( cursor );
+
+        Grid lastPage = getPage( cursor );
+
+        assertEquals( List.of( "eventUid005" ), getEvents( lastPage ) );
+        assertNull( lastPage.getInternalMetaData().get( NEXT_PAGE_CURSOR_KEY ) );
+    }
+
+    private Grid getPage( String cursor )
+    {
+        QueryItem sortItem = new QueryItem( deA );
+        sortItem.setProgramStage( stageA );
+
+        EventQueryParams params = new EventQueryParams.Builder()
+            .withPeriods( getList( createPeriod( "2020Q1" ) ), "quarterly" )
+            .withOrganisationUnits( getList( ouA ) )
+            .withTableName( table )
+            .withProgram( programA )
+            .addAscSortItem( sortItem )
+            .withPageSize( 2 )
+            .withKeysetPaging( true )
+            .withPageCursor( cursor )
+            .build();
+
+        Grid grid = new ListGrid()
+            .addHeader( new GridHeader( "psi", "Event", ValueType.TEXT, false, true ) );
+
+        return eventAnalyticsManager.getEvents( params, grid, 100 );
+    }
+
+    private List<String> getEvents( Grid grid )
+    {
+        return grid.getRows().stream()
+            .map( row -> String.valueOf( row.get( 0 ) ) )
+            .collect( Collectors.toList() );
+    }
+
+    private void insertEvent( String psi, Double value )
+    {
+        jdbcTemplate.update( "insert into " + table + " (psi, ps, quarterly, ou, uidlevel1, \"" + deA.getUid()
+            + "\") values (?, ?, '2020Q1', ?, ?, ?)", psi, stageA.getUid(), ouA.getUid(), ouA.getUid(), value );
+    }
+}
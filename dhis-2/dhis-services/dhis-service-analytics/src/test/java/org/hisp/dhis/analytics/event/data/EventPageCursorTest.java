@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.analytics.event.data;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.hisp.dhis.common.IllegalQueryException;
+import org.hisp.dhis.feedback.ErrorCode;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link EventPageCursor}.
+ */
+class EventPageCursorTest
+{
+    @Test
+    void testEncodeDecode()
+    {
+        List<String> values = Arrays.asList( "2021-03-01 00:00:00", null, "it's", "psiA" );
+
+        String cursor = EventPageCursor.encode( values );
+
+        assertEquals( values, EventPageCursor.decode( cursor, 4 ) );
+    }
+
+    @Test
+    void testDecodeInvalid()
+    {
+        String cursor = EventPageCursor.encode( Arrays.asList( "a", "psiA" ) );
+
+        IllegalQueryException ex = assertThrows( IllegalQueryException.class,
+            () -> EventPageCursor.decode( cursor, 3 ) );
+        assertEquals( ErrorCode.E7233, ex.getErrorCode() );
+
+        ex = assertThrows( IllegalQueryException.class, () -> EventPageCursor.decode( "not a cursor", 2 ) );
+        assertEquals( ErrorCode.E7233, ex.getErrorCode() );
+    }
+
+    @Test
+    void testGetSeekConditionAscending()
+    {
+        String condition = EventPageCursor.getSeekCondition( List.of( "ax.\"a\"", "ax.\"psi\"" ),
+            List.of( true, true ), Arrays.asList( "x'y", "psiA" ) );
+
+        assertEquals( "(((ax.\"a\" > 'x''y' or ax.\"a\" is null)) or " +
+            "(ax.\"a\" = 'x''y' and (ax.\"psi\" > 'psiA' or ax.\"psi\" is null)))", condition );
+    }
+
+    @Test
+    void testGetSeekConditionNullValues()
+    {
+        String condition = EventPageCursor.getSeekCondition( List.of( "ax.\"a\"", "ax.\"b\"", "ax.\"psi\"" ),
+            List.of( true, false, true ), Arrays.asList( null, null, "psiA" ) );
+
+        assertEquals( "((ax.\"a\" is null and ax.\"b\" is not null) or " +
+            "(ax.\"a\" is null and ax.\"b\" is null and (ax.\"psi\" > 'psiA' or ax.\"psi\" is null)))", condition );
+    }
+}
@@ -359,6 +359,22 @@ class EventQueryValidatorTest extends DhisSpringTest
         assertEquals( ErrorCode.E7212, error.getErrorCode() );
     }
 
+    @Test
+    void validateErrorClusterSizeZero()
+    {
+        EventQueryParams params = new EventQueryParams.Builder()
+            .withProgram( prA )
+            .withStartDate( new DateTime( 2010, 6, 1, 0, 0 ).toDate() )
+            .withEndDate( new DateTime( 2012, 3, 20, 0, 0 ).toDate() )
+            .withOrganisationUnits( Lists.newArrayList( ouB ) )
+            .withCoordinateField( deE.getUid() )
+            .withClusterSize( 0L ).build();
+
+        ErrorMessage error = queryValidator.validateForErrorMessage( params );
+
+        assertEquals( ErrorCode.E7212, error.getErrorCode() );
+    }
+
     /**
      * Asserts whether the given error code is thrown by the query validator for
      * the given query.
@@ -30,6 +30,7 @@ package org.hisp.dhis.analytics.event.data;
 import static org.hamcrest.CoreMatchers.containsString;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.startsWith;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hisp.dhis.DhisConvenienceTest.createDataElement;
@@ -46,6 +47,7 @@ import static org.hisp.dhis.common.QueryOperator.EQ;
 import static org.hisp.dhis.common.QueryOperator.IN;
 import static org.hisp.dhis.common.QueryOperator.NE;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -80,6 +82,7 @@ import org.hisp.dhis.program.Program;
 import org.hisp.dhis.program.ProgramIndicator;
 import org.hisp.dhis.program.ProgramIndicatorService;
 import org.hisp.dhis.program.ProgramType;
+import org.hisp.dhis.system.database.DatabaseInfo;
 import org.hisp.dhis.system.grid.ListGrid;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -130,7 +133,8 @@ class EventsAnalyticsManagerTest extends EventAnalyticsTest
             programIndicatorService );
 
         subject = new JdbcEventAnalyticsManager( jdbcTemplate, statementBuilder, programIndicatorService,
-            programIndicatorSubqueryBuilder, timeCoordinateSelector, executionPlanStore );
+            programIndicatorSubqueryBuilder, timeCoordinateSelector, executionPlanStore,
+            new DatabaseInfo() );
 
         when( jdbcTemplate.queryForRowSet( anyString() ) ).thenReturn( this.rowSet );
     }
@@ -461,6 +465,40 @@ class EventsAnalyticsManagerTest extends EventAnalyticsTest
             "order by \"" + piA.getUid() + "\" asc,\"" + deA.getUid() + "\" asc,\"" + piB.getUid() + "\"" ) );
     }
 
+    @Test
+    void verifyEstimatedEventCount()
+    {
+        when( jdbcTemplate.queryForObject( anyString(), eq( String.class ) ) )
+            .thenReturn( "[{\"Plan\": {\"Node Type\": \"Seq Scan\", \"Plan Rows\": 1234}}]" );
+
+        EventQueryParams params = new EventQueryParams.Builder( createRequestParams() )
+            .withEstimatedCount( true )
+            .build();
+
+        assertThat( subject.getEventCount( params ), is( 1234L ) );
+
+        verify( jdbcTemplate ).queryForObject( sql.capture(), eq( String.class ) );
+        assertThat( sql.getValue(), startsWith( "explain (format json) select 1 from " + getTable( programA.getUid() )
+            + " as ax where ax.\"monthly\" in ('2000Q1')" ) );
+    }
+
+    @Test
+    void verifyEstimatedEventCountFallsBackToCount()
+    {
+        when( jdbcTemplate.queryForObject( anyString(), eq( String.class ) ) )
+            .thenReturn( "[{\"Plan\": {\"Node Type\": \"Result\"}}]" );
+        when( jdbcTemplate.queryForObject( anyString(), eq( Long.class ) ) ).thenReturn( 7L );
+
+        EventQueryParams params = new EventQueryParams.Builder( createRequestParams() )
+            .withEstimatedCount( true )
+            .build();
+
+        assertThat( subject.getEventCount( params ), is( 7L ) );
+
+        verify( jdbcTemplate ).queryForObject( sql.capture(), eq( Long.class ) );
+        assertThat( sql.getValue(), startsWith( "select count(1) from " + getTable( programA.getUid() ) ) );
+    }
+
     private void verifyFirstOrLastAggregationTypeSubquery( AnalyticsAggregationType analyticsAggregationType )
     {
         DataElement programDataElement = createDataElement( 'U' );
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.analytics.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+import org.hisp.dhis.analytics.AnalyticsTableType;
+import org.hisp.dhis.analytics.DataQueryParams;
+import org.hisp.dhis.analytics.OutputFormat;
+import org.hisp.dhis.analytics.Partitions;
+import org.hisp.dhis.external.conf.ConfigurationKey;
+import org.hisp.dhis.external.conf.DhisConfigurationProvider;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.google.common.collect.Sets;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith( MockitoExtension.class )
+class AnalyticsMetricsTest
+{
+    @Mock
+    private DhisConfigurationProvider config;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void testRecordSqlQueryTaggedByPartition()
+    {
+        AnalyticsMetrics metrics = getMetrics( true );
+
+        DataQueryParams params = DataQueryParams.newBuilder()
+            .withPartitions( new Partitions( Sets.newHashSet( 2021 ) ) )
+            .build();
+
+        metrics.recordSqlQuery( metrics.start(), params, AnalyticsTableType.DATA_VALUE, 42 );
+
+        assertEquals( 1, registry.get( "analytics.query.sql" )
+            .tags( "tableType", "data_value", "partition", "2021" ).timer().count() );
+        assertEquals( 42, registry.get( "analytics.query.rows" )
+            .tags( "tableType", "data_value", "partition", "2021" ).summary().totalAmount() );
+    }
+
+    @Test
+    void testRecordPlanningTaggedByOutputFormat()
+    {
+        AnalyticsMetrics metrics = getMetrics( true );
+
+        DataQueryParams params = DataQueryParams.newBuilder()
+            .withOutputFormat( OutputFormat.ANALYTICS )
+            .build();
+
+        metrics.recordPlanning( metrics.start(), params, AnalyticsTableType.DATA_VALUE );
+        metrics.recordSubQueries( "periodType", AnalyticsTableType.DATA_VALUE, 3 );
+
+        assertEquals( 1, registry.get( "analytics.query.planning" )
+            .tags( "tableType", "data_value", "outputFormat", "analytics" ).timer().count() );
+        assertEquals( 3, registry.get( "analytics.query.subqueries" )
+            .tag( "criterion", "periodType" ).summary().totalAmount() );
+    }
+
+    @Test
+    void testRecordCacheLookups()
+    {
+        AnalyticsMetrics metrics = getMetrics( true );
+
+        metrics.recordCacheLookup( true );
+        metrics.recordCacheLookup( true );
+        metrics.recordCacheLookup( false );
+
+        assertEquals( 2, registry.get( "analytics.cache.requests" ).tag( "result", "hit" ).counter().count() );
+        assertEquals( 1, registry.get( "analytics.cache.requests" ).tag( "result", "miss" ).counter().count() );
+    }
+
+    @Test
+    void testDisabledRecordsNothing()
+    {
+        AnalyticsMetrics metrics = getMetrics( false );
+
+        assertNull( metrics.start() );
+
+        metrics.recordSerialization( metrics.start(), "csv" );
+        metrics.recordCacheLookup( true );
+        metrics.recordSubQueries( "periodType", AnalyticsTableType.DATA_VALUE, 3 );
+
+        assertTrue( registry.getMeters().isEmpty() );
+    }
+
+    @Test
+    void testStartWhenEnabled()
+    {
+        assertNotNull( getMetrics( true ).start() );
+    }
+
+    private AnalyticsMetrics getMetrics( boolean enabled )
+    {
+        when( config.isEnabled( ConfigurationKey.MONITORING_ANALYTICS_ENABLED ) ).thenReturn( enabled );
+
+        return new AnalyticsMetrics( registry, config );
+    }
+}
@@ -28,6 +28,7 @@
 package org.hisp.dhis.analytics.table;
 
 import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.not;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hisp.dhis.DhisConvenienceTest.createProgram;
 import static org.hisp.dhis.DhisConvenienceTest.createProgramTrackedEntityAttribute;
@@ -49,6 +50,7 @@ import org.hisp.dhis.jdbc.statementbuilder.PostgreSQLStatementBuilder;
 import org.hisp.dhis.organisationunit.OrganisationUnitService;
 import org.hisp.dhis.program.Program;
 import org.hisp.dhis.program.ProgramTrackedEntityAttribute;
+import org.hisp.dhis.program.ProgramType;
 import org.hisp.dhis.resourcetable.ResourceTableService;
 import org.hisp.dhis.setting.SystemSettingManager;
 import org.hisp.dhis.system.database.DatabaseInfo;
@@ -124,4 +126,48 @@ class JdbcEnrollmentAnalyticsTableManagerTest
 
         assertThat( sql.getValue(), containsString( String.format( ouQuery, "uid" ) ) );
     }
+
+    @Test
+    void verifyHllHashColumnsWhenPopulatingTableWithHllSupport()
+    {
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass( String.class );
+        when( databaseInfo.isHllSupport() ).thenReturn( true );
+        Program p1 = createProgram( 'A' );
+        p1.setProgramType( ProgramType.WITH_REGISTRATION );
+
+        when( idObjectManager.getAllNoAcl( Program.class ) ).thenReturn( Lists.newArrayList( p1 ) );
+
+        AnalyticsTableUpdateParams params = AnalyticsTableUpdateParams.newBuilder().withLastYears( 2 )
+            .withStartTime( START_TIME ).build();
+
+        subject.populateTable( params,
+            PartitionUtils.getTablePartitions( subject.getAnalyticsTables( params ) ).get( 0 ) );
+
+        verify( jdbcTemplate ).execute( sql.capture() );
+
+        assertThat( sql.getValue(), containsString( "\"pihash\"" ) );
+        assertThat( sql.getValue(), containsString( "hll_hash_text(pi.uid)" ) );
+        assertThat( sql.getValue(), containsString( "\"teihash\"" ) );
+        assertThat( sql.getValue(), containsString( "hll_hash_text(tei.uid)" ) );
+    }
+
+    @Test
+    void verifyNoHllHashColumnsWhenPopulatingTableWithoutHllSupport()
+    {
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass( String.class );
+        Program p1 = createProgram( 'A' );
+        p1.setProgramType( ProgramType.WITH_REGISTRATION );
+
+        when( idObjectManager.getAllNoAcl( Program.class ) ).thenReturn( Lists.newArrayList( p1 ) );
+
+        AnalyticsTableUpdateParams params = AnalyticsTableUpdateParams.newBuilder().withLastYears( 2 )
+            .withStartTime( START_TIME ).build();
+
+        subject.populateTable( params,
+            PartitionUtils.getTablePartitions( subject.getAnalyticsTables( params ) ).get( 0 ) );
+
+        verify( jdbcTemplate ).execute( sql.capture() );
+
+        assertThat( sql.getValue(), not( containsString( "hll_hash_text" ) ) );
+    }
 }
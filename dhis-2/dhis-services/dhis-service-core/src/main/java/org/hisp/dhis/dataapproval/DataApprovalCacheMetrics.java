@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.dataapproval;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import org.hisp.dhis.external.conf.ConfigurationKey;
+import org.hisp.dhis.external.conf.DhisConfigurationProvider;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+
+/**
+ * Counts hits, misses and evictions of the data approval cache and exposes the
+ * resulting hit ratio. The meters are registered with the application
+ * {@link MeterRegistry} and are exposed by the Prometheus scrape endpoint.
+ *
+ * Recording is enabled with
+ * {@link ConfigurationKey#MONITORING_DATA_APPROVAL_CACHE_ENABLED}. When
+ * disabled, the meters are registered with an empty composite registry.
+ */
+@Component
+public class DataApprovalCacheMetrics
+{
+    private static final String GETS = "data.approval.cache.gets";
+
+    private final Counter hits;
+
+    private final Counter misses;
+
+    private final Counter evictions;
+
+    public DataApprovalCacheMetrics( MeterRegistry registry, DhisConfigurationProvider config )
+    {
+        checkNotNull( registry );
+        checkNotNull( config );
+
+        MeterRegistry target = config.isEnabled( ConfigurationKey.MONITORING_DATA_APPROVAL_CACHE_ENABLED )
+            ? registry
+            : new CompositeMeterRegistry();
+
+        this.hits = Counter.builder( GETS ).tag( "result", "hit" )
+            .description( "Data approval cache lookups" ).register( target );
+        this.misses = Counter.builder( GETS ).tag( "result", "miss" )
+            .description( "Data approval cache lookups" ).register( target );
+        this.evictions = Counter.builder( "data.approval.cache.evictions" )
+            .description( "Data approval cache entries evicted on approval changes" ).register( target );
+
+        Gauge.builder( "data.approval.cache.hit.ratio", this, DataApprovalCacheMetrics::getHitRate )
+            .description( "Ratio of data approval cache lookups answered from the cache" ).register( target );
+    }
+
+    public void hit()
+    {
+        hits.increment();
+    }
+
+    public void miss()
+    {
+        misses.increment();
+    }
+
+    public void evicted( int entries )
+    {
+        evictions.increment( entries );
+    }
+
+    /**
+     * Returns the ratio of hits to lookups since startup, or 0 if there were
+     * no lookups.
+     */
+    public double getHitRate()
+    {
+        double lookups = hits.count() + misses.count();
+
+        return lookups > 0 ? hits.count() / lookups : 0d;
+    }
+}
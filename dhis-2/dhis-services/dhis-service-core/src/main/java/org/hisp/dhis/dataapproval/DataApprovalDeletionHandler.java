@@ -31,6 +31,8 @@ import static com.google.common.base.Preconditions.checkNotNull;
 import static org.hisp.dhis.system.deletion.DeletionVeto.ACCEPT;
 
 import org.hisp.dhis.category.CategoryOptionCombo;
+import org.hisp.dhis.organisationunit.OrganisationUnit;
+import org.hisp.dhis.period.Period;
 import org.hisp.dhis.system.deletion.DeletionHandler;
 import org.hisp.dhis.system.deletion.DeletionVeto;
 import org.springframework.jdbc.core.JdbcTemplate;
@@ -60,6 +62,10 @@ public class DataApprovalDeletionHandler
         whenVetoing( DataApprovalLevel.class, this::allowDeleteDataApprovalLevel );
         whenVetoing( DataApprovalWorkflow.class, this::allowDeleteDataApprovalWorkflow );
         whenVetoing( CategoryOptionCombo.class, this::allowDeleteCategoryOptionCombo );
+        whenDeleting( DataApprovalWorkflow.class, this::deleteDataApprovalWorkflow );
+        whenDeleting( Period.class, this::deletePeriod );
+        whenDeleting( OrganisationUnit.class, this::deleteOrganisationUnit );
+        whenDeleting( CategoryOptionCombo.class, this::deleteCategoryOptionCombo );
     }
 
     private DeletionVeto allowDeleteDataApprovalLevel( DataApprovalLevel dataApprovalLevel )
@@ -82,4 +88,24 @@ public class DataApprovalDeletionHandler
 
         return jdbcTemplate.queryForObject( sql, Integer.class ) == 0 ? ACCEPT : VETO;
     }
+
+    private void deleteDataApprovalWorkflow( DataApprovalWorkflow workflow )
+    {
+        jdbcTemplate.update( "delete from dataapprovalstate where workflowid=" + workflow.getId() );
+    }
+
+    private void deletePeriod( Period period )
+    {
+        jdbcTemplate.update( "delete from dataapprovalstate where periodid=" + period.getId() );
+    }
+
+    private void deleteOrganisationUnit( OrganisationUnit organisationUnit )
+    {
+        jdbcTemplate.update( "delete from dataapprovalstate where organisationunitid=" + organisationUnit.getId() );
+    }
+
+    private void deleteCategoryOptionCombo( CategoryOptionCombo optionCombo )
+    {
+        jdbcTemplate.update( "delete from dataapprovalstate where attributeoptioncomboid=" + optionCombo.getId() );
+    }
 }
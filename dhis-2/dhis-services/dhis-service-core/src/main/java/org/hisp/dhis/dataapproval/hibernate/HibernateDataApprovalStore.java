@@ -38,9 +38,13 @@ import static org.hisp.dhis.dataapproval.DataApprovalState.UNAPPROVED_WAITING;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.TreeSet;
 import java.util.stream.Collectors;
 
 import javax.persistence.criteria.CriteriaBuilder;
@@ -52,16 +56,20 @@ import org.apache.commons.lang3.StringUtils;
 import org.hibernate.SessionFactory;
 import org.hisp.dhis.cache.Cache;
 import org.hisp.dhis.cache.CacheProvider;
+import org.hisp.dhis.cache.CacheType;
 import org.hisp.dhis.category.CategoryCombo;
 import org.hisp.dhis.category.CategoryOptionCombo;
 import org.hisp.dhis.category.CategoryService;
 import org.hisp.dhis.common.IdentifiableObjectUtils;
 import org.hisp.dhis.dataapproval.DataApproval;
+import org.hisp.dhis.dataapproval.DataApprovalCacheMetrics;
 import org.hisp.dhis.dataapproval.DataApprovalLevel;
 import org.hisp.dhis.dataapproval.DataApprovalState;
 import org.hisp.dhis.dataapproval.DataApprovalStatus;
 import org.hisp.dhis.dataapproval.DataApprovalStore;
 import org.hisp.dhis.dataapproval.DataApprovalWorkflow;
+import org.hisp.dhis.external.conf.ConfigurationKey;
+import org.hisp.dhis.external.conf.DhisConfigurationProvider;
 import org.hisp.dhis.hibernate.HibernateGenericStore;
 import org.hisp.dhis.hibernate.jsonb.type.JsonbFunctions;
 import org.hisp.dhis.jdbc.StatementBuilder;
@@ -114,11 +122,19 @@ public class HibernateDataApprovalStore
 
     private final StatementBuilder statementBuilder;
 
+    private final DataApprovalCacheMetrics cacheMetrics;
+
+    /**
+     * Whether the materialized approval states in table
+     * {@code dataapprovalstate} are maintained and used for status queries.
+     */
+    private final boolean stateEnabled;
+
     public HibernateDataApprovalStore( SessionFactory sessionFactory, JdbcTemplate jdbcTemplate,
         ApplicationEventPublisher publisher, CacheProvider cacheProvider, PeriodService periodService,
         PeriodStore periodStore, CurrentUserService currentUserService, CategoryService categoryService,
         SystemSettingManager systemSettingManager,
-        StatementBuilder statementBuilder )
+        StatementBuilder statementBuilder, DataApprovalCacheMetrics cacheMetrics, DhisConfigurationProvider config )
     {
         super( sessionFactory, jdbcTemplate, publisher, DataApproval.class, false );
 
@@ -129,6 +145,8 @@ public class HibernateDataApprovalStore
         checkNotNull( categoryService );
         checkNotNull( systemSettingManager );
         checkNotNull( statementBuilder );
+        checkNotNull( cacheMetrics );
+        checkNotNull( config );
 
         this.periodService = periodService;
         this.periodStore = periodStore;
@@ -136,6 +154,8 @@ public class HibernateDataApprovalStore
         this.categoryService = categoryService;
         this.systemSettingManager = systemSettingManager;
         this.statementBuilder = statementBuilder;
+        this.cacheMetrics = cacheMetrics;
+        this.stateEnabled = config.isEnabled( ConfigurationKey.DATA_APPROVAL_STATE_ENABLED );
         this.isApprovedCache = cacheProvider.createIsDataApprovedCache();
     }
 
@@ -152,41 +172,69 @@ public class HibernateDataApprovalStore
     @Override
     public void addDataApproval( DataApproval dataApproval )
     {
-        isApprovedCache.invalidateAll();
+        invalidateCache( dataApproval.getCacheKeyPrefix(), dataApproval.getOrganisationUnit().getPath() );
 
         dataApproval.setPeriod( periodService.reloadPeriod( dataApproval.getPeriod() ) );
 
         save( dataApproval );
+
+        refreshDataApprovalStates( dataApproval );
     }
 
     @Override
     public void updateDataApproval( DataApproval dataApproval )
     {
-        isApprovedCache.invalidateAll();
+        invalidateCache( dataApproval.getCacheKeyPrefix(), dataApproval.getOrganisationUnit().getPath() );
 
         dataApproval.setPeriod( periodService.reloadPeriod( dataApproval.getPeriod() ) );
 
         update( dataApproval );
+
+        refreshDataApprovalStates( dataApproval );
     }
 
     @Override
     public void deleteDataApproval( DataApproval dataApproval )
     {
-        isApprovedCache.invalidateAll();
+        invalidateCache( dataApproval.getCacheKeyPrefix(), dataApproval.getOrganisationUnit().getPath() );
 
         dataApproval.setPeriod( periodService.reloadPeriod( dataApproval.getPeriod() ) );
 
         delete( dataApproval );
+
+        refreshDataApprovalStates( dataApproval );
     }
 
     @Override
     public void deleteDataApprovals( OrganisationUnit organisationUnit )
     {
-        isApprovedCache.invalidateAll();
+        invalidateCache( "", organisationUnit.getPath() );
+
+        List<DataApproval> dataApprovals = stateEnabled
+            ? getSession().createQuery( "from DataApproval d where d.organisationUnit = :unit", DataApproval.class )
+                .setParameter( "unit", organisationUnit ).list()
+            : List.of();
 
         String hql = "delete from DataApproval d where d.organisationUnit = :unit";
 
         getSession().createQuery( hql ).setParameter( "unit", organisationUnit ).executeUpdate();
+
+        if ( stateEnabled )
+        {
+            jdbcTemplate.update( "delete from dataapprovalstate where organisationunitid = ?",
+                organisationUnit.getId() );
+
+            Set<String> refreshed = new HashSet<>();
+
+            for ( DataApproval dataApproval : dataApprovals )
+            {
+                if ( refreshed.add( dataApproval.getWorkflow().getId() + "-" + dataApproval.getPeriod().getId() + "-"
+                    + dataApproval.getAttributeOptionCombo().getId() ) )
+                {
+                    refreshDataApprovalStates( dataApproval, organisationUnit.getAncestors() );
+                }
+            }
+        }
     }
 
     @Override
@@ -235,7 +283,75 @@ public class HibernateDataApprovalStore
     @Override
     public boolean dataApprovalExists( DataApproval dataApproval )
     {
-        return isApprovedCache.get( dataApproval.getCacheKey(), key -> dataApprovalExistsInternal( dataApproval ) );
+        String key = dataApproval.getCacheKey();
+        Optional<Boolean> cached = isApprovedCache.getIfPresent( key );
+
+        if ( cached.isPresent() )
+        {
+            cacheMetrics.hit();
+            return cached.get();
+        }
+
+        cacheMetrics.miss();
+
+        boolean exists = dataApprovalExistsInternal( dataApproval );
+        isApprovedCache.put( key, exists );
+        return exists;
+    }
+
+    /**
+     * Evicts the cached approvals starting with the given key prefix for the
+     * organisation unit with the given path, its ancestors and its
+     * descendants. Selecting keys requires iterating them, which is only
+     * cheap for local caches, so a distributed cache is cleared entirely.
+     *
+     * @param keyPrefix the workflow, period and attribute option combo part of
+     *        the key, see {@link DataApproval#getCacheKeyPrefix()}, or an empty
+     *        string to match all.
+     * @param path the organisation unit path.
+     */
+    private void invalidateCache( String keyPrefix, String path )
+    {
+        if ( CacheType.REDIS == isApprovedCache.getCacheType() )
+        {
+            isApprovedCache.invalidateAll();
+            return;
+        }
+
+        List<String> keys = new ArrayList<>();
+
+        for ( String key : isApprovedCache.keys() )
+        {
+            if ( key.startsWith( keyPrefix ) && isSameBranch( getCacheKeyPath( key ), path ) )
+            {
+                keys.add( key );
+            }
+        }
+
+        keys.forEach( isApprovedCache::invalidate );
+
+        cacheMetrics.evicted( keys.size() );
+    }
+
+    /**
+     * Returns the organisation unit path of a key created by
+     * {@link DataApproval#getCacheKey()}, which is the only part containing
+     * a slash and is followed by the approval level.
+     */
+    private static String getCacheKeyPath( String key )
+    {
+        int start = key.indexOf( '/' );
+        int end = key.lastIndexOf( '-' );
+
+        return start >= 0 && end > start ? key.substring( start, end ) : "";
+    }
+
+    private static boolean isSameBranch( String path, String otherPath )
+    {
+        String a = path + "/";
+        String b = otherPath + "/";
+
+        return a.startsWith( b ) || b.startsWith( a );
     }
 
     private boolean dataApprovalExistsInternal( DataApproval dataApproval )
@@ -468,84 +584,43 @@ public class HibernateDataApprovalStore
                 ")";
         }
 
-        String readyBelowSubquery = "true"; // Ready below if this is the lowest
-                                            // (highest number) approval orgUnit
-                                            // level.
+        String readyBelowSubquery = getReadyBelowSubquery( workflow, orgUnitLevel, approvalLevelBelowOrgUnit,
+            isDefaultCombo, "'" + endDate + "'", acceptanceRequiredForApproval );
 
-        if ( approvalLevelBelowOrgUnit != null )
-        {
-            readyBelowSubquery = "not exists ( " + // Ready if nothing expected
-                                                   // below is
-                                                   // unapproved(/unaccepted)
-                "select 1 " +
-                "from organisationunit dao " + // Lower-level Data Approval
-                                               // OrgUnit (DAO) where approval
-                                               // is needed to be ready.
-                "where " + statementBuilder.position( "o.uid", "dao.path" ) + " = "
-                + pathPositionAtLevel( orgUnitLevel ) + " " +
-                "and dao.hierarchylevel = " + approvalLevelBelowOrgUnit.getOrgUnitLevel() + " " +
-                "and exists ( " + // Data for this workflow is collected
-                                  // somewhere at or below DAO
-                "select 1 from organisationunit child " +
-                "where " + statementBuilder.position( "dao.uid", "child.path" ) + " <> 0 " +
-                "and child.organisationunitid in ( " +
-                "select distinct sourceid " +
-                "from datasetsource dss " +
-                "join dataset ds on ds.datasetid = dss.datasetid " +
-                "where ds.workflowid = " + workflow.getId() +
-                ") " +
-                ") " +
-                (isDefaultCombo ? "" : // Default combo options never have an
-                                       // organisation unit mapping.
-                    "and not exists (" + // No AOCs without all attribute
-                                         // options valid for org unit.
-                        "select 1 " +
-                        "from categoryoptioncombos_categoryoptions cc1 " +
-                        "where cc1.categoryoptioncomboid = coc.categoryoptioncomboid " +
-                        "and ( " +
-                        "exists ( " + // If there are orgUnit mappings...
-                        "select 1 " +
-                        "from categoryoption_organisationunits co1 " +
-                        "where co1.categoryoptionid = cc1.categoryoptionid ) " +
-                        "and not exists (" + // then one of them should map to
-                                             // this orgUnit.
-                        "select 1 " +
-                        "from categoryoption_organisationunits co1 " +
-                        "join organisationunit o1 on o1.organisationunitid = co1.organisationunitid " +
-                        "where co1.categoryoptionid = cc1.categoryoptionid " +
-                        "and " + statementBuilder.position( "o1.uid", "dao.path" ) +
-                        " between 2 and " + pathPositionAtLevel( approvalLevelBelowOrgUnit ) + " " +
-                        ") " +
-                        ") " +
-                        ") ")
-                +
-                "and not exists (" + // Data not approved(/accepted) below where
-                                     // it needs to be if ready.
-                "select 1 from dataapproval da " +
-                "join period p on p.periodid = da.periodid " +
-                "where da.organisationunitid = dao.organisationunitid " +
-                "and da.dataapprovallevelid = " + approvalLevelBelowOrgUnit.getId() + " " +
-                "and '" + endDate + "' >= p.startdate and '" + endDate + "' <= p.enddate " +
-                "and da.workflowid = " + workflow.getId() + " " +
-                "and da.attributeoptioncomboid = coc.categoryoptioncomboid " +
-                (acceptanceRequiredForApproval ? "and da.accepted " : "") +
-                ") " +
-                ") ";
-        }
+        final int workflowPeriodId = getWorkflowPeriodId( workflow, endDate );
 
-        final String sql = "select coc.uid as cocuid, o.uid as ouuid, o.name as ouname, " +
-            "(select min("
-            + statementBuilder.concatenate( MAX_APPROVAL_LEVEL + " + dal.level", SQL_CAT, "da.accepted", SQL_CAT,
-                "da.organisationunitid" )
-            + ") " +
+        String highestApprovedSubquery = "(select min(" + getHighestApprovedExpression() + ") " +
             "from dataapproval da " +
             "join dataapprovallevel dal on dal.dataapprovallevelid = da.dataapprovallevelid " +
             highestApprovedOrgUnitJoin +
             "where da.workflowid = " + workflow.getId() + " " +
-            "and da.periodid = " + getWorkflowPeriodId( workflow, endDate ) + " " +
+            "and da.periodid = " + workflowPeriodId + " " +
             "and da.attributeoptioncomboid = coc.categoryoptioncomboid " +
             "and " + highestApprovedOrgUnitCompare + userApprovalLevelRestrictions +
-            ") as highest_approved, " +
+            ")";
+
+        if ( stateEnabled && orgUnits != null && orgUnits.size() == 1 )
+        {
+            // Look up the materialized state first, and fall back to the
+            // subqueries if there is no state for the org unit and AOC
+
+            String stateLookup = "from dataapprovalstate s " +
+                "where s.workflowid = " + workflow.getId() + " " +
+                "and s.periodid = " + workflowPeriodId + " " +
+                "and s.organisationunitid = o.organisationunitid " +
+                "and s.attributeoptioncomboid = coc.categoryoptioncomboid";
+
+            if ( userApprovalLevelRestrictions.isEmpty() )
+            {
+                highestApprovedSubquery = "nullif(coalesce((select coalesce(s.highestapproved, '') " + stateLookup
+                    + "), " + highestApprovedSubquery + "), '')";
+            }
+
+            readyBelowSubquery = "coalesce((select s.readybelow " + stateLookup + "), " + readyBelowSubquery + ")";
+        }
+
+        final String sql = "select coc.uid as cocuid, o.uid as ouuid, o.name as ouname, " +
+            highestApprovedSubquery + " as highest_approved, " +
             readyBelowSubquery + " as ready_below, " +
             approvedAboveSubquery + " as approved_above " +
             "from categoryoptioncombo coc " +
@@ -681,6 +756,262 @@ public class HibernateDataApprovalStore
         return statusList;
     }
 
+    // -------------------------------------------------------------------------
+    // Materialized data approval states
+    // -------------------------------------------------------------------------
+
+    @Override
+    public int refreshDataApprovalStates( DataApprovalWorkflow workflow )
+    {
+        if ( !stateEnabled )
+        {
+            return 0;
+        }
+
+        jdbcTemplate.update( "delete from dataapprovalstate where workflowid = ?", workflow.getId() );
+
+        int states = 0;
+
+        for ( int orgUnitLevel : getApprovalOrgUnitLevels( workflow ) )
+        {
+            String targets = "select distinct da.periodid, anc.organisationunitid, da.attributeoptioncomboid " +
+                "from dataapproval da " +
+                "join organisationunit dao on dao.organisationunitid = da.organisationunitid " +
+                "join organisationunit anc on anc.hierarchylevel = " + orgUnitLevel + " " +
+                "and " + statementBuilder.position( "anc.uid", "dao.path" ) + " <> 0 " +
+                "where da.workflowid = " + workflow.getId();
+
+            states += upsertDataApprovalStates( workflow, orgUnitLevel, targets );
+        }
+
+        return states;
+    }
+
+    /**
+     * Recomputes the materialized states affected by a change of the given
+     * approval, which are the states of its organisation unit and of the
+     * ancestors at the approval levels of the workflow.
+     */
+    private void refreshDataApprovalStates( DataApproval dataApproval )
+    {
+        if ( !stateEnabled )
+        {
+            return;
+        }
+
+        getSession().flush();
+
+        List<OrganisationUnit> branch = new ArrayList<>( dataApproval.getOrganisationUnit().getAncestors() );
+        branch.add( dataApproval.getOrganisationUnit() );
+
+        refreshDataApprovalStates( dataApproval, branch );
+    }
+
+    /**
+     * Recomputes the materialized states of the workflow, period and
+     * attribute option combo of the given approval for those of the given
+     * organisation units which are at the approval levels of the workflow.
+     * <p>
+     * The state of an organisation unit depends on the approvals of the
+     * organisation units below it, which concurrent transactions may change.
+     * The state rows are therefore locked, from the top of the hierarchy
+     * down, before they are recomputed. A transaction waiting for the lock
+     * computes the state from a snapshot which includes the approvals of the
+     * transaction which held it, since each statement reads the data
+     * committed when it starts.
+     */
+    private void refreshDataApprovalStates( DataApproval dataApproval, List<OrganisationUnit> orgUnits )
+    {
+        DataApprovalWorkflow workflow = dataApproval.getWorkflow();
+        Set<Integer> orgUnitLevels = getApprovalOrgUnitLevels( workflow );
+
+        List<OrganisationUnit> targets = orgUnits.stream()
+            .filter( orgUnit -> orgUnitLevels.contains( orgUnit.getLevel() ) )
+            .sorted( Comparator.comparingInt( OrganisationUnit::getLevel ) )
+            .collect( Collectors.toList() );
+
+        for ( OrganisationUnit orgUnit : targets )
+        {
+            lockDataApprovalState( workflow, dataApproval.getPeriod(), orgUnit,
+                dataApproval.getAttributeOptionCombo() );
+        }
+
+        for ( OrganisationUnit orgUnit : targets )
+        {
+            String target = "select " + dataApproval.getPeriod().getId() + " as periodid, " +
+                orgUnit.getId() + " as organisationunitid, " +
+                dataApproval.getAttributeOptionCombo().getId() + " as attributeoptioncomboid";
+
+            upsertDataApprovalStates( workflow, orgUnit.getLevel(), target );
+        }
+    }
+
+    /**
+     * Locks the state row of the given workflow, period, organisation unit
+     * and attribute option combo until the end of the transaction, inserting
+     * the row if it does not exist. An inserted row is overwritten when the
+     * state is recomputed in the same transaction.
+     */
+    private void lockDataApprovalState( DataApprovalWorkflow workflow, Period period, OrganisationUnit orgUnit,
+        CategoryOptionCombo attributeOptionCombo )
+    {
+        final String sql = "insert into dataapprovalstate " +
+            "(workflowid, periodid, organisationunitid, attributeoptioncomboid, lastupdated) " +
+            "values (?, ?, ?, ?, now()) " +
+            "on conflict (workflowid, periodid, organisationunitid, attributeoptioncomboid) do update " +
+            "set lastupdated = excluded.lastupdated";
+
+        jdbcTemplate.update( sql, workflow.getId(), period.getId(), orgUnit.getId(), attributeOptionCombo.getId() );
+    }
+
+    /**
+     * Computes and stores the states of the given targets, which must all be
+     * at the given organisation unit level.
+     *
+     * @param workflow the workflow.
+     * @param orgUnitLevel the organisation unit level of the targets.
+     * @param targets query returning periodid, organisationunitid and
+     *        attributeoptioncomboid of the states to compute.
+     * @return the number of states stored.
+     */
+    private int upsertDataApprovalStates( DataApprovalWorkflow workflow, int orgUnitLevel, String targets )
+    {
+        DataApprovalLevel approvalLevelBelowOrgUnit = workflow.getSortedLevels().stream()
+            .filter( dal -> dal.getOrgUnitLevel() > orgUnitLevel )
+            .findFirst().orElse( null );
+
+        boolean acceptanceRequiredForApproval = systemSettingManager
+            .getBoolSetting( SettingKey.ACCEPTANCE_REQUIRED_FOR_APPROVAL );
+
+        final String sql = "insert into dataapprovalstate " +
+            "(workflowid, periodid, organisationunitid, attributeoptioncomboid, highestapproved, readybelow, " +
+            "lastupdated) " +
+            "select " + workflow.getId() + ", wp.periodid, o.organisationunitid, coc.categoryoptioncomboid, " +
+            "(select min(" + getHighestApprovedExpression() + ") " +
+            "from dataapproval da " +
+            "join dataapprovallevel dal on dal.dataapprovallevelid = da.dataapprovallevelid " +
+            "where da.workflowid = " + workflow.getId() + " " +
+            "and da.periodid = wp.periodid " +
+            "and da.organisationunitid = o.organisationunitid " +
+            "and da.attributeoptioncomboid = coc.categoryoptioncomboid), " +
+            getReadyBelowSubquery( workflow, orgUnitLevel, approvalLevelBelowOrgUnit, false, "wp.enddate",
+                acceptanceRequiredForApproval )
+            + ", now() " +
+            "from (" + targets + ") t " +
+            "join period wp on wp.periodid = t.periodid " +
+            "join organisationunit o on o.organisationunitid = t.organisationunitid " +
+            "join categoryoptioncombo coc on coc.categoryoptioncomboid = t.attributeoptioncomboid " +
+            "on conflict (workflowid, periodid, organisationunitid, attributeoptioncomboid) do update " +
+            "set highestapproved = excluded.highestapproved, readybelow = excluded.readybelow, " +
+            "lastupdated = excluded.lastupdated";
+
+        return jdbcTemplate.update( sql );
+    }
+
+    private Set<Integer> getApprovalOrgUnitLevels( DataApprovalWorkflow workflow )
+    {
+        return workflow.getSortedLevels().stream()
+            .map( DataApprovalLevel::getOrgUnitLevel )
+            .collect( Collectors.toCollection( TreeSet::new ) );
+    }
+
+    /**
+     * Returns a SQL expression encoding an approval as level, accepted flag
+     * and organisation unit, such that the minimum is the highest approval.
+     */
+    private String getHighestApprovedExpression()
+    {
+        return statementBuilder.concatenate( MAX_APPROVAL_LEVEL + " + dal.level", SQL_CAT, "da.accepted", SQL_CAT,
+            "da.organisationunitid" );
+    }
+
+    /**
+     * Returns a SQL expression telling whether all organisation units at the
+     * next approval level below the organisation unit with alias {@code o}
+     * have approved (or accepted) the data of the attribute option combo with
+     * alias {@code coc}.
+     *
+     * @param workflow the workflow.
+     * @param orgUnitLevel the level of organisation unit {@code o}.
+     * @param approvalLevelBelowOrgUnit the next approval level below, or null.
+     * @param isDefaultCombo whether only the default combo is queried.
+     * @param endDateSql SQL expression for the end date of the period.
+     * @param acceptanceRequiredForApproval whether approvals below must also
+     *        be accepted.
+     * @return the SQL expression.
+     */
+    private String getReadyBelowSubquery( DataApprovalWorkflow workflow, int orgUnitLevel,
+        DataApprovalLevel approvalLevelBelowOrgUnit, boolean isDefaultCombo, String endDateSql,
+        boolean acceptanceRequiredForApproval )
+    {
+        String readyBelowSubquery = "true"; // Ready below if this is the lowest
+                                            // (highest number) approval orgUnit
+                                            // level.
+
+        if ( approvalLevelBelowOrgUnit != null )
+        {
+            readyBelowSubquery = "not exists ( " + // Ready if nothing expected
+                                                   // below is
+                                                   // unapproved(/unaccepted)
+                "select 1 " +
+                "from organisationunit dao " + // Lower-level Data Approval
+                                               // OrgUnit (DAO) where approval
+                                               // is needed to be ready.
+                "where " + statementBuilder.position( "o.uid", "dao.path" ) + " = "
+                + pathPositionAtLevel( orgUnitLevel ) + " " +
+                "and dao.hierarchylevel = " + approvalLevelBelowOrgUnit.getOrgUnitLevel() + " " +
+                "and exists ( " + // Data for this workflow is collected
+                                  // somewhere at or below DAO
+                "select 1 from organisationunit child " +
+                "where " + statementBuilder.position( "dao.uid", "child.path" ) + " <> 0 " +
+                "and child.organisationunitid in ( " +
+                "select distinct sourceid " +
+                "from datasetsource dss " +
+                "join dataset ds on ds.datasetid = dss.datasetid " +
+                "where ds.workflowid = " + workflow.getId() +
+                ") " +
+                ") " +
+                (isDefaultCombo ? "" : // Default combo options never have an
+                                       // organisation unit mapping.
+                    "and not exists (" + // No AOCs without all attribute
+                                         // options valid for org unit.
+                        "select 1 " +
+                        "from categoryoptioncombos_categoryoptions cc1 " +
+                        "where cc1.categoryoptioncomboid = coc.categoryoptioncomboid " +
+                        "and ( " +
+                        "exists ( " + // If there are orgUnit mappings...
+                        "select 1 " +
+                        "from categoryoption_organisationunits co1 " +
+                        "where co1.categoryoptionid = cc1.categoryoptionid ) " +
+                        "and not exists (" + // then one of them should map to
+                                             // this orgUnit.
+                        "select 1 " +
+                        "from categoryoption_organisationunits co1 " +
+                        "join organisationunit o1 on o1.organisationunitid = co1.organisationunitid " +
+                        "where co1.categoryoptionid = cc1.categoryoptionid " +
+                        "and " + statementBuilder.position( "o1.uid", "dao.path" ) +
+                        " between 2 and " + pathPositionAtLevel( approvalLevelBelowOrgUnit ) + " " +
+                        ") " +
+                        ") " +
+                        ") ")
+                +
+                "and not exists (" + // Data not approved(/accepted) below where
+                                     // it needs to be if ready.
+                "select 1 from dataapproval da " +
+                "join period p on p.periodid = da.periodid " +
+                "where da.organisationunitid = dao.organisationunitid " +
+                "and da.dataapprovallevelid = " + approvalLevelBelowOrgUnit.getId() + " " +
+                "and " + endDateSql + " >= p.startdate and " + endDateSql + " <= p.enddate " +
+                "and da.workflowid = " + workflow.getId() + " " +
+                "and da.attributeoptioncomboid = coc.categoryoptioncomboid " +
+                (acceptanceRequiredForApproval ? "and da.accepted " : "") +
+                ") " +
+                ") ";
+        }
+
+        return readyBelowSubquery;
+    }
+
     /**
      * Get the id for the workflow period that spans the given end date. The
      * workflow period may or may not be the same as the period for which we are
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.dataapproval.job;
+
+import java.util.List;
+
+import lombok.RequiredArgsConstructor;
+
+import org.hisp.dhis.dataapproval.DataApprovalService;
+import org.hisp.dhis.dataapproval.DataApprovalStore;
+import org.hisp.dhis.dataapproval.DataApprovalWorkflow;
+import org.hisp.dhis.external.conf.ConfigurationKey;
+import org.hisp.dhis.external.conf.DhisConfigurationProvider;
+import org.hisp.dhis.scheduling.Job;
+import org.hisp.dhis.scheduling.JobConfiguration;
+import org.hisp.dhis.scheduling.JobProgress;
+import org.hisp.dhis.scheduling.JobType;
+import org.springframework.stereotype.Component;
+
+/**
+ * Job which recomputes the materialized data approval states of all workflows.
+ * This brings the states in line with changes which are not tracked as they
+ * happen, such as data set assignments and attribute option org unit mappings.
+ */
+@Component( "dataApprovalStateCheckJob" )
+@RequiredArgsConstructor
+public class DataApprovalStateCheckJob implements Job
+{
+    private final DataApprovalService dataApprovalService;
+
+    private final DataApprovalStore dataApprovalStore;
+
+    private final DhisConfigurationProvider config;
+
+    @Override
+    public JobType getJobType()
+    {
+        return JobType.DATA_APPROVAL_STATE_CHECK;
+    }
+
+    @Override
+    public void execute( JobConfiguration jobConfiguration, JobProgress progress )
+    {
+        progress.startingProcess( "Check data approval states" );
+
+        if ( !config.isEnabled( ConfigurationKey.DATA_APPROVAL_STATE_ENABLED ) )
+        {
+            progress.completedProcess( "Data approval states are not enabled" );
+            return;
+        }
+
+        progress.startingStage( "Fetching data approval workflows" );
+        List<DataApprovalWorkflow> workflows = progress.runStage( List.of(),
+            dataApprovalService::getAllWorkflows );
+
+        progress.startingStage( "Refreshing states of " + workflows.size() + " workflows", workflows.size() );
+        progress.runStage( workflows, DataApprovalWorkflow::getName,
+            dataApprovalStore::refreshDataApprovalStates );
+
+        progress.completedProcess( null );
+    }
+}
@@ -35,6 +35,7 @@ import static org.hisp.dhis.commons.util.TextUtils.removeLastOr;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.BlockingQueue;
 import java.util.function.Function;
@@ -462,6 +463,10 @@ public class HibernateDataValueStore extends HibernateGenericStore<DataValue>
 
         List<DeflatedDataValue> result = new ArrayList<>();
 
+        List<DeflatedDataValue> batch = new ArrayList<>();
+
+        String batchKey = null;
+
         while ( rowSet.next() )
         {
             Integer dataElementId = rowSet.getInt( 1 );
@@ -486,10 +491,20 @@ public class HibernateDataValueStore extends HibernateGenericStore<DataValue>
 
             if ( params.hasBlockingQueue() )
             {
-                if ( !addToBlockingQueue( params.getBlockingQueue(), ddv ) )
+                String key = getBatchKey( params, sourcePath );
+
+                if ( !batch.isEmpty() && (batch.size() >= DDV_QUEUE_BATCH_SIZE || !Objects.equals( key, batchKey )) )
                 {
-                    return result; // Abort
+                    if ( !addToBlockingQueue( params.getBlockingQueue(), batch ) )
+                    {
+                        return result; // Abort
+                    }
+
+                    batch = new ArrayList<>();
                 }
+
+                batch.add( ddv );
+                batchKey = key;
             }
             else
             {
@@ -499,7 +514,9 @@ public class HibernateDataValueStore extends HibernateGenericStore<DataValue>
 
         if ( params.hasBlockingQueue() )
         {
-            addToBlockingQueue( params.getBlockingQueue(), END_OF_DDV_DATA );
+            batch.add( END_OF_DDV_DATA );
+
+            addToBlockingQueue( params.getBlockingQueue(), batch );
         }
 
         log.debug( result.size() + " DeflatedDataValues returned from: " + sql );
@@ -582,17 +599,45 @@ public class HibernateDataValueStore extends HibernateGenericStore<DataValue>
     }
 
     /**
-     * Adds a {@see DeflatedDataValue} to a blocking queue
+     * Gets the key by which queued {@see DeflatedDataValue} are batched. When
+     * ordered by path, values are batched per organisation unit at the
+     * requested level, so the consumer gets one hand-off per organisation
+     * unit instead of one per value.
+     *
+     * @param params the data export parameters
+     * @param sourcePath the path of the data value source
+     * @return the batch key, or null if values are only batched by size
+     */
+    private String getBatchKey( DataExportParams params, String sourcePath )
+    {
+        if ( !params.isOrderByOrgUnitPath() || sourcePath == null )
+        {
+            return null;
+        }
+
+        if ( params.hasOrgUnitLevel() )
+        {
+            int length = params.getOrgUnitLevel() * 12;
+
+            return sourcePath.length() > length ? sourcePath.substring( 0, length ) : sourcePath;
+        }
+
+        return sourcePath;
+    }
+
+    /**
+     * Adds a batch of {@see DeflatedDataValue} to a blocking queue
      *
      * @param blockingQueue the queue to add to
-     * @param ddv the deflated data value
+     * @param batch the batch of deflated data values
      * @return true if it was added, false if timeout
      */
-    private boolean addToBlockingQueue( BlockingQueue<DeflatedDataValue> blockingQueue, DeflatedDataValue ddv )
+    private boolean addToBlockingQueue( BlockingQueue<List<DeflatedDataValue>> blockingQueue,
+        List<DeflatedDataValue> batch )
     {
         try
         {
-            return blockingQueue.offer( ddv, DDV_QUEUE_TIMEOUT_VALUE, DDV_QUEUE_TIMEOUT_UNIT );
+            return blockingQueue.offer( batch, DDV_QUEUE_TIMEOUT_VALUE, DDV_QUEUE_TIMEOUT_UNIT );
         }
         catch ( InterruptedException e )
         {
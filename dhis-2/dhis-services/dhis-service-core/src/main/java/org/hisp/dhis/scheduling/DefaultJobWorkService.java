@@ -0,0 +1,437 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.scheduling;
+
+import static java.lang.String.format;
+import static java.util.Collections.nCopies;
+import static java.util.stream.Collectors.toList;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.hisp.dhis.common.CodeGenerator;
+import org.hisp.dhis.external.conf.ConfigurationKey;
+import org.hisp.dhis.external.conf.DhisConfigurationProvider;
+import org.hisp.dhis.leader.election.LeaderManager;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.rowset.SqlRowSet;
+import org.springframework.stereotype.Service;
+
+/**
+ * {@link JobWorkService} which shares the work items through the jobworkitem
+ * table. Items are claimed with {@code select ... for update skip locked} so
+ * that each item is executed by one instance at a time.
+ * <p>
+ * Each instance runs a number of worker threads polling for queued items of
+ * any work type and a heartbeat thread which marks the instance as alive in
+ * the jobworknode table. Running items of instances which stopped sending
+ * heartbeats are queued again.
+ */
+@Slf4j
+@Service( "org.hisp.dhis.scheduling.JobWorkService" )
+public class DefaultJobWorkService implements JobWorkService
+{
+    private static final long POLL_INTERVAL_MILLIS = 2_000;
+
+    private static final long HEARTBEAT_INTERVAL_MILLIS = 10_000;
+
+    /**
+     * Running items claimed by an instance without heartbeat for this long are
+     * queued again.
+     */
+    static final long STALE_AFTER_MILLIS = 60_000;
+
+    /**
+     * Batches without any item updated for this long, which are left over by
+     * a publisher which did not clean up, are deleted.
+     */
+    private static final long EXPIRE_AFTER_HOURS = 24;
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    private static final String QUEUED = "QUEUED";
+
+    private static final String RUNNING = "RUNNING";
+
+    private static final String DONE = "DONE";
+
+    private static final String FAILED = "FAILED";
+
+    private static final String CANCELLED = "CANCELLED";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final LeaderManager leaderManager;
+
+    private final ObjectProvider<JobWorkHandler> handlers;
+
+    private final boolean enabled;
+
+    private final int workerThreads;
+
+    private ScheduledExecutorService executor;
+
+    public DefaultJobWorkService( JdbcTemplate jdbcTemplate, LeaderManager leaderManager,
+        ObjectProvider<JobWorkHandler> handlers, DhisConfigurationProvider config )
+    {
+        this.jdbcTemplate = jdbcTemplate;
+        this.leaderManager = leaderManager;
+        this.handlers = handlers;
+        this.enabled = config.isEnabled( ConfigurationKey.CLUSTER_WORK_DISTRIBUTION_ENABLED );
+        this.workerThreads = Math.max( 1,
+            Integer.parseInt( config.getProperty( ConfigurationKey.CLUSTER_WORK_DISTRIBUTION_THREADS ) ) );
+    }
+
+    @PostConstruct
+    public void init()
+    {
+        if ( !enabled )
+        {
+            return;
+        }
+
+        AtomicInteger threadCount = new AtomicInteger();
+
+        // one thread per worker and one for the heartbeat, so that the
+        // heartbeat is never blocked by long running items
+        executor = Executors.newScheduledThreadPool( workerThreads + 1, runnable -> {
+            Thread thread = new Thread( runnable, "job-work-" + threadCount.incrementAndGet() );
+            thread.setDaemon( true );
+            return thread;
+        } );
+
+        for ( int i = 0; i < workerThreads; i++ )
+        {
+            executor.scheduleWithFixedDelay( this::work, POLL_INTERVAL_MILLIS, POLL_INTERVAL_MILLIS,
+                TimeUnit.MILLISECONDS );
+        }
+
+        executor.scheduleWithFixedDelay( this::heartbeat, 0, HEARTBEAT_INTERVAL_MILLIS, TimeUnit.MILLISECONDS );
+    }
+
+    @PreDestroy
+    public void destroy()
+    {
+        if ( executor != null )
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // JobWorkService implementation
+    // -------------------------------------------------------------------------
+
+    @Override
+    public boolean runStageDistributed( JobProgress progress, String workType, int parallelism, List<String> items,
+        Function<String, String> description )
+    {
+        JobWorkHandler handler = getHandler( workType )
+            .orElseThrow( () -> new IllegalArgumentException( "No handler for work type: " + workType ) );
+
+        if ( !enabled )
+        {
+            return progress.runStageInParallel( parallelism, items, description, handler::execute );
+        }
+
+        String batchId = CodeGenerator.generateUid();
+
+        publish( batchId, workType, items, description );
+
+        try
+        {
+            Set<Long> reported = new HashSet<>();
+            int terminated = 0;
+            boolean allSuccessful = true;
+
+            while ( terminated < items.size() )
+            {
+                if ( progress.isCancellationRequested() )
+                {
+                    jdbcTemplate.update( "update jobworkitem set status = ?, lastupdated = now() " +
+                        "where batchid = ? and status = ?", CANCELLED, batchId, QUEUED );
+                }
+
+                // the publisher works on its own batch while waiting
+                boolean worked = !progress.isCancellationRequested() && claimAndExecute( batchId );
+
+                if ( isBatchDeleted( batchId ) )
+                {
+                    // the batch expired, so its remaining items will not run
+                    log.warn( format( "Distributed work batch %s was deleted before all items terminated",
+                        batchId ) );
+                    allSuccessful = false;
+                    break;
+                }
+
+                SqlRowSet rowSet = jdbcTemplate.queryForRowSet(
+                    "select jobworkitemid, description, status, nodeid, attempts, duration, error " +
+                        "from jobworkitem where batchid = ? and status in (?, ?, ?)",
+                    batchId, DONE, FAILED, CANCELLED );
+
+                while ( rowSet.next() )
+                {
+                    if ( reported.add( rowSet.getLong( "jobworkitemid" ) ) )
+                    {
+                        terminated++;
+                        allSuccessful &= report( progress, rowSet );
+                    }
+                }
+
+                if ( !worked && terminated < items.size() )
+                {
+                    Thread.sleep( POLL_INTERVAL_MILLIS );
+                }
+            }
+
+            if ( allSuccessful )
+            {
+                progress.completedStage( null );
+            }
+            else if ( progress.isCancellationRequested() )
+            {
+                progress.failedStage( new CancellationException( "cancelled distributed processing" ) );
+            }
+            else
+            {
+                progress.failedStage( (String) null );
+            }
+            return allSuccessful;
+        }
+        catch ( InterruptedException ex )
+        {
+            progress.failedStage( ex );
+            Thread.currentThread().interrupt();
+        }
+        catch ( Exception ex )
+        {
+            progress.failedStage( ex );
+        }
+        finally
+        {
+            jdbcTemplate.update( "delete from jobworkitem where batchid = ?", batchId );
+        }
+        return false;
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    private void publish( String batchId, String workType, List<String> items, Function<String, String> description )
+    {
+        jdbcTemplate.batchUpdate( "insert into jobworkitem (batchid, worktype, item, description, status) " +
+            "values (?, ?, ?, ?, ?)", items, 1000, ( ps, item ) -> {
+                ps.setString( 1, batchId );
+                ps.setString( 2, workType );
+                ps.setString( 3, item );
+                ps.setString( 4, description.apply( item ) );
+                ps.setString( 5, QUEUED );
+            } );
+    }
+
+    private boolean isBatchDeleted( String batchId )
+    {
+        return !jdbcTemplate.queryForObject( "select exists (select 1 from jobworkitem where batchid = ?)",
+            Boolean.class, batchId );
+    }
+
+    /**
+     * Reports a terminated item to the job progress.
+     *
+     * @return true if the item was successful, otherwise false
+     */
+    private boolean report( JobProgress progress, SqlRowSet rowSet )
+    {
+        String status = rowSet.getString( "status" );
+
+        if ( CANCELLED.equals( status ) )
+        {
+            return false;
+        }
+
+        progress.startingWorkItem( rowSet.getString( "description" ) );
+
+        if ( DONE.equals( status ) )
+        {
+            progress.completedWorkItem( format( "%d ms on %s (attempt %d)", rowSet.getLong( "duration" ),
+                rowSet.getString( "nodeid" ), rowSet.getInt( "attempts" ) ) );
+            return true;
+        }
+
+        progress.failedWorkItem( rowSet.getString( "error" ) );
+        return false;
+    }
+
+    /**
+     * Executes queued items of any work type until there are none left.
+     */
+    private void work()
+    {
+        try
+        {
+            while ( claimAndExecute( null ) )
+            {
+                // continue with next item
+            }
+        }
+        catch ( Exception ex )
+        {
+            log.error( "Failed to execute distributed work items", ex );
+        }
+    }
+
+    /**
+     * Claims a queued item and executes it.
+     *
+     * @param batchId the batch to claim from, or null to claim from any batch
+     * @return true if an item was claimed, false if there are no queued items
+     */
+    boolean claimAndExecute( String batchId )
+    {
+        List<String> workTypes = handlers.orderedStream().map( JobWorkHandler::getWorkType )
+            .collect( toList() );
+
+        if ( workTypes.isEmpty() )
+        {
+            return false;
+        }
+
+        String nodeId = leaderManager.getCurrentNodeUuid();
+
+        String sql = "update jobworkitem set status = ?, nodeid = ?, attempts = attempts + 1, lastupdated = now() " +
+            "where jobworkitemid = (" +
+            "select jobworkitemid from jobworkitem " +
+            "where status = ? " +
+            (batchId != null ? "and batchid = ? " : "") +
+            "and worktype in (" + String.join( ",", nCopies( workTypes.size(), "?" ) ) + ") " +
+            "order by jobworkitemid limit 1 for update skip locked) " +
+            "returning jobworkitemid, worktype, item";
+
+        List<Object> args = new ArrayList<>( List.of( RUNNING, nodeId, QUEUED ) );
+        if ( batchId != null )
+        {
+            args.add( batchId );
+        }
+        args.addAll( workTypes );
+
+        SqlRowSet rowSet = jdbcTemplate.queryForRowSet( sql, args.toArray() );
+
+        if ( !rowSet.next() )
+        {
+            return false;
+        }
+
+        long id = rowSet.getLong( "jobworkitemid" );
+        String workType = rowSet.getString( "worktype" );
+        String item = rowSet.getString( "item" );
+
+        long startedTime = System.currentTimeMillis();
+
+        try
+        {
+            getHandler( workType ).orElseThrow().execute( item );
+
+            jdbcTemplate.update( "update jobworkitem set status = ?, duration = ?, lastupdated = now() " +
+                "where jobworkitemid = ? and nodeid = ?", DONE, System.currentTimeMillis() - startedTime, id,
+                nodeId );
+        }
+        catch ( Exception ex )
+        {
+            log.warn( format( "Distributed work item %d of type %s failed", id, workType ), ex );
+
+            jdbcTemplate.update( "update jobworkitem " +
+                "set status = case when attempts < ? then ? else ? end, nodeid = null, error = ?, " +
+                "lastupdated = now() where jobworkitemid = ? and nodeid = ?", MAX_ATTEMPTS, QUEUED, FAILED,
+                ex.getMessage(), id, nodeId );
+        }
+
+        return true;
+    }
+
+    /**
+     * Marks this instance and its running items as alive, queues running
+     * items of instances which stopped responding and deletes expired batches
+     * and instances.
+     * <p>
+     * Items are only queued again if the instance which claimed them has not
+     * sent a heartbeat for {@link #STALE_AFTER_MILLIS}, so that items running
+     * for a long time on a live instance are never executed twice.
+     */
+    void heartbeat()
+    {
+        try
+        {
+            jdbcTemplate.update( "insert into jobworknode (nodeid, lastseen) values (?, now()) " +
+                "on conflict (nodeid) do update set lastseen = excluded.lastseen",
+                leaderManager.getCurrentNodeUuid() );
+
+            jdbcTemplate.update( "update jobworkitem set lastupdated = now() where status = ? and nodeid = ?",
+                RUNNING, leaderManager.getCurrentNodeUuid() );
+
+            jdbcTemplate.update( "update jobworkitem " +
+                "set status = case when attempts < ? then ? else ? end, " +
+                "error = 'Instance ' || nodeid || ' stopped responding', nodeid = null, lastupdated = now() " +
+                "where status = ? and lastupdated < now() - ? * interval '1 millisecond' " +
+                "and not exists (select 1 from jobworknode n where n.nodeid = jobworkitem.nodeid " +
+                "and n.lastseen >= now() - ? * interval '1 millisecond')",
+                MAX_ATTEMPTS, QUEUED, FAILED, RUNNING, STALE_AFTER_MILLIS, STALE_AFTER_MILLIS );
+
+            jdbcTemplate.update( "delete from jobworkitem where batchid in (" +
+                "select batchid from jobworkitem group by batchid " +
+                "having max(lastupdated) < now() - ? * interval '1 hour')", EXPIRE_AFTER_HOURS );
+
+            jdbcTemplate.update( "delete from jobworknode where lastseen < now() - ? * interval '1 hour'",
+                EXPIRE_AFTER_HOURS );
+        }
+        catch ( Exception ex )
+        {
+            log.error( "Failed to update distributed work items", ex );
+        }
+    }
+
+    private Optional<JobWorkHandler> getHandler( String workType )
+    {
+        return handlers.orderedStream().filter( handler -> handler.getWorkType().equals( workType ) ).findFirst();
+    }
+}
@@ -29,25 +29,40 @@ package org.hisp.dhis.sqlview.hibernate;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import lombok.extern.slf4j.Slf4j;
 
 import org.hibernate.SessionFactory;
 import org.hisp.dhis.common.Grid;
+import org.hisp.dhis.common.GridHeader;
+import org.hisp.dhis.common.GridRowWriter;
+import org.hisp.dhis.common.QueryRuntimeException;
 import org.hisp.dhis.common.hibernate.HibernateIdentifiableObjectStore;
+import org.hisp.dhis.feedback.ErrorCode;
 import org.hisp.dhis.jdbc.StatementBuilder;
 import org.hisp.dhis.security.acl.AclService;
 import org.hisp.dhis.setting.SettingKey;
 import org.hisp.dhis.setting.SystemSettingManager;
 import org.hisp.dhis.sqlview.SqlView;
 import org.hisp.dhis.sqlview.SqlViewStore;
+import org.hisp.dhis.sqlview.SqlViewStreamParams;
 import org.hisp.dhis.sqlview.SqlViewType;
 import org.hisp.dhis.user.CurrentUserService;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.jdbc.BadSqlGrammarException;
 import org.springframework.jdbc.UncategorizedSQLException;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.support.rowset.SqlRowSet;
 import org.springframework.stereotype.Repository;
@@ -147,6 +162,164 @@ public class HibernateSqlViewStore
         grid.addRows( rs, maxLimit );
     }
 
+    @Override
+    public long streamSqlView( String sql, SqlViewStreamParams params, GridRowWriter writer )
+    {
+        int maxRows = getStreamMaxRows( params );
+
+        log.debug( "Stream view SQL: " + sql + ", max rows: " + maxRows + ", params: " + params );
+
+        Long rows = readOnlyJdbcTemplate.execute( (ConnectionCallback<Long>) connection -> {
+            // PostgreSQL only fetches through a cursor outside of auto-commit
+
+            boolean autoCommit = connection.getAutoCommit();
+
+            if ( autoCommit )
+            {
+                connection.setAutoCommit( false );
+            }
+
+            try
+            {
+                return streamRows( connection, sql, maxRows, params, writer );
+            }
+            finally
+            {
+                if ( autoCommit )
+                {
+                    connection.rollback();
+                    connection.setAutoCommit( true );
+                }
+            }
+        } );
+
+        return rows != null ? rows : 0;
+    }
+
+    /**
+     * Returns the effective max number of rows, which is the lowest of the
+     * requested limit and the system max limit, or 0 if neither is set.
+     */
+    private int getStreamMaxRows( SqlViewStreamParams params )
+    {
+        int maxLimit = systemSettingManager.getIntSetting( SettingKey.SQL_VIEW_MAX_LIMIT );
+
+        if ( maxLimit > 0 && params.hasMaxRows() )
+        {
+            return Math.min( maxLimit, params.getMaxRows() );
+        }
+
+        return params.hasMaxRows() ? params.getMaxRows() : Math.max( maxLimit, 0 );
+    }
+
+    private long streamRows( Connection connection, String sql, int maxRows, SqlViewStreamParams params,
+        GridRowWriter writer )
+        throws SQLException
+    {
+        int fetchSize = Math.max( params.getFetchSize(), 1 );
+
+        long deadline = params.hasTimeout()
+            ? System.currentTimeMillis() + TimeUnit.SECONDS.toMillis( params.getTimeoutSeconds() )
+            : Long.MAX_VALUE;
+
+        try ( PreparedStatement statement = connection.prepareStatement( sql, ResultSet.TYPE_FORWARD_ONLY,
+            ResultSet.CONCUR_READ_ONLY ) )
+        {
+            statement.setFetchSize( fetchSize );
+            statement.setMaxRows( maxRows );
+
+            if ( params.hasTimeout() )
+            {
+                statement.setQueryTimeout( params.getTimeoutSeconds() );
+            }
+
+            try ( ResultSet rs = statement.executeQuery() )
+            {
+                ResultSetMetaData metaData = rs.getMetaData();
+
+                int columns = metaData.getColumnCount();
+
+                List<GridHeader> headers = new ArrayList<>( columns );
+
+                for ( int i = 1; i <= columns; i++ )
+                {
+                    headers.add( new GridHeader( metaData.getColumnLabel( i ), false, false ) );
+                }
+
+                writer.writeHeaders( headers );
+
+                long rows = 0;
+
+                while ( next( rs, deadline ) )
+                {
+                    if ( rows % fetchSize == 0 )
+                    {
+                        if ( System.currentTimeMillis() > deadline )
+                        {
+                            statement.cancel();
+
+                            throw new QueryRuntimeException( ErrorCode.E7131, null );
+                        }
+
+                        if ( params.getCancellationRequested().getAsBoolean() )
+                        {
+                            statement.cancel();
+
+                            throw new QueryRuntimeException( "Streaming of SQL view cancelled after " + rows + " rows",
+                                null );
+                        }
+                    }
+
+                    List<Object> row = new ArrayList<>( columns );
+
+                    for ( int i = 1; i <= columns; i++ )
+                    {
+                        row.add( rs.getObject( i ) );
+                    }
+
+                    try
+                    {
+                        writer.writeRow( row );
+                    }
+                    catch ( UncheckedIOException ex )
+                    {
+                        log.info( "Streaming of SQL view aborted after " + rows + " rows, client disconnected" );
+
+                        statement.cancel();
+
+                        throw ex;
+                    }
+
+                    rows++;
+                }
+
+                return rows;
+            }
+        }
+    }
+
+    /**
+     * Moves the cursor to the next row. A statement timeout while fetching is
+     * reported the same way as the overall streaming timeout.
+     */
+    private static boolean next( ResultSet rs, long deadline )
+        throws SQLException
+    {
+        try
+        {
+            return rs.next();
+        }
+        catch ( SQLException ex )
+        {
+            if ( System.currentTimeMillis() > deadline )
+            {
+                throw new QueryRuntimeException( ErrorCode.E7131, ex );
+            }
+
+            throw ex;
+        }
+    }
+
     @Override
     public String testSqlGrammar( String sql )
     {
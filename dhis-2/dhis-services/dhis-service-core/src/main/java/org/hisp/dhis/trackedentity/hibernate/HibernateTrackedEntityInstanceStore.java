@@ -482,6 +482,7 @@ public class HibernateTrackedEntityInstanceStore
 
             // WHERE
             .append( getFromSubQueryTrackedEntityConditions( whereAnd, params ) )
+            .append( getFromSubQueryAttributeQueryConditions( whereAnd, params ) )
             .append( getFromSubQueryProgramInstanceConditions( whereAnd, params ) );
 
         if ( !isCountQuery )
@@ -623,7 +624,7 @@ public class HibernateTrackedEntityInstanceStore
      *
      * @param params
      * @return a series of 1 or more SQL INNER JOINs, or empty string if no
-     *         query or attribute filters exists.
+     *         attribute filters exists or the query is an OR query.
      */
     private String getFromSubQueryJoinAttributeConditions( SqlHelper whereAnd, TrackedEntityInstanceQueryParams params )
     {
@@ -633,70 +634,109 @@ public class HibernateTrackedEntityInstanceStore
             .filter( QueryItem::hasFilter )
             .collect( Collectors.toList() );
 
-        if ( !filterItems.isEmpty() || params.isOrQuery() )
+        if ( !filterItems.isEmpty() && !params.isOrQuery() )
         {
-            if ( !params.isOrQuery() )
-            {
-                joinAttributeValueWithoutQueryParameter( attributes, filterItems );
-            }
-            else
-            {
-                joinAttributeValueWithQueryParameter( params, attributes );
-            }
+            joinAttributeValueWithoutQueryParameter( attributes, filterItems );
         }
 
         return attributes.toString();
     }
 
     /**
-     * Generates a single INNER JOIN for searching for an attribute by query
+     * Generates an EXISTS condition for searching for an attribute by query
      * strings. Searches are done using lower() expression, since attribute
-     * values are case insensitive. The query search is extremely slow compared
-     * to alternatives. A query string (Can be multiple) has to match at least 1
-     * attribute value for each attribute we have access to. We use Regex to
-     * search, allowing both exact match and with wildcards (EQ or LIKE).
+     * values are case insensitive. A query string (Can be multiple) has to
+     * match at least 1 attribute value for each attribute we have access to.
+     * EXISTS is used rather than a join, so that a tracked entity instance
+     * matching several attribute values is only returned once.
+     * <p>
+     * The condition is repeated per attribute, so that the partial trigram
+     * index of each searchable attribute can be used (see
+     * {@link org.hisp.dhis.trackedentityattributevalue.TrackedEntityAttributeTableManager}).
+     * Each token is matched with LIKE, which is supported by the trigram
+     * index, and EQ searches additionally require the token to match a whole
+     * word using Regex.
      *
+     * @param whereAnd
      * @param params
-     * @param attributes
+     * @return an SQL EXISTS condition, or empty string if there is no query
      */
-    private void joinAttributeValueWithQueryParameter( TrackedEntityInstanceQueryParams params,
-        StringBuilder attributes )
+    private String getFromSubQueryAttributeQueryConditions( SqlHelper whereAnd,
+        TrackedEntityInstanceQueryParams params )
     {
+        if ( !params.isOrQuery() )
+        {
+            return "";
+        }
+
+        StringBuilder attributes = new StringBuilder();
         final String regexp = statementBuilder.getRegexpMatch();
         final String wordStart = statementBuilder.getRegexpWordStart();
         final String wordEnd = statementBuilder.getRegexpWordEnd();
-        final String anyChar = "\\.*?";
-        final String start = params.getQuery().isOperator( QueryOperator.LIKE ) ? anyChar : wordStart;
-        final String end = params.getQuery().isOperator( QueryOperator.LIKE ) ? anyChar : wordEnd;
-        SqlHelper orHlp = new SqlHelper( true );
+        final boolean isLike = params.getQuery().isOperator( QueryOperator.LIKE );
+        SqlHelper attributeOrHlp = new SqlHelper( true );
 
         List<Long> itemIds = params.getAttributesAndFilters().stream()
             .map( QueryItem::getItem )
             .map( DimensionalItemObject::getId )
             .collect( Collectors.toList() );
 
+        List<String> tokens = getTokens( params.getQuery().getFilter() ).stream()
+            .map( token -> StringUtils.lowerCase( statementBuilder.encode( token, false ) ) )
+            .collect( Collectors.toList() );
+
         attributes
-            .append( "INNER JOIN trackedentityattributevalue Q " )
-            .append( "ON Q.trackedentityinstanceid IN (" )
-            .append( getCommaDelimitedString( itemIds ) )
-            .append( ") AND (" );
+            .append( whereAnd.whereAnd() )
+            .append( "EXISTS (SELECT 1 FROM trackedentityattributevalue Q " )
+            .append( "WHERE Q.trackedentityinstanceid = TEI.trackedentityinstanceid AND (" );
 
-        for ( String queryToken : getTokens( params.getQuery().getFilter() ) )
+        if ( itemIds.isEmpty() )
         {
-            final String query = statementBuilder.encode( queryToken, false );
+            attributes.append( "false" );
+        }
+
+        for ( Long itemId : itemIds )
+        {
+            SqlHelper tokenOrHlp = new SqlHelper( true );
 
             attributes
-                .append( orHlp.or() )
-                .append( "lower(Q.value) " )
-                .append( regexp )
-                .append( " '" )
-                .append( start )
-                .append( StringUtils.lowerCase( query ) )
-                .append( end )
-                .append( SINGLE_QUOTE );
+                .append( attributeOrHlp.or() )
+                .append( "(Q.trackedentityattributeid = " )
+                .append( itemId )
+                .append( " AND (" );
+
+            for ( String token : tokens )
+            {
+                attributes
+                    .append( tokenOrHlp.or() )
+                    .append( "(lower(Q.value) like '%" )
+                    .append( escapeLikeWildcards( token ) )
+                    .append( "%'" );
+
+                if ( !isLike )
+                {
+                    attributes
+                        .append( " AND lower(Q.value) " )
+                        .append( regexp )
+                        .append( " '" )
+                        .append( wordStart )
+                        .append( token )
+                        .append( wordEnd )
+                        .append( SINGLE_QUOTE );
+                }
+
+                attributes.append( ")" );
+            }
+
+            attributes.append( "))" );
         }
 
-        attributes.append( ")" );
+        return attributes.append( ")) " ).toString();
+    }
+
+    private String escapeLikeWildcards( String value )
+    {
+        return value.replace( "\\", "\\\\" ).replace( "%", "\\%" ).replace( "_", "\\_" );
     }
 
     /**
@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.trackedentityattributevalue;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import org.hisp.dhis.scheduling.JobConfiguration;
+import org.hisp.dhis.scheduling.JobType;
+import org.hisp.dhis.scheduling.SchedulingManager;
+import org.hisp.dhis.scheduling.parameters.TrackerTrigramIndexJobParameters;
+import org.hisp.dhis.trackedentity.SearchableAttributesChangedEvent;
+import org.hisp.dhis.trackedentity.TrackedEntityAttribute;
+import org.hisp.dhis.trackedentity.TrackedEntityAttributeService;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Keeps the trigram search indexes in line with the searchable attributes.
+ * When attributes become searchable or unique, a
+ * {@link JobType#TRACKER_SEARCH_OPTIMIZATION} job is started to create their
+ * index, which also drops the indexes of attributes which are no longer
+ * searchable.
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Component( "org.hisp.dhis.trackedentityattributevalue.TrackerSearchIndexListener" )
+public class TrackerSearchIndexListener
+{
+    private final TrackedEntityAttributeService trackedEntityAttributeService;
+
+    private final TrackedEntityAttributeTableManager trackedEntityAttributeTableManager;
+
+    private final SchedulingManager schedulingManager;
+
+    @Async
+    @TransactionalEventListener( fallbackExecution = true )
+    public void onSearchableAttributesChanged( SearchableAttributesChangedEvent event )
+    {
+        Set<TrackedEntityAttribute> indexableAttributes = trackedEntityAttributeService
+            .getAllTrigramIndexableTrackedEntityAttributes();
+
+        Set<Long> indexedAttributeIds = new HashSet<>(
+            trackedEntityAttributeTableManager.getAttributeIdsWithTrigramIndexCreated() );
+
+        Set<String> missing = indexableAttributes.stream()
+            .filter( tea -> !indexedAttributeIds.contains( tea.getId() ) )
+            .map( TrackedEntityAttribute::getUid )
+            .collect( Collectors.toSet() );
+
+        indexedAttributeIds.removeAll( indexableAttributes.stream()
+            .map( TrackedEntityAttribute::getId )
+            .collect( Collectors.toSet() ) );
+
+        if ( missing.isEmpty() && indexedAttributeIds.isEmpty() )
+        {
+            return;
+        }
+
+        log.info( "Searchable attributes changed by {}, indexes to create: {}, indexes to drop: {}",
+            event.getSource().getSimpleName(), missing.size(), indexedAttributeIds.size() );
+
+        TrackerTrigramIndexJobParameters parameters = new TrackerTrigramIndexJobParameters( missing, false );
+
+        JobConfiguration config = new JobConfiguration( "Tracker search index maintenance",
+            JobType.TRACKER_SEARCH_OPTIMIZATION, null, parameters, true, true );
+        config.setAutoFields();
+
+        if ( !schedulingManager.executeNow( config ) )
+        {
+            log.warn( "Tracker search optimization job is already running, search indexes will be updated on its "
+                + "next run" );
+        }
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.dataapproval;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+import org.hisp.dhis.external.conf.ConfigurationKey;
+import org.hisp.dhis.external.conf.DhisConfigurationProvider;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith( MockitoExtension.class )
+class DataApprovalCacheMetricsTest
+{
+    @Mock
+    private DhisConfigurationProvider config;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void testHitRatio()
+    {
+        when( config.isEnabled( ConfigurationKey.MONITORING_DATA_APPROVAL_CACHE_ENABLED ) ).thenReturn( true );
+
+        DataApprovalCacheMetrics metrics = new DataApprovalCacheMetrics( registry, config );
+
+        metrics.miss();
+        metrics.hit();
+        metrics.hit();
+        metrics.hit();
+        metrics.evicted( 2 );
+
+        assertEquals( 3, registry.get( "data.approval.cache.gets" ).tags( "result", "hit" ).counter().count() );
+        assertEquals( 1, registry.get( "data.approval.cache.gets" ).tags( "result", "miss" ).counter().count() );
+        assertEquals( 2, registry.get( "data.approval.cache.evictions" ).counter().count() );
+        assertEquals( 0.75, registry.get( "data.approval.cache.hit.ratio" ).gauge().value() );
+    }
+
+    @Test
+    void testDisabled()
+    {
+        when( config.isEnabled( ConfigurationKey.MONITORING_DATA_APPROVAL_CACHE_ENABLED ) ).thenReturn( false );
+
+        DataApprovalCacheMetrics metrics = new DataApprovalCacheMetrics( registry, config );
+
+        metrics.hit();
+
+        assertTrue( registry.getMeters().isEmpty() );
+        assertEquals( 0d, metrics.getHitRate() );
+    }
+}
@@ -0,0 +1,251 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.dataapproval;
+
+import static com.google.common.collect.Sets.newHashSet;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+import java.util.Date;
+
+import org.hibernate.SessionFactory;
+import org.hisp.dhis.TransactionalIntegrationTest;
+import org.hisp.dhis.cache.CacheProvider;
+import org.hisp.dhis.category.CategoryOptionCombo;
+import org.hisp.dhis.category.CategoryService;
+import org.hisp.dhis.dataapproval.hibernate.HibernateDataApprovalStore;
+import org.hisp.dhis.dataset.DataSet;
+import org.hisp.dhis.dataset.DataSetService;
+import org.hisp.dhis.external.conf.ConfigurationKey;
+import org.hisp.dhis.external.conf.DhisConfigurationProvider;
+import org.hisp.dhis.jdbc.statementbuilder.PostgreSQLStatementBuilder;
+import org.hisp.dhis.organisationunit.OrganisationUnit;
+import org.hisp.dhis.organisationunit.OrganisationUnitService;
+import org.hisp.dhis.period.MonthlyPeriodType;
+import org.hisp.dhis.period.Period;
+import org.hisp.dhis.period.PeriodService;
+import org.hisp.dhis.period.PeriodStore;
+import org.hisp.dhis.period.PeriodType;
+import org.hisp.dhis.setting.SystemSettingManager;
+import org.hisp.dhis.user.CurrentUserService;
+import org.hisp.dhis.user.User;
+import org.hisp.dhis.user.UserService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Tests the materialized data approval states maintained by
+ * {@link HibernateDataApprovalStore} when they are enabled.
+ */
+@ExtendWith( MockitoExtension.class )
+class DataApprovalStateStoreIntegrationTest extends TransactionalIntegrationTest
+{
+    private HibernateDataApprovalStore dataApprovalStore;
+
+    @Autowired
+    private DataApprovalLevelService dataApprovalLevelService;
+
+    @Autowired
+    private DataApprovalService dataApprovalService;
+
+    @Autowired
+    private PeriodService periodService;
+
+    @Autowired
+    private PeriodStore periodStore;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private OrganisationUnitService organisationUnitService;
+
+    @Autowired
+    private DataSetService dataSetService;
+
+    @Autowired
+    private SessionFactory sessionFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher publisher;
+
+    @Autowired
+    private CacheProvider cacheProvider;
+
+    @Autowired
+    private SystemSettingManager systemSettingManager;
+
+    @Autowired
+    private DataApprovalCacheMetrics dataApprovalCacheMetrics;
+
+    @Mock
+    private DhisConfigurationProvider config;
+
+    @Mock
+    private CurrentUserService currentUserService;
+
+    private DataApprovalLevel level1;
+
+    private DataApprovalLevel level2;
+
+    private DataApprovalWorkflow workflowA;
+
+    private OrganisationUnit sourceA;
+
+    private OrganisationUnit sourceB;
+
+    private Period periodJan;
+
+    private CategoryOptionCombo defaultCombo;
+
+    private User userA;
+
+    @Override
+    public void setUpTest()
+    {
+        when( config.isEnabled( ConfigurationKey.DATA_APPROVAL_STATE_ENABLED ) ).thenReturn( true );
+
+        dataApprovalStore = new HibernateDataApprovalStore( sessionFactory, jdbcTemplate,
+            publisher, cacheProvider, periodService, periodStore, currentUserService, categoryService,
+            systemSettingManager, new PostgreSQLStatementBuilder(), dataApprovalCacheMetrics, config );
+
+        level1 = new DataApprovalLevel( "01", 1, null );
+        level2 = new DataApprovalLevel( "02", 2, null );
+
+        dataApprovalLevelService.addDataApprovalLevel( level1 );
+        dataApprovalLevelService.addDataApprovalLevel( level2 );
+
+        PeriodType periodType = PeriodType.getPeriodTypeByName( "Monthly" );
+
+        workflowA = new DataApprovalWorkflow( "workflowA", periodType, newHashSet( level1, level2 ) );
+
+        dataApprovalService.addWorkflow( workflowA );
+
+        sourceA = createOrganisationUnit( 'A' );
+        sourceA.setHierarchyLevel( 1 );
+        organisationUnitService.addOrganisationUnit( sourceA );
+
+        sourceB = createOrganisationUnit( 'B', sourceA );
+        sourceB.setHierarchyLevel( 2 );
+        organisationUnitService.addOrganisationUnit( sourceB );
+
+        DataSet dataSetA = createDataSet( 'A', new MonthlyPeriodType() );
+        dataSetA.assignWorkflow( workflowA );
+        dataSetA.addOrganisationUnit( sourceB );
+
+        dataSetService.addDataSet( dataSetA );
+
+        periodJan = createPeriod( "202001" );
+
+        periodService.addPeriod( periodJan );
+
+        defaultCombo = categoryService.getDefaultCategoryOptionCombo();
+
+        userA = createUser( 'A' );
+
+        userService.addUser( userA );
+    }
+
+    @Test
+    void testAddAndDeleteDataApprovalUpdatesStates()
+    {
+        DataApproval approval = new DataApproval( level2, workflowA, periodJan, sourceB, defaultCombo, false,
+            new Date(), userA );
+
+        dataApprovalStore.addDataApproval( approval );
+
+        assertNotNull( getHighestApproved( sourceB ) );
+        assertTrue( isReadyBelow( sourceB ) );
+        assertTrue( isReadyBelow( sourceA ) );
+
+        dataApprovalStore.deleteDataApproval( approval );
+
+        assertFalse( isReadyBelow( sourceA ) );
+    }
+
+    @Test
+    void testDeleteDataApprovalsOfOrgUnitRefreshesAncestors()
+    {
+        dataApprovalStore.addDataApproval( new DataApproval( level2, workflowA, periodJan, sourceB, defaultCombo,
+            false, new Date(), userA ) );
+
+        assertTrue( isReadyBelow( sourceA ) );
+
+        dataApprovalStore.deleteDataApprovals( sourceB );
+
+        assertFalse( isReadyBelow( sourceA ) );
+        assertEquals( 0, countStates( sourceB ) );
+    }
+
+    @Test
+    void testRefreshDataApprovalStates()
+    {
+        dataApprovalStore.addDataApproval( new DataApproval( level2, workflowA, periodJan, sourceB, defaultCombo,
+            false, new Date(), userA ) );
+
+        jdbcTemplate.update( "delete from dataapprovalstate" );
+
+        assertEquals( 2, dataApprovalStore.refreshDataApprovalStates( workflowA ) );
+        assertTrue( isReadyBelow( sourceA ) );
+        assertNotNull( getHighestApproved( sourceB ) );
+    }
+
+    private Boolean isReadyBelow( OrganisationUnit orgUnit )
+    {
+        return jdbcTemplate.queryForObject( "select readybelow from dataapprovalstate " +
+            "where workflowid = ? and periodid = ? and organisationunitid = ? and attributeoptioncomboid = ?",
+            Boolean.class, workflowA.getId(), periodJan.getId(), orgUnit.getId(), defaultCombo.getId() );
+    }
+
+    private String getHighestApproved( OrganisationUnit orgUnit )
+    {
+        return jdbcTemplate.queryForObject( "select highestapproved from dataapprovalstate " +
+            "where workflowid = ? and periodid = ? and organisationunitid = ? and attributeoptioncomboid = ?",
+            String.class, workflowA.getId(), periodJan.getId(), orgUnit.getId(), defaultCombo.getId() );
+    }
+
+    private int countStates( OrganisationUnit orgUnit )
+    {
+        return jdbcTemplate.queryForObject( "select count(*) from dataapprovalstate where organisationunitid = ?",
+            Integer.class, orgUnit.getId() );
+    }
+}
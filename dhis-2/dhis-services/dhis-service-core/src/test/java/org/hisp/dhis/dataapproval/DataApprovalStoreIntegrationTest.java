@@ -43,6 +43,7 @@ import org.hisp.dhis.commons.collection.ListUtils;
 import org.hisp.dhis.dataapproval.hibernate.HibernateDataApprovalStore;
 import org.hisp.dhis.dataset.DataSet;
 import org.hisp.dhis.dataset.DataSetService;
+import org.hisp.dhis.external.conf.DhisConfigurationProvider;
 import org.hisp.dhis.jdbc.statementbuilder.PostgreSQLStatementBuilder;
 import org.hisp.dhis.organisationunit.OrganisationUnit;
 import org.hisp.dhis.organisationunit.OrganisationUnitService;
@@ -125,6 +126,12 @@ class DataApprovalStoreIntegrationTest extends TransactionalIntegrationTest
     @Autowired
     private SystemSettingManager systemSettingManager;
 
+    @Autowired
+    private DataApprovalCacheMetrics dataApprovalCacheMetrics;
+
+    @Autowired
+    private DhisConfigurationProvider dhisConfigurationProvider;
+
     @Mock
     private CurrentUserService currentUserService;
 
@@ -178,7 +185,8 @@ class DataApprovalStoreIntegrationTest extends TransactionalIntegrationTest
     {
         dataApprovalStore = new HibernateDataApprovalStore( sessionFactory, jdbcTemplate,
             publisher, cacheProvider, periodService, periodStore, currentUserService, categoryService,
-            systemSettingManager, new PostgreSQLStatementBuilder() );
+            systemSettingManager, new PostgreSQLStatementBuilder(), dataApprovalCacheMetrics,
+            dhisConfigurationProvider );
 
         // ---------------------------------------------------------------------
         // Add supporting data
@@ -0,0 +1,221 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.dataapproval.hibernate;
+
+import static org.hisp.dhis.DhisConvenienceTest.createCategoryOptionCombo;
+import static org.hisp.dhis.DhisConvenienceTest.createOrganisationUnit;
+import static org.hisp.dhis.DhisConvenienceTest.createPeriod;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.query.Query;
+import org.hisp.dhis.cache.CacheProvider;
+import org.hisp.dhis.cache.TestCache;
+import org.hisp.dhis.category.CategoryOptionCombo;
+import org.hisp.dhis.category.CategoryService;
+import org.hisp.dhis.dataapproval.DataApproval;
+import org.hisp.dhis.dataapproval.DataApprovalCacheMetrics;
+import org.hisp.dhis.dataapproval.DataApprovalLevel;
+import org.hisp.dhis.dataapproval.DataApprovalWorkflow;
+import org.hisp.dhis.external.conf.DhisConfigurationProvider;
+import org.hisp.dhis.jdbc.StatementBuilder;
+import org.hisp.dhis.organisationunit.OrganisationUnit;
+import org.hisp.dhis.period.Period;
+import org.hisp.dhis.period.PeriodService;
+import org.hisp.dhis.period.PeriodStore;
+import org.hisp.dhis.setting.SystemSettingManager;
+import org.hisp.dhis.user.CurrentUserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@ExtendWith( MockitoExtension.class )
+class HibernateDataApprovalStoreTest
+{
+    @Mock
+    private SessionFactory sessionFactory;
+
+    @Mock
+    private Session session;
+
+    @Mock
+    @SuppressWarnings( "rawtypes" )
+    private Query query;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private ApplicationEventPublisher publisher;
+
+    @Mock
+    private CacheProvider cacheProvider;
+
+    @Mock
+    private PeriodService periodService;
+
+    @Mock
+    private PeriodStore periodStore;
+
+    @Mock
+    private CurrentUserService currentUserService;
+
+    @Mock
+    private CategoryService categoryService;
+
+    @Mock
+    private SystemSettingManager systemSettingManager;
+
+    @Mock
+    private StatementBuilder statementBuilder;
+
+    @Mock
+    private DataApprovalCacheMetrics cacheMetrics;
+
+    @Mock
+    private DhisConfigurationProvider config;
+
+    private final TestCache<Boolean> cache = new TestCache<>();
+
+    private HibernateDataApprovalStore subject;
+
+    private DataApprovalLevel level;
+
+    private DataApprovalWorkflow workflowA;
+
+    private DataApprovalWorkflow workflowB;
+
+    private Period period;
+
+    private CategoryOptionCombo optionCombo;
+
+    private OrganisationUnit unitA;
+
+    private OrganisationUnit unitB;
+
+    private OrganisationUnit unitC;
+
+    private OrganisationUnit unitD;
+
+    @BeforeEach
+    void setUp()
+    {
+        when( cacheProvider.<Boolean> createIsDataApprovedCache() ).thenReturn( cache );
+
+        subject = new HibernateDataApprovalStore( sessionFactory, jdbcTemplate, publisher, cacheProvider,
+            periodService, periodStore, currentUserService, categoryService, systemSettingManager,
+            statementBuilder, cacheMetrics, config );
+
+        level = new DataApprovalLevel( "Level", 1 );
+        level.setUid( "levelUidAAA" );
+        workflowA = new DataApprovalWorkflow( "WorkflowA" );
+        workflowA.setUid( "workflowUiA" );
+        workflowB = new DataApprovalWorkflow( "WorkflowB" );
+        workflowB.setUid( "workflowUiB" );
+        period = createPeriod( "202201" );
+        optionCombo = createCategoryOptionCombo( 'A' );
+
+        // A is the root, B and C are children of A and D is a child of B
+
+        unitA = createOrganisationUnit( 'A' );
+        unitB = createOrganisationUnit( 'B', unitA );
+        unitC = createOrganisationUnit( 'C', unitA );
+        unitD = createOrganisationUnit( 'D', unitB );
+    }
+
+    @Test
+    void testDeleteDataApprovalEvictsAffectedBranch()
+    {
+        cacheApprovals();
+
+        when( sessionFactory.getCurrentSession() ).thenReturn( session );
+
+        subject.deleteDataApproval( newApproval( workflowA, unitB ) );
+
+        verify( session ).delete( any( DataApproval.class ) );
+
+        assertFalse( isCached( workflowA, unitA ) );
+        assertFalse( isCached( workflowA, unitB ) );
+        assertFalse( isCached( workflowA, unitD ) );
+        assertTrue( isCached( workflowA, unitC ) );
+        assertTrue( isCached( workflowB, unitA ) );
+        assertTrue( isCached( workflowB, unitB ) );
+        assertTrue( isCached( workflowB, unitC ) );
+        assertTrue( isCached( workflowB, unitD ) );
+    }
+
+    @Test
+    void testDeleteDataApprovalsOfOrganisationUnitEvictsBranchOfAllWorkflows()
+    {
+        cacheApprovals();
+
+        when( sessionFactory.getCurrentSession() ).thenReturn( session );
+        when( session.createQuery( "delete from DataApproval d where d.organisationUnit = :unit" ) )
+            .thenReturn( query );
+        when( query.setParameter( "unit", unitD ) ).thenReturn( query );
+
+        subject.deleteDataApprovals( unitD );
+
+        assertFalse( isCached( workflowA, unitA ) );
+        assertFalse( isCached( workflowA, unitB ) );
+        assertFalse( isCached( workflowA, unitD ) );
+        assertFalse( isCached( workflowB, unitD ) );
+        assertTrue( isCached( workflowA, unitC ) );
+        assertTrue( isCached( workflowB, unitC ) );
+    }
+
+    private void cacheApprovals()
+    {
+        for ( DataApprovalWorkflow workflow : new DataApprovalWorkflow[] { workflowA, workflowB } )
+        {
+            for ( OrganisationUnit unit : new OrganisationUnit[] { unitA, unitB, unitC, unitD } )
+            {
+                subject.dataApprovalExists( newApproval( workflow, unit ) );
+            }
+        }
+    }
+
+    private boolean isCached( DataApprovalWorkflow workflow, OrganisationUnit unit )
+    {
+        return cache.getIfPresent( newApproval( workflow, unit ).getCacheKey() ).isPresent();
+    }
+
+    private DataApproval newApproval( DataApprovalWorkflow workflow, OrganisationUnit unit )
+    {
+        return new DataApproval( level, workflow, period, unit, optionCombo );
+    }
+}
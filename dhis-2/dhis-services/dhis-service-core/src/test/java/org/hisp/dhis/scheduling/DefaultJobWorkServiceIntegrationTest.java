@@ -0,0 +1,206 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.scheduling;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+import javax.sql.DataSource;
+
+import org.hisp.dhis.IntegrationTestBase;
+import org.hisp.dhis.external.conf.ConfigurationKey;
+import org.hisp.dhis.external.conf.DhisConfigurationProvider;
+import org.hisp.dhis.leader.election.LeaderManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Tests the {@link DefaultJobWorkService} with work distribution enabled
+ * against the jobworkitem table. The worker and heartbeat threads are not
+ * started, the tests drive them directly.
+ */
+class DefaultJobWorkServiceIntegrationTest extends IntegrationTestBase
+{
+    @Autowired
+    private DataSource dataSource;
+
+    private final List<String> executed = new CopyOnWriteArrayList<>();
+
+    private boolean failing;
+
+    private DefaultJobWorkService service;
+
+    @Override
+    @SuppressWarnings( "unchecked" )
+    public void setUpTest()
+    {
+        JobWorkHandler handler = new JobWorkHandler()
+        {
+            @Override
+            public String getWorkType()
+            {
+                return "TEST";
+            }
+
+            @Override
+            public void execute( String item )
+            {
+                if ( failing )
+                {
+                    throw new IllegalStateException( "Failed " + item );
+                }
+                executed.add( item );
+            }
+        };
+
+        ObjectProvider<JobWorkHandler> handlers = mock( ObjectProvider.class );
+        when( handlers.orderedStream() ).thenAnswer( invocation -> Stream.of( handler ) );
+
+        DhisConfigurationProvider config = mock( DhisConfigurationProvider.class );
+        when( config.isEnabled( ConfigurationKey.CLUSTER_WORK_DISTRIBUTION_ENABLED ) ).thenReturn( true );
+        when( config.getProperty( ConfigurationKey.CLUSTER_WORK_DISTRIBUTION_THREADS ) ).thenReturn( "1" );
+
+        LeaderManager leaderManager = mock( LeaderManager.class );
+        when( leaderManager.getCurrentNodeUuid() ).thenReturn( "node1" );
+
+        service = new DefaultJobWorkService( jdbcTemplate, leaderManager, handlers, config );
+    }
+
+    @Override
+    public void tearDownTest()
+    {
+        jdbcTemplate.update( "delete from jobworkitem" );
+        jdbcTemplate.update( "delete from jobworknode" );
+    }
+
+    @Test
+    void testClaimSkipsLockedItems()
+        throws Exception
+    {
+        long first = insertItem( "a", "QUEUED", null, 0 );
+        insertItem( "b", "QUEUED", null, 0 );
+
+        try ( Connection connection = dataSource.getConnection() )
+        {
+            connection.setAutoCommit( false );
+
+            try ( Statement statement = connection.createStatement() )
+            {
+                statement.execute( "select 1 from jobworkitem where jobworkitemid = " + first + " for update" );
+
+                assertTrue( service.claimAndExecute( null ) );
+                assertFalse( service.claimAndExecute( null ) );
+            }
+            finally
+            {
+                connection.rollback();
+            }
+        }
+
+        assertEquals( List.of( "b" ), executed );
+        assertEquals( "QUEUED", getItem( first ).get( "status" ) );
+    }
+
+    @Test
+    void testFailedItemIsRetried()
+    {
+        failing = true;
+        long id = insertItem( "a", "QUEUED", null, 0 );
+
+        assertTrue( service.claimAndExecute( null ) );
+
+        Map<String, Object> item = getItem( id );
+        assertEquals( "QUEUED", item.get( "status" ) );
+        assertEquals( 1, item.get( "attempts" ) );
+        assertEquals( "Failed a", item.get( "error" ) );
+
+        assertTrue( service.claimAndExecute( null ) );
+        assertTrue( service.claimAndExecute( null ) );
+
+        item = getItem( id );
+        assertEquals( "FAILED", item.get( "status" ) );
+        assertEquals( 3, item.get( "attempts" ) );
+        assertFalse( service.claimAndExecute( null ) );
+    }
+
+    @Test
+    void testStaleItemsOfStoppedInstanceAreQueued()
+    {
+        long stopped = insertItem( "a", "RUNNING", "node2", 1 );
+        long alive = insertItem( "b", "RUNNING", "node3", 1 );
+        jdbcTemplate.update( "update jobworkitem set lastupdated = now() - interval '10 minutes'" );
+        jdbcTemplate
+            .update( "insert into jobworknode (nodeid, lastseen) values ('node2', now() - interval '5 minutes')" );
+        jdbcTemplate.update( "insert into jobworknode (nodeid, lastseen) values ('node3', now())" );
+
+        service.heartbeat();
+
+        assertEquals( "QUEUED", getItem( stopped ).get( "status" ) );
+        assertEquals( "RUNNING", getItem( alive ).get( "status" ) );
+        assertEquals( 1, jdbcTemplate.queryForObject(
+            "select count(*) from jobworknode where nodeid = 'node1'", Integer.class ) );
+    }
+
+    @Test
+    void testCancelledStageDropsQueuedItems()
+    {
+        JobProgress progress = mock( JobProgress.class );
+        when( progress.isCancellationRequested() ).thenReturn( true );
+
+        assertFalse( service.runStageDistributed( progress, "TEST", 2, List.of( "a", "b" ), item -> item ) );
+        assertTrue( executed.isEmpty() );
+        assertEquals( 0, jdbcTemplate.queryForObject( "select count(*) from jobworkitem", Integer.class ) );
+        verify( progress ).failedStage( any( Exception.class ) );
+    }
+
+    private long insertItem( String item, String status, String nodeId, int attempts )
+    {
+        return jdbcTemplate.queryForObject( "insert into jobworkitem " +
+            "(batchid, worktype, item, description, status, nodeid, attempts) " +
+            "values ('batchAAAAAA', 'TEST', ?, ?, ?, ?, ?) returning jobworkitemid",
+            Long.class, item, item, status, nodeId, attempts );
+    }
+
+    private Map<String, Object> getItem( long id )
+    {
+        return jdbcTemplate.queryForMap( "select * from jobworkitem where jobworkitemid = ?", id );
+    }
+}
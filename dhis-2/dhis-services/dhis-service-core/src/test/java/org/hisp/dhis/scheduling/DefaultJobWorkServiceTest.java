@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.scheduling;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+import org.hisp.dhis.external.conf.ConfigurationKey;
+import org.hisp.dhis.external.conf.DhisConfigurationProvider;
+import org.hisp.dhis.leader.election.LeaderManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Tests the {@link DefaultJobWorkService} with work distribution disabled, in
+ * which case items run locally.
+ */
+class DefaultJobWorkServiceTest
+{
+    private final JdbcTemplate jdbcTemplate = mock( JdbcTemplate.class );
+
+    private final List<String> executed = new CopyOnWriteArrayList<>();
+
+    private DefaultJobWorkService service;
+
+    @BeforeEach
+    @SuppressWarnings( "unchecked" )
+    void setUp()
+    {
+        JobWorkHandler handler = new JobWorkHandler()
+        {
+            @Override
+            public String getWorkType()
+            {
+                return "TEST";
+            }
+
+            @Override
+            public void execute( String item )
+            {
+                executed.add( item );
+            }
+        };
+
+        ObjectProvider<JobWorkHandler> handlers = mock( ObjectProvider.class );
+        when( handlers.orderedStream() ).thenAnswer( invocation -> Stream.of( handler ) );
+
+        DhisConfigurationProvider config = mock( DhisConfigurationProvider.class );
+        when( config.isEnabled( ConfigurationKey.CLUSTER_WORK_DISTRIBUTION_ENABLED ) ).thenReturn( false );
+        when( config.getProperty( ConfigurationKey.CLUSTER_WORK_DISTRIBUTION_THREADS ) ).thenReturn( "2" );
+
+        service = new DefaultJobWorkService( jdbcTemplate, mock( LeaderManager.class ), handlers, config );
+        service.init();
+    }
+
+    @Test
+    void testRunStageDistributed_Disabled()
+    {
+        JobProgress progress = mock( JobProgress.class );
+        when( progress.runStageInParallel( anyInt(), any(), any(), any() ) ).thenCallRealMethod();
+
+        assertTrue( service.runStageDistributed( progress, "TEST", 2, List.of( "a", "b", "c" ), item -> item ) );
+        assertEquals( 3, executed.size() );
+        assertTrue( executed.containsAll( List.of( "a", "b", "c" ) ) );
+        verifyNoInteractions( jdbcTemplate );
+    }
+
+    @Test
+    void testRunStageDistributed_UnknownWorkType()
+    {
+        JobProgress progress = mock( JobProgress.class );
+
+        assertThrows( IllegalArgumentException.class,
+            () -> service.runStageDistributed( progress, "UNKNOWN", 2, List.of( "a" ), item -> item ) );
+    }
+}
@@ -47,6 +47,7 @@ import org.hisp.dhis.DhisSpringTest;
 import org.hisp.dhis.analytics.AggregationType;
 import org.hisp.dhis.common.IdentifiableObjectManager;
 import org.hisp.dhis.common.OrganisationUnitSelectionMode;
+import org.hisp.dhis.common.QueryFilter;
 import org.hisp.dhis.common.QueryItem;
 import org.hisp.dhis.common.QueryOperator;
 import org.hisp.dhis.common.ValueType;
@@ -466,4 +467,31 @@ class TrackedEntityInstanceStoreTest extends DhisSpringTest
         assertThat( grid.get( 0 ).keySet(), hasSize( 9 ) );
         assertThat( grid.get( 0 ).get( atC.getUid() ), is( "OrganisationUnitC" ) );
     }
+
+    @Test
+    void testQueryMatchingSeveralAttributesReturnsInstanceOnce()
+    {
+        TrackedEntityType trackedEntityTypeA = createTrackedEntityType( 'A' );
+        trackedEntityTypeService.addTrackedEntityType( trackedEntityTypeA );
+        teiA.setTrackedEntityType( trackedEntityTypeA );
+        teiStore.save( teiA );
+        teiB.setTrackedEntityType( trackedEntityTypeA );
+        teiStore.save( teiB );
+        teiC.setTrackedEntityType( trackedEntityTypeA );
+        teiStore.save( teiC );
+        attributeValueService.addTrackedEntityAttributeValue( new TrackedEntityAttributeValue( atA, teiA, "Male" ) );
+        attributeValueService.addTrackedEntityAttributeValue( new TrackedEntityAttributeValue( atB, teiA, "Malcolm" ) );
+        attributeValueService.addTrackedEntityAttributeValue( new TrackedEntityAttributeValue( atA, teiB, "Female" ) );
+        dbmsManager.flushSession();
+        TrackedEntityInstanceQueryParams params = new TrackedEntityInstanceQueryParams();
+        params.setTrackedEntityType( trackedEntityTypeA );
+        params.setOrganisationUnitMode( OrganisationUnitSelectionMode.ALL );
+        params.setQuery( new QueryFilter( QueryOperator.LIKE, "mal" ) );
+        params.setAttributes( List.of(
+            new QueryItem( atA, null, ValueType.TEXT, AggregationType.NONE, null ),
+            new QueryItem( atB, null, ValueType.TEXT, AggregationType.NONE, null ) ) );
+        List<Map<String, String>> grid = teiStore.getTrackedEntityInstancesGrid( params );
+        assertThat( grid, hasSize( 2 ) );
+        assertEquals( 2, teiStore.getTrackedEntityInstanceCountForGrid( params ) );
+    }
 }
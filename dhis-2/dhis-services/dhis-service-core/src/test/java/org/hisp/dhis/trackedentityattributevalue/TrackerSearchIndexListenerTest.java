@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.trackedentityattributevalue;
+
+import static org.hisp.dhis.DhisConvenienceTest.createTrackedEntityAttribute;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Set;
+
+import org.hisp.dhis.scheduling.JobConfiguration;
+import org.hisp.dhis.scheduling.JobType;
+import org.hisp.dhis.scheduling.SchedulingManager;
+import org.hisp.dhis.scheduling.parameters.TrackerTrigramIndexJobParameters;
+import org.hisp.dhis.trackedentity.SearchableAttributesChangedEvent;
+import org.hisp.dhis.trackedentity.TrackedEntityAttribute;
+import org.hisp.dhis.trackedentity.TrackedEntityAttributeService;
+import org.hisp.dhis.trackedentity.TrackedEntityType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith( MockitoExtension.class )
+class TrackerSearchIndexListenerTest
+{
+    @Mock
+    private TrackedEntityAttributeService trackedEntityAttributeService;
+
+    @Mock
+    private TrackedEntityAttributeTableManager trackedEntityAttributeTableManager;
+
+    @Mock
+    private SchedulingManager schedulingManager;
+
+    private TrackerSearchIndexListener listener;
+
+    private TrackedEntityAttribute attributeA;
+
+    private TrackedEntityAttribute attributeB;
+
+    private final SearchableAttributesChangedEvent event = new SearchableAttributesChangedEvent(
+        TrackedEntityType.class );
+
+    @BeforeEach
+    void setUp()
+    {
+        listener = new TrackerSearchIndexListener( trackedEntityAttributeService, trackedEntityAttributeTableManager,
+            schedulingManager );
+
+        attributeA = createTrackedEntityAttribute( 'A' );
+        attributeA.setId( 1L );
+        attributeB = createTrackedEntityAttribute( 'B' );
+        attributeB.setId( 2L );
+    }
+
+    @Test
+    void testIndexesUpToDate()
+    {
+        when( trackedEntityAttributeService.getAllTrigramIndexableTrackedEntityAttributes() )
+            .thenReturn( Set.of( attributeA, attributeB ) );
+        when( trackedEntityAttributeTableManager.getAttributeIdsWithTrigramIndexCreated() )
+            .thenReturn( List.of( 1L, 2L ) );
+
+        listener.onSearchableAttributesChanged( event );
+
+        verify( schedulingManager, never() ).executeNow( any() );
+    }
+
+    @Test
+    void testCreateMissingIndexes()
+    {
+        when( trackedEntityAttributeService.getAllTrigramIndexableTrackedEntityAttributes() )
+            .thenReturn( Set.of( attributeA, attributeB ) );
+        when( trackedEntityAttributeTableManager.getAttributeIdsWithTrigramIndexCreated() )
+            .thenReturn( List.of( 1L ) );
+
+        listener.onSearchableAttributesChanged( event );
+
+        TrackerTrigramIndexJobParameters parameters = captureJobParameters();
+
+        assertEquals( Set.of( attributeB.getUid() ), parameters.getAttributes() );
+        assertFalse( parameters.isSkipIndexDeletion() );
+    }
+
+    @Test
+    void testDropObsoleteIndexes()
+    {
+        when( trackedEntityAttributeService.getAllTrigramIndexableTrackedEntityAttributes() )
+            .thenReturn( Set.of( attributeA ) );
+        when( trackedEntityAttributeTableManager.getAttributeIdsWithTrigramIndexCreated() )
+            .thenReturn( List.of( 1L, 2L ) );
+
+        listener.onSearchableAttributesChanged( event );
+
+        TrackerTrigramIndexJobParameters parameters = captureJobParameters();
+
+        assertEquals( Set.of(), parameters.getAttributes() );
+        assertFalse( parameters.isSkipIndexDeletion() );
+    }
+
+    private TrackerTrigramIndexJobParameters captureJobParameters()
+    {
+        ArgumentCaptor<JobConfiguration> captor = ArgumentCaptor.forClass( JobConfiguration.class );
+
+        verify( schedulingManager ).executeNow( captor.capture() );
+
+        assertEquals( JobType.TRACKER_SEARCH_OPTIMIZATION, captor.getValue().getJobType() );
+
+        return (TrackerTrigramIndexJobParameters) captor.getValue().getJobParameters();
+    }
+}
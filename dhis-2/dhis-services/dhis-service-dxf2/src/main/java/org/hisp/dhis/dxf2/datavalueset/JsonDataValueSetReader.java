@@ -27,32 +27,110 @@
  */
 package org.hisp.dhis.dxf2.datavalueset;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.List;
 
-import lombok.AllArgsConstructor;
+import org.hisp.dhis.dxf2.datavalue.DataValue;
 
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 /**
  * Reads {@link DataValueSet} from JSON input.
  *
+ * The input is read token by token. The header fields are read by
+ * {@link #readHeader()}, the data values are then read one by one by
+ * {@link #readNext()}, so that only a single value is held in memory at a
+ * time.
+ *
+ * If header fields precede the {@code dataValues} array, as in documents
+ * written by DHIS2, the header is considered complete at the array and the
+ * values are streamed directly from the input. Header fields after the array
+ * are then rejected. If the array is the first field, header fields may
+ * follow it, so the array is copied to a temporary file while the header is
+ * read and the values are streamed from that file.
+ *
  * @author Jan Bernitt
  */
-@AllArgsConstructor
 final class JsonDataValueSetReader implements DataValueSetReader
 {
-    final InputStream in;
+    private static final String DATA_VALUES = "dataValues";
+
+    private final InputStream in;
+
+    private final ObjectMapper jsonMapper;
+
+    private JsonParser parser;
+
+    private File valuesFile;
+
+    private JsonParser valuesParser;
 
-    final ObjectMapper jsonMapper;
+    private boolean valuesRead;
+
+    JsonDataValueSetReader( InputStream in, ObjectMapper jsonMapper )
+    {
+        this.in = in;
+        this.jsonMapper = jsonMapper;
+    }
 
     @Override
     public DataValueSet readHeader()
     {
         try
         {
-            return jsonMapper.readValue( in, DataValueSet.class );
+            parser = jsonMapper.getFactory().createParser( in );
+
+            if ( parser.nextToken() != JsonToken.START_OBJECT )
+            {
+                throw new JsonParseException( parser, "Data value set must be a JSON object" );
+            }
+
+            DataValueSet header = new DataValueSet();
+            boolean headerFieldRead = false;
+
+            while ( parser.nextToken() == JsonToken.FIELD_NAME )
+            {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+
+                if ( value == JsonToken.VALUE_NULL )
+                {
+                    continue;
+                }
+
+                if ( DATA_VALUES.equals( field ) && value == JsonToken.START_ARRAY )
+                {
+                    if ( valuesFile != null )
+                    {
+                        throw new JsonParseException( parser,
+                            "Data value set must contain a single dataValues array" );
+                    }
+
+                    if ( headerFieldRead )
+                    {
+                        valuesParser = parser;
+                        return header;
+                    }
+
+                    spoolValues();
+                }
+                else
+                {
+                    headerFieldRead |= readHeaderField( header, field );
+                }
+            }
+
+            return header;
         }
         catch ( IOException ex )
         {
@@ -63,7 +141,45 @@ final class JsonDataValueSetReader implements DataValueSetReader
     @Override
     public DataValueEntry readNext()
     {
-        return null; // header contains the values
+        if ( valuesRead || valuesParser == null && valuesFile == null )
+        {
+            return null;
+        }
+
+        try
+        {
+            if ( valuesParser == null )
+            {
+                valuesParser = jsonMapper.getFactory().createParser( valuesFile );
+                valuesParser.nextToken(); // START_ARRAY
+            }
+
+            JsonToken token = valuesParser.nextToken();
+
+            while ( token != null && token != JsonToken.END_ARRAY )
+            {
+                if ( token == JsonToken.START_OBJECT )
+                {
+                    return jsonMapper.readValue( valuesParser, DataValue.class );
+                }
+
+                valuesParser.skipChildren();
+                token = valuesParser.nextToken();
+            }
+
+            valuesRead = true;
+
+            if ( valuesParser == parser )
+            {
+                checkNoHeaderFields();
+            }
+
+            return null;
+        }
+        catch ( IOException ex )
+        {
+            throw new UncheckedIOException( ex );
+        }
     }
 
     @Override
@@ -71,11 +187,125 @@ final class JsonDataValueSetReader implements DataValueSetReader
     {
         try
         {
+            if ( valuesParser != null && valuesParser != parser )
+            {
+                valuesParser.close();
+            }
+
+            if ( parser != null )
+            {
+                parser.close();
+            }
+
             in.close();
         }
         catch ( IOException ex )
         {
             throw new UncheckedIOException( ex );
         }
+        finally
+        {
+            if ( valuesFile != null )
+            {
+                valuesFile.delete();
+            }
+        }
+    }
+
+    /**
+     * Copies the {@code dataValues} array the parser is positioned at to a
+     * temporary file, token by token.
+     */
+    private void spoolValues()
+        throws IOException
+    {
+        valuesFile = Files.createTempFile( "dhis2-datavalueset-", ".json" ).toFile();
+
+        try ( JsonGenerator generator = jsonMapper.getFactory().createGenerator( valuesFile,
+            JsonEncoding.UTF8 ) )
+        {
+            generator.copyCurrentStructure( parser );
+        }
+    }
+
+    /**
+     * Checks that no header field follows the {@code dataValues} array which
+     * was streamed directly, as the values have been read with the header
+     * read before the array.
+     */
+    private void checkNoHeaderFields()
+        throws IOException
+    {
+        while ( parser.nextToken() == JsonToken.FIELD_NAME )
+        {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+
+            if ( value != JsonToken.VALUE_NULL
+                && (DATA_VALUES.equals( field ) || readHeaderField( new DataValueSet(), field )) )
+            {
+                throw new JsonParseException( parser,
+                    "Field '" + field + "' must precede the dataValues array of the data value set" );
+            }
+        }
+    }
+
+    /**
+     * Reads the value of the given field into the header.
+     *
+     * @return true if the field is a header field, false if it was skipped
+     */
+    private boolean readHeaderField( DataValueSet header, String field )
+        throws IOException
+    {
+        switch ( field )
+        {
+        case "idScheme":
+            header.setIdScheme( parser.getValueAsString() );
+            break;
+        case "dataElementIdScheme":
+            header.setDataElementIdScheme( parser.getValueAsString() );
+            break;
+        case "orgUnitIdScheme":
+            header.setOrgUnitIdScheme( parser.getValueAsString() );
+            break;
+        case "categoryOptionComboIdScheme":
+            header.setCategoryOptionComboIdScheme( parser.getValueAsString() );
+            break;
+        case "dataSetIdScheme":
+            header.setDataSetIdScheme( parser.getValueAsString() );
+            break;
+        case "dryRun":
+            header.setDryRun( parser.getValueAsBoolean() );
+            break;
+        case "strategy":
+            header.setStrategy( parser.getValueAsString() );
+            break;
+        case "dataSet":
+            header.setDataSet( parser.getValueAsString() );
+            break;
+        case "completeDate":
+            header.setCompleteDate( parser.getValueAsString() );
+            break;
+        case "period":
+            header.setPeriod( parser.getValueAsString() );
+            break;
+        case "orgUnit":
+            header.setOrgUnit( parser.getValueAsString() );
+            break;
+        case "attributeOptionCombo":
+            header.setAttributeOptionCombo( parser.getValueAsString() );
+            break;
+        case "attributeCategoryOptions":
+            header.setAttributeCategoryOptions( jsonMapper.readValue( parser, new TypeReference<List<String>>()
+            {
+            } ) );
+            break;
+        default:
+            parser.skipChildren();
+            return false;
+        }
+
+        return true;
     }
 }
@@ -27,6 +27,7 @@
  */
 package org.hisp.dhis.dxf2.metadata;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
@@ -40,6 +41,7 @@ import javax.annotation.Nonnull;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+import org.apache.commons.lang3.math.NumberUtils;
 import org.hisp.dhis.attribute.Attribute;
 import org.hisp.dhis.attribute.AttributeService;
 import org.hisp.dhis.category.Category;
@@ -47,6 +49,7 @@ import org.hisp.dhis.category.CategoryCombo;
 import org.hisp.dhis.category.CategoryOption;
 import org.hisp.dhis.category.CategoryOptionCombo;
 import org.hisp.dhis.common.IdentifiableObject;
+import org.hisp.dhis.common.IdentifiableObjectManager;
 import org.hisp.dhis.common.InterpretableObject;
 import org.hisp.dhis.common.SetMap;
 import org.hisp.dhis.commons.timer.SystemTimer;
@@ -92,6 +95,7 @@ import org.hisp.dhis.programrule.ProgramRuleAction;
 import org.hisp.dhis.programrule.ProgramRuleService;
 import org.hisp.dhis.programrule.ProgramRuleVariable;
 import org.hisp.dhis.programrule.ProgramRuleVariableService;
+import org.hisp.dhis.query.Order;
 import org.hisp.dhis.query.Query;
 import org.hisp.dhis.query.QueryService;
 import org.hisp.dhis.report.Report;
@@ -108,6 +112,7 @@ import org.hisp.dhis.util.DateUtils;
 import org.hisp.dhis.visualization.Visualization;
 import org.springframework.stereotype.Service;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.google.common.collect.Sets;
 
@@ -137,14 +142,125 @@ public class DefaultMetadataExportService implements MetadataExportService
 
     private final AttributeService attributeService;
 
+    private final IdentifiableObjectManager manager;
+
     @Override
-    @SuppressWarnings( "unchecked" )
     public Map<Class<? extends IdentifiableObject>, List<? extends IdentifiableObject>> getMetadata(
         MetadataExportParams params )
     {
         Timer timer = new SystemTimer().start();
         Map<Class<? extends IdentifiableObject>, List<? extends IdentifiableObject>> metadata = new HashMap<>();
 
+        prepareParams( params );
+
+        log.info( "(" + params.getUsername() + ") Export:Start" );
+
+        for ( Class<? extends IdentifiableObject> klass : params.getClasses() )
+        {
+            Query query = getQuery( klass, params );
+
+            List<? extends IdentifiableObject> objects = queryService.query( query );
+
+            if ( !objects.isEmpty() )
+            {
+                log.info( "(" + params.getUsername() + ") Exported " + objects.size() + " objects of type "
+                    + klass.getSimpleName() );
+                metadata.put( klass, objects );
+            }
+        }
+
+        log.info( "(" + params.getUsername() + ") Export:Done took " + timer.toString() );
+
+        return metadata;
+    }
+
+    @Override
+    public void writeMetadata( MetadataExportParams params, JsonGenerator generator )
+        throws IOException
+    {
+        Timer timer = new SystemTimer().start();
+        SystemInfo systemInfo = systemService.getSystemInfo();
+
+        prepareParams( params );
+
+        log.info( "(" + params.getUsername() + ") Export:Start streaming with page size " + params.getPageSize() );
+
+        generator.writeStartObject();
+        generator.writeObjectFieldStart( "system" );
+        generator.writeStringField( "id", systemInfo.getSystemId() );
+        generator.writeStringField( "rev", systemInfo.getRevision() );
+        generator.writeStringField( "version", systemInfo.getVersion() );
+        generator.writeStringField( "date", DateUtils.getIso8601( systemInfo.getServerDate() ) );
+        generator.writeEndObject();
+
+        for ( Class<? extends IdentifiableObject> klass : params.getClasses() )
+        {
+            Query query = getQuery( klass, params );
+            query.setSkipPaging( false );
+            addIdOrder( query );
+
+            String plural = schemaService.getDynamicSchema( klass ).getPlural();
+            int pageSize = params.getPageSize();
+            int exported = 0;
+
+            List<? extends IdentifiableObject> objects;
+
+            do
+            {
+                query.setFirstResult( exported );
+                query.setMaxResults( pageSize );
+
+                objects = queryService.query( query );
+
+                if ( !objects.isEmpty() )
+                {
+                    if ( exported == 0 )
+                    {
+                        generator.writeArrayFieldStart( plural );
+                    }
+
+                    FieldFilterParams<?> fieldFilterParams = FieldFilterParams.builder()
+                        .objects( new ArrayList<>( objects ) )
+                        .filters( new HashSet<>( params.getFields( klass ) ) )
+                        .skipSharing( params.getSkipSharing() )
+                        .build();
+
+                    for ( ObjectNode objectNode : fieldFilterService.toObjectNodes( fieldFilterParams ) )
+                    {
+                        generator.writeTree( objectNode );
+                    }
+
+                    exported += objects.size();
+                }
+
+                generator.flush();
+
+                clearSession( params, query );
+            }
+            while ( objects.size() == pageSize );
+
+            if ( exported > 0 )
+            {
+                generator.writeEndArray();
+
+                log.info( "(" + params.getUsername() + ") Exported " + exported + " objects of type "
+                    + klass.getSimpleName() );
+            }
+        }
+
+        generator.writeEndObject();
+        generator.flush();
+
+        log.info( "(" + params.getUsername() + ") Export:Done took " + timer.toString() );
+    }
+
+    /**
+     * Sets the current user if no user is given, and selects all persisted,
+     * non-secondary metadata classes if no classes are given.
+     */
+    @SuppressWarnings( "unchecked" )
+    private void prepareParams( MetadataExportParams params )
+    {
         if ( params.getUser() == null )
         {
             params.setUser( currentUserService.getCurrentUser() );
@@ -158,45 +274,71 @@ public class DefaultMetadataExportService implements MetadataExportService
                 .forEach( schema -> params.getClasses()
                     .add( (Class<? extends IdentifiableObject>) schema.getKlass() ) );
         }
+    }
 
-        log.info( "(" + params.getUsername() + ") Export:Start" );
+    private Query getQuery( Class<? extends IdentifiableObject> klass, MetadataExportParams params )
+    {
+        Query query;
 
-        for ( Class<? extends IdentifiableObject> klass : params.getClasses() )
+        if ( params.getQuery( klass ) != null )
+        {
+            query = params.getQuery( klass );
+        }
+        else
         {
-            Query query;
+            OrderParams orderParams = new OrderParams( Sets.newHashSet( params.getDefaultOrder() ) );
+            query = queryService.getQueryFromUrl( klass, params.getDefaultFilter(),
+                orderParams.getOrders( schemaService.getDynamicSchema( klass ) ) );
+        }
 
-            if ( params.getQuery( klass ) != null )
-            {
-                query = params.getQuery( klass );
-            }
-            else
-            {
-                OrderParams orderParams = new OrderParams( Sets.newHashSet( params.getDefaultOrder() ) );
-                query = queryService.getQueryFromUrl( klass, params.getDefaultFilter(),
-                    orderParams.getOrders( schemaService.getDynamicSchema( klass ) ) );
-            }
+        if ( query.getUser() == null )
+        {
+            query.setUser( params.getUser() );
+        }
 
-            if ( query.getUser() == null )
-            {
-                query.setUser( params.getUser() );
-            }
+        query.setDefaultOrder();
+        query.setDefaults( params.getDefaults() );
 
-            query.setDefaultOrder();
-            query.setDefaults( params.getDefaults() );
+        return query;
+    }
 
-            List<? extends IdentifiableObject> objects = queryService.query( query );
+    /**
+     * Appends an order by id unless the query is already ordered by id, so
+     * that pages do not overlap when the other orders are not unique.
+     */
+    private void addIdOrder( Query query )
+    {
+        Schema schema = query.getSchema();
 
-            if ( !objects.isEmpty() )
-            {
-                log.info( "(" + params.getUsername() + ") Exported " + objects.size() + " objects of type "
-                    + klass.getSimpleName() );
-                metadata.put( klass, objects );
-            }
+        if ( schema.havePersistedProperty( "id" ) && query.getOrders().stream()
+            .noneMatch( order -> "id".equals( order.getProperty().getName() ) ) )
+        {
+            query.addOrder( Order.asc( schema.getPersistedProperty( "id" ) ) );
         }
+    }
 
-        log.info( "(" + params.getUsername() + ") Export:Done took " + timer.toString() );
+    /**
+     * Clears the Hibernate session so that objects of exported pages can be
+     * garbage collected. The export user is detached by the clear and is
+     * reloaded, as sharing checks of the next page need its lazy
+     * associations.
+     */
+    private void clearSession( MetadataExportParams params, Query query )
+    {
+        User user = params.getUser();
 
-        return metadata;
+        manager.clear();
+
+        if ( user != null )
+        {
+            User reloaded = manager.get( User.class, user.getUid() );
+            params.setUser( reloaded );
+
+            if ( query.getUser() == user )
+            {
+                query.setUser( reloaded );
+            }
+        }
     }
 
     @Override
@@ -321,6 +463,11 @@ public class DefaultMetadataExportService implements MetadataExportService
         {
             throw new MetadataExportException( "Exporting user metadata requires the 'F_USER_VIEW' authority." );
         }
+
+        if ( params.getPageSize() < 1 )
+        {
+            throw new MetadataExportException( "Page size must be greater than zero." );
+        }
     }
 
     @Override
@@ -354,6 +501,12 @@ public class DefaultMetadataExportService implements MetadataExportService
             parameters.remove( "skipSharing" );
         }
 
+        if ( parameters.containsKey( "pageSize" ) )
+        {
+            params.setPageSize( NumberUtils.toInt( parameters.get( "pageSize" ).get( 0 ), params.getPageSize() ) );
+            parameters.remove( "pageSize" );
+        }
+
         for ( String parameterKey : parameters.keySet() )
         {
             String[] parameter = parameterKey.split( ":" );
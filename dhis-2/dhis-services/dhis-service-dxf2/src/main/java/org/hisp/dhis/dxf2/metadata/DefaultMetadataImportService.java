@@ -27,8 +27,12 @@
  */
 package org.hisp.dhis.dxf2.metadata;
 
+import static java.util.stream.Collectors.joining;
 import static org.hisp.dhis.dxf2.metadata.objectbundle.EventReportCompatibilityGuard.handleDeprecationIfEventReport;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -37,6 +41,7 @@ import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.math.NumberUtils;
 import org.hisp.dhis.common.BaseIdentifiableObject;
 import org.hisp.dhis.common.IdentifiableObject;
 import org.hisp.dhis.common.IdentifiableObjectManager;
@@ -58,6 +63,8 @@ import org.hisp.dhis.preheat.PreheatIdentifier;
 import org.hisp.dhis.preheat.PreheatMode;
 import org.hisp.dhis.scheduling.JobConfiguration;
 import org.hisp.dhis.scheduling.JobType;
+import org.hisp.dhis.schema.Schema;
+import org.hisp.dhis.schema.SchemaService;
 import org.hisp.dhis.security.acl.AclService;
 import org.hisp.dhis.system.notification.NotificationLevel;
 import org.hisp.dhis.system.notification.Notifier;
@@ -65,7 +72,9 @@ import org.hisp.dhis.user.CurrentUserService;
 import org.hisp.dhis.user.User;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.base.Enums;
 
 /**
@@ -88,6 +97,12 @@ public class DefaultMetadataImportService implements MetadataImportService
 
     private final Notifier notifier;
 
+    private final SchemaService schemaService;
+
+    private final ObjectMapper jsonMapper;
+
+    private final TransactionTemplate transactionTemplate;
+
     @Override
     @Transactional
     public ImportReport importMetadata( MetadataImportParams params )
@@ -180,6 +195,114 @@ public class DefaultMetadataImportService implements MetadataImportService
         return importReport;
     }
 
+    @Override
+    @SuppressWarnings( "unchecked" )
+    public ImportReport importMetadata( MetadataImportParams params, InputStream inputStream )
+        throws IOException
+    {
+        Timer timer = new SystemTimer().start();
+
+        if ( params.getUser() == null )
+        {
+            params.setUser( currentUserService.getCurrentUser() );
+        }
+
+        if ( params.getUserOverrideMode() == UserOverrideMode.CURRENT )
+        {
+            params.setOverrideUser( currentUserService.getCurrentUser() );
+        }
+
+        ImportReport importReport = new ImportReport();
+        importReport.setImportParams( params );
+        importReport.setStatus( Status.OK );
+
+        try ( JsonMetadataSpool spool = new JsonMetadataSpool( jsonMapper, schemaService ) )
+        {
+            spool.write( inputStream );
+
+            if ( ObjectBundleMode.VALIDATE == params.getImportMode() )
+            {
+                // nothing is committed when validating, so references between
+                // classes can only be resolved within a single bundle
+
+                for ( Schema schema : schemaService.getMetadataSchemas() )
+                {
+                    Class<? extends IdentifiableObject> klass = (Class<? extends IdentifiableObject>) schema
+                        .getKlass();
+                    spool.read( klass, Integer.MAX_VALUE, objects -> {
+                        params.getObjects().put( klass, objects );
+                        return true;
+                    } );
+                }
+
+                return transactionTemplate.execute( status -> importMetadata( params ) );
+            }
+
+            log.info( "(" + params.getUsername() + ") Import:Start streaming with chunk size "
+                + params.getChunkSize() );
+
+            for ( List<Class<? extends IdentifiableObject>> group : spool.getImportGroups() )
+            {
+                if ( !spool.read( group, params.getChunkSize(),
+                    objects -> importChunk( params, objects, importReport ) ) )
+                {
+                    break;
+                }
+            }
+        }
+
+        if ( importReport.getStatus() == Status.OK && importReport.hasErrorReports() )
+        {
+            importReport.setStatus( Status.WARNING );
+        }
+
+        log.info( "(" + params.getUsername() + ") Import:Done streaming took " + timer.toString() );
+
+        return importReport;
+    }
+
+    /**
+     * Imports a chunk of objects in its own transaction and adds the result to
+     * the given report. The session is cleared afterwards so that the objects
+     * of the chunk can be garbage collected.
+     *
+     * @return false if the chunk failed validation and the import is atomic,
+     *         in which case no further chunks should be imported
+     */
+    private boolean importChunk( MetadataImportParams params,
+        Map<Class<? extends IdentifiableObject>, List<IdentifiableObject>> objects, ImportReport importReport )
+    {
+        Map<Class<? extends IdentifiableObject>, List<IdentifiableObject>> chunk = new HashMap<>( objects );
+
+        ImportReport chunkReport = transactionTemplate.execute(
+            status -> importMetadata( params.copyWithObjects( chunk ) ) );
+
+        importReport.addTypeReports( chunkReport.getTypeReports() );
+
+        manager.clear();
+
+        if ( params.getUser() != null )
+        {
+            params.setUser( manager.get( User.class, params.getUser().getUid() ) );
+        }
+
+        if ( params.getOverrideUser() != null )
+        {
+            params.setOverrideUser( manager.get( User.class, params.getOverrideUser().getUid() ) );
+        }
+
+        if ( chunkReport.getStatus() == Status.ERROR )
+        {
+            log.info( "(" + params.getUsername() + ") Import:Stopped at invalid chunk of "
+                + objects.keySet().stream().map( Class::getSimpleName ).collect( joining( ", " ) ) );
+
+            importReport.setStatus( Status.ERROR );
+            return false;
+        }
+
+        return true;
+    }
+
     @Override
     @Transactional( readOnly = true )
     public MetadataImportParams getParamsFromMap( Map<String, List<String>> parameters )
@@ -210,6 +333,7 @@ public class DefaultMetadataImportService implements MetadataImportService
         params.setImportReportMode(
             getEnumWithDefault( ImportReportMode.class, parameters, "importReportMode", ImportReportMode.ERRORS ) );
         params.setFirstRowIsHeader( getBooleanWithDefault( parameters, "firstRowIsHeader", true ) );
+        params.setChunkSize( getIntWithDefault( parameters, "chunkSize", params.getChunkSize() ) );
 
         if ( getBooleanWithDefault( parameters, "async", false ) )
         {
@@ -259,6 +383,18 @@ public class DefaultMetadataImportService implements MetadataImportService
         return "true".equals( value.toLowerCase() );
     }
 
+    private int getIntWithDefault( Map<String, List<String>> parameters, String key, int defaultValue )
+    {
+        if ( parameters == null || parameters.get( key ) == null || parameters.get( key ).isEmpty() )
+        {
+            return defaultValue;
+        }
+
+        int value = NumberUtils.toInt( parameters.get( key ).get( 0 ), defaultValue );
+
+        return value > 0 ? value : defaultValue;
+    }
+
     private <T extends Enum<T>> T getEnumWithDefault( Class<T> enumKlass, Map<String, List<String>> parameters,
         String key, T defaultValue )
     {
@@ -0,0 +1,641 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.dxf2.metadata;
+
+import static java.util.stream.Collectors.toList;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.hisp.dhis.attribute.Attribute;
+import org.hisp.dhis.common.IdentifiableObject;
+import org.hisp.dhis.schema.Property;
+import org.hisp.dhis.schema.PropertyType;
+import org.hisp.dhis.schema.Schema;
+import org.hisp.dhis.schema.SchemaService;
+import org.hisp.dhis.user.User;
+import org.hisp.dhis.user.UserGroup;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Splits a JSON metadata payload into one temporary file per metadata class,
+ * so that the objects of each class can be read back in chunks and in
+ * dependency order, independent of the order of the classes in the payload.
+ *
+ * The payload is copied token by token, no objects are deserialized while it
+ * is being split.
+ *
+ * The classes are imported in groups, see {@link #getImportGroups()}. A group
+ * of a single class which does not reference itself is read in chunks. The
+ * objects of any other group are read in chunks by depth, so that each chunk
+ * only references objects of earlier chunks, e.g. organisation units by
+ * hierarchy level and option sets before their options. Objects which
+ * reference each other in a cycle are read as a whole, as they can only be
+ * validated and committed together.
+ */
+@Slf4j
+final class JsonMetadataSpool implements Closeable
+{
+    private static final int UNVISITED = -1;
+
+    private static final int VISITING = -2;
+
+    private final ObjectMapper jsonMapper;
+
+    private final SchemaService schemaService;
+
+    private final Map<Class<? extends IdentifiableObject>, File> files = new HashMap<>();
+
+    JsonMetadataSpool( ObjectMapper jsonMapper, SchemaService schemaService )
+    {
+        this.jsonMapper = jsonMapper;
+        this.schemaService = schemaService;
+    }
+
+    /**
+     * Copies each metadata collection of the given payload to a temporary
+     * file. Unknown and non-metadata properties are skipped.
+     *
+     * @param in the JSON metadata payload
+     * @throws IOException if the payload could not be read or copied
+     */
+    @SuppressWarnings( "unchecked" )
+    void write( InputStream in )
+        throws IOException
+    {
+        try ( JsonParser parser = jsonMapper.getFactory().createParser( in ) )
+        {
+            if ( parser.nextToken() != JsonToken.START_OBJECT )
+            {
+                throw new JsonParseException( parser, "Metadata must be a JSON object" );
+            }
+
+            while ( parser.nextToken() == JsonToken.FIELD_NAME )
+            {
+                String fieldName = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                Schema schema = schemaService.getSchemaByPluralName( fieldName );
+
+                if ( schema == null || !schema.isIdentifiableObject() || !schema.isMetadata()
+                    || value != JsonToken.START_ARRAY )
+                {
+                    log.debug( "Skipping property '" + fieldName + "'." );
+                    parser.skipChildren();
+                    continue;
+                }
+
+                Class<? extends IdentifiableObject> klass = (Class<? extends IdentifiableObject>) schema.getKlass();
+
+                if ( files.containsKey( klass ) )
+                {
+                    throw new JsonParseException( parser, "Metadata must contain a single '" + fieldName + "' array" );
+                }
+
+                File file = Files.createTempFile( "dhis2-metadata-", ".json" ).toFile();
+                files.put( klass, file );
+
+                try ( JsonGenerator generator = jsonMapper.getFactory().createGenerator( file, JsonEncoding.UTF8 ) )
+                {
+                    generator.copyCurrentStructure( parser );
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads the objects of the given class in chunks of at most the given
+     * size. Does nothing if the payload has no objects of the class.
+     *
+     * @param klass the metadata class to read
+     * @param chunkSize the maximum number of objects per chunk
+     * @param consumer receives each chunk, returns false to stop reading
+     * @return false if the consumer stopped reading, true otherwise
+     * @throws IOException if the objects could not be read
+     */
+    boolean read( Class<? extends IdentifiableObject> klass, int chunkSize,
+        Predicate<List<IdentifiableObject>> consumer )
+        throws IOException
+    {
+        return read( klass, chunkSize, position -> true, consumer );
+    }
+
+    /**
+     * Reads the objects of the given class which are included by position in
+     * chunks of at most the given size.
+     */
+    private boolean read( Class<? extends IdentifiableObject> klass, int chunkSize, IntPredicate include,
+        Predicate<List<IdentifiableObject>> consumer )
+        throws IOException
+    {
+        File file = files.get( klass );
+
+        if ( file == null )
+        {
+            return true;
+        }
+
+        try ( JsonParser parser = jsonMapper.getFactory().createParser( file ) )
+        {
+            parser.nextToken(); // START_ARRAY
+
+            List<IdentifiableObject> chunk = new ArrayList<>();
+            JsonToken token = parser.nextToken();
+            int position = 0;
+
+            while ( token != null && token != JsonToken.END_ARRAY )
+            {
+                if ( token == JsonToken.START_OBJECT && include.test( position++ ) )
+                {
+                    chunk.add( jsonMapper.readValue( parser, klass ) );
+                }
+                else
+                {
+                    parser.skipChildren();
+                }
+
+                if ( chunk.size() >= chunkSize )
+                {
+                    if ( !consumer.test( chunk ) )
+                    {
+                        return false;
+                    }
+
+                    chunk = new ArrayList<>();
+                }
+
+                token = parser.nextToken();
+            }
+
+            return chunk.isEmpty() || consumer.test( chunk );
+        }
+    }
+
+    /**
+     * Reads the objects of the given group of classes. The objects of a group
+     * of a single class which does not reference itself are read in chunks of
+     * at most the given size.
+     * <p>
+     * The objects of any other group are read by depth, where an object has
+     * depth zero if it references no object of the group, and otherwise one
+     * more than the objects it references. A collection which is the inverse
+     * of a reference of the referenced class, like the options of an option
+     * set, is not followed. The objects of each depth and class are read in
+     * chunks of at most the given size. If the objects reference each other
+     * in a cycle, or reference objects of the group without an ID, the
+     * objects of the group are read in a single chunk.
+     *
+     * @param group the group of classes to read, see
+     *        {@link #getImportGroups()}
+     * @param chunkSize the maximum number of objects per chunk
+     * @param consumer receives each chunk, returns false to stop reading
+     * @return false if the consumer stopped reading, true otherwise
+     * @throws IOException if the objects could not be read
+     */
+    boolean read( List<Class<? extends IdentifiableObject>> group, int chunkSize,
+        Predicate<Map<Class<? extends IdentifiableObject>, List<IdentifiableObject>>> consumer )
+        throws IOException
+    {
+        if ( group.size() == 1 && !getReferencedClasses( group.get( 0 ) ).contains( group.get( 0 ) ) )
+        {
+            Class<? extends IdentifiableObject> klass = group.get( 0 );
+
+            return read( klass, chunkSize, objects -> consumer.test( Map.of( klass, objects ) ) );
+        }
+
+        Map<Class<?>, Integer> offsets = new HashMap<>();
+        int[] depths = getDepths( group, offsets );
+
+        if ( depths == null )
+        {
+            log.info( "Reading metadata of classes " + group + " as a whole, as the objects reference each other" );
+
+            Map<Class<? extends IdentifiableObject>, List<IdentifiableObject>> objects = new LinkedHashMap<>();
+
+            for ( Class<? extends IdentifiableObject> klass : group )
+            {
+                read( klass, Integer.MAX_VALUE, chunk -> objects.put( klass, chunk ) == null );
+            }
+
+            return objects.isEmpty() || consumer.test( objects );
+        }
+
+        int maxDepth = Arrays.stream( depths ).max().orElse( -1 );
+
+        for ( int depth = 0; depth <= maxDepth; depth++ )
+        {
+            for ( Class<? extends IdentifiableObject> klass : group )
+            {
+                int offset = offsets.get( klass );
+                int objectDepth = depth;
+
+                if ( !read( klass, chunkSize, position -> depths[offset + position] == objectDepth,
+                    objects -> consumer.test( Map.of( klass, objects ) ) ) )
+                {
+                    return false;
+                }
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Computes the depth of the objects of the given group, in the order of
+     * the classes of the group and of the objects in each file. The position
+     * of the first object of each class is put in the given offsets.
+     *
+     * @return the depths, or null if the objects reference each other in a
+     *         cycle or reference objects of the group without an ID
+     */
+    private int[] getDepths( List<Class<? extends IdentifiableObject>> group, Map<Class<?>, Integer> offsets )
+        throws IOException
+    {
+        Map<String, Integer> nodes = new HashMap<>();
+        List<List<String>> references = new ArrayList<>();
+
+        for ( Class<? extends IdentifiableObject> klass : group )
+        {
+            offsets.put( klass, references.size() );
+
+            List<Property> properties = getDepthReferences( klass, group );
+
+            try ( JsonParser parser = jsonMapper.getFactory().createParser( files.get( klass ) ) )
+            {
+                parser.nextToken(); // START_ARRAY
+
+                JsonToken token = parser.nextToken();
+
+                while ( token != null && token != JsonToken.END_ARRAY )
+                {
+                    if ( token == JsonToken.START_OBJECT )
+                    {
+                        JsonNode object = jsonMapper.readTree( parser );
+                        List<String> ids = getReferencedIds( object, properties );
+
+                        if ( ids == null )
+                        {
+                            return null;
+                        }
+
+                        if ( object.path( "id" ).isTextual() )
+                        {
+                            nodes.putIfAbsent( object.get( "id" ).asText(), references.size() );
+                        }
+
+                        references.add( ids );
+                    }
+                    else
+                    {
+                        parser.skipChildren();
+                    }
+
+                    token = parser.nextToken();
+                }
+            }
+        }
+
+        int[] depths = new int[references.size()];
+        Arrays.fill( depths, UNVISITED );
+
+        for ( int node = 0; node < depths.length; node++ )
+        {
+            if ( !computeDepth( node, nodes, references, depths ) )
+            {
+                return null;
+            }
+        }
+
+        return depths;
+    }
+
+    /**
+     * Computes the depth of the given object and of the objects it
+     * references.
+     *
+     * @return false if the object is part of a cycle
+     */
+    private static boolean computeDepth( int node, Map<String, Integer> nodes, List<List<String>> references,
+        int[] depths )
+    {
+        if ( depths[node] == VISITING )
+        {
+            return false;
+        }
+
+        if ( depths[node] != UNVISITED )
+        {
+            return true;
+        }
+
+        depths[node] = VISITING;
+
+        int depth = 0;
+
+        for ( String id : references.get( node ) )
+        {
+            Integer reference = nodes.get( id );
+
+            if ( reference != null && reference != node )
+            {
+                if ( !computeDepth( reference, nodes, references, depths ) )
+                {
+                    return false;
+                }
+
+                depth = Math.max( depth, depths[reference] + 1 );
+            }
+        }
+
+        depths[node] = depth;
+
+        return true;
+    }
+
+    /**
+     * Returns the IDs of the objects referenced by the given object through
+     * the given properties, its attribute values and its sharing.
+     *
+     * @return the IDs, or null if a referenced object has no ID
+     */
+    private static List<String> getReferencedIds( JsonNode object, List<Property> properties )
+    {
+        List<String> ids = new ArrayList<>();
+
+        for ( Property property : properties )
+        {
+            JsonNode value = object.path( property.isCollection() ? property.getCollectionName() : property.getName() );
+            Iterable<JsonNode> values = value.isArray() ? value : List.of( value );
+
+            for ( JsonNode reference : values )
+            {
+                if ( reference.isObject() && !reference.path( "id" ).isTextual() )
+                {
+                    return null;
+                }
+
+                if ( reference.isObject() )
+                {
+                    ids.add( reference.get( "id" ).asText() );
+                }
+            }
+        }
+
+        object.path( "attributeValues" ).forEach( av -> ids.add( av.path( "attribute" ).path( "id" ).asText() ) );
+
+        JsonNode sharing = object.path( "sharing" );
+
+        if ( sharing.path( "owner" ).isTextual() )
+        {
+            ids.add( sharing.get( "owner" ).asText() );
+        }
+
+        sharing.path( "users" ).fieldNames().forEachRemaining( ids::add );
+        sharing.path( "userGroups" ).fieldNames().forEachRemaining( ids::add );
+
+        return ids;
+    }
+
+    /**
+     * Returns the reference properties of the given class which are followed
+     * to compute the depth of its objects, i.e. the references to classes of
+     * the group which are validated on import, except collections which are
+     * the inverse of a reference of the referenced class to the given class.
+     */
+    private List<Property> getDepthReferences( Class<? extends IdentifiableObject> klass,
+        List<Class<? extends IdentifiableObject>> group )
+    {
+        List<Property> properties = new ArrayList<>();
+
+        for ( Property property : schemaService.getDynamicSchema( klass ).getProperties() )
+        {
+            Class<?> referenced = getReferencedClass( property );
+
+            if ( referenced == null || group.stream().noneMatch( referenced::isAssignableFrom ) )
+            {
+                continue;
+            }
+
+            if ( property.isCollection() && isInverse( klass, referenced ) )
+            {
+                continue;
+            }
+
+            properties.add( property );
+        }
+
+        return properties;
+    }
+
+    /**
+     * Returns whether the given referenced class has a reference which is not
+     * a collection back to the given class.
+     */
+    private boolean isInverse( Class<?> klass, Class<?> referenced )
+    {
+        return schemaService.getDynamicSchema( referenced ).getProperties().stream()
+            .anyMatch( property -> PropertyType.REFERENCE == property.getPropertyType()
+                && property.isPersisted() && property.isOwner() && property.getKlass() != null
+                && property.getKlass().isAssignableFrom( klass ) );
+    }
+
+    /**
+     * Returns the class referenced by the given property if it is an owned
+     * reference or collection of references, null otherwise.
+     */
+    private static Class<?> getReferencedClass( Property property )
+    {
+        if ( !property.isPersisted() || !property.isOwner() )
+        {
+            return null;
+        }
+
+        if ( PropertyType.REFERENCE == property.getPropertyType() )
+        {
+            return property.getKlass();
+        }
+
+        if ( PropertyType.REFERENCE == property.getItemPropertyType() )
+        {
+            return property.getItemKlass();
+        }
+
+        return null;
+    }
+
+    /**
+     * Groups the classes of the payload in import order, so that the objects
+     * of a group only reference objects of the same or of earlier groups.
+     * Classes which reference each other, directly or through other classes
+     * of the payload, end up in the same group. Only the references which are
+     * validated on import are considered, i.e. owned references, attribute
+     * values and sharing.
+     *
+     * @return the groups of classes in import order
+     */
+    List<List<Class<? extends IdentifiableObject>>> getImportGroups()
+    {
+        List<Class<? extends IdentifiableObject>> classes = getClasses();
+        Map<Class<?>, Integer> index = new HashMap<>();
+        Map<Class<?>, Integer> lowLink = new HashMap<>();
+        Deque<Class<? extends IdentifiableObject>> stack = new ArrayDeque<>();
+        List<List<Class<? extends IdentifiableObject>>> groups = new ArrayList<>();
+
+        for ( Class<? extends IdentifiableObject> klass : classes )
+        {
+            if ( !index.containsKey( klass ) )
+            {
+                addImportGroups( klass, classes, index, lowLink, stack, groups );
+            }
+        }
+
+        return groups;
+    }
+
+    /**
+     * Tarjan's algorithm for strongly connected components. A group is only
+     * added after all groups it references, which gives the import order.
+     */
+    private void addImportGroups( Class<? extends IdentifiableObject> klass,
+        List<Class<? extends IdentifiableObject>> classes, Map<Class<?>, Integer> index,
+        Map<Class<?>, Integer> lowLink, Deque<Class<? extends IdentifiableObject>> stack,
+        List<List<Class<? extends IdentifiableObject>>> groups )
+    {
+        int klassIndex = index.size();
+        index.put( klass, klassIndex );
+        lowLink.put( klass, klassIndex );
+        stack.push( klass );
+
+        for ( Class<? extends IdentifiableObject> reference : getReferencedClasses( klass ) )
+        {
+            if ( !index.containsKey( reference ) )
+            {
+                addImportGroups( reference, classes, index, lowLink, stack, groups );
+                lowLink.put( klass, Math.min( lowLink.get( klass ), lowLink.get( reference ) ) );
+            }
+            else if ( stack.contains( reference ) )
+            {
+                lowLink.put( klass, Math.min( lowLink.get( klass ), index.get( reference ) ) );
+            }
+        }
+
+        if ( lowLink.get( klass ) == klassIndex )
+        {
+            List<Class<? extends IdentifiableObject>> group = new ArrayList<>();
+            Class<? extends IdentifiableObject> member;
+
+            do
+            {
+                member = stack.pop();
+                group.add( member );
+            }
+            while ( member != klass );
+
+            group.sort( Comparator.comparingInt( classes::indexOf ) );
+            groups.add( group );
+        }
+    }
+
+    /**
+     * Returns the classes of the payload referenced by the objects of the
+     * given class, in schema order.
+     */
+    private List<Class<? extends IdentifiableObject>> getReferencedClasses( Class<? extends IdentifiableObject> klass )
+    {
+        Schema schema = schemaService.getDynamicSchema( klass );
+        Set<Class<?>> references = new HashSet<>();
+
+        for ( Property property : schema.getProperties() )
+        {
+            Class<?> referenced = getReferencedClass( property );
+
+            if ( referenced != null )
+            {
+                references.add( referenced );
+            }
+        }
+
+        if ( schema.havePersistedProperty( "attributeValues" ) )
+        {
+            references.add( Attribute.class );
+        }
+
+        if ( schema.havePersistedProperty( "sharing" ) )
+        {
+            references.add( User.class );
+            references.add( UserGroup.class );
+        }
+
+        return getClasses().stream()
+            .filter( c -> references.stream().anyMatch( r -> r != null && r.isAssignableFrom( c ) ) )
+            .collect( toList() );
+    }
+
+    /**
+     * Returns the classes of the payload in schema order.
+     */
+    @SuppressWarnings( "unchecked" )
+    private List<Class<? extends IdentifiableObject>> getClasses()
+    {
+        return schemaService.getMetadataSchemas().stream()
+            .map( schema -> (Class<? extends IdentifiableObject>) schema.getKlass() )
+            .filter( files::containsKey )
+            .collect( toList() );
+    }
+
+    @Override
+    public void close()
+    {
+        files.values().forEach( File::delete );
+        files.clear();
+    }
+}
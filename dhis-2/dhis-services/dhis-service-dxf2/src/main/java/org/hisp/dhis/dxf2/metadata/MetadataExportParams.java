@@ -104,6 +104,12 @@ public class MetadataExportParams
      */
     private boolean skipSharing;
 
+    /**
+     * Number of objects per class to query, field filter and write at a time
+     * when streaming the export.
+     */
+    private int pageSize = 1000;
+
     public MetadataExportParams()
     {
     }
@@ -246,4 +252,14 @@ public class MetadataExportParams
     {
         return this.skipSharing;
     }
-}
\ No newline at end of file
+
+    public int getPageSize()
+    {
+        return pageSize;
+    }
+
+    public void setPageSize( int pageSize )
+    {
+        this.pageSize = pageSize;
+    }
+}
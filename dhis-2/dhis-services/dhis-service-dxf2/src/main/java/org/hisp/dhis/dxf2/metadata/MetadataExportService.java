@@ -27,6 +27,7 @@
  */
 package org.hisp.dhis.dxf2.metadata;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -36,6 +37,7 @@ import javax.annotation.Nonnull;
 import org.hisp.dhis.common.IdentifiableObject;
 import org.hisp.dhis.node.types.RootNode;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
 /**
@@ -63,6 +65,20 @@ public interface MetadataExportService
 
     RootNode getMetadataAsRootNode( MetadataExportParams params );
 
+    /**
+     * Writes the same result as getMetadataAsNode directly to the given
+     * generator. Objects are queried one class at a time in pages of
+     * {@link MetadataExportParams#getPageSize()}, and the session is cleared
+     * between pages so that memory use does not grow with the size of the
+     * export.
+     *
+     * @param params Export parameters
+     * @param generator Generator to write the metadata to
+     * @throws IOException if writing to the generator fails
+     */
+    void writeMetadata( MetadataExportParams params, JsonGenerator generator )
+        throws IOException;
+
     /**
      * Validates the import params. Not currently implemented.
      *
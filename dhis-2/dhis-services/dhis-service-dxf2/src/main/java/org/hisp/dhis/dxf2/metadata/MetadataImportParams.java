@@ -151,6 +151,12 @@ public class MetadataImportParams
      */
     private boolean firstRowIsHeader = true;
 
+    /**
+     * Number of objects per class to preheat, validate and commit at a time
+     * when streaming the import.
+     */
+    private int chunkSize = 1000;
+
     /**
      * Job id to use for threaded imports.
      */
@@ -414,6 +420,19 @@ public class MetadataImportParams
         this.firstRowIsHeader = firstRowIsHeader;
     }
 
+    @JsonProperty
+    @JacksonXmlProperty( namespace = DxfNamespaces.DXF_2_0 )
+    public int getChunkSize()
+    {
+        return chunkSize;
+    }
+
+    public MetadataImportParams setChunkSize( int chunkSize )
+    {
+        this.chunkSize = chunkSize;
+        return this;
+    }
+
     public boolean hasJobId()
     {
         return id != null;
@@ -488,6 +507,38 @@ public class MetadataImportParams
         return this;
     }
 
+    /**
+     * Creates a copy of these params holding only the given objects. The job
+     * id is not copied.
+     */
+    public MetadataImportParams copyWithObjects(
+        Map<Class<? extends IdentifiableObject>, List<IdentifiableObject>> objects )
+    {
+        MetadataImportParams params = new MetadataImportParams();
+        params.setUser( user );
+        params.setUserOverrideMode( userOverrideMode );
+        params.setOverrideUser( overrideUser );
+        params.setImportMode( importMode );
+        params.setIdentifier( identifier );
+        params.setPreheatMode( preheatMode );
+        params.setImportStrategy( importStrategy );
+        params.setAtomicMode( atomicMode );
+        params.setMergeMode( mergeMode );
+        params.setFlushMode( flushMode );
+        params.setImportReportMode( importReportMode );
+        params.setSkipSharing( skipSharing );
+        params.setSkipTranslation( skipTranslation );
+        params.setSkipValidation( skipValidation );
+        params.setMetadataSyncImport( metadataSyncImport );
+        params.setFilename( filename );
+        params.setCsvImportClass( csvImportClass );
+        params.setFirstRowIsHeader( firstRowIsHeader );
+        params.setChunkSize( chunkSize );
+        params.setObjects( objects );
+
+        return params;
+    }
+
     public ObjectBundleParams toObjectBundleParams()
     {
         ObjectBundleParams params = new ObjectBundleParams();
@@ -27,6 +27,8 @@
  */
 package org.hisp.dhis.dxf2.metadata;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 import java.util.Map;
 
@@ -47,6 +49,28 @@ public interface MetadataImportService
      */
     ImportReport importMetadata( MetadataImportParams params );
 
+    /**
+     * Imports a JSON metadata payload without holding all of it in memory. The
+     * payload is split by class, and the objects are then imported class by
+     * class in dependency order, in chunks of
+     * {@link MetadataImportParams#getChunkSize()} objects. Each chunk is
+     * preheated, validated and committed in its own transaction.
+     *
+     * Classes which reference themselves or each other, such as option sets
+     * and options, are imported together in a single chunk.
+     *
+     * With {@link AtomicMode#ALL} each chunk is atomic and the import stops at
+     * the first chunk failing validation, chunks committed before remain.
+     * When only validating, the payload is imported as a single bundle.
+     *
+     * @param params Parameters for import, objects are read from the input
+     * @param inputStream JSON metadata payload
+     * @return Report consolidating the reports of all chunks
+     * @throws IOException if the payload could not be read
+     */
+    ImportReport importMetadata( MetadataImportParams params, InputStream inputStream )
+        throws IOException;
+
     /**
      * Parses, and creates a MetadataImportParams instance based on given map of
      * parameters.
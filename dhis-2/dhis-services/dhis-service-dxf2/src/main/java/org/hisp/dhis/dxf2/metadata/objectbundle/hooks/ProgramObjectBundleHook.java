@@ -46,7 +46,9 @@ import org.hisp.dhis.program.ProgramStatus;
 import org.hisp.dhis.program.ProgramType;
 import org.hisp.dhis.security.acl.AccessStringHelper;
 import org.hisp.dhis.security.acl.AclService;
+import org.hisp.dhis.trackedentity.SearchableAttributesChangedEvent;
 import org.hisp.dhis.trackedentity.TrackedEntityAttribute;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Component;
 
 /**
@@ -62,6 +64,8 @@ public class ProgramObjectBundleHook extends AbstractObjectBundleHook<Program>
 
     private final AclService aclService;
 
+    private final ApplicationEventPublisher eventPublisher;
+
     @Override
     public void postCreate( Program object, ObjectBundle bundle )
     {
@@ -78,6 +82,13 @@ public class ProgramObjectBundleHook extends AbstractObjectBundleHook<Program>
         syncSharingForEventProgram( object );
     }
 
+    @Override
+    public void postCommit( ObjectBundle bundle )
+    {
+        // program attributes may have been marked as searchable
+        eventPublisher.publishEvent( new SearchableAttributesChangedEvent( Program.class ) );
+    }
+
     @Override
     public void validate( Program program, ObjectBundle bundle,
         Consumer<ErrorReport> addReports )
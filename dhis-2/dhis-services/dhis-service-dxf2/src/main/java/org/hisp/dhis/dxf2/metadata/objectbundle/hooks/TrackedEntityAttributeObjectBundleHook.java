@@ -29,6 +29,8 @@ package org.hisp.dhis.dxf2.metadata.objectbundle.hooks;
 
 import java.util.function.Consumer;
 
+import lombok.RequiredArgsConstructor;
+
 import org.hisp.dhis.common.Objects;
 import org.hisp.dhis.common.ValueType;
 import org.hisp.dhis.dxf2.metadata.objectbundle.ObjectBundle;
@@ -37,12 +39,16 @@ import org.hisp.dhis.feedback.ErrorReport;
 import org.hisp.dhis.textpattern.TextPattern;
 import org.hisp.dhis.textpattern.TextPatternParser;
 import org.hisp.dhis.textpattern.TextPatternValidationUtils;
+import org.hisp.dhis.trackedentity.SearchableAttributesChangedEvent;
 import org.hisp.dhis.trackedentity.TrackedEntityAttribute;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Component;
 
 @Component( "org.hisp.dhis.dxf2.metadata.objectbundle.hooks.TrackedEntityAttributeObjectBundleHook" )
+@RequiredArgsConstructor
 public class TrackedEntityAttributeObjectBundleHook extends AbstractObjectBundleHook<TrackedEntityAttribute>
 {
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Validate that the RenderType (if any) conforms to the constraints of
@@ -85,6 +91,12 @@ public class TrackedEntityAttributeObjectBundleHook extends AbstractObjectBundle
         updateTextPattern( persistedObject );
     }
 
+    @Override
+    public void postCommit( ObjectBundle bundle )
+    {
+        eventPublisher.publishEvent( new SearchableAttributesChangedEvent( TrackedEntityAttribute.class ) );
+    }
+
     private void updateTextPattern( TrackedEntityAttribute attr )
     {
         if ( attr.isGenerated() )
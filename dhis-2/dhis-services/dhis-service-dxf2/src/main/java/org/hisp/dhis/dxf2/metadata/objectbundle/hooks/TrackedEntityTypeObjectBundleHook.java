@@ -31,12 +31,16 @@ import java.util.List;
 import java.util.Objects;
 import java.util.function.Consumer;
 
+import lombok.RequiredArgsConstructor;
+
 import org.hisp.dhis.dxf2.metadata.objectbundle.ObjectBundle;
 import org.hisp.dhis.feedback.ErrorCode;
 import org.hisp.dhis.feedback.ErrorReport;
 import org.hisp.dhis.preheat.PreheatIdentifier;
+import org.hisp.dhis.trackedentity.SearchableAttributesChangedEvent;
 import org.hisp.dhis.trackedentity.TrackedEntityAttribute;
 import org.hisp.dhis.trackedentity.TrackedEntityType;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Component;
 
 /**
@@ -47,8 +51,11 @@ import org.springframework.stereotype.Component;
  * @author Luca Cambi <luca@dhis2.org>
  */
 @Component( "org.hisp.dhis.dxf2.metadata.objectbundle.hooks.TrackedEntityTypeObjectBundleHook" )
+@RequiredArgsConstructor
 public class TrackedEntityTypeObjectBundleHook extends AbstractObjectBundleHook<TrackedEntityType>
 {
+    private final ApplicationEventPublisher eventPublisher;
+
     @Override
     public void validate( TrackedEntityType object, ObjectBundle bundle, Consumer<ErrorReport> addReports )
     {
@@ -68,4 +75,10 @@ public class TrackedEntityTypeObjectBundleHook extends AbstractObjectBundleHook<
             } );
         }
     }
+
+    @Override
+    public void postCommit( ObjectBundle bundle )
+    {
+        eventPublisher.publishEvent( new SearchableAttributesChangedEvent( TrackedEntityType.class ) );
+    }
 }
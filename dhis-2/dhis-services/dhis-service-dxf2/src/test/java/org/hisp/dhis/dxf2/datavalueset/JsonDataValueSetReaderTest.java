@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.dxf2.datavalueset;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Tests the {@link JsonDataValueSetReader}.
+ */
+class JsonDataValueSetReaderTest
+{
+    private final ObjectMapper jsonMapper = new ObjectMapper();
+
+    @Test
+    void testReadHeaderBeforeValues()
+    {
+        String json = "{'dataSet':'pBOMPrpg1QX','period':'201201','orgUnit':'DiszpKrYNg8','dryRun':true,"
+            + "'dataValues':[{'dataElement':'f7n9E0hX8qk','value':'1'},{'dataElement':'Ix2HsbDMLea','value':'2'}]}";
+
+        try ( JsonDataValueSetReader reader = createReader( json ) )
+        {
+            DataValueSet header = reader.readHeader();
+
+            assertEquals( "pBOMPrpg1QX", header.getDataSet() );
+            assertEquals( "201201", header.getPeriod() );
+            assertEquals( "DiszpKrYNg8", header.getOrgUnit() );
+            assertTrue( header.getDryRun() );
+            assertTrue( header.getDataValues().isEmpty() );
+
+            assertValue( "f7n9E0hX8qk", "1", reader.readNext() );
+            assertValue( "Ix2HsbDMLea", "2", reader.readNext() );
+            assertNull( reader.readNext() );
+        }
+    }
+
+    @Test
+    void testReadHeaderAfterValues()
+    {
+        String json = "{'dataValues':[{'dataElement':'f7n9E0hX8qk','period':'201201','value':'1'}],"
+            + "'unknown':{'nested':[1,2]},'attributeCategoryOptions':['xYerKDKCefk','FbLZS3ueWbQ'],"
+            + "'orgUnitIdScheme':'CODE','orgUnit':'OU_1'}";
+
+        try ( JsonDataValueSetReader reader = createReader( json ) )
+        {
+            DataValueSet header = reader.readHeader();
+
+            assertEquals( "CODE", header.getOrgUnitIdScheme() );
+            assertEquals( "OU_1", header.getOrgUnit() );
+            assertEquals( Arrays.asList( "xYerKDKCefk", "FbLZS3ueWbQ" ), header.getAttributeCategoryOptions() );
+
+            DataValueEntry value = reader.readNext();
+            assertValue( "f7n9E0hX8qk", "1", value );
+            assertEquals( "201201", value.getPeriod() );
+            assertNull( reader.readNext() );
+        }
+    }
+
+    @Test
+    void testReadUnknownFieldsAfterStreamedValues()
+    {
+        String json = "{'dataSet':'pBOMPrpg1QX','dataValues':[{'dataElement':'f7n9E0hX8qk','value':'1'}],"
+            + "'unknown':{'nested':[1,2]},'orgUnit':null}";
+
+        try ( JsonDataValueSetReader reader = createReader( json ) )
+        {
+            assertEquals( "pBOMPrpg1QX", reader.readHeader().getDataSet() );
+            assertValue( "f7n9E0hX8qk", "1", reader.readNext() );
+            assertNull( reader.readNext() );
+            assertNull( reader.readNext() );
+        }
+    }
+
+    @Test
+    void testRejectHeaderAfterStreamedValues()
+    {
+        String json = "{'dataSet':'pBOMPrpg1QX','dataValues':[{'dataElement':'f7n9E0hX8qk','value':'1'}],"
+            + "'orgUnit':'DiszpKrYNg8'}";
+
+        try ( JsonDataValueSetReader reader = createReader( json ) )
+        {
+            assertEquals( "pBOMPrpg1QX", reader.readHeader().getDataSet() );
+            assertValue( "f7n9E0hX8qk", "1", reader.readNext() );
+            assertThrows( UncheckedIOException.class, reader::readNext );
+        }
+    }
+
+    @Test
+    void testReadWithoutValues()
+    {
+        try ( JsonDataValueSetReader reader = createReader( "{'dataSet':'pBOMPrpg1QX','dataValues':null}" ) )
+        {
+            assertEquals( "pBOMPrpg1QX", reader.readHeader().getDataSet() );
+            assertNull( reader.readNext() );
+        }
+    }
+
+    private JsonDataValueSetReader createReader( String json )
+    {
+        return new JsonDataValueSetReader(
+            new ByteArrayInputStream( json.replace( '\'', '"' ).getBytes( StandardCharsets.UTF_8 ) ), jsonMapper );
+    }
+
+    private static void assertValue( String dataElement, String value, DataValueEntry entry )
+    {
+        assertEquals( dataElement, entry.getDataElement() );
+        assertEquals( value, entry.getValue() );
+    }
+}
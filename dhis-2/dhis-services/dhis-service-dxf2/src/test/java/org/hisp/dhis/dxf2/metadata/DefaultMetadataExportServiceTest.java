@@ -27,16 +27,33 @@
  */
 package org.hisp.dhis.dxf2.metadata;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.StringWriter;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import org.hisp.dhis.common.IdentifiableObjectManager;
+import org.hisp.dhis.fieldfiltering.FieldFilterService;
 import org.hisp.dhis.option.Option;
+import org.hisp.dhis.query.Order;
+import org.hisp.dhis.query.Query;
+import org.hisp.dhis.query.QueryService;
 import org.hisp.dhis.scheduling.JobConfiguration;
+import org.hisp.dhis.schema.Property;
 import org.hisp.dhis.schema.Schema;
 import org.hisp.dhis.schema.SchemaService;
+import org.hisp.dhis.system.SystemInfo;
+import org.hisp.dhis.system.SystemService;
+import org.hisp.dhis.user.User;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -45,6 +62,11 @@ import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
 /**
  * Unit tests for {@link DefaultMetadataExportService}.
  *
@@ -56,6 +78,18 @@ class DefaultMetadataExportServiceTest
     @Mock
     private SchemaService schemaService;
 
+    @Mock
+    private QueryService queryService;
+
+    @Mock
+    private FieldFilterService fieldFilterService;
+
+    @Mock
+    private SystemService systemService;
+
+    @Mock
+    private IdentifiableObjectManager manager;
+
     @InjectMocks
     private DefaultMetadataExportService service;
 
@@ -106,4 +140,94 @@ class DefaultMetadataExportServiceTest
         Assertions.assertFalse( exportParams.getClasses().contains( JobConfiguration.class ) );
         Assertions.assertTrue( exportParams.getClasses().contains( Option.class ) );
     }
-}
\ No newline at end of file
+
+    @Test
+    void writeMetadataInPagesAndClearsSession()
+        throws Exception
+    {
+        ObjectMapper mapper = new ObjectMapper();
+        Schema schema = new Schema( Option.class, "option", "options" );
+        User user = new User();
+        user.setUid( "userUid0001" );
+
+        SystemInfo systemInfo = new SystemInfo();
+        systemInfo.setServerDate( new Date() );
+
+        when( systemService.getSystemInfo() ).thenReturn( systemInfo );
+        when( schemaService.getDynamicSchema( Option.class ) ).thenReturn( schema );
+        when( manager.get( User.class, "userUid0001" ) ).thenReturn( user );
+        when( queryService.query( any( Query.class ) ) )
+            .thenAnswer( invocation -> List.of( new Option(), new Option() ) )
+            .thenAnswer( invocation -> List.of( new Option() ) );
+        when( fieldFilterService.toObjectNodes( any() ) )
+            .thenReturn( List.of( node( mapper, "a" ), node( mapper, "b" ) ) )
+            .thenReturn( List.of( node( mapper, "c" ) ) );
+
+        MetadataExportParams params = new MetadataExportParams();
+        params.setUser( user );
+        params.setPageSize( 2 );
+        params.addQuery( Query.from( schema ) );
+
+        StringWriter writer = new StringWriter();
+
+        try ( JsonGenerator generator = mapper.getFactory().createGenerator( writer ) )
+        {
+            service.writeMetadata( params, generator );
+        }
+
+        JsonNode root = mapper.readTree( writer.toString() );
+
+        assertEquals( 3, root.get( "options" ).size() );
+        assertEquals( "c", root.get( "options" ).get( 2 ).get( "id" ).asText() );
+        verify( queryService, times( 2 ) ).query( any( Query.class ) );
+        verify( manager, times( 2 ) ).clear();
+    }
+
+    @Test
+    void writeMetadataAppendsIdOrder()
+        throws Exception
+    {
+        ObjectMapper mapper = new ObjectMapper();
+        Schema schema = new Schema( Option.class, "option", "options" );
+        Property name = persistedProperty( "name" );
+        Property id = persistedProperty( "id" );
+        schema.addProperty( name );
+        schema.addProperty( id );
+        User user = new User();
+        user.setUid( "userUid0001" );
+
+        SystemInfo systemInfo = new SystemInfo();
+        systemInfo.setServerDate( new Date() );
+
+        when( systemService.getSystemInfo() ).thenReturn( systemInfo );
+        when( schemaService.getDynamicSchema( Option.class ) ).thenReturn( schema );
+        when( queryService.query( any( Query.class ) ) ).thenReturn( List.of() );
+
+        Query query = Query.from( schema );
+        query.addOrder( Order.iasc( name ) );
+
+        MetadataExportParams params = new MetadataExportParams();
+        params.setUser( user );
+        params.addQuery( query );
+
+        try ( JsonGenerator generator = mapper.getFactory().createGenerator( new StringWriter() ) )
+        {
+            service.writeMetadata( params, generator );
+        }
+
+        assertEquals( List.of( Order.iasc( name ), Order.asc( id ) ), query.getOrders() );
+    }
+
+    private static Property persistedProperty( String name )
+    {
+        Property property = new Property( String.class );
+        property.setName( name );
+        property.setPersisted( true );
+        return property;
+    }
+
+    private static ObjectNode node( ObjectMapper mapper, String id )
+    {
+        return mapper.createObjectNode().put( "id", id );
+    }
+}
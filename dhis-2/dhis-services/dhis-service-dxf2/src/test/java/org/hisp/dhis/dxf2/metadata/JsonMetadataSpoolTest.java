@@ -0,0 +1,277 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.dxf2.metadata;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.hisp.dhis.common.IdentifiableObject;
+import org.hisp.dhis.dataelement.DataElement;
+import org.hisp.dhis.option.Option;
+import org.hisp.dhis.option.OptionSet;
+import org.hisp.dhis.organisationunit.OrganisationUnit;
+import org.hisp.dhis.schema.Property;
+import org.hisp.dhis.schema.PropertyType;
+import org.hisp.dhis.schema.Schema;
+import org.hisp.dhis.schema.SchemaService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Tests the {@link JsonMetadataSpool}.
+ */
+@ExtendWith( MockitoExtension.class )
+@MockitoSettings( strictness = Strictness.LENIENT )
+class JsonMetadataSpoolTest
+{
+    private final ObjectMapper jsonMapper = new ObjectMapper()
+        .configure( DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false );
+
+    @Mock
+    private SchemaService schemaService;
+
+    @BeforeEach
+    void setUp()
+    {
+        when( schemaService.getSchemaByPluralName( "options" ) )
+            .thenReturn( new Schema( Option.class, "option", "options" ) );
+        when( schemaService.getSchemaByPluralName( "optionSets" ) )
+            .thenReturn( new Schema( OptionSet.class, "optionSet", "optionSets" ) );
+    }
+
+    @Test
+    void testReadInChunks()
+        throws Exception
+    {
+        String json = "{'system':{'id':'x'},'options':[{'id':'Opt000000A1'},{'id':'Opt000000A2'},"
+            + "{'id':'Opt000000A3'}],'optionSets':[{'id':'OptSet0000A'}]}";
+
+        try ( JsonMetadataSpool spool = createSpool( json ) )
+        {
+            List<List<String>> chunks = new ArrayList<>();
+
+            assertTrue( spool.read( Option.class, 2, chunk -> chunks.add( uids( chunk ) ) ) );
+            assertEquals( List.of( List.of( "Opt000000A1", "Opt000000A2" ), List.of( "Opt000000A3" ) ), chunks );
+
+            chunks.clear();
+
+            assertTrue( spool.read( OptionSet.class, 2, chunk -> chunks.add( uids( chunk ) ) ) );
+            assertEquals( List.of( List.of( "OptSet0000A" ) ), chunks );
+        }
+    }
+
+    @Test
+    void testReadStopsWhenConsumerReturnsFalse()
+        throws Exception
+    {
+        String json = "{'options':[{'id':'Opt000000A1'},{'id':'Opt000000A2'},{'id':'Opt000000A3'}]}";
+
+        try ( JsonMetadataSpool spool = createSpool( json ) )
+        {
+            List<List<String>> chunks = new ArrayList<>();
+
+            assertFalse( spool.read( Option.class, 1, chunk -> chunks.add( uids( chunk ) ) && false ) );
+            assertEquals( 1, chunks.size() );
+        }
+    }
+
+    @Test
+    void testReadMissingClass()
+        throws Exception
+    {
+        try ( JsonMetadataSpool spool = createSpool( "{'options':[]}" ) )
+        {
+            assertTrue( spool.read( OptionSet.class, 10, chunk -> false ) );
+            assertTrue( spool.read( Option.class, 10, chunk -> false ) );
+        }
+    }
+
+    @Test
+    void testGetImportGroups()
+        throws Exception
+    {
+        Schema option = createSchema( Option.class, "option", "options",
+            createReference( "optionSet", OptionSet.class, false ) );
+        Schema optionSet = createSchema( OptionSet.class, "optionSet", "optionSets",
+            createReference( "options", Option.class, true ) );
+        Schema dataElement = createSchema( DataElement.class, "dataElement", "dataElements",
+            createReference( "optionSet", OptionSet.class, false ) );
+
+        // data elements come first in schema order but reference option sets
+
+        when( schemaService.getMetadataSchemas() ).thenReturn( List.of( dataElement, option, optionSet ) );
+
+        String json = "{'dataElements':[{'id':'DataElem00A'},{'id':'DataElem00B'}],"
+            + "'options':[{'id':'Opt000000A1','optionSet':{'id':'OptSet0000A'}},"
+            + "{'id':'Opt000000A2','optionSet':{'id':'OptSet0000A'}}],"
+            + "'optionSets':[{'id':'OptSet0000A','options':[{'id':'Opt000000A1'},{'id':'Opt000000A2'}]}]}";
+
+        try ( JsonMetadataSpool spool = createSpool( json ) )
+        {
+            List<List<Class<? extends IdentifiableObject>>> groups = spool.getImportGroups();
+
+            assertEquals( List.of( List.of( Option.class, OptionSet.class ), List.of( DataElement.class ) ),
+                groups );
+
+            List<Map<Class<? extends IdentifiableObject>, List<IdentifiableObject>>> chunks = new ArrayList<>();
+
+            // option sets are read before their options
+
+            assertTrue( spool.read( groups.get( 0 ), 1, chunks::add ) );
+            assertEquals( 3, chunks.size() );
+            assertEquals( List.of( "OptSet0000A" ), uids( chunks.get( 0 ).get( OptionSet.class ) ) );
+            assertEquals( List.of( "Opt000000A1" ), uids( chunks.get( 1 ).get( Option.class ) ) );
+            assertEquals( List.of( "Opt000000A2" ), uids( chunks.get( 2 ).get( Option.class ) ) );
+
+            chunks.clear();
+
+            assertTrue( spool.read( groups.get( 1 ), 1, chunks::add ) );
+            assertEquals( 2, chunks.size() );
+            assertEquals( List.of( "DataElem00A" ), uids( chunks.get( 0 ).get( DataElement.class ) ) );
+        }
+    }
+
+    @Test
+    void testReadOrganisationUnitsByLevel()
+        throws Exception
+    {
+        createOrganisationUnitSchema();
+
+        String json = "{'organisationUnits':[{'id':'OrgUnit000C','parent':{'id':'OrgUnit000B'}},"
+            + "{'id':'OrgUnit000B','parent':{'id':'OrgUnit000A'}},{'id':'OrgUnit000A'},"
+            + "{'id':'OrgUnit000D','parent':{'id':'OrgUnit000A'}},{'id':'OrgUnit000E','parent':{'id':'OrgUnit000A'}},"
+            + "{'id':'OrgUnit000F','parent':{'id':'OrgUnit000B'}}]}";
+
+        try ( JsonMetadataSpool spool = createSpool( json ) )
+        {
+            List<List<String>> chunks = new ArrayList<>();
+
+            assertTrue( spool.read( List.of( OrganisationUnit.class ), 2,
+                objects -> chunks.add( uids( objects.get( OrganisationUnit.class ) ) ) ) );
+            assertEquals( List.of( List.of( "OrgUnit000A" ), List.of( "OrgUnit000B", "OrgUnit000D" ),
+                List.of( "OrgUnit000E" ), List.of( "OrgUnit000C", "OrgUnit000F" ) ), chunks );
+        }
+    }
+
+    @Test
+    void testReadCycleAsWhole()
+        throws Exception
+    {
+        createOrganisationUnitSchema();
+
+        String json = "{'organisationUnits':[{'id':'OrgUnit000A','parent':{'id':'OrgUnit000B'}},"
+            + "{'id':'OrgUnit000B','parent':{'id':'OrgUnit000A'}},{'id':'OrgUnit000C'}]}";
+
+        try ( JsonMetadataSpool spool = createSpool( json ) )
+        {
+            List<List<String>> chunks = new ArrayList<>();
+
+            assertTrue( spool.read( List.of( OrganisationUnit.class ), 1,
+                objects -> chunks.add( uids( objects.get( OrganisationUnit.class ) ) ) ) );
+            assertEquals( List.of( List.of( "OrgUnit000A", "OrgUnit000B", "OrgUnit000C" ) ), chunks );
+        }
+    }
+
+    private void createOrganisationUnitSchema()
+    {
+        Schema organisationUnit = createSchema( OrganisationUnit.class, "organisationUnit", "organisationUnits",
+            createReference( "parent", OrganisationUnit.class, false ),
+            createReference( "children", OrganisationUnit.class, true ) );
+
+        when( schemaService.getMetadataSchemas() ).thenReturn( List.of( organisationUnit ) );
+    }
+
+    private Schema createSchema( Class<?> klass, String singular, String plural, Property... properties )
+    {
+        Schema schema = new Schema( klass, singular, plural );
+
+        for ( Property property : properties )
+        {
+            schema.getPropertyMap().put( property.getName(), property );
+        }
+
+        when( schemaService.getSchemaByPluralName( plural ) ).thenReturn( schema );
+        when( schemaService.getDynamicSchema( klass ) ).thenReturn( schema );
+
+        return schema;
+    }
+
+    private static Property createReference( String name, Class<?> klass, boolean collection )
+    {
+        Property property = new Property();
+        property.setName( name );
+        property.setPersisted( true );
+        property.setOwner( true );
+        property.setCollection( collection );
+
+        if ( collection )
+        {
+            property.setKlass( List.class );
+            property.setPropertyType( PropertyType.COLLECTION );
+            property.setItemKlass( klass );
+            property.setItemPropertyType( PropertyType.REFERENCE );
+        }
+        else
+        {
+            property.setKlass( klass );
+            property.setPropertyType( PropertyType.REFERENCE );
+        }
+
+        return property;
+    }
+
+    private JsonMetadataSpool createSpool( String json )
+        throws Exception
+    {
+        JsonMetadataSpool spool = new JsonMetadataSpool( jsonMapper, schemaService );
+        spool.write( new ByteArrayInputStream( json.replace( '\'', '"' ).getBytes( StandardCharsets.UTF_8 ) ) );
+        return spool;
+    }
+
+    private static List<String> uids( List<IdentifiableObject> objects )
+    {
+        return objects.stream().map( IdentifiableObject::getUid ).collect( Collectors.toList() );
+    }
+}
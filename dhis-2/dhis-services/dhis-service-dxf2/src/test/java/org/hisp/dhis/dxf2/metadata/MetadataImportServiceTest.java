@@ -49,6 +49,7 @@ import org.hisp.dhis.common.IdentifiableObject;
 import org.hisp.dhis.common.IdentifiableObjectManager;
 import org.hisp.dhis.common.MergeMode;
 import org.hisp.dhis.dashboard.Dashboard;
+import org.hisp.dhis.dataelement.DataElement;
 import org.hisp.dhis.dataset.DataSet;
 import org.hisp.dhis.dataset.DataSetService;
 import org.hisp.dhis.dataset.Section;
@@ -60,6 +61,8 @@ import org.hisp.dhis.feedback.Status;
 import org.hisp.dhis.importexport.ImportStrategy;
 import org.hisp.dhis.mapping.MapView;
 import org.hisp.dhis.mapping.ThematicMapType;
+import org.hisp.dhis.option.Option;
+import org.hisp.dhis.option.OptionSet;
 import org.hisp.dhis.program.Program;
 import org.hisp.dhis.program.ProgramStage;
 import org.hisp.dhis.program.ProgramStageSection;
@@ -899,6 +902,43 @@ class MetadataImportServiceTest extends TransactionalIntegrationTest
         assertEquals( "Cl00ghs775c", eventReport.getProgramIndicatorDimensions().get( 0 ).getUid() );
     }
 
+    @Test
+    void testStreamingImportOptionSetWithOptions()
+        throws IOException
+    {
+        MetadataImportParams params = createParams( ImportStrategy.CREATE, new HashMap<>() );
+        params.setChunkSize( 1 );
+        ImportReport report = importService.importMetadata( params,
+            new ClassPathResource( "dxf2/optionSet_with_options.json" ).getInputStream() );
+        assertEquals( Status.OK, report.getStatus() );
+        assertEquals( 3, report.getStats().getCreated() );
+        OptionSet optionSet = manager.get( OptionSet.class, "YeVRiurT0QS" );
+        assertNotNull( optionSet );
+        assertEquals( 2, optionSet.getOptions().size() );
+        Option option = manager.get( Option.class, "vtuyiE5xvpH" );
+        assertNotNull( option );
+        assertEquals( "YeVRiurT0QS", option.getOptionSet().getUid() );
+    }
+
+    @Test
+    void testStreamingImportProgramWithProgramStages()
+        throws IOException
+    {
+        MetadataImportParams params = createParams( ImportStrategy.CREATE, new HashMap<>() );
+        params.setChunkSize( 1 );
+        ImportReport report = importService.importMetadata( params,
+            new ClassPathResource( "dxf2/program_noreg.json" ).getInputStream() );
+        assertEquals( Status.OK, report.getStatus() );
+        assertEquals( 6, manager.getAll( DataElement.class ).size() );
+        Program program = manager.get( Program.class, "s5uvS0Q7jnX" );
+        assertNotNull( program );
+        assertEquals( 1, program.getProgramStages().size() );
+        ProgramStage programStage = programStageService.getProgramStage( "agYrfZeYx1b" );
+        assertNotNull( programStage );
+        assertEquals( "s5uvS0Q7jnX", programStage.getProgram().getUid() );
+        assertEquals( 3, programStage.getProgramStageDataElements().size() );
+    }
+
     private MetadataImportParams createParams( ImportStrategy importStrategy,
         Map<Class<? extends IdentifiableObject>, List<IdentifiableObject>> metadata )
     {
@@ -61,6 +61,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import com.google.common.collect.Lists;
 
@@ -87,13 +88,16 @@ class ProgramObjectBundleHookTest
     @Mock
     private SessionFactory sessionFactory;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     private Program programA;
 
     @BeforeEach
     public void setUp()
     {
         this.subject = new ProgramObjectBundleHook( programInstanceService, programStageService,
-            aclService );
+            aclService, eventPublisher );
 
         programA = createProgram( 'A' );
         programA.setId( 100 );
@@ -36,17 +36,22 @@ import static org.hisp.dhis.predictor.PredictionFormatter.formatPrediction;
 import static org.hisp.dhis.system.notification.NotificationLevel.ERROR;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.hibernate.SessionFactory;
 import org.hisp.dhis.analytics.AnalyticsService;
 import org.hisp.dhis.analytics.AnalyticsServiceTarget;
 import org.hisp.dhis.analytics.DataType;
@@ -62,6 +67,7 @@ import org.hisp.dhis.dataelement.DataElement;
 import org.hisp.dhis.dataelement.DataElementOperand;
 import org.hisp.dhis.datavalue.DataValue;
 import org.hisp.dhis.datavalue.DataValueService;
+import org.hisp.dhis.dbms.DbmsUtils;
 import org.hisp.dhis.expression.Expression;
 import org.hisp.dhis.expression.ExpressionInfo;
 import org.hisp.dhis.expression.ExpressionParams;
@@ -73,6 +79,8 @@ import org.hisp.dhis.period.Period;
 import org.hisp.dhis.period.PeriodService;
 import org.hisp.dhis.period.PeriodType;
 import org.hisp.dhis.scheduling.JobConfiguration;
+import org.hisp.dhis.scheduling.JobProgress;
+import org.hisp.dhis.scheduling.NoopJobProgress;
 import org.hisp.dhis.scheduling.parameters.PredictorJobParameters;
 import org.hisp.dhis.system.notification.NotificationLevel;
 import org.hisp.dhis.system.notification.Notifier;
@@ -83,6 +91,7 @@ import org.hisp.dhis.util.DateUtils;
 import org.hisp.quick.BatchHandlerFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
@@ -115,10 +124,18 @@ public class DefaultPredictionService
 
     private final BatchHandlerFactory batchHandlerFactory;
 
+    private final SessionFactory sessionFactory;
+
     private AnalyticsService analyticsService;
 
     private CurrentUserService currentUserService;
 
+    /**
+     * Number of organisation unit partitions per thread when predicting in
+     * parallel, so that threads finishing early can take on more work.
+     */
+    private static final int PARTITIONS_PER_THREAD = 4;
+
     @Override
     public void setAnalyticsService( AnalyticsService analyticsService )
     {
@@ -135,15 +152,6 @@ public class DefaultPredictionService
     // Prediction business logic
     // -------------------------------------------------------------------------
 
-    @Override
-    public PredictionSummary predictJob( PredictorJobParameters params, JobConfiguration jobId )
-    {
-        Date startDate = DateUtils.getDateAfterAddition( new Date(), params.getRelativeStart() );
-        Date endDate = DateUtils.getDateAfterAddition( new Date(), params.getRelativeEnd() );
-
-        return predictTask( startDate, endDate, params.getPredictors(), params.getPredictorGroups(), jobId );
-    }
-
     @Override
     public PredictionSummary predictTask( Date startDate, Date endDate,
         List<String> predictors, List<String> predictorGroups, JobConfiguration jobId )
@@ -172,9 +180,46 @@ public class DefaultPredictionService
         return predictionSummary;
     }
 
+    @Override
+    public PredictionSummary predictJob( PredictorJobParameters params, JobProgress progress )
+    {
+        Date startDate = DateUtils.getDateAfterAddition( new Date(), params.getRelativeStart() );
+        Date endDate = DateUtils.getDateAfterAddition( new Date(), params.getRelativeEnd() );
+
+        progress.startingProcess( "Making predictions" );
+
+        try
+        {
+            PredictionSummary predictionSummary = predictAll( startDate, endDate, params.getPredictors(),
+                params.getPredictorGroups(), params.getParallelism(), progress );
+
+            progress.completedProcess( "Prediction done: " + predictionSummary );
+
+            return predictionSummary;
+        }
+        catch ( RuntimeException ex )
+        {
+            log.error( DebugUtils.getStackTrace( ex ) );
+
+            PredictionSummary predictionSummary = new PredictionSummary( PredictionStatus.ERROR,
+                "Predictions failed: " + ex.getMessage() );
+
+            progress.failedProcess( predictionSummary.getDescription() );
+
+            return predictionSummary;
+        }
+    }
+
     @Override
     public PredictionSummary predictAll( Date startDate, Date endDate, List<String> predictors,
         List<String> predictorGroups )
+    {
+        return predictAll( startDate, endDate, predictors, predictorGroups, 1, NoopJobProgress.INSTANCE );
+    }
+
+    @Override
+    public PredictionSummary predictAll( Date startDate, Date endDate, List<String> predictors,
+        List<String> predictorGroups, int parallelism, JobProgress progress )
     {
         List<Predictor> predictorList = new ArrayList<>();
 
@@ -204,11 +249,25 @@ public class DefaultPredictionService
         PredictionSummary predictionSummary = new PredictionSummary();
 
         log.info( "Running " + predictorList.size() + " predictors from " + startDate.toString() + " to "
-            + endDate.toString() );
+            + endDate.toString() + (parallelism > 1 ? " with parallelism " + parallelism : "") );
 
-        for ( Predictor predictor : predictorList )
+        if ( parallelism > 1 )
         {
-            predict( predictor, startDate, endDate, predictionSummary );
+            List<PredictorRun> runs = predictorList.stream()
+                .map( predictor -> getPredictorRun( predictor, startDate, endDate ) )
+                .collect( Collectors.toList() );
+
+            for ( List<PredictorRun> independentRuns : PredictionPartitioner.getIndependentRuns( runs ) )
+            {
+                predictInParallel( independentRuns, parallelism, predictionSummary, progress );
+            }
+        }
+        else
+        {
+            for ( Predictor predictor : predictorList )
+            {
+                predict( predictor, startDate, endDate, predictionSummary );
+            }
         }
 
         log.info( "Finished predictors from " + startDate.toString() + " to " + endDate.toString() + ": "
@@ -220,15 +279,225 @@ public class DefaultPredictionService
     @Override
     public void predict( Predictor predictor, Date startDate, Date endDate, PredictionSummary predictionSummary )
     {
-        Expression generator = predictor.getGenerator();
-        Expression skipTest = predictor.getSampleSkipTest();
-        DataElement outputDataElement = predictor.getOutput();
-        DataType expressionDataType = DataType.fromValueType( outputDataElement.getValueType() );
+        PredictorRun run = getPredictorRun( predictor, startDate, endDate );
+
+        PredictionDataConsolidator consolidator = getConsolidator( run );
+
+        PredictionWriter predictionWriter = new PredictionWriter( dataValueService, batchHandlerFactory );
+
+        predictionWriter.init( run.getExistingOutputPeriods(), predictionSummary );
+
+        predictionSummary.incrementPredictors();
+
+        for ( OrganisationUnitLevel orgUnitLevel : predictor.getOrganisationUnitLevels() )
+        {
+            predictOrgUnits( run, consolidator, predictionWriter, run.getCurrentUserOrgUnits(),
+                orgUnitLevel.getLevel(), getOrgUnits( run, orgUnitLevel ) );
+        }
+
+        predictionWriter.flush();
+    }
+
+    // -------------------------------------------------------------------------
+    // Parallel prediction
+    // -------------------------------------------------------------------------
+
+    /**
+     * Predicts independent predictor runs in parallel. Each run is split into
+     * partitions of organisation unit subtrees, and all partitions of all the
+     * runs are predicted as the work items of one stage.
+     * <p>
+     * Each partition writes through its own batch handler. Predictions into
+     * periods that did not exist before the transaction can't be written by
+     * the batch handlers, so they are deferred and added here once all
+     * partitions are done.
+     */
+    private void predictInParallel( List<PredictorRun> runs, int parallelism, PredictionSummary predictionSummary,
+        JobProgress progress )
+    {
+        List<PredictionWorkItem> workItems = new ArrayList<>();
+
+        for ( PredictorRun run : runs )
+        {
+            workItems.addAll( getWorkItems( run, parallelism * PARTITIONS_PER_THREAD ) );
+        }
+
+        progress.startingStage( "Predicting " + runs.size() + " predictors in " + workItems.size() + " partitions",
+            workItems.size() );
+
+        boolean successful = progress.runStageInParallel( parallelism, workItems, PredictionWorkItem::toString,
+            this::predictWorkItem );
+
+        if ( !successful )
+        {
+            throw new IllegalStateException( progress.isCancellationRequested()
+                ? "Predictions cancelled"
+                : "Predictions failed for one or more partitions" );
+        }
+
+        for ( PredictorRun run : runs )
+        {
+            predictionSummary.incrementPredictors();
+
+            run.getDeferredInserts().forEach( dataValueService::addDataValue );
+        }
+
+        workItems.forEach( workItem -> predictionSummary.add( workItem.getSummary() ) );
+    }
+
+    /**
+     * Gets the work items for a predictor run. A predictor that reads its own
+     * output at more than one organisation unit level gets a single work item,
+     * so that its levels are still predicted in order.
+     */
+    private List<PredictionWorkItem> getWorkItems( PredictorRun run, int partitionCount )
+    {
+        int minSplitLevel = run.getCurrentUserOrgUnits().stream()
+            .mapToInt( OrganisationUnit::getLevel ).max().orElse( 1 );
+
+        Set<OrganisationUnitLevel> orgUnitLevels = run.getPredictor().getOrganisationUnitLevels();
+
+        if ( run.isSelfReferencing() && orgUnitLevels.size() > 1 )
+        {
+            List<PredictionPartition> partitions = new ArrayList<>();
+
+            for ( OrganisationUnitLevel orgUnitLevel : orgUnitLevels )
+            {
+                partitions.addAll( PredictionPartitioner.getPartitions( getOrgUnits( run, orgUnitLevel ),
+                    orgUnitLevel.getLevel(), minSplitLevel, 1 ) );
+            }
+
+            return Lists.newArrayList( new PredictionWorkItem( run, partitions ) );
+        }
+
+        List<PredictionWorkItem> workItems = new ArrayList<>();
+
+        for ( OrganisationUnitLevel orgUnitLevel : orgUnitLevels )
+        {
+            for ( PredictionPartition partition : PredictionPartitioner.getPartitions(
+                getOrgUnits( run, orgUnitLevel ), orgUnitLevel.getLevel(), minSplitLevel, partitionCount ) )
+            {
+                workItems.add( new PredictionWorkItem( run, Lists.newArrayList( partition ) ) );
+            }
+        }
+
+        return workItems;
+    }
+
+    /**
+     * Predicts one work item, on a thread of the parallel stage. A Hibernate
+     * session is bound for the duration of the work item unless the thread
+     * already has one, and the objects of the run and partitions are loaded
+     * again in it.
+     */
+    private void predictWorkItem( PredictionWorkItem workItem )
+    {
+        boolean bindSession = !TransactionSynchronizationManager.hasResource( sessionFactory );
+
+        if ( bindSession )
+        {
+            DbmsUtils.bindSessionToThread( sessionFactory );
+        }
+
+        try
+        {
+            PredictorRun run = getWorkerRun( workItem.getRun() );
+
+            PredictionDataConsolidator consolidator = getConsolidator( run );
+
+            PredictionWriter predictionWriter = new PredictionWriter( dataValueService, batchHandlerFactory )
+                .setDeferredInserts( run.getDeferredInserts() );
+
+            predictionWriter.init( run.getExistingOutputPeriods(), workItem.getSummary() );
+
+            for ( PredictionPartition partition : workItem.getPartitions() )
+            {
+                predictOrgUnits( run, consolidator, predictionWriter,
+                    new HashSet<>( reloadOrgUnits( partition.getRoots() ) ),
+                    partition.getOrgUnitLevel(), reloadOrgUnits( partition.getOrgUnits() ) );
+            }
+
+            predictionWriter.flush();
+        }
+        finally
+        {
+            if ( bindSession )
+            {
+                DbmsUtils.unbindSessionFromThread( sessionFactory );
+            }
+        }
+    }
+
+    /**
+     * Gets a copy of a predictor run for a worker thread. Hibernate sessions
+     * can't be shared between threads, so the predictor, the objects of its
+     * expressions and the organisation units of the user are loaded again in
+     * the session of the worker thread. Periods have no lazy associations and
+     * are shared, as is the user of which only the username is read.
+     */
+    private PredictorRun getWorkerRun( PredictorRun run )
+    {
+        Predictor predictor = predictorService.getPredictor( run.getPredictor().getId() );
 
         ExpressionInfo exInfo = new ExpressionInfo();
         ExpressionParams baseExParams = getBaseExParams( predictor, exInfo );
 
-        Set<DimensionalItemObject> items = new HashSet<>( baseExParams.getItemMap().values() );
+        return getPredictorRun( run.toBuilder(), predictor, exInfo, baseExParams,
+            new HashSet<>( reloadOrgUnits( run.getCurrentUserOrgUnits() ) ) );
+    }
+
+    /**
+     * Loads the given organisation units in the session of the current thread,
+     * keeping their order.
+     */
+    private List<OrganisationUnit> reloadOrgUnits( Collection<OrganisationUnit> orgUnits )
+    {
+        if ( orgUnits.isEmpty() )
+        {
+            return new ArrayList<>();
+        }
+
+        Map<String, OrganisationUnit> reloaded = organisationUnitService.getOrganisationUnitsByUid(
+            orgUnits.stream().map( OrganisationUnit::getUid ).collect( Collectors.toList() ) ).stream()
+            .collect( Collectors.toMap( OrganisationUnit::getUid, ou -> ou ) );
+
+        return orgUnits.stream().map( ou -> reloaded.get( ou.getUid() ) ).collect( Collectors.toList() );
+    }
+
+    /**
+     * A predictor run and the partitions of it to predict as one work item,
+     * with the summary of what the work item wrote.
+     */
+    @Getter
+    @RequiredArgsConstructor
+    private static final class PredictionWorkItem
+    {
+        private final PredictorRun run;
+
+        private final List<PredictionPartition> partitions;
+
+        private final PredictionSummary summary = new PredictionSummary();
+
+        @Override
+        public String toString()
+        {
+            return run.getPredictor().getName() + ": " + partitions.stream()
+                .map( PredictionPartition::toString ).collect( Collectors.joining( "; " ) );
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Prediction
+    // -------------------------------------------------------------------------
+
+    /**
+     * Prepares everything needed to run a predictor.
+     */
+    private PredictorRun getPredictorRun( Predictor predictor, Date startDate, Date endDate )
+    {
+        ExpressionInfo exInfo = new ExpressionInfo();
+        ExpressionParams baseExParams = getBaseExParams( predictor, exInfo );
+
         List<Period> outputPeriods = getPeriodsBetweenDates( predictor.getPeriodType(), startDate, endDate );
         Set<Period> existingOutputPeriods = getExistingPeriods( outputPeriods );
         ListMap<Period, Period> samplePeriodsMap = getSamplePeriodsMap( outputPeriods, predictor );
@@ -236,6 +505,40 @@ public class DefaultPredictionService
         Set<Period> analyticsQueryPeriods = getAnalyticsQueryPeriods( exInfo, allSamplePeriods, existingOutputPeriods );
         Set<Period> dataValueQueryPeriods = getDataValueQueryPeriods( analyticsQueryPeriods, existingOutputPeriods );
         outputPeriods = periodService.reloadPeriods( outputPeriods );
+
+        Set<OrganisationUnit> currentUserOrgUnits = new HashSet<>();
+        User currentUser = currentUserService.getCurrentUser();
+
+        if ( currentUser != null )
+        {
+            currentUserOrgUnits = currentUser.getOrganisationUnits();
+        }
+
+        PredictorRun.PredictorRunBuilder builder = PredictorRun.builder()
+            .outputPeriods( outputPeriods )
+            .existingOutputPeriods( existingOutputPeriods )
+            .samplePeriodsMap( samplePeriodsMap )
+            .allSamplePeriods( allSamplePeriods )
+            .analyticsQueryPeriods( analyticsQueryPeriods )
+            .dataValueQueryPeriods( dataValueQueryPeriods )
+            .currentUser( currentUser );
+
+        return getPredictorRun( builder, predictor, exInfo, baseExParams, currentUserOrgUnits );
+    }
+
+    /**
+     * Completes a predictor run with the predictor and the objects reached
+     * from it, as loaded in the session of the current thread.
+     */
+    private PredictorRun getPredictorRun( PredictorRun.PredictorRunBuilder builder, Predictor predictor,
+        ExpressionInfo exInfo, ExpressionParams baseExParams, Set<OrganisationUnit> currentUserOrgUnits )
+    {
+        Expression generator = predictor.getGenerator();
+        DataElement outputDataElement = predictor.getOutput();
+        DataType expressionDataType = DataType.fromValueType( outputDataElement.getValueType() );
+
+        Set<DimensionalItemObject> items = new HashSet<>( baseExParams.getItemMap().values() );
+        Set<DataElement> inputDataElements = getDataElements( items );
         CategoryOptionCombo defaultCategoryOptionCombo = categoryService.getDefaultCategoryOptionCombo();
         CategoryOptionCombo outputOptionCombo = predictor.getOutputCombo() == null
             ? defaultCategoryOptionCombo
@@ -245,78 +548,95 @@ public class DefaultPredictionService
         boolean requireData = generator.getMissingValueStrategy() != NEVER_SKIP && (!items.isEmpty());
         DimensionalItemObject forwardReference = addOutputToItems( outputDataElementOperand, items );
 
-        Set<OrganisationUnit> currentUserOrgUnits = new HashSet<>();
-        User currentUser = currentUserService.getCurrentUser();
-
-        if ( currentUser != null )
-        {
-            currentUserOrgUnits = currentUser.getOrganisationUnits();
-        }
+        return builder
+            .predictor( predictor )
+            .exInfo( exInfo )
+            .baseExParams( baseExParams )
+            .expressionDataType( expressionDataType )
+            .items( items )
+            .inputDataElements( inputDataElements )
+            .defaultCategoryOptionCombo( defaultCategoryOptionCombo )
+            .outputOptionCombo( outputOptionCombo )
+            .outputDataElementOperand( outputDataElementOperand )
+            .requireData( requireData )
+            .forwardReference( forwardReference )
+            .currentUserOrgUnits( currentUserOrgUnits )
+            .build();
+    }
 
-        PredictionDataConsolidator consolidator = new PredictionDataConsolidator( items,
-            predictor.getOrganisationUnitDescendants().equals( DESCENDANTS ),
+    private PredictionDataConsolidator getConsolidator( PredictorRun run )
+    {
+        return new PredictionDataConsolidator( run.getItems(),
+            run.getPredictor().getOrganisationUnitDescendants().equals( DESCENDANTS ),
             new PredictionDataValueFetcher( dataValueService, categoryService ),
             new PredictionAnalyticsDataFetcher( analyticsService, categoryService ) );
+    }
 
-        PredictionWriter predictionWriter = new PredictionWriter( dataValueService, batchHandlerFactory );
+    private List<OrganisationUnit> getOrgUnits( PredictorRun run, OrganisationUnitLevel orgUnitLevel )
+    {
+        return organisationUnitService.getOrganisationUnitsAtOrgUnitLevels(
+            Lists.newArrayList( orgUnitLevel ), run.getCurrentUserOrgUnits() );
+    }
+
+    /**
+     * Predicts the organisation units at a level that are under the given
+     * roots, and writes the predictions.
+     */
+    private void predictOrgUnits( PredictorRun run, PredictionDataConsolidator consolidator,
+        PredictionWriter predictionWriter, Set<OrganisationUnit> roots, int orgUnitLevel,
+        List<OrganisationUnit> orgUnits )
+    {
+        Predictor predictor = run.getPredictor();
+        Expression generator = predictor.getGenerator();
+        Expression skipTest = predictor.getSampleSkipTest();
+        ExpressionParams baseExParams = run.getBaseExParams();
 
-        predictionWriter.init( existingOutputPeriods, predictionSummary );
+        consolidator.init( roots, orgUnitLevel, orgUnits, run.getDataValueQueryPeriods(),
+            run.getAnalyticsQueryPeriods(), run.getExistingOutputPeriods(), run.getOutputDataElementOperand() );
 
-        predictionSummary.incrementPredictors();
+        PredictionData data;
 
-        for ( OrganisationUnitLevel orgUnitLevel : predictor.getOrganisationUnitLevels() )
+        while ( (data = consolidator.getData()) != null )
         {
-            List<OrganisationUnit> orgUnits = organisationUnitService
-                .getOrganisationUnitsAtOrgUnitLevels( Lists.newArrayList( orgUnitLevel ), currentUserOrgUnits );
-
-            consolidator.init( currentUserOrgUnits, orgUnitLevel.getLevel(), orgUnits,
-                dataValueQueryPeriods, analyticsQueryPeriods, existingOutputPeriods, outputDataElementOperand );
+            List<DataValue> predictions = new ArrayList<>();
 
-            PredictionData data;
+            List<PredictionContext> contexts = PredictionContextGenerator.getContexts(
+                run.getOutputPeriods(), data.getValues(), run.getDefaultCategoryOptionCombo() );
 
-            while ( (data = consolidator.getData()) != null )
+            for ( PredictionContext c : contexts )
             {
-                List<DataValue> predictions = new ArrayList<>();
+                List<Period> samplePeriods = new ArrayList<>(
+                    run.getSamplePeriodsMap().get( c.getOutputPeriod() ) );
 
-                List<PredictionContext> contexts = PredictionContextGenerator.getContexts(
-                    outputPeriods, data.getValues(), defaultCategoryOptionCombo );
+                samplePeriods.removeAll( getSkippedPeriods( run.getAllSamplePeriods(), baseExParams,
+                    c.getPeriodValueMap(), skipTest, data.getOrgUnit() ) );
 
-                for ( PredictionContext c : contexts )
+                if ( !isEvaluationRequired( run.isRequireData(), run.getExInfo(), samplePeriods, c.getValueMap(),
+                    c.getPeriodValueMap(), baseExParams.getItemMap() ) )
                 {
-                    List<Period> samplePeriods = new ArrayList<>( samplePeriodsMap.get( c.getOutputPeriod() ) );
-
-                    samplePeriods.removeAll( getSkippedPeriods( allSamplePeriods, baseExParams, c.getPeriodValueMap(),
-                        skipTest, data.getOrgUnit() ) );
-
-                    if ( !isEvaluationRequired( requireData, exInfo, samplePeriods, c.getValueMap(),
-                        c.getPeriodValueMap(), baseExParams.getItemMap() ) )
-                    {
-                        continue;
-                    }
-
-                    Object value = expressionService.getExpressionValue( baseExParams.toBuilder()
-                        .expression( predictor.getGenerator().getExpression() )
-                        .parseType( PREDICTOR_EXPRESSION )
-                        .dataType( expressionDataType )
-                        .valueMap( c.getValueMap() )
-                        .days( c.getOutputPeriod().getDaysInPeriod() )
-                        .missingValueStrategy( generator.getMissingValueStrategy() )
-                        .orgUnit( data.getOrgUnit() )
-                        .samplePeriods( samplePeriods )
-                        .periodValueMap( c.getPeriodValueMap() )
-                        .build() );
-
-                    DataValue prediction = processPrediction( predictor, c, value, currentUser, outputOptionCombo,
-                        data.getOrgUnit() );
-
-                    rememberPredictedValue( prediction, predictions, contexts, forwardReference );
+                    continue;
                 }
 
-                predictionWriter.write( predictions, data.getOldPredictions() );
+                Object value = expressionService.getExpressionValue( baseExParams.toBuilder()
+                    .expression( generator.getExpression() )
+                    .parseType( PREDICTOR_EXPRESSION )
+                    .dataType( run.getExpressionDataType() )
+                    .valueMap( c.getValueMap() )
+                    .days( c.getOutputPeriod().getDaysInPeriod() )
+                    .missingValueStrategy( generator.getMissingValueStrategy() )
+                    .orgUnit( data.getOrgUnit() )
+                    .samplePeriods( samplePeriods )
+                    .periodValueMap( c.getPeriodValueMap() )
+                    .build() );
+
+                DataValue prediction = processPrediction( predictor, c, value, run.getCurrentUser(),
+                    run.getOutputOptionCombo(), data.getOrgUnit() );
+
+                rememberPredictedValue( prediction, predictions, contexts, run.getForwardReference() );
             }
-        }
 
-        predictionWriter.flush();
+            predictionWriter.write( predictions, data.getOldPredictions() );
+        }
     }
 
     // -------------------------------------------------------------------------
@@ -578,6 +898,29 @@ public class DefaultPredictionService
         return forwardReference;
     }
 
+    /**
+     * Gets the data elements read by the given items, either directly or
+     * through a data element operand.
+     */
+    private Set<DataElement> getDataElements( Set<DimensionalItemObject> items )
+    {
+        Set<DataElement> dataElements = new HashSet<>();
+
+        for ( DimensionalItemObject item : items )
+        {
+            if ( item instanceof DataElement )
+            {
+                dataElements.add( (DataElement) item );
+            }
+            else if ( item instanceof DataElementOperand )
+            {
+                dataElements.add( ((DataElementOperand) item).getDataElement() );
+            }
+        }
+
+        return dataElements;
+    }
+
     /**
      * Remember the prediction for writing out.
      * <p>
@@ -36,6 +36,8 @@ import static org.hisp.dhis.system.util.MathUtils.addDoubleObjects;
 import static org.hisp.dhis.system.util.ValidationUtils.getObjectValue;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -64,6 +66,8 @@ import org.hisp.dhis.datavalue.DeflatedDataValue;
 import org.hisp.dhis.organisationunit.OrganisationUnit;
 import org.hisp.dhis.period.Period;
 
+import com.google.common.collect.Lists;
+
 /**
  * Fetches DataValues for a prediction.
  * <p>
@@ -78,9 +82,10 @@ import org.hisp.dhis.period.Period;
  * <p>
  * This class maintains performance while limiting memory usage by using a
  * single data request (which means a single SQL query) on a separate thread
- * that provides results to this class through a blocking queue. This class then
- * collects data values until it has all the data for an organisation unit, and
- * then it returns them to the caller.
+ * that provides results to this class through a blocking queue, in batches of
+ * one organisation unit's data values. This class then collects data values
+ * until it has all the data for an organisation unit, and then it returns them
+ * to the caller.
  * <p>
  * The returned data values may optionally include deleted values, because
  * predictor processing needs to know where the former predicted values are
@@ -136,15 +141,16 @@ public class PredictionDataValueFetcher
 
     private ExecutorService executor;
 
-    private BlockingQueue<DeflatedDataValue> blockingQueue;
+    private BlockingQueue<List<DeflatedDataValue>> blockingQueue;
+
+    private Iterator<DeflatedDataValue> batchIterator;
 
     /**
-     * The blocking queue size was chosen after performance testing. A value of
-     * 1 performed slightly better than 2 or larger values. Since most of the
-     * values are just buffered after they are pulled from the queue, there is
-     * no benefit of incurring the slight overhead of a larger queue size.
+     * The queue holds batches of values, one organisation unit per batch. A
+     * size of 2 lets the producer fetch the next organisation unit while the
+     * current one is predicted, without buffering much more than that.
      */
-    private static final int DDV_BLOCKING_QUEUE_SIZE = 1;
+    private static final int DDV_BLOCKING_QUEUE_SIZE = 2;
 
     /**
      * Initializes for datavalue retrieval.
@@ -182,6 +188,8 @@ public class PredictionDataValueFetcher
 
         blockingQueue = new ArrayBlockingQueue<>( DDV_BLOCKING_QUEUE_SIZE );
 
+        batchIterator = Collections.emptyIterator();
+
         if ( isEmpty( dataElements ) && isEmpty( dataElementOperands ) )
         {
             nextOrgUnit = null; // There will be no data
@@ -311,13 +319,27 @@ public class PredictionDataValueFetcher
     }
 
     /**
-     * Dequeues the next {@see DeflatedDataValue} from the database feed
+     * Dequeues the next {@see DeflatedDataValue} from the database feed,
+     * taking the next batch from the queue when the current one is used up.
      */
     private DeflatedDataValue dequeueDeflatedDataValue()
     {
         try
         {
-            return blockingQueue.poll( DDV_QUEUE_TIMEOUT_VALUE, DDV_QUEUE_TIMEOUT_UNIT );
+            while ( !batchIterator.hasNext() )
+            {
+                List<DeflatedDataValue> batch = blockingQueue.poll( DDV_QUEUE_TIMEOUT_VALUE,
+                    DDV_QUEUE_TIMEOUT_UNIT );
+
+                if ( batch == null )
+                {
+                    return null;
+                }
+
+                batchIterator = batch.iterator();
+            }
+
+            return batchIterator.next();
         }
         catch ( InterruptedException e )
         {
@@ -490,7 +512,7 @@ public class PredictionDataValueFetcher
     {
         try
         {
-            blockingQueue.offer( END_OF_DDV_DATA, DDV_QUEUE_TIMEOUT_VALUE, DDV_QUEUE_TIMEOUT_UNIT );
+            blockingQueue.offer( Lists.newArrayList( END_OF_DDV_DATA ), DDV_QUEUE_TIMEOUT_VALUE, DDV_QUEUE_TIMEOUT_UNIT );
         }
         catch ( InterruptedException ex )
         {
@@ -0,0 +1,222 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.predictor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.hisp.dhis.dataelement.DataElement;
+import org.hisp.dhis.organisationunit.OrganisationUnit;
+
+/**
+ * Splits prediction work so it can be run in parallel: predictors into groups
+ * that do not depend on each other, and organisation units into subtrees.
+ */
+final class PredictionPartitioner
+{
+    /**
+     * Length of one uid segment in an organisation unit path.
+     */
+    private static final int PATH_SEGMENT_LENGTH = 12;
+
+    private PredictionPartitioner()
+    {
+        throw new UnsupportedOperationException( "util" );
+    }
+
+    /**
+     * Splits predictor runs into consecutive groups of runs that can be
+     * predicted at the same time. A run starts a new group if it reads a data
+     * element that a run in the current group writes, or writes a data
+     * element that a run in the current group reads or writes. This keeps the
+     * results the same as when the runs are predicted one after another.
+     *
+     * @param runs the predictor runs, in the order they would run.
+     * @return the groups of independent runs, in order.
+     */
+    static List<List<PredictorRun>> getIndependentRuns( List<PredictorRun> runs )
+    {
+        List<List<PredictorRun>> groups = new ArrayList<>();
+        List<PredictorRun> group = new ArrayList<>();
+        Set<DataElement> groupInputs = new HashSet<>();
+        Set<DataElement> groupOutputs = new HashSet<>();
+
+        for ( PredictorRun run : runs )
+        {
+            DataElement output = run.getPredictor().getOutput();
+
+            if ( !group.isEmpty() && (groupOutputs.contains( output ) || groupInputs.contains( output )
+                || !Collections.disjoint( run.getInputDataElements(), groupOutputs )) )
+            {
+                groups.add( group );
+                group = new ArrayList<>();
+                groupInputs.clear();
+                groupOutputs.clear();
+            }
+
+            group.add( run );
+            groupInputs.addAll( run.getInputDataElements() );
+            groupOutputs.add( output );
+        }
+
+        if ( !group.isEmpty() )
+        {
+            groups.add( group );
+        }
+
+        return groups;
+    }
+
+    /**
+     * Splits organisation units at one level into partitions of whole
+     * subtrees. The subtrees are rooted at the highest level (not above the
+     * minimum split level) that has at least as many organisation units as
+     * the partitions wanted, so that data values can be fetched for each
+     * partition with a few path prefixes. Subtrees are then packed in path
+     * order into partitions of about the same number of organisation units.
+     *
+     * @param orgUnits the organisation units at the level.
+     * @param orgUnitLevel the level of the organisation units.
+     * @param minSplitLevel the highest level at which subtrees may be rooted,
+     *        such as the lowest level of the current user organisation units.
+     * @param partitionCount the number of partitions wanted.
+     * @return the partitions, in path order.
+     */
+    static List<PredictionPartition> getPartitions( List<OrganisationUnit> orgUnits, int orgUnitLevel,
+        int minSplitLevel, int partitionCount )
+    {
+        if ( orgUnits.isEmpty() )
+        {
+            return new ArrayList<>();
+        }
+
+        Map<String, OrganisationUnit> pathMap = new TreeMap<>();
+
+        for ( OrganisationUnit orgUnit : orgUnits )
+        {
+            pathMap.put( orgUnit.getPath(), orgUnit );
+        }
+
+        int splitLevel = getSplitLevel( pathMap.keySet(), orgUnitLevel, minSplitLevel, partitionCount );
+
+        int targetSize = (pathMap.size() + partitionCount - 1) / partitionCount;
+
+        List<List<OrganisationUnit>> subtrees = new ArrayList<>();
+        String subtreePrefix = null;
+
+        for ( Map.Entry<String, OrganisationUnit> entry : pathMap.entrySet() )
+        {
+            String prefix = getPrefix( entry.getKey(), splitLevel );
+
+            if ( !prefix.equals( subtreePrefix ) )
+            {
+                subtrees.add( new ArrayList<>() );
+                subtreePrefix = prefix;
+            }
+
+            subtrees.get( subtrees.size() - 1 ).add( entry.getValue() );
+        }
+
+        List<PredictionPartition> partitions = new ArrayList<>();
+        Set<OrganisationUnit> roots = new LinkedHashSet<>();
+        List<OrganisationUnit> partitionOrgUnits = new ArrayList<>();
+
+        for ( List<OrganisationUnit> subtree : subtrees )
+        {
+            if ( !partitionOrgUnits.isEmpty() && partitionOrgUnits.size() + subtree.size() > targetSize )
+            {
+                partitions.add( new PredictionPartition( orgUnitLevel, roots, partitionOrgUnits ) );
+                roots = new LinkedHashSet<>();
+                partitionOrgUnits = new ArrayList<>();
+            }
+
+            roots.add( getAncestor( subtree.get( 0 ), orgUnitLevel - splitLevel ) );
+            partitionOrgUnits.addAll( subtree );
+        }
+
+        partitions.add( new PredictionPartition( orgUnitLevel, roots, partitionOrgUnits ) );
+
+        return partitions;
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive Methods
+    // -------------------------------------------------------------------------
+
+    /**
+     * Finds the highest level, from the minimum split level down to the level
+     * of the organisation units, that has at least the wanted number of
+     * subtrees.
+     */
+    private static int getSplitLevel( Set<String> paths, int orgUnitLevel, int minSplitLevel, int partitionCount )
+    {
+        int splitLevel = Math.min( Math.max( minSplitLevel, 1 ), orgUnitLevel );
+
+        while ( splitLevel < orgUnitLevel && countPrefixes( paths, splitLevel ) < partitionCount )
+        {
+            splitLevel++;
+        }
+
+        return splitLevel;
+    }
+
+    private static int countPrefixes( Set<String> paths, int level )
+    {
+        Set<String> prefixes = new HashSet<>();
+
+        for ( String path : paths )
+        {
+            prefixes.add( getPrefix( path, level ) );
+        }
+
+        return prefixes.size();
+    }
+
+    private static String getPrefix( String path, int level )
+    {
+        return path.substring( 0, Math.min( path.length(), level * PATH_SEGMENT_LENGTH ) );
+    }
+
+    private static OrganisationUnit getAncestor( OrganisationUnit orgUnit, int generations )
+    {
+        OrganisationUnit ancestor = orgUnit;
+
+        for ( int i = 0; i < generations && ancestor.getParent() != null; i++ )
+        {
+            ancestor = ancestor.getParent();
+        }
+
+        return ancestor;
+    }
+}
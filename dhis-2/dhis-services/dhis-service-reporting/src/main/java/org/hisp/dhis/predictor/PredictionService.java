@@ -31,6 +31,7 @@ import java.util.Date;
 import java.util.List;
 
 import org.hisp.dhis.scheduling.JobConfiguration;
+import org.hisp.dhis.scheduling.JobProgress;
 import org.hisp.dhis.scheduling.parameters.PredictorJobParameters;
 
 /**
@@ -39,13 +40,13 @@ import org.hisp.dhis.scheduling.parameters.PredictorJobParameters;
 public interface PredictionService
 {
     /**
-     * Executes a predictor job run
+     * Executes a predictor job run, reporting progress
      *
      * @param predictorJobParameters parameters for the predictor job run
-     * @param jobId associated with the task running (for notifier)
+     * @param progress to track progress of the run
      * @return a summary of what was predicted
      */
-    PredictionSummary predictJob( PredictorJobParameters predictorJobParameters, JobConfiguration jobId );
+    PredictionSummary predictJob( PredictorJobParameters predictorJobParameters, JobProgress progress );
 
     /**
      * Executes predictors and/or predictor groups for a date range in a job
@@ -72,6 +73,22 @@ public interface PredictionService
     PredictionSummary predictAll( Date startDate, Date endDate,
         List<String> predictors, List<String> predictorGroups );
 
+    /**
+     * Executes predictors and/or predictor groups for a date range. With a
+     * parallelism greater than one, predictors that do not depend on each
+     * other and subtrees of organisation units are predicted in parallel.
+     *
+     * @param startDate the start date of the predictor run
+     * @param endDate the end date of the predictor run
+     * @param predictors predictor(s) to run
+     * @param predictorGroups predictor group(s) to run
+     * @param parallelism the number of threads to predict with
+     * @param progress to track progress of the run
+     * @return a summary of what was predicted
+     */
+    PredictionSummary predictAll( Date startDate, Date endDate,
+        List<String> predictors, List<String> predictorGroups, int parallelism, JobProgress progress );
+
     /**
      * Executes a single predictor for a date range
      *
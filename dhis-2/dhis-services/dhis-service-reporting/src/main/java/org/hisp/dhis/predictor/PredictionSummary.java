@@ -89,6 +89,20 @@ public class PredictionSummary extends AbstractWebMessageResponse
         unchanged += 1;
     }
 
+    /**
+     * Adds the inserted, updated, deleted and unchanged counts of another
+     * summary, such as one collected by a parallel prediction partition.
+     *
+     * @param other the summary to add.
+     */
+    public void add( PredictionSummary other )
+    {
+        inserted += other.inserted;
+        updated += other.updated;
+        deleted += other.deleted;
+        unchanged += other.unchanged;
+    }
+
     public int getPredictions()
     {
         return inserted + updated + unchanged;
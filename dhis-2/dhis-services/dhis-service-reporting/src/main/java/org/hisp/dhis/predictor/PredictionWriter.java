@@ -32,6 +32,7 @@ import static org.hisp.dhis.system.util.ValidationUtils.dataValueIsZeroAndInsign
 
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -61,6 +62,8 @@ public class PredictionWriter
 
     private PredictionSummary summary;
 
+    private Queue<DataValue> deferredInserts;
+
     public PredictionWriter( DataValueService dataValueService, BatchHandlerFactory batchHandlerFactory )
     {
         checkNotNull( dataValueService );
@@ -84,6 +87,21 @@ public class PredictionWriter
         dataValueBatchHandler = batchHandlerFactory.createBatchHandler( DataValueBatchHandler.class ).init();
     }
 
+    /**
+     * Defers inserts into periods that did not exist before the transaction to
+     * the given queue instead of adding them through the dataValueService.
+     * This lets predictions be written from threads other than the one holding
+     * the transaction; the caller adds the deferred values afterwards.
+     *
+     * @param deferredInserts queue to which to add the deferred inserts.
+     * @return this object (for method chaining).
+     */
+    public PredictionWriter setDeferredInserts( Queue<DataValue> deferredInserts )
+    {
+        this.deferredInserts = deferredInserts;
+        return this;
+    }
+
     /**
      * Writes a List of predicted data values.
      * <p>
@@ -183,6 +201,10 @@ public class PredictionWriter
         {
             dataValueBatchHandler.addObject( prediction );
         }
+        else if ( deferredInserts != null )
+        {
+            deferredInserts.add( prediction );
+        }
         else
         {
             dataValueService.addDataValue( prediction );
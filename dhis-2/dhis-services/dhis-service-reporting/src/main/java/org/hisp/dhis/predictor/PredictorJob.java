@@ -67,6 +67,6 @@ public class PredictorJob implements Job
             throw new IllegalStateException( "No job parameters present in predictor job" );
         }
 
-        predictionService.predictJob( predictorJobParameters, null );
+        predictionService.predictJob( predictorJobParameters, progress );
     }
 }
@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.predictor;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import org.hisp.dhis.analytics.DataType;
+import org.hisp.dhis.category.CategoryOptionCombo;
+import org.hisp.dhis.common.DimensionalItemObject;
+import org.hisp.dhis.common.ListMap;
+import org.hisp.dhis.dataelement.DataElement;
+import org.hisp.dhis.dataelement.DataElementOperand;
+import org.hisp.dhis.datavalue.DataValue;
+import org.hisp.dhis.expression.ExpressionInfo;
+import org.hisp.dhis.expression.ExpressionParams;
+import org.hisp.dhis.organisationunit.OrganisationUnit;
+import org.hisp.dhis.period.Period;
+import org.hisp.dhis.user.User;
+
+/**
+ * Everything that is prepared once for running a predictor, before predictions
+ * are made for its organisation units.
+ * <p>
+ * After it is built, the run is only read. Partitions of a predictor that are
+ * predicted in parallel each use a copy with the objects loaded again in the
+ * session of their thread, sharing the periods and the deferred inserts.
+ */
+@Getter
+@Builder( toBuilder = true )
+class PredictorRun
+{
+    private final Predictor predictor;
+
+    private final ExpressionInfo exInfo;
+
+    private final ExpressionParams baseExParams;
+
+    private final DataType expressionDataType;
+
+    /**
+     * Items to fetch, including the output data element operand.
+     */
+    private final Set<DimensionalItemObject> items;
+
+    /**
+     * Data elements read by the predictor expressions, excluding the output
+     * data element operand added to the items.
+     */
+    private final Set<DataElement> inputDataElements;
+
+    private final List<Period> outputPeriods;
+
+    private final Set<Period> existingOutputPeriods;
+
+    private final ListMap<Period, Period> samplePeriodsMap;
+
+    private final Set<Period> allSamplePeriods;
+
+    private final Set<Period> analyticsQueryPeriods;
+
+    private final Set<Period> dataValueQueryPeriods;
+
+    private final CategoryOptionCombo defaultCategoryOptionCombo;
+
+    private final CategoryOptionCombo outputOptionCombo;
+
+    private final DataElementOperand outputDataElementOperand;
+
+    private final boolean requireData;
+
+    private final DimensionalItemObject forwardReference;
+
+    private final User currentUser;
+
+    private final Set<OrganisationUnit> currentUserOrgUnits;
+
+    /**
+     * Predictions into periods that did not exist before the transaction,
+     * deferred by partitions predicted in parallel.
+     */
+    @Builder.Default
+    private final Queue<DataValue> deferredInserts = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Returns true if the predictor reads its own output data element.
+     */
+    public boolean isSelfReferencing()
+    {
+        return inputDataElements.contains( predictor.getOutput() );
+    }
+}
@@ -404,7 +404,7 @@ public class DataValidationTask
     {
         if ( validationResults.size() > 0 )
         {
-            context.getValidationResults().addAll( validationResults );
+            context.addValidationResults( validationResults );
         }
     }
 
@@ -68,6 +68,7 @@ import org.hisp.dhis.period.PeriodService;
 import org.hisp.dhis.period.PeriodType;
 import org.hisp.dhis.program.AnalyticsType;
 import org.hisp.dhis.program.ProgramIndicator;
+import org.hisp.dhis.scheduling.JobProgress;
 import org.hisp.dhis.system.util.Clock;
 import org.hisp.dhis.user.CurrentUserService;
 import org.hisp.dhis.user.CurrentUserServiceTarget;
@@ -168,20 +169,9 @@ public class DefaultValidationService
     @Override
     public List<ValidationResult> validationAnalysis( ValidationAnalysisParams parameters )
     {
-        Clock clock = new Clock( log ).startClock().logTime( "Starting validation analysis"
-            + (parameters.getOrgUnit() == null ? ""
-                : " for orgUnit " + parameters.getOrgUnit().getUid()
-                    + (parameters.isIncludeOrgUnitDescendants() ? " with descendants" : ""))
-            + ", "
-            + (parameters.getPeriods().size() == 1
-                ? "period " + Iterables.getOnlyElement( parameters.getPeriods() ).getIsoDate()
-                : parameters.getPeriods().size() + " periods")
-            + ", "
-            + parameters.getValidationRules().size() + " rules"
-            + (parameters.isPersistResults() ? ", persisting results" : "")
-            + (parameters.isSendNotifications() ? ", sending notifications" : "") );
+        Clock clock = new Clock( log ).startClock().logTime( getStartingMessage( parameters ) );
 
-        ValidationRunContext context = getValidationContext( parameters );
+        ValidationRunContext context = getValidationContext( parameters, false );
 
         clock.logTime( "Initialized validation analysis" );
 
@@ -192,7 +182,7 @@ public class DefaultValidationService
             validationResultService.saveValidationResults( context.getValidationResults() );
         }
 
-        clock.logTime( "Finished validation analysis, " + context.getValidationResults().size() + " results" ).stop();
+        clock.logTime( "Finished validation analysis, " + context.getResultCount() + " results" ).stop();
 
         if ( context.isSendNotifications() )
         {
@@ -202,10 +192,39 @@ public class DefaultValidationService
         return results;
     }
 
+    @Override
+    public List<ValidationResult> validationAnalysis( ValidationAnalysisParams parameters, JobProgress progress )
+    {
+        Clock clock = new Clock( log ).startClock().logTime( getStartingMessage( parameters ) );
+
+        progress.startingStage( "Initializing validation analysis" );
+
+        ValidationRunContext context = progress.runStage( null,
+            () -> getValidationContext( parameters, parameters.isPersistResults() ) );
+
+        if ( context == null )
+        {
+            return List.of();
+        }
+
+        List<ValidationResult> results = Validator.validate( context, applicationContext, analyticsService,
+            progress, validationResultService::saveValidationResults );
+
+        clock.logTime( "Finished validation analysis, " + context.getResultCount() + " results" ).stop();
+
+        if ( context.isSendNotifications() && !progress.isCancellationRequested() )
+        {
+            progress.startingStage( "Sending validation notifications" );
+            progress.runStage( () -> notificationService.sendNotifications( Sets.newHashSet( results ) ) );
+        }
+
+        return results;
+    }
+
     @Override
     public ValidationRuleExpressionDetails getValidationRuleExpressionDetails( ValidationAnalysisParams parameters )
     {
-        ValidationRunContext context = getValidationContext( parameters );
+        ValidationRunContext context = getValidationContext( parameters, false );
 
         ValidationRuleExpressionDetails details = new ValidationRuleExpressionDetails();
 
@@ -284,15 +303,33 @@ public class DefaultValidationService
     // Supportive methods
     // -------------------------------------------------------------------------
 
+    private String getStartingMessage( ValidationAnalysisParams parameters )
+    {
+        return "Starting validation analysis"
+            + (parameters.getOrgUnit() == null ? ""
+                : " for orgUnit " + parameters.getOrgUnit().getUid()
+                    + (parameters.isIncludeOrgUnitDescendants() ? " with descendants" : ""))
+            + ", "
+            + (parameters.getPeriods().size() == 1
+                ? "period " + Iterables.getOnlyElement( parameters.getPeriods() ).getIsoDate()
+                : parameters.getPeriods().size() + " periods")
+            + ", "
+            + parameters.getValidationRules().size() + " rules"
+            + (parameters.isPersistResults() ? ", persisting results" : "")
+            + (parameters.isSendNotifications() ? ", sending notifications" : "");
+    }
+
     /**
      * Returns a new Builder with basic configuration based on the input
      * parameters.
      *
      * @param parameters ValidationRuleParameters for creating
      *        ValidationRuleContext
+     * @param streamResults whether results are persisted while the analysis
+     *        is running.
      * @return Builder with basic configuration based on input.
      */
-    private ValidationRunContext getValidationContext( ValidationAnalysisParams parameters )
+    private ValidationRunContext getValidationContext( ValidationAnalysisParams parameters, boolean streamResults )
     {
         User currentUser = currentUserService.getCurrentUser();
 
@@ -330,6 +367,7 @@ public class DefaultValidationService
                     parameters.getPeriods() ) )
             .withSendNotifications( parameters.isSendNotifications() )
             .withPersistResults( parameters.isPersistResults() )
+            .withStreamResults( streamResults )
             .withAttributeCombo( parameters.getAttributeOptionCombo() )
             .withDefaultAttributeCombo( categoryService.getDefaultCategoryOptionCombo() )
             .withBaseExParams( baseExParams )
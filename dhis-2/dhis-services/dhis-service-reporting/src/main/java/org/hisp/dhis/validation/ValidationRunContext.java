@@ -35,6 +35,7 @@ import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.lang3.Validate;
 import org.hisp.dhis.category.CategoryOption;
@@ -91,6 +92,12 @@ public class ValidationRunContext
 
     private boolean persistResults = false;
 
+    private boolean streamResults = false;
+
+    private final Queue<ValidationResult> unpersistedResults = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger resultCount = new AtomicInteger();
+
     private MapMapMap<OrganisationUnit, ValidationRule, Period, List<ValidationResult>> initialValidationResults = new MapMapMap<>();
 
     private ValidationRunContext()
@@ -182,11 +189,43 @@ public class ValidationRunContext
         return persistResults;
     }
 
+    /**
+     * Gets the results found. If results are streamed, they are only kept
+     * here when notifications are sent for them.
+     *
+     * @return the queue of results found.
+     */
     public Queue<ValidationResult> getValidationResults()
     {
         return validationResults;
     }
 
+    public boolean isStreamResults()
+    {
+        return streamResults;
+    }
+
+    /**
+     * Gets the results found which are not yet persisted, if results are
+     * streamed.
+     *
+     * @return the queue of results not yet persisted.
+     */
+    public Queue<ValidationResult> getUnpersistedResults()
+    {
+        return unpersistedResults;
+    }
+
+    /**
+     * Gets the number of results found, including streamed results.
+     *
+     * @return the number of results found.
+     */
+    public int getResultCount()
+    {
+        return resultCount.get();
+    }
+
     public Map<Long, Period> getPeriodIdMap()
     {
         return periodIdMap;
@@ -240,7 +279,7 @@ public class ValidationRunContext
 
     public boolean isAnalysisComplete()
     {
-        return validationResults.size() >= maxResults;
+        return resultCount.get() >= maxResults;
     }
 
     public boolean processExpressionDetails()
@@ -248,6 +287,27 @@ public class ValidationRunContext
         return validationRuleExpressionDetails != null;
     }
 
+    /**
+     * Adds results found by a validation task. Streamed results are only kept
+     * until they are persisted, unless notifications are sent for them.
+     *
+     * @param results the validation results.
+     */
+    public void addValidationResults( Collection<ValidationResult> results )
+    {
+        resultCount.addAndGet( results.size() );
+
+        if ( !streamResults || sendNotifications )
+        {
+            validationResults.addAll( results );
+        }
+
+        if ( streamResults )
+        {
+            unpersistedResults.addAll( results );
+        }
+    }
+
     // -------------------------------------------------------------------------
     // Builder
     // -------------------------------------------------------------------------
@@ -371,6 +431,16 @@ public class ValidationRunContext
             return this;
         }
 
+        /**
+         * @param streamResults whether results are persisted in batches while
+         *        the analysis is running.
+         */
+        public Builder withStreamResults( boolean streamResults )
+        {
+            this.context.streamResults = streamResults;
+            return this;
+        }
+
         public Builder withItemMap( Map<DimensionalItemId, DimensionalItemObject> itemMap )
         {
             this.context.itemMap = itemMap;
@@ -29,16 +29,31 @@ package org.hisp.dhis.validation;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+import lombok.extern.slf4j.Slf4j;
+
+import org.apache.commons.lang3.StringUtils;
 import org.hisp.dhis.analytics.AnalyticsService;
 import org.hisp.dhis.category.CategoryService;
 import org.hisp.dhis.commons.util.SystemUtils;
 import org.hisp.dhis.organisationunit.OrganisationUnit;
+import org.hisp.dhis.scheduling.JobProgress;
 import org.springframework.context.ApplicationContext;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.google.common.collect.Lists;
 
@@ -47,8 +62,26 @@ import com.google.common.collect.Lists;
  *
  * @author Jim Grace
  */
+@Slf4j
 public class Validator
 {
+    /**
+     * Smallest number of organisation units evaluated by a single task in a
+     * fork-join validation run.
+     */
+    static final int MIN_ORG_UNITS_PER_TASK = 20;
+
+    /**
+     * Number of tasks per thread a fork-join validation run aims for, to leave
+     * enough tasks for idle threads to steal.
+     */
+    private static final int TASKS_PER_THREAD = 4;
+
+    /**
+     * Number of results persisted in a single batch when streaming results.
+     */
+    static final int RESULT_BATCH_SIZE = 1000;
+
     /**
      * Evaluates validation rules for a collection of organisation units. This
      * method breaks the job down by organisation unit. It assigns the
@@ -65,7 +98,7 @@ public class Validator
     {
         CategoryService categoryService = applicationContext.getBean( CategoryService.class );
 
-        int threadPoolSize = getThreadPoolSize( context );
+        int threadPoolSize = getThreadPoolSize( context.getNumberOfTasks() );
 
         if ( threadPoolSize == 0 || context.getPeriodTypeXs().isEmpty() )
         {
@@ -101,13 +134,325 @@ public class Validator
         return new ArrayList<>( context.getValidationResults() );
     }
 
+    /**
+     * Evaluates validation rules for a collection of organisation units using a
+     * work-stealing {@link ForkJoinPool}. The organisation units are sorted by
+     * path and split recursively, preferably at subtree boundaries, until a
+     * task is small enough to be evaluated directly. Idle threads steal the
+     * remaining halves of larger tasks, so that uneven hierarchies do not leave
+     * threads waiting for a single large chunk.
+     * <p/>
+     * If the context streams results, results are passed to the given
+     * persister in batches as tasks finish, each batch in a new transaction
+     * with its attribute option combos reloaded. A batch that fails to persist
+     * is put back and retried with the next batch. Streamed results are only
+     * returned if notifications are sent for them. Each evaluated task is
+     * reported as a work item to the given {@link JobProgress}, and no further
+     * tasks are started once cancellation is requested.
+     *
+     * @return a collection of any validations that were found
+     */
+    public static List<ValidationResult> validate( ValidationRunContext context,
+        ApplicationContext applicationContext, AnalyticsService analyticsService, JobProgress progress,
+        Consumer<List<ValidationResult>> persister )
+    {
+        CategoryService categoryService = applicationContext.getBean( CategoryService.class );
+
+        int threadPoolSize = getThreadPoolSize(
+            (context.getOrgUnits().size() + MIN_ORG_UNITS_PER_TASK - 1) / MIN_ORG_UNITS_PER_TASK );
+
+        if ( threadPoolSize == 0 || context.getPeriodTypeXs().isEmpty() )
+        {
+            return new ArrayList<>( context.getValidationResults() );
+        }
+
+        Map<OrganisationUnit, String> paths = context.getOrgUnits().stream()
+            .collect( Collectors.toMap( Function.identity(), ou -> StringUtils.defaultString( ou.getPath() ),
+                ( a, b ) -> a ) );
+
+        List<OrganisationUnit> orgUnits = new ArrayList<>( paths.keySet() );
+        orgUnits.sort( Comparator.comparing( paths::get ) );
+
+        List<String[]> pathSegments = orgUnits.stream()
+            .map( ou -> StringUtils.split( paths.get( ou ), '/' ) )
+            .collect( Collectors.toList() );
+
+        int leafSize = getLeafSize( orgUnits.size(), threadPoolSize );
+
+        ForkJoinRun run = new ForkJoinRun( context, applicationContext, analyticsService,
+            progress, persister, leafSize );
+
+        progress.startingStage( "Validating " + orgUnits.size() + " organisation units using "
+            + threadPoolSize + " threads", (orgUnits.size() + leafSize - 1) / leafSize );
+
+        ForkJoinPool pool = new ForkJoinPool( threadPoolSize );
+
+        try
+        {
+            pool.invoke( new SubtreeValidationTask( run, orgUnits, pathSegments ) );
+        }
+        finally
+        {
+            pool.shutdown();
+        }
+
+        try
+        {
+            run.persist( true );
+
+            if ( run.failures.get() > 0 )
+            {
+                progress.failedStage( run.failures.get() + " validation tasks failed" );
+            }
+            else
+            {
+                progress.completedStage( context.getResultCount() + " results" );
+            }
+        }
+        catch ( RuntimeException ex )
+        {
+            log.error( "Persisting validation results failed", ex );
+
+            progress.failedStage( ex );
+        }
+
+        reloadAttributeOptionCombos( context.getValidationResults(), categoryService );
+
+        return new ArrayList<>( context.getValidationResults() );
+    }
+
+    /**
+     * Returns the number of organisation units below which a fork-join task is
+     * not split further, aiming at {@link #TASKS_PER_THREAD} tasks per thread
+     * within the bounds of {@link #MIN_ORG_UNITS_PER_TASK} and
+     * {@link ValidationRunContext#ORG_UNITS_PER_TASK}.
+     */
+    static int getLeafSize( int orgUnits, int threadPoolSize )
+    {
+        int leafSize = orgUnits / (threadPoolSize * TASKS_PER_THREAD);
+
+        return Math.max( MIN_ORG_UNITS_PER_TASK, Math.min( ValidationRunContext.ORG_UNITS_PER_TASK, leafSize ) );
+    }
+
+    /**
+     * Returns the index at which organisation units, sorted by path, should be
+     * split. This is the start of the subtree below their lowest common
+     * ancestor which is closest to the middle, if it lies within the middle
+     * half of the list, otherwise the middle.
+     *
+     * @param pathSegments path segments of the organisation units sorted by
+     *        path.
+     * @return the index of the first organisation unit of the second half.
+     */
+    static int getSplitIndex( List<String[]> pathSegments )
+    {
+        int size = pathSegments.size();
+        int mid = size / 2;
+
+        String[] first = pathSegments.get( 0 );
+        String[] last = pathSegments.get( size - 1 );
+
+        int depth = 0;
+
+        while ( depth < first.length && depth < last.length && first[depth].equals( last[depth] ) )
+        {
+            depth++;
+        }
+
+        int best = -1;
+        String previous = getPathSegment( first, depth );
+
+        for ( int i = 1; i < size; i++ )
+        {
+            String current = getPathSegment( pathSegments.get( i ), depth );
+
+            if ( !Objects.equals( previous, current ) && (best == -1 || Math.abs( i - mid ) < Math.abs( best - mid )) )
+            {
+                best = i;
+            }
+
+            previous = current;
+        }
+
+        return best >= size / 4 && best <= size - size / 4 ? best : mid;
+    }
+
+    private static String getPathSegment( String[] segments, int depth )
+    {
+        return depth < segments.length ? segments[depth] : null;
+    }
+
+    /**
+     * State shared by all tasks of a validation run.
+     */
+    private static class ForkJoinRun
+    {
+        private final ValidationRunContext context;
+
+        private final ApplicationContext applicationContext;
+
+        private final AnalyticsService analyticsService;
+
+        private final JobProgress progress;
+
+        private final Consumer<List<ValidationResult>> persister;
+
+        private final CategoryService categoryService;
+
+        private final TransactionTemplate transactionTemplate;
+
+        private final int leafSize;
+
+        private final AtomicInteger failures = new AtomicInteger();
+
+        private ForkJoinRun( ValidationRunContext context, ApplicationContext applicationContext,
+            AnalyticsService analyticsService, JobProgress progress, Consumer<List<ValidationResult>> persister,
+            int leafSize )
+        {
+            this.context = context;
+            this.applicationContext = applicationContext;
+            this.analyticsService = analyticsService;
+            this.progress = progress;
+            this.persister = persister;
+            this.leafSize = leafSize;
+            this.categoryService = applicationContext.getBean( CategoryService.class );
+            this.transactionTemplate = new TransactionTemplate(
+                applicationContext.getBean( TransactionTemplate.class ).getTransactionManager() );
+            this.transactionTemplate.setPropagationBehavior( TransactionDefinition.PROPAGATION_REQUIRES_NEW );
+        }
+
+        /**
+         * Persists unpersisted results in batches. Unless all results are
+         * to be persisted, only full batches are persisted. If a batch fails
+         * to persist, its results are put back to be retried and the exception
+         * is rethrown.
+         *
+         * @param all whether to persist the last incomplete batch.
+         */
+        private void persist( boolean all )
+        {
+            if ( !context.isStreamResults() )
+            {
+                return;
+            }
+
+            while ( all || context.getUnpersistedResults().size() >= RESULT_BATCH_SIZE )
+            {
+                List<ValidationResult> batch = new ArrayList<>( RESULT_BATCH_SIZE );
+
+                ValidationResult result;
+
+                while ( batch.size() < RESULT_BATCH_SIZE
+                    && (result = context.getUnpersistedResults().poll()) != null )
+                {
+                    batch.add( result );
+                }
+
+                if ( batch.isEmpty() )
+                {
+                    return;
+                }
+
+                try
+                {
+                    transactionTemplate.executeWithoutResult( status -> {
+                        reloadAttributeOptionCombos( batch, categoryService );
+                        persister.accept( batch );
+                    } );
+                }
+                catch ( RuntimeException ex )
+                {
+                    context.getUnpersistedResults().addAll( batch );
+                    throw ex;
+                }
+            }
+        }
+    }
+
+    /**
+     * Fork-join task evaluating validation rules for a range of organisation
+     * units sorted by path.
+     */
+    private static class SubtreeValidationTask
+        extends RecursiveAction
+    {
+        private final ForkJoinRun run;
+
+        private final List<OrganisationUnit> orgUnits;
+
+        private final List<String[]> pathSegments;
+
+        private SubtreeValidationTask( ForkJoinRun run, List<OrganisationUnit> orgUnits,
+            List<String[]> pathSegments )
+        {
+            this.run = run;
+            this.orgUnits = orgUnits;
+            this.pathSegments = pathSegments;
+        }
+
+        @Override
+        protected void compute()
+        {
+            if ( run.progress.isCancellationRequested() || run.context.isAnalysisComplete() )
+            {
+                return;
+            }
+
+            if ( orgUnits.size() <= run.leafSize )
+            {
+                validate();
+                return;
+            }
+
+            int split = getSplitIndex( pathSegments );
+            int size = orgUnits.size();
+
+            invokeAll(
+                new SubtreeValidationTask( run, orgUnits.subList( 0, split ), pathSegments.subList( 0, split ) ),
+                new SubtreeValidationTask( run, orgUnits.subList( split, size ), pathSegments.subList( split, size ) ) );
+        }
+
+        private void validate()
+        {
+            run.progress.startingWorkItem( orgUnits.size() + " organisation units from "
+                + orgUnits.get( 0 ).getUid() );
+
+            try
+            {
+                ValidationTask task = (ValidationTask) run.applicationContext.getBean( DataValidationTask.NAME );
+                task.init( orgUnits, run.context, run.analyticsService );
+                task.run();
+            }
+            catch ( RuntimeException ex )
+            {
+                log.error( "Validation task failed", ex );
+
+                run.failures.incrementAndGet();
+                run.progress.failedWorkItem( ex );
+                return;
+            }
+
+            try
+            {
+                run.persist( false );
+            }
+            catch ( RuntimeException ex )
+            {
+                log.warn( "Persisting validation results failed, retrying with the next batch", ex );
+            }
+
+            run.progress.completedWorkItem( null );
+        }
+    }
+
     /**
      * Determines how many threads we should use for testing validation rules.
      *
-     * @param context validation run context
+     * @param maxTasks the largest number of tasks the validation can be split
+     *        into
      * @return number of threads we should use for testing validation rules
      */
-    private static int getThreadPoolSize( ValidationRunContext context )
+    private static int getThreadPoolSize( int maxTasks )
     {
         int threadPoolSize = SystemUtils.getCpuCores();
 
@@ -116,14 +461,7 @@ public class Validator
             threadPoolSize--;
         }
 
-        int numberOfTasks = context.getNumberOfTasks();
-
-        if ( threadPoolSize > numberOfTasks )
-        {
-            threadPoolSize = numberOfTasks;
-        }
-
-        return threadPoolSize;
+        return Math.min( threadPoolSize, maxTasks );
     }
 
     /**
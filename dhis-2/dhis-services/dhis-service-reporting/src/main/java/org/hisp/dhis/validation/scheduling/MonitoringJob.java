@@ -161,7 +161,7 @@ public class MonitoringJob implements Job
                 .withPersistResults( monitoringJobParameters.isPersistResults() )
                 .build();
 
-            validationService.validationAnalysis( parameters );
+            validationService.validationAnalysis( parameters, progress );
 
             notifier.notify( jobConfiguration, INFO, "Monitoring process done", true );
         }
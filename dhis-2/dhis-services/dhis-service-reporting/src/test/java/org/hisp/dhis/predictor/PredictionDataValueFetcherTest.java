@@ -324,16 +324,12 @@ class PredictionDataValueFetcherTest
         when( categoryService.getCategoryOptionCombo( aocD.getId() ) ).thenReturn( aocD );
 
         when( dataValueService.getDeflatedDataValues( any( DataExportParams.class ) ) ).thenAnswer( p -> {
-            BlockingQueue<DeflatedDataValue> blockingQueue = ((DataExportParams) p.getArgument( 0 )).getBlockingQueue();
-            blockingQueue.put( deflatedDataValueA );
-            blockingQueue.put( deflatedDataValueAB );
-            blockingQueue.put( deflatedDataValueB );
-            blockingQueue.put( deflatedDataValueX );
-            blockingQueue.put( deflatedDataValueY );
-            blockingQueue.put( deflatedDataValueZ );
-            blockingQueue.put( deflatedDataValueC );
-            blockingQueue.put( deflatedDataValueD );
-            blockingQueue.put( END_OF_DDV_DATA );
+            BlockingQueue<List<DeflatedDataValue>> blockingQueue = ((DataExportParams) p.getArgument( 0 ))
+                .getBlockingQueue();
+            blockingQueue.put( Lists.newArrayList( deflatedDataValueA, deflatedDataValueAB, deflatedDataValueB ) );
+            blockingQueue.put( Lists.newArrayList( deflatedDataValueX, deflatedDataValueY, deflatedDataValueZ ) );
+            blockingQueue.put( Lists.newArrayList( deflatedDataValueC ) );
+            blockingQueue.put( Lists.newArrayList( deflatedDataValueD, END_OF_DDV_DATA ) );
             return new ArrayList<>();
         } );
 
@@ -363,8 +359,9 @@ class PredictionDataValueFetcherTest
     void testNoDataValues()
     {
         when( dataValueService.getDeflatedDataValues( any( DataExportParams.class ) ) ).thenAnswer( p -> {
-            BlockingQueue<DeflatedDataValue> blockingQueue = ((DataExportParams) p.getArgument( 0 )).getBlockingQueue();
-            blockingQueue.put( END_OF_DDV_DATA );
+            BlockingQueue<List<DeflatedDataValue>> blockingQueue = ((DataExportParams) p.getArgument( 0 ))
+                .getBlockingQueue();
+            blockingQueue.put( Lists.newArrayList( END_OF_DDV_DATA ) );
             return new ArrayList<>();
         } );
 
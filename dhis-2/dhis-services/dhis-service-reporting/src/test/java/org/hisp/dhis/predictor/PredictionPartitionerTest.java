@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.predictor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+import java.util.Set;
+
+import org.hisp.dhis.DhisConvenienceTest;
+import org.hisp.dhis.dataelement.DataElement;
+import org.hisp.dhis.organisationunit.OrganisationUnit;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+
+/**
+ * Tests PredictionPartitioner.
+ */
+class PredictionPartitionerTest
+    extends DhisConvenienceTest
+{
+    private final OrganisationUnit ouA = createOrganisationUnit( 'A' );
+
+    private final OrganisationUnit ouB = createOrganisationUnit( 'B', ouA );
+
+    private final OrganisationUnit ouC = createOrganisationUnit( 'C', ouA );
+
+    private final OrganisationUnit ouD = createOrganisationUnit( 'D', ouB );
+
+    private final OrganisationUnit ouE = createOrganisationUnit( 'E', ouB );
+
+    private final OrganisationUnit ouF = createOrganisationUnit( 'F', ouB );
+
+    private final OrganisationUnit ouG = createOrganisationUnit( 'G', ouC );
+
+    private final OrganisationUnit ouH = createOrganisationUnit( 'H', ouC );
+
+    private final List<OrganisationUnit> levelThree = Lists.newArrayList( ouH, ouD, ouG, ouF, ouE );
+
+    private final DataElement deA = createDataElement( 'A' );
+
+    private final DataElement deB = createDataElement( 'B' );
+
+    private final DataElement deX = createDataElement( 'X' );
+
+    private final DataElement deY = createDataElement( 'Y' );
+
+    private final DataElement deZ = createDataElement( 'Z' );
+
+    @Test
+    void testGetPartitionsBySubtree()
+    {
+        List<PredictionPartition> partitions = PredictionPartitioner.getPartitions( levelThree, 3, 1, 2 );
+
+        assertEquals( 2, partitions.size() );
+        assertPartition( partitions.get( 0 ), Sets.newHashSet( ouB ), ouD, ouE, ouF );
+        assertPartition( partitions.get( 1 ), Sets.newHashSet( ouC ), ouG, ouH );
+    }
+
+    @Test
+    void testGetSinglePartition()
+    {
+        List<PredictionPartition> partitions = PredictionPartitioner.getPartitions( levelThree, 3, 1, 1 );
+
+        assertEquals( 1, partitions.size() );
+        assertPartition( partitions.get( 0 ), Sets.newHashSet( ouA ), ouD, ouE, ouF, ouG, ouH );
+    }
+
+    @Test
+    void testGetPartitionsBelowMinSplitLevel()
+    {
+        List<PredictionPartition> partitions = PredictionPartitioner.getPartitions( levelThree, 3, 2, 1 );
+
+        assertEquals( 1, partitions.size() );
+        assertPartition( partitions.get( 0 ), Sets.newHashSet( ouB, ouC ), ouD, ouE, ouF, ouG, ouH );
+    }
+
+    @Test
+    void testGetPartitionsAtOrgUnitLevel()
+    {
+        List<PredictionPartition> partitions = PredictionPartitioner.getPartitions( levelThree, 3, 1, 10 );
+
+        assertEquals( 5, partitions.size() );
+        assertPartition( partitions.get( 0 ), Sets.newHashSet( ouD ), ouD );
+        assertPartition( partitions.get( 4 ), Sets.newHashSet( ouH ), ouH );
+    }
+
+    @Test
+    void testGetPartitionsEmpty()
+    {
+        assertEquals( 0, PredictionPartitioner.getPartitions( Lists.newArrayList(), 3, 1, 4 ).size() );
+    }
+
+    @Test
+    void testGetIndependentRuns()
+    {
+        PredictorRun runA = getRun( 'A', deX, deA );
+        PredictorRun runB = getRun( 'B', deY, deA, deB );
+        PredictorRun runC = getRun( 'C', deZ, deX );
+        PredictorRun runD = getRun( 'D', deA );
+        PredictorRun runE = getRun( 'E', deZ );
+
+        List<List<PredictorRun>> groups = PredictionPartitioner.getIndependentRuns(
+            Lists.newArrayList( runA, runB, runC, runD, runE ) );
+
+        assertEquals( 3, groups.size() );
+        assertEquals( Lists.newArrayList( runA, runB ), groups.get( 0 ) );
+        assertEquals( Lists.newArrayList( runC, runD ), groups.get( 1 ) );
+        assertEquals( Lists.newArrayList( runE ), groups.get( 2 ) );
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    private void assertPartition( PredictionPartition partition, Set<OrganisationUnit> roots,
+        OrganisationUnit... orgUnits )
+    {
+        assertEquals( 3, partition.getOrgUnitLevel() );
+        assertEquals( roots, partition.getRoots() );
+        assertEquals( Lists.newArrayList( orgUnits ), partition.getOrgUnits() );
+    }
+
+    private PredictorRun getRun( char uniqueCharacter, DataElement output, DataElement... inputs )
+    {
+        Predictor predictor = new Predictor();
+        predictor.setName( "Predictor" + uniqueCharacter );
+        predictor.setOutput( output );
+
+        return PredictorRun.builder()
+            .predictor( predictor )
+            .inputDataElements( Sets.newHashSet( inputs ) )
+            .build();
+    }
+}
@@ -68,6 +68,7 @@ import org.hisp.dhis.period.PeriodService;
 import org.hisp.dhis.period.PeriodType;
 import org.hisp.dhis.program.Program;
 import org.hisp.dhis.program.ProgramService;
+import org.hisp.dhis.scheduling.NoopJobProgress;
 import org.hisp.dhis.user.CurrentUserService;
 import org.hisp.dhis.user.CurrentUserServiceTarget;
 import org.hisp.quick.BatchHandler;
@@ -1041,6 +1042,31 @@ class PredictionServiceTest extends IntegrationTestBase
         assertEquals( "20", getDataValue( dataElementY, defaultCombo, sourceA, makeMonth( 2001, 7 ) ) );
     }
 
+    @Test
+    void testPredictAllInParallelMatchesSequential()
+    {
+        setupTestData();
+        Predictor predictorA = createPredictor( dataElementX, defaultCombo, "A", expressionA, null, periodTypeMonthly,
+            orgUnitLevel1, 3, 1, 0 );
+        predictorA.getOrganisationUnitLevels().add( orgUnitLevel2 );
+        Predictor predictorB = createPredictor( dataElementY, defaultCombo, "B", expressionB, null, periodTypeMonthly,
+            orgUnitLevel1, 3, 0, 0 );
+        predictorService.addPredictor( predictorA );
+        predictorService.addPredictor( predictorB );
+        List<String> predictors = Lists.newArrayList( predictorA.getUid(), predictorB.getUid() );
+        summary = predictionService.predictAll( monthStart( 2001, 7 ), monthStart( 2001, 12 ), predictors, null, 4,
+            NoopJobProgress.INSTANCE );
+        int inserted = summary.getInserted();
+        assertEquals( "Pred 2 Ins " + inserted + " Upd 0 Del 0 Unch 0", shortSummary( summary ) );
+        assertEquals( "5.0", getDataValue( dataElementX, defaultCombo, sourceA, makeMonth( 2001, 8 ) ) );
+        assertEquals( "10.24", getDataValue( dataElementX, defaultCombo, sourceA, makeMonth( 2001, 11 ) ) );
+        assertEquals( "11.0", getDataValue( dataElementX, defaultCombo, sourceB, makeMonth( 2001, 8 ) ) );
+        assertEquals( "16.8", getDataValue( dataElementX, defaultCombo, sourceB, makeMonth( 2001, 11 ) ) );
+        // Predicting sequentially finds the same values
+        summary = predictionService.predictAll( monthStart( 2001, 7 ), monthStart( 2001, 12 ), predictors, null );
+        assertEquals( "Pred 2 Ins 0 Upd 0 Del 0 Unch " + inserted, shortSummary( summary ) );
+    }
+
     @Test
     void testPredictMedian()
     {
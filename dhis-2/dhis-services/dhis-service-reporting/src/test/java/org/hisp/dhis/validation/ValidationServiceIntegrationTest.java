@@ -33,6 +33,8 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.Collection;
 import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
 
 import org.hisp.dhis.IntegrationTestBase;
 import org.hisp.dhis.category.CategoryOptionCombo;
@@ -48,6 +50,7 @@ import org.hisp.dhis.period.MonthlyPeriodType;
 import org.hisp.dhis.period.Period;
 import org.hisp.dhis.period.PeriodService;
 import org.hisp.dhis.period.PeriodType;
+import org.hisp.dhis.scheduling.NoopJobProgress;
 import org.hisp.dhis.user.CurrentUserService;
 import org.hisp.dhis.user.CurrentUserServiceTarget;
 import org.hisp.dhis.user.UserService;
@@ -86,6 +89,9 @@ class ValidationServiceIntegrationTest extends IntegrationTestBase
     @Autowired
     private PeriodService periodService;
 
+    @Autowired
+    private ValidationResultService validationResultService;
+
     @Autowired
     private UserService injectUserService;
 
@@ -153,4 +159,32 @@ class ValidationServiceIntegrationTest extends IntegrationTestBase
         assertEquals( 1, results.size() );
         assertTrue( results.contains( referenceA ) );
     }
+
+    @Test
+    void testParallelValidationPersistsResults()
+    {
+        for ( int i = 0; i < 60; i++ )
+        {
+            OrganisationUnit child = createOrganisationUnit( "Child" + i, orgUnitA );
+            organisationUnitService.addOrganisationUnit( child );
+            dataValueService
+                .addDataValue( createDataValue( dataElementA, periodA, child, defaultCombo, defaultCombo, "10" ) );
+        }
+        Expression expressionLeft = new Expression( "#{" + dataElementA.getUid() + "}", "expressionLeft" );
+        Expression expressionRight = new Expression( "20", "expressionRight" );
+        ValidationRule validationRule = createValidationRule( "R", equal_to, expressionLeft, expressionRight,
+            periodTypeMonthly );
+        validationRuleService.saveValidationRule( validationRule );
+        List<ValidationResult> expected = validationService.validationAnalysis( validationService
+            .newParamsBuilder( Lists.newArrayList( validationRule ), orgUnitA, Lists.newArrayList( periodA ) )
+            .build() );
+        List<ValidationResult> returned = validationService.validationAnalysis( validationService
+            .newParamsBuilder( Lists.newArrayList( validationRule ), orgUnitA, Lists.newArrayList( periodA ) )
+            .withPersistResults( true ).build(), NoopJobProgress.INSTANCE );
+        List<ValidationResult> persisted = validationResultService.getAllValidationResults();
+        assertTrue( expected.size() >= 60 );
+        assertTrue( returned.isEmpty() );
+        assertEquals( expected.size(), persisted.size() );
+        assertEquals( new HashSet<>( expected ), new HashSet<>( persisted ) );
+    }
 }
@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.validation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class ValidatorTest
+{
+    @Test
+    void testGetLeafSize()
+    {
+        assertEquals( Validator.MIN_ORG_UNITS_PER_TASK, Validator.getLeafSize( 10, 4 ) );
+        assertEquals( 125, Validator.getLeafSize( 2000, 4 ) );
+        assertEquals( ValidationRunContext.ORG_UNITS_PER_TASK, Validator.getLeafSize( 100_000, 4 ) );
+    }
+
+    @Test
+    void testGetSplitIndexAtSubtreeBoundary()
+    {
+        // Root A with subtrees B (40 units) and C (60 units)
+
+        List<String[]> paths = new ArrayList<>();
+        addSubtree( paths, "B", 40 );
+        addSubtree( paths, "C", 60 );
+
+        assertEquals( 40, Validator.getSplitIndex( paths ) );
+    }
+
+    @Test
+    void testGetSplitIndexBelowCommonAncestor()
+    {
+        // All units below B, split at the subtree of D closest to the middle
+
+        List<String[]> paths = new ArrayList<>();
+        paths.add( new String[] { "A", "B" } );
+        addSubtree( paths, "B", "C", 30 );
+        addSubtree( paths, "B", "D", 30 );
+        addSubtree( paths, "B", "E", 39 );
+
+        assertEquals( 61, Validator.getSplitIndex( paths ) );
+    }
+
+    @Test
+    void testGetSplitIndexUnevenSubtrees()
+    {
+        // Subtree boundary outside the middle half, split in the middle
+
+        List<String[]> paths = new ArrayList<>();
+        addSubtree( paths, "B", 90 );
+        addSubtree( paths, "C", 10 );
+
+        assertEquals( 50, Validator.getSplitIndex( paths ) );
+    }
+
+    private void addSubtree( List<String[]> paths, String child, int size )
+    {
+        for ( int i = 0; i < size; i++ )
+        {
+            paths.add( new String[] { "A", child, String.format( "%s%03d", child, i ) } );
+        }
+    }
+
+    private void addSubtree( List<String[]> paths, String parent, String child, int size )
+    {
+        for ( int i = 0; i < size; i++ )
+        {
+            paths.add( new String[] { "A", parent, child, String.format( "%s%03d", child, i ) } );
+        }
+    }
+}
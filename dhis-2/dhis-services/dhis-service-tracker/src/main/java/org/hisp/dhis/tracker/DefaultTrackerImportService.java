@@ -35,11 +35,18 @@ import static org.hisp.dhis.tracker.report.TrackerTimingsStats.TOTAL_OPS;
 import static org.hisp.dhis.tracker.report.TrackerTimingsStats.VALIDATE_PROGRAMRULE_OPS;
 import static org.hisp.dhis.tracker.report.TrackerTimingsStats.VALIDATION_OPS;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -50,17 +57,23 @@ import lombok.extern.slf4j.Slf4j;
 import org.hisp.dhis.system.notification.NotificationLevel;
 import org.hisp.dhis.system.notification.Notifier;
 import org.hisp.dhis.tracker.bundle.TrackerBundle;
+import org.hisp.dhis.tracker.bundle.TrackerBundleMode;
 import org.hisp.dhis.tracker.bundle.TrackerBundleService;
 import org.hisp.dhis.tracker.job.TrackerSideEffectDataBundle;
 import org.hisp.dhis.tracker.preprocess.TrackerPreprocessService;
 import org.hisp.dhis.tracker.report.TrackerBundleReport;
 import org.hisp.dhis.tracker.report.TrackerImportReport;
+import org.hisp.dhis.tracker.report.TrackerObjectReport;
+import org.hisp.dhis.tracker.report.TrackerStats;
 import org.hisp.dhis.tracker.report.TrackerStatus;
 import org.hisp.dhis.tracker.report.TrackerTimingsStats;
 import org.hisp.dhis.tracker.report.TrackerTypeReport;
 import org.hisp.dhis.tracker.report.TrackerValidationReport;
 import org.hisp.dhis.tracker.validation.TrackerValidationService;
 import org.hisp.dhis.user.User;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
 import com.google.common.collect.ImmutableMap;
@@ -89,6 +102,15 @@ public class DefaultTrackerImportService
     @NonNull
     private final Notifier notifier;
 
+    /**
+     * Preheats the next chunk of a chunked import while the side effects of
+     * the previous one are handled. Each import has at most one preheat in
+     * flight.
+     */
+    @NonNull
+    @Qualifier( "trackerPreheatExecutor" )
+    private final Executor preheatExecutor;
+
     @Override
     public TrackerImportReport importTracker( TrackerImportParams params )
     {
@@ -99,6 +121,11 @@ public class DefaultTrackerImportService
 
         startImport( params );
 
+        if ( isChunked( params ) )
+        {
+            return importChunked( params, opsTimer );
+        }
+
         TrackerValidationReport validationReport = new TrackerValidationReport();
 
         TrackerBundleReport bundleReport;
@@ -142,6 +169,240 @@ public class DefaultTrackerImportService
         }
     }
 
+    private boolean isChunked( TrackerImportParams params )
+    {
+        int payloadSize = params.getTrackedEntities().size() + params.getEnrollments().size()
+            + params.getEvents().size() + params.getRelationships().size();
+
+        return params.getChunkSize() > 0 && payloadSize > params.getChunkSize()
+            && params.getImportMode() == TrackerBundleMode.COMMIT
+            && !params.getImportStrategy().isDelete();
+    }
+
+    /**
+     * Imports the payload in chunks of about {@link TrackerImportParams#getChunkSize()}
+     * objects, see {@link TrackerImportChunker}. Every chunk goes through the
+     * same stages as a regular import and is committed in its own transaction.
+     * The next chunk is preheated in the background once the current one is
+     * committed, so that it sees the objects of the current chunk, while the
+     * side effects of the current chunk are handled. The outcome of all chunks
+     * is collected in a single report.
+     */
+    private TrackerImportReport importChunked( TrackerImportParams params, TrackerTimingsStats opsTimer )
+    {
+        TrackerValidationReport validationReport = new TrackerValidationReport();
+
+        TrackerBundleReport bundleReport = TrackerBundleReport.builder().build();
+
+        Map<TrackerType, Integer> bundleSize = new EnumMap<>( TrackerType.class );
+
+        CompletableFuture<TrackerBundle> next = null;
+
+        try
+        {
+            List<TrackerImportChunk> chunks = TrackerImportChunker.split( params, params.getChunkSize() );
+
+            TrackerTimingsStats[] timers = new TrackerTimingsStats[chunks.size()];
+            timers[0] = new TrackerTimingsStats();
+            next = preHeatAsync( chunks.get( 0 ), timers[0] );
+
+            for ( int i = 0; i < chunks.size(); i++ )
+            {
+                TrackerBundle trackerBundle = join( next );
+                next = null;
+
+                Supplier<CompletableFuture<TrackerBundle>> preHeatNext = () -> null;
+
+                if ( i + 1 < chunks.size() )
+                {
+                    TrackerImportChunk nextChunk = chunks.get( i + 1 );
+                    timers[i + 1] = new TrackerTimingsStats();
+                    TrackerTimingsStats nextTimer = timers[i + 1];
+                    preHeatNext = () -> preHeatAsync( nextChunk, nextTimer );
+                }
+
+                next = importChunk( chunks.get( i ), trackerBundle, timers[i], validationReport, bundleReport,
+                    bundleSize, preHeatNext );
+
+                opsTimer.add( timers[i] );
+
+                notifyChunk( params, i + 1, chunks.size() );
+            }
+
+            TrackerImportReport trackerImportReport = buildChunkedReport( params, validationReport, bundleReport,
+                opsTimer, bundleSize );
+
+            endImport( params, trackerImportReport );
+
+            return trackerImportReport;
+        }
+        catch ( Exception e )
+        {
+            log.error( "Exception thrown during import.", e );
+
+            if ( next != null )
+            {
+                next.cancel( true );
+            }
+
+            TrackerImportReport report = TrackerImportReport.withError( "Exception:" + e.getMessage(),
+                bundleReport, validationReport, opsTimer.stopTimer() );
+
+            endImportWithError( params, report, e );
+
+            return report;
+        }
+    }
+
+    private CompletableFuture<TrackerBundle> preHeatAsync( TrackerImportChunk chunk, TrackerTimingsStats chunkTimer )
+    {
+        SecurityContext securityContext = SecurityContextHolder.getContext();
+
+        return CompletableFuture.supplyAsync( () -> {
+            SecurityContextHolder.setContext( securityContext );
+
+            try
+            {
+                return preHeat( chunk.getParams(), chunkTimer );
+            }
+            finally
+            {
+                SecurityContextHolder.clearContext();
+            }
+        }, preheatExecutor );
+    }
+
+    private TrackerBundle join( CompletableFuture<TrackerBundle> future )
+    {
+        try
+        {
+            return future.join();
+        }
+        catch ( CompletionException e )
+        {
+            if ( e.getCause() instanceof RuntimeException )
+            {
+                throw (RuntimeException) e.getCause();
+            }
+
+            throw e;
+        }
+    }
+
+    /**
+     * Imports a single chunk. The preheat of the next chunk is started as soon
+     * as the chunk is committed, or found invalid, and is returned.
+     */
+    private CompletableFuture<TrackerBundle> importChunk( TrackerImportChunk chunk, TrackerBundle trackerBundle,
+        TrackerTimingsStats chunkTimer, TrackerValidationReport validationReport, TrackerBundleReport bundleReport,
+        Map<TrackerType, Integer> bundleSize, Supplier<CompletableFuture<TrackerBundle>> preHeatNext )
+    {
+        calculatePayloadSize( trackerBundle ).forEach( ( type, size ) -> bundleSize.merge( type, size, Integer::sum ) );
+
+        preProcess( chunkTimer, trackerBundle );
+
+        TrackerValidationReport chunkValidationReport = new TrackerValidationReport();
+
+        boolean invalid = addToValidationReport( chunk.getParams(), chunkTimer, chunkValidationReport,
+            trackerBundle );
+
+        validationReport.addValidationReport( chunkValidationReport );
+
+        if ( invalid )
+        {
+            return preHeatNext.get();
+        }
+
+        List<CompletableFuture<TrackerBundle>> next = new ArrayList<>( 1 );
+
+        try
+        {
+            chunkTimer.execVoid( COMMIT_OPS, () -> {
+                TrackerBundleReport chunkBundleReport = trackerBundleService.commit( trackerBundle );
+
+                mergeBundleReport( bundleReport, chunkBundleReport, chunk );
+
+                next.add( preHeatNext.get() );
+
+                handleSideEffects( trackerBundle, chunkBundleReport );
+            } );
+
+            notifyOps( chunk.getParams(), COMMIT_OPS, chunkTimer );
+
+            postCommit( trackerBundle );
+        }
+        catch ( RuntimeException e )
+        {
+            next.stream().filter( Objects::nonNull ).forEach( future -> future.cancel( true ) );
+
+            throw e;
+        }
+
+        return next.get( 0 );
+    }
+
+    /**
+     * Adds the outcome of a chunk to the report of the whole import. Object
+     * reports are indexed by their position in the chunk, they are moved to
+     * their position in the original payload. Side effects were already handled
+     * when the chunk was committed and are not kept.
+     */
+    private void mergeBundleReport( TrackerBundleReport bundleReport, TrackerBundleReport chunkBundleReport,
+        TrackerImportChunk chunk )
+    {
+        if ( chunkBundleReport == null )
+        {
+            return;
+        }
+
+        if ( chunkBundleReport.getStatus() == TrackerStatus.ERROR )
+        {
+            bundleReport.setStatus( TrackerStatus.ERROR );
+        }
+
+        chunkBundleReport.getTypeReportMap().forEach( ( trackerType, chunkTypeReport ) -> {
+            TrackerTypeReport typeReport = bundleReport.getTypeReportMap()
+                .computeIfAbsent( trackerType, TrackerTypeReport::new );
+
+            typeReport.getStats().merge( chunkTypeReport.getStats() );
+
+            for ( TrackerObjectReport objectReport : chunkTypeReport.getObjectReportMap().values() )
+            {
+                if ( objectReport.getIndex() != null )
+                {
+                    objectReport.setIndex( chunk.getOriginalIndex( trackerType, objectReport.getIndex() ) );
+                }
+
+                typeReport.addObjectReport( objectReport );
+            }
+        } );
+    }
+
+    private TrackerImportReport buildChunkedReport( TrackerImportParams params,
+        TrackerValidationReport validationReport, TrackerBundleReport bundleReport, TrackerTimingsStats opsTimer,
+        Map<TrackerType, Integer> bundleSize )
+    {
+        if ( bundleReport.getTypeReportMap().isEmpty() && validationReport.hasErrors() )
+        {
+            return TrackerImportReport.withValidationErrors( validationReport, opsTimer.stopTimer(),
+                bundleSize.values().stream().mapToInt( Integer::intValue ).sum() );
+        }
+
+        TrackerStatus status = exitOnError( validationReport, params ) ? TrackerStatus.ERROR : TrackerStatus.OK;
+
+        TrackerImportReport trackerImportReport = TrackerImportReport.withImportCompleted( status, bundleReport,
+            validationReport, opsTimer.stopTimer(), bundleSize );
+
+        // chunks rejected as a whole are not part of the validation report
+        // size, count everything that was not persisted instead
+
+        TrackerStats stats = trackerImportReport.getStats();
+        int total = bundleSize.values().stream().mapToInt( Integer::intValue ).sum();
+        stats.setIgnored( total - stats.getCreated() - stats.getUpdated() - stats.getDeleted() );
+
+        return trackerImportReport;
+    }
+
     private TrackerBundle preHeat( TrackerImportParams params, TrackerTimingsStats opsTimer )
     {
         TrackerBundle trackerBundle = opsTimer.exec( PREHEAT_OPS,
@@ -280,6 +541,13 @@ public class DefaultTrackerImportService
     {
         TrackerBundleReport bundleReport = trackerBundleService.commit( trackerBundle );
 
+        handleSideEffects( trackerBundle, bundleReport );
+
+        return bundleReport;
+    }
+
+    private void handleSideEffects( TrackerBundle trackerBundle, TrackerBundleReport bundleReport )
+    {
         if ( !trackerBundle.isSkipSideEffects() )
         {
             List<TrackerSideEffectDataBundle> sideEffectDataBundles = Stream
@@ -290,8 +558,6 @@ public class DefaultTrackerImportService
 
             trackerBundleService.handleTrackerSideEffects( sideEffectDataBundles );
         }
-
-        return bundleReport;
     }
 
     private List<TrackerSideEffectDataBundle> safelyGetSideEffectsDataBundles( TrackerBundleReport bundleReport,
@@ -331,6 +597,15 @@ public class DefaultTrackerImportService
         }
     }
 
+    private void notifyChunk( TrackerImportParams params, int chunk, int chunks )
+    {
+        if ( null != params.getJobConfiguration() )
+        {
+            notifier.update( params.getJobConfiguration(), NotificationLevel.DEBUG,
+                params + " chunk " + chunk + " of " + chunks + " completed Import:Chunk" );
+        }
+    }
+
     private void endImport( TrackerImportParams params, TrackerImportReport importReport )
     {
         if ( null != params.getJobConfiguration() )
@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.tracker;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import lombok.Value;
+
+/**
+ * A slice of a {@link TrackerImportParams} payload that can be preheated,
+ * validated and committed on its own. Keeps the position every object had in
+ * the original payload so that object reports can be mapped back to it.
+ */
+@Value
+public class TrackerImportChunk
+{
+    /**
+     * The objects of this chunk, all other settings are copied from the
+     * original params.
+     */
+    TrackerImportParams params;
+
+    /**
+     * Index in the original payload for each index of this chunk, by type.
+     */
+    Map<TrackerType, List<Integer>> originalIndexes;
+
+    /**
+     * True if this chunk references objects of previous chunks and can only be
+     * preheated once those have been committed.
+     */
+    boolean dependent;
+
+    public TrackerImportChunk( TrackerImportParams params, Map<TrackerType, List<Integer>> originalIndexes,
+        boolean dependent )
+    {
+        this.params = params;
+        this.originalIndexes = new EnumMap<>( TrackerType.class );
+        this.originalIndexes.putAll( originalIndexes );
+        this.dependent = dependent;
+    }
+
+    public int getOriginalIndex( TrackerType trackerType, int index )
+    {
+        List<Integer> indexes = originalIndexes.get( trackerType );
+
+        return indexes != null && index < indexes.size() ? indexes.get( index ) : index;
+    }
+
+    public int size()
+    {
+        return originalIndexes.values().stream().mapToInt( List::size ).sum();
+    }
+}
@@ -0,0 +1,271 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.tracker;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.hisp.dhis.tracker.domain.Enrollment;
+import org.hisp.dhis.tracker.domain.Event;
+import org.hisp.dhis.tracker.domain.TrackedEntity;
+
+/**
+ * Splits a {@link TrackerImportParams} payload into chunks that can be
+ * imported one after the other.
+ *
+ * A tracked entity is always kept together with the enrollments of the
+ * payload that belong to it, and an enrollment with its events, so every
+ * chunk can be validated without looking at the other chunks. Such a group is
+ * never split, even if it is bigger than the chunk size. Relationships can
+ * point to objects in any chunk and are therefore put in trailing chunks
+ * marked as dependent.
+ */
+public class TrackerImportChunker
+{
+    private TrackerImportChunker()
+    {
+        throw new UnsupportedOperationException( "util" );
+    }
+
+    /**
+     * Splits the given params in chunks holding about chunkSize objects each.
+     *
+     * @param params the params to split
+     * @param chunkSize the maximum number of objects in a chunk
+     * @return the chunks, in the order they have to be imported
+     */
+    public static List<TrackerImportChunk> split( TrackerImportParams params, int chunkSize )
+    {
+        if ( chunkSize < 1 )
+        {
+            throw new IllegalArgumentException( "Chunk size must be greater than zero: " + chunkSize );
+        }
+
+        List<TrackedEntity> trackedEntities = params.getTrackedEntities();
+        List<Enrollment> enrollments = params.getEnrollments();
+        List<Event> events = params.getEvents();
+
+        Map<String, List<Integer>> enrollmentsByTrackedEntity = new HashMap<>();
+        Map<String, List<Integer>> eventsByEnrollment = new HashMap<>();
+
+        for ( int i = 0; i < enrollments.size(); i++ )
+        {
+            String trackedEntity = enrollments.get( i ).getTrackedEntity();
+
+            if ( trackedEntity != null )
+            {
+                enrollmentsByTrackedEntity.computeIfAbsent( trackedEntity, k -> new ArrayList<>() ).add( i );
+            }
+        }
+
+        for ( int i = 0; i < events.size(); i++ )
+        {
+            String enrollment = events.get( i ).getEnrollment();
+
+            if ( enrollment != null )
+            {
+                eventsByEnrollment.computeIfAbsent( enrollment, k -> new ArrayList<>() ).add( i );
+            }
+        }
+
+        boolean[] enrollmentAssigned = new boolean[enrollments.size()];
+        boolean[] eventAssigned = new boolean[events.size()];
+
+        ChunkCollector collector = new ChunkCollector( params, chunkSize );
+
+        for ( int i = 0; i < trackedEntities.size(); i++ )
+        {
+            Group group = new Group();
+            group.trackedEntities.add( i );
+
+            String uid = trackedEntities.get( i ).getTrackedEntity();
+            List<Integer> teiEnrollments = uid != null ? enrollmentsByTrackedEntity.remove( uid ) : null;
+
+            if ( teiEnrollments != null )
+            {
+                for ( Integer enrollment : teiEnrollments )
+                {
+                    addEnrollment( group, enrollment, enrollments, eventsByEnrollment, eventAssigned );
+                    enrollmentAssigned[enrollment] = true;
+                }
+            }
+
+            collector.add( group );
+        }
+
+        for ( int i = 0; i < enrollments.size(); i++ )
+        {
+            if ( !enrollmentAssigned[i] )
+            {
+                Group group = new Group();
+                addEnrollment( group, i, enrollments, eventsByEnrollment, eventAssigned );
+                collector.add( group );
+            }
+        }
+
+        for ( int i = 0; i < events.size(); i++ )
+        {
+            if ( !eventAssigned[i] )
+            {
+                Group group = new Group();
+                group.events.add( i );
+                collector.add( group );
+            }
+        }
+
+        collector.flush();
+
+        for ( int i = 0; i < params.getRelationships().size(); i++ )
+        {
+            Group group = new Group();
+            group.relationships.add( i );
+            collector.addDependent( group );
+        }
+
+        collector.flush();
+
+        return collector.chunks;
+    }
+
+    private static void addEnrollment( Group group, int index, List<Enrollment> enrollments,
+        Map<String, List<Integer>> eventsByEnrollment, boolean[] eventAssigned )
+    {
+        group.enrollments.add( index );
+
+        String uid = enrollments.get( index ).getEnrollment();
+        List<Integer> enrollmentEvents = uid != null ? eventsByEnrollment.remove( uid ) : null;
+
+        if ( enrollmentEvents != null )
+        {
+            for ( Integer event : enrollmentEvents )
+            {
+                group.events.add( event );
+                eventAssigned[event] = true;
+            }
+        }
+    }
+
+    /**
+     * Objects, by index in the original payload, that have to be imported in
+     * the same chunk.
+     */
+    private static class Group
+    {
+        private final List<Integer> trackedEntities = new ArrayList<>();
+
+        private final List<Integer> enrollments = new ArrayList<>();
+
+        private final List<Integer> events = new ArrayList<>();
+
+        private final List<Integer> relationships = new ArrayList<>();
+
+        private int size()
+        {
+            return trackedEntities.size() + enrollments.size() + events.size() + relationships.size();
+        }
+    }
+
+    /**
+     * Packs groups into chunks of at most chunkSize objects, unless a single
+     * group is bigger than that.
+     */
+    private static class ChunkCollector
+    {
+        private final TrackerImportParams params;
+
+        private final int chunkSize;
+
+        private final List<TrackerImportChunk> chunks = new ArrayList<>();
+
+        private Group current = new Group();
+
+        private boolean dependent;
+
+        private ChunkCollector( TrackerImportParams params, int chunkSize )
+        {
+            this.params = params;
+            this.chunkSize = chunkSize;
+        }
+
+        private void add( Group group )
+        {
+            if ( current.size() > 0 && current.size() + group.size() > chunkSize )
+            {
+                flush();
+            }
+
+            current.trackedEntities.addAll( group.trackedEntities );
+            current.enrollments.addAll( group.enrollments );
+            current.events.addAll( group.events );
+            current.relationships.addAll( group.relationships );
+        }
+
+        private void addDependent( Group group )
+        {
+            dependent = true;
+            add( group );
+        }
+
+        private void flush()
+        {
+            if ( current.size() == 0 )
+            {
+                return;
+            }
+
+            TrackerImportParams chunkParams = params.toBuilder()
+                .chunkSize( 0 )
+                .trackedEntities( select( params.getTrackedEntities(), current.trackedEntities ) )
+                .enrollments( select( params.getEnrollments(), current.enrollments ) )
+                .events( select( params.getEvents(), current.events ) )
+                .relationships( select( params.getRelationships(), current.relationships ) )
+                .build();
+
+            Map<TrackerType, List<Integer>> originalIndexes = new EnumMap<>( TrackerType.class );
+            originalIndexes.put( TrackerType.TRACKED_ENTITY, current.trackedEntities );
+            originalIndexes.put( TrackerType.ENROLLMENT, current.enrollments );
+            originalIndexes.put( TrackerType.EVENT, current.events );
+            originalIndexes.put( TrackerType.RELATIONSHIP, current.relationships );
+
+            chunks.add( new TrackerImportChunk( chunkParams, originalIndexes, dependent ) );
+
+            current = new Group();
+        }
+
+        private static <T> List<T> select( List<T> objects, List<Integer> indexes )
+        {
+            List<T> selected = new ArrayList<>( indexes.size() );
+            indexes.forEach( i -> selected.add( objects.get( i ) ) );
+
+            return selected;
+        }
+    }
+}
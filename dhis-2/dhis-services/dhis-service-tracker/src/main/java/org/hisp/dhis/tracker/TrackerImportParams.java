@@ -51,7 +51,7 @@ import com.fasterxml.jackson.annotation.JsonProperty;
  * @author Morten Olav Hansen <mortenoh@gmail.com>
  */
 @Data
-@Builder
+@Builder( toBuilder = true )
 @NoArgsConstructor
 @AllArgsConstructor
 public class TrackerImportParams
@@ -127,6 +127,14 @@ public class TrackerImportParams
     @JsonProperty
     private boolean skipRuleEngine;
 
+    /**
+     * Maximum number of objects to import in one go, 0 imports the whole
+     * payload as a single bundle. Chunks are imported one after the other, each
+     * in its own transaction, so {@link AtomicMode#ALL} applies per chunk.
+     */
+    @JsonProperty
+    private int chunkSize;
+
     /**
      * Name of file that was used for import (if available).
      */
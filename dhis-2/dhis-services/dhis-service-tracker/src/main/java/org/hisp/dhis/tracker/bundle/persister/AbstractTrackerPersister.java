@@ -77,6 +77,8 @@ public abstract class AbstractTrackerPersister<T extends TrackerDto, V extends B
 
     protected final TrackedEntityAttributeValueAuditService trackedEntityAttributeValueAuditService;
 
+    protected final TrackerJdbcBatchWriter batchWriter;
+
     /**
      * Template method that can be used by classes extending this class to
      * execute the persistence flow of Tracker entities
@@ -102,6 +104,12 @@ public abstract class AbstractTrackerPersister<T extends TrackerDto, V extends B
 
         Set<String> updatedTeiList = bundle.getUpdatedTeis();
 
+        //
+        // New entities are collected and inserted with JDBC batches, if
+        // enabled and supported for the bundle
+        //
+        TrackerJdbcBatch<V> batch = isBatchInsert( bundle ) ? new TrackerJdbcBatch<>() : null;
+
         for ( int idx = 0; idx < dtos.size(); idx++ )
         {
             //
@@ -135,16 +143,24 @@ public abstract class AbstractTrackerPersister<T extends TrackerDto, V extends B
                 //
                 if ( isNew( bundle.getPreheat(), trackerDto ) )
                 {
-                    session.persist( convertedDto );
+                    if ( batch != null )
+                    {
+                        batch.add( convertedDto );
+                    }
+                    else
+                    {
+                        session.persist( convertedDto );
+                    }
+
                     typeReport.getStats().incCreated();
                     typeReport.addObjectReport( objectReport );
-                    updateAttributes( session, bundle.getPreheat(), trackerDto, convertedDto );
+                    updateAttributes( session, bundle.getPreheat(), trackerDto, convertedDto, batch );
                 }
                 else
                 {
                     if ( isUpdatable() )
                     {
-                        updateAttributes( session, bundle.getPreheat(), trackerDto, convertedDto );
+                        updateAttributes( session, bundle.getPreheat(), trackerDto, convertedDto, batch );
                         session.merge( convertedDto );
                         typeReport.getStats().incUpdated();
                         typeReport.addObjectReport( objectReport );
@@ -172,6 +188,11 @@ public abstract class AbstractTrackerPersister<T extends TrackerDto, V extends B
                 }
 
                 bundle.setUpdatedTeis( updatedTeiList );
+
+                if ( batch != null && batch.size() >= batchWriter.getBatchSize() )
+                {
+                    flushBatch( session, batch );
+                }
             }
             catch ( Exception e )
             {
@@ -194,6 +215,19 @@ public abstract class AbstractTrackerPersister<T extends TrackerDto, V extends B
             }
         }
 
+        if ( batch != null )
+        {
+            try
+            {
+                flushBatch( session, batch );
+            }
+            catch ( Exception e )
+            {
+                throw new PersistenceException( "A batch of Tracker Entities of type '" + getType().getName()
+                    + "' failed to persist.", e );
+            }
+        }
+
         typeReport.getSideEffectDataBundles().addAll( sideEffectDataBundles );
 
         return typeReport;
@@ -238,7 +272,7 @@ public abstract class AbstractTrackerPersister<T extends TrackerDto, V extends B
      * processed
      */
     protected abstract void updateAttributes( Session session, TrackerPreheat preheat,
-        T trackerDto, V hibernateEntity );
+        T trackerDto, V hibernateEntity, TrackerJdbcBatch<?> batch );
 
     /**
      * Updates the {@link TrackerPreheat} object with the entity that has been
@@ -255,6 +289,26 @@ public abstract class AbstractTrackerPersister<T extends TrackerDto, V extends B
         return true;
     }
 
+    /**
+     * informs this persister whether new entities can be inserted with
+     * {@link #insertBatch(Session, List)}, defaults to false
+     */
+    protected boolean isBatchInsertSupported()
+    {
+        return false;
+    }
+
+    /**
+     * Inserts the given new entities with the {@link TrackerJdbcBatchWriter}.
+     * Entities inserted this way are not associated with the session, see
+     * {@link TrackerJdbcBatchWriter}. Defaults to persisting each entity
+     * through the session.
+     */
+    protected void insertBatch( Session session, List<V> entities )
+    {
+        entities.forEach( session::persist );
+    }
+
     /**
      * Determines if the given trackerDto belongs to an existing entity
      */
@@ -278,6 +332,25 @@ public abstract class AbstractTrackerPersister<T extends TrackerDto, V extends B
      */
     protected abstract TrackerType getType();
 
+    /**
+     * Batches are only used when a failure rolls back the whole bundle and
+     * the session is not flushed after every object.
+     */
+    private boolean isBatchInsert( TrackerBundle bundle )
+    {
+        return isBatchInsertSupported() && batchWriter.isEnabled()
+            && FlushMode.AUTO == bundle.getFlushMode()
+            && AtomicMode.ALL == bundle.getAtomicMode();
+    }
+
+    private void flushBatch( Session session, TrackerJdbcBatch<V> batch )
+    {
+        insertBatch( session, batch.getEntities() );
+        batchWriter.insertAttributeValues( session, batch.getAttributeValues() );
+        batch.getAfterInsert().forEach( Runnable::run );
+        batch.clear();
+    }
+
     @SuppressWarnings( "unchecked" )
     private List<T> getByType( TrackerType type, TrackerBundle bundle )
     {
@@ -333,8 +406,13 @@ public abstract class AbstractTrackerPersister<T extends TrackerDto, V extends B
         session.persist( fileResource );
     }
 
+    /**
+     * Creates, updates or deletes the attribute values of the given tracked
+     * entity. New values are added to the batch, if there is one, and their
+     * audits are deferred until they are inserted.
+     */
     protected void handleTrackedEntityAttributeValues( Session session, TrackerPreheat preheat,
-        List<Attribute> payloadAttributes, TrackedEntityInstance trackedEntityInstance )
+        List<Attribute> payloadAttributes, TrackedEntityInstance trackedEntityInstance, TrackerJdbcBatch<?> batch )
     {
         if ( payloadAttributes.isEmpty() )
         {
@@ -384,7 +462,7 @@ public abstract class AbstractTrackerPersister<T extends TrackerDto, V extends B
                         .setValue( attribute.getValue() );
 
                     saveOrUpdate( session, preheat, isNew, trackedEntityInstance, trackedEntityAttributeValue,
-                        isUpdated );
+                        isUpdated, batch );
                 }
 
                 handleReservedValue( trackedEntityAttributeValue );
@@ -410,7 +488,7 @@ public abstract class AbstractTrackerPersister<T extends TrackerDto, V extends B
 
     private void saveOrUpdate( Session session, TrackerPreheat preheat, boolean isNew,
         TrackedEntityInstance trackedEntityInstance, TrackedEntityAttributeValue trackedEntityAttributeValue,
-        boolean isUpdated )
+        boolean isUpdated, TrackerJdbcBatch<?> batch )
     {
         if ( isFileResource( trackedEntityAttributeValue ) )
         {
@@ -419,6 +497,18 @@ public abstract class AbstractTrackerPersister<T extends TrackerDto, V extends B
 
         AuditType auditType = null;
 
+        if ( isNew && batch != null )
+        {
+            batch.addAttributeValue( trackedEntityAttributeValue );
+            trackedEntityInstance.getTrackedEntityAttributeValues().add( trackedEntityAttributeValue );
+
+            // The audit refers to the tracked entity, which may not be
+            // inserted yet
+            batch.afterInsert( () -> logTrackedEntityAttributeValueHistory( preheat.getUsername(),
+                trackedEntityAttributeValue, trackedEntityInstance, AuditType.CREATE ) );
+            return;
+        }
+
         if ( isNew )
         {
             session.persist( trackedEntityAttributeValue );
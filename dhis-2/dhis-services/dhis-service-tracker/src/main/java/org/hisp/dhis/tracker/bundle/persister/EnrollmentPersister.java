@@ -29,6 +29,7 @@ package org.hisp.dhis.tracker.bundle.persister;
 
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Objects;
 
 import org.hibernate.Session;
@@ -67,9 +68,10 @@ public class EnrollmentPersister extends AbstractTrackerPersister<Enrollment, Pr
         TrackedEntityCommentService trackedEntityCommentService,
         TrackerSideEffectConverterService sideEffectConverterService,
         TrackedEntityProgramOwnerService trackedEntityProgramOwnerService,
-        TrackedEntityAttributeValueAuditService trackedEntityAttributeValueAuditService )
+        TrackedEntityAttributeValueAuditService trackedEntityAttributeValueAuditService,
+        TrackerJdbcBatchWriter batchWriter )
     {
-        super( reservedValueService, trackedEntityAttributeValueAuditService );
+        super( reservedValueService, trackedEntityAttributeValueAuditService, batchWriter );
 
         this.enrollmentConverter = enrollmentConverter;
         this.trackedEntityCommentService = trackedEntityCommentService;
@@ -79,10 +81,10 @@ public class EnrollmentPersister extends AbstractTrackerPersister<Enrollment, Pr
 
     @Override
     protected void updateAttributes( Session session, TrackerPreheat preheat,
-        Enrollment enrollment, ProgramInstance programInstance )
+        Enrollment enrollment, ProgramInstance programInstance, TrackerJdbcBatch<?> batch )
     {
         handleTrackedEntityAttributeValues( session, preheat, enrollment.getAttributes(),
-            preheat.getTrackedEntity( TrackerIdScheme.UID, programInstance.getEntityInstance().getUid() ) );
+            preheat.getTrackedEntity( TrackerIdScheme.UID, programInstance.getEntityInstance().getUid() ), batch );
     }
 
     @Override
@@ -143,6 +145,18 @@ public class EnrollmentPersister extends AbstractTrackerPersister<Enrollment, Pr
         return enrollmentConverter.from( bundle.getPreheat(), enrollment );
     }
 
+    @Override
+    protected boolean isBatchInsertSupported()
+    {
+        return true;
+    }
+
+    @Override
+    protected void insertBatch( Session session, List<ProgramInstance> programInstances )
+    {
+        batchWriter.insertEnrollments( session, programInstances );
+    }
+
     @Override
     protected TrackerType getType()
     {
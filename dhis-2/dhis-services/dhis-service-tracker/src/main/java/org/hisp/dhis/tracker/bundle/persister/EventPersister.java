@@ -33,6 +33,7 @@ import java.time.Instant;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
@@ -77,9 +78,10 @@ public class EventPersister extends AbstractTrackerPersister<Event, ProgramStage
         TrackerConverterService<Event, ProgramStageInstance> eventConverter,
         TrackedEntityCommentService trackedEntityCommentService,
         TrackerSideEffectConverterService sideEffectConverterService,
-        TrackedEntityAttributeValueAuditService trackedEntityAttributeValueAuditService )
+        TrackedEntityAttributeValueAuditService trackedEntityAttributeValueAuditService,
+        TrackerJdbcBatchWriter batchWriter )
     {
-        super( reservedValueService, trackedEntityAttributeValueAuditService );
+        super( reservedValueService, trackedEntityAttributeValueAuditService, batchWriter );
         this.eventConverter = eventConverter;
         this.trackedEntityCommentService = trackedEntityCommentService;
         this.sideEffectConverterService = sideEffectConverterService;
@@ -134,6 +136,18 @@ public class EventPersister extends AbstractTrackerPersister<Event, ProgramStage
         return eventConverter.from( bundle.getPreheat(), event );
     }
 
+    @Override
+    protected boolean isBatchInsertSupported()
+    {
+        return true;
+    }
+
+    @Override
+    protected void insertBatch( Session session, List<ProgramStageInstance> programStageInstances )
+    {
+        batchWriter.insertEvents( session, programStageInstances );
+    }
+
     @Override
     protected TrackerType getType()
     {
@@ -142,7 +156,7 @@ public class EventPersister extends AbstractTrackerPersister<Event, ProgramStage
 
     @Override
     protected void updateAttributes( Session session, TrackerPreheat preheat,
-        Event event, ProgramStageInstance programStageInstance )
+        Event event, ProgramStageInstance programStageInstance, TrackerJdbcBatch<?> batch )
     {
         // DO NOTHING - EVENT HAVE NO ATTRIBUTES
     }
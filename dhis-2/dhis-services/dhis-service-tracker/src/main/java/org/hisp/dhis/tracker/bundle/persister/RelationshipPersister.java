@@ -50,10 +50,11 @@ public class RelationshipPersister
 
     public RelationshipPersister( ReservedValueService reservedValueService,
         TrackerConverterService<Relationship, org.hisp.dhis.relationship.Relationship> relationshipConverter,
-        TrackedEntityAttributeValueAuditService trackedEntityAttributeValueAuditService )
+        TrackedEntityAttributeValueAuditService trackedEntityAttributeValueAuditService,
+        TrackerJdbcBatchWriter batchWriter )
 
     {
-        super( reservedValueService, trackedEntityAttributeValueAuditService );
+        super( reservedValueService, trackedEntityAttributeValueAuditService, batchWriter );
         this.relationshipConverter = relationshipConverter;
     }
 
@@ -71,7 +72,7 @@ public class RelationshipPersister
 
     @Override
     protected void updateAttributes( Session session, TrackerPreheat preheat, Relationship trackerDto,
-        org.hisp.dhis.relationship.Relationship hibernateEntity )
+        org.hisp.dhis.relationship.Relationship hibernateEntity, TrackerJdbcBatch<?> batch )
     {
         // NOTHING TO DO
     }
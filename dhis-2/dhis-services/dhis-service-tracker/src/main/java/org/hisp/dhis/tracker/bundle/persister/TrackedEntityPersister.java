@@ -28,6 +28,7 @@
 package org.hisp.dhis.tracker.bundle.persister;
 
 import java.util.Collections;
+import java.util.List;
 
 import javax.validation.constraints.NotNull;
 
@@ -55,17 +56,18 @@ public class TrackedEntityPersister extends AbstractTrackerPersister<TrackedEnti
 
     public TrackedEntityPersister( ReservedValueService reservedValueService,
         TrackerConverterService<TrackedEntity, TrackedEntityInstance> teConverter,
-        TrackedEntityAttributeValueAuditService trackedEntityAttributeValueAuditService )
+        TrackedEntityAttributeValueAuditService trackedEntityAttributeValueAuditService,
+        TrackerJdbcBatchWriter batchWriter )
     {
-        super( reservedValueService, trackedEntityAttributeValueAuditService );
+        super( reservedValueService, trackedEntityAttributeValueAuditService, batchWriter );
         this.teConverter = teConverter;
     }
 
     @Override
     protected void updateAttributes( Session session, TrackerPreheat preheat,
-        TrackedEntity trackerDto, TrackedEntityInstance tei )
+        TrackedEntity trackerDto, TrackedEntityInstance tei, TrackerJdbcBatch<?> batch )
     {
-        handleTrackedEntityAttributeValues( session, preheat, trackerDto.getAttributes(), tei );
+        handleTrackedEntityAttributeValues( session, preheat, trackerDto.getAttributes(), tei, batch );
     }
 
     @Override
@@ -93,6 +95,18 @@ public class TrackedEntityPersister extends AbstractTrackerPersister<TrackedEnti
         return teConverter.from( bundle.getPreheat(), trackerDto );
     }
 
+    @Override
+    protected boolean isBatchInsertSupported()
+    {
+        return true;
+    }
+
+    @Override
+    protected void insertBatch( Session session, List<TrackedEntityInstance> trackedEntities )
+    {
+        batchWriter.insertTrackedEntities( session, trackedEntities );
+    }
+
     @Override
     protected TrackerType getType()
     {
@@ -0,0 +1,563 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.tracker.bundle.persister;
+
+import static org.hisp.dhis.dxf2.events.event.EventUtils.eventDataValuesToJson;
+import static org.hisp.dhis.dxf2.events.event.EventUtils.userInfoToJson;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.hibernate.Session;
+import org.hisp.dhis.artemis.audit.Audit;
+import org.hisp.dhis.artemis.audit.AuditManager;
+import org.hisp.dhis.artemis.audit.AuditableEntity;
+import org.hisp.dhis.audit.AuditScope;
+import org.hisp.dhis.audit.AuditType;
+import org.hisp.dhis.common.IdentifiableObject;
+import org.hisp.dhis.external.conf.ConfigurationKey;
+import org.hisp.dhis.external.conf.DhisConfigurationProvider;
+import org.hisp.dhis.program.ProgramInstance;
+import org.hisp.dhis.program.ProgramStageInstance;
+import org.hisp.dhis.program.UserInfoSnapshot;
+import org.hisp.dhis.trackedentity.TrackedEntityInstance;
+import org.hisp.dhis.trackedentityattributevalue.TrackedEntityAttributeValue;
+import org.hisp.dhis.trackedentitycomment.TrackedEntityComment;
+import org.locationtech.jts.geom.Geometry;
+import org.postgis.PGgeometry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.Lists;
+
+/**
+ * Inserts new tracker entities with multi-row JDBC statements instead of one
+ * Hibernate operation per object.
+ *
+ * Primary keys are taken from the same sequences Hibernate uses, in one query
+ * per batch, so the entities can be referenced by Hibernate-managed objects
+ * (ownership, comments, relationships) afterwards. The session is flushed
+ * before every insert so that rows the new entities refer to exist. As the
+ * Hibernate audit listeners do not see these inserts, the audits are sent
+ * from here once the transaction has committed.
+ *
+ * Only used for {@link org.hisp.dhis.tracker.AtomicMode#ALL} and
+ * {@link org.hisp.dhis.tracker.FlushMode#AUTO} imports, where a failure rolls
+ * back the whole commit anyway.
+ *
+ * The inserted entities are not attached to the session. Hibernate-managed
+ * objects may refer to them, as only their ids are written, but changes made
+ * to them after the insert are not persisted, and loading them in the same
+ * session returns a different instance. The persisters therefore insert an
+ * entity only once it is complete and afterwards work with it through the
+ * preheat only.
+ */
+@Slf4j
+@Component
+public class TrackerJdbcBatchWriter
+{
+    /**
+     * Max number of bind parameters of a single PostgreSQL statement.
+     */
+    private static final int MAX_PARAMETERS = 32767;
+
+    private static final List<String> TRACKED_ENTITY_COLUMNS = Arrays.asList(
+        "trackedentityinstanceid", "uid", "code", "created", "lastupdated", "lastupdatedby", "createdatclient",
+        "lastupdatedatclient", "storedby", "inactive", "potentialduplicate", "deleted", "lastsynchronized",
+        "geometry", "createdbyuserinfo", "lastupdatedbyuserinfo", "organisationunitid", "trackedentitytypeid" );
+
+    private static final List<String> ENROLLMENT_COLUMNS = Arrays.asList(
+        "programinstanceid", "uid", "created", "lastupdated", "createdatclient", "lastupdatedatclient",
+        "createdbyuserinfo", "lastupdatedbyuserinfo", "incidentdate", "enrollmentdate", "enddate", "followup",
+        "completedby", "geometry", "deleted", "storedby", "status", "trackedentityinstanceid", "programid",
+        "organisationunitid" );
+
+    private static final List<String> EVENT_COLUMNS = Arrays.asList(
+        "programstageinstanceid", "uid", "code", "created", "createdbyuserinfo", "lastupdated",
+        "lastupdatedbyuserinfo", "createdatclient", "lastupdatedatclient", "lastsynchronized", "programinstanceid",
+        "programstageid", "attributeoptioncomboid", "deleted", "storedby", "duedate", "executiondate",
+        "organisationunitid", "status", "completedby", "completeddate", "geometry", "assigneduserid",
+        "eventdatavalues" );
+
+    private static final List<String> ATTRIBUTE_VALUE_COLUMNS = Arrays.asList(
+        "trackedentityinstanceid", "trackedentityattributeid", "created", "lastupdated", "value", "storedby" );
+
+    private static final List<String> COMMENT_COLUMNS = Arrays.asList( "owner", "sort_order",
+        "trackedentitycommentid" );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final ObjectMapper jsonMapper;
+
+    private final AuditManager auditManager;
+
+    private final boolean enabled;
+
+    private final int batchSize;
+
+    public TrackerJdbcBatchWriter( JdbcTemplate jdbcTemplate,
+        @Qualifier( "dataValueJsonMapper" ) ObjectMapper jsonMapper, AuditManager auditManager,
+        DhisConfigurationProvider config )
+    {
+        this.jdbcTemplate = jdbcTemplate;
+        this.jsonMapper = jsonMapper;
+        this.auditManager = auditManager;
+        this.enabled = config.isEnabled( ConfigurationKey.TRACKER_IMPORT_JDBC_BATCH_ENABLED );
+        this.batchSize = Math.max( 1,
+            Integer.parseInt( config.getProperty( ConfigurationKey.TRACKER_IMPORT_JDBC_BATCH_SIZE ) ) );
+    }
+
+    public boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    public int getBatchSize()
+    {
+        return batchSize;
+    }
+
+    // -------------------------------------------------------------------------
+    // Inserts
+    // -------------------------------------------------------------------------
+
+    public void insertTrackedEntities( Session session, List<TrackedEntityInstance> trackedEntities )
+    {
+        if ( trackedEntities.isEmpty() )
+        {
+            return;
+        }
+
+        session.flush();
+
+        assignIds( "trackedentityinstance_sequence", trackedEntities );
+
+        insert( "trackedentityinstance", TRACKED_ENTITY_COLUMNS, trackedEntities, tei -> new Object[] {
+            tei.getId(),
+            tei.getUid(),
+            tei.getCode(),
+            tei.getCreated(),
+            tei.getLastUpdated(),
+            getId( tei.getLastUpdatedBy() ),
+            tei.getCreatedAtClient(),
+            tei.getLastUpdatedAtClient(),
+            tei.getStoredBy(),
+            Boolean.TRUE.equals( tei.isInactive() ),
+            tei.isPotentialDuplicate(),
+            tei.isDeleted(),
+            tei.getLastSynchronized(),
+            toGeometry( tei.getGeometry() ),
+            toJson( tei.getCreatedByUserInfo() ),
+            toJson( tei.getLastUpdatedByUserInfo() ),
+            getId( tei.getOrganisationUnit() ),
+            getId( tei.getTrackedEntityType() ) } );
+
+        audit( trackedEntities, tei -> entry( tei )
+            .with( "inactive", tei.isInactive() )
+            .with( "potentialDuplicate", tei.isPotentialDuplicate() )
+            .with( "deleted", tei.isDeleted() )
+            .with( "storedBy", tei.getStoredBy() )
+            .with( "organisationUnit", tei.getOrganisationUnit() )
+            .with( "trackedEntityType", tei.getTrackedEntityType() ) );
+    }
+
+    public void insertEnrollments( Session session, List<ProgramInstance> enrollments )
+    {
+        if ( enrollments.isEmpty() )
+        {
+            return;
+        }
+
+        session.flush();
+
+        assignIds( "programinstance_sequence", enrollments );
+
+        insert( "programinstance", ENROLLMENT_COLUMNS, enrollments, pi -> new Object[] {
+            pi.getId(),
+            pi.getUid(),
+            pi.getCreated(),
+            pi.getLastUpdated(),
+            pi.getCreatedAtClient(),
+            pi.getLastUpdatedAtClient(),
+            toJson( pi.getCreatedByUserInfo() ),
+            toJson( pi.getLastUpdatedByUserInfo() ),
+            pi.getIncidentDate(),
+            pi.getEnrollmentDate(),
+            pi.getEndDate(),
+            pi.getFollowup(),
+            pi.getCompletedBy(),
+            toGeometry( pi.getGeometry() ),
+            pi.isDeleted(),
+            pi.getStoredBy(),
+            pi.getStatus() != null ? pi.getStatus().name() : null,
+            getId( pi.getEntityInstance() ),
+            getId( pi.getProgram() ),
+            getId( pi.getOrganisationUnit() ) } );
+
+        insertComments( "programinstancecomments", "programinstanceid", enrollments,
+            ProgramInstance::getComments );
+
+        audit( enrollments, pi -> entry( pi )
+            .with( "incidentDate", pi.getIncidentDate() )
+            .with( "enrollmentDate", pi.getEnrollmentDate() )
+            .with( "endDate", pi.getEndDate() )
+            .with( "followup", pi.getFollowup() )
+            .with( "completedBy", pi.getCompletedBy() )
+            .with( "deleted", pi.isDeleted() )
+            .with( "storedBy", pi.getStoredBy() )
+            .with( "status", pi.getStatus() )
+            .with( "entityInstance", pi.getEntityInstance() )
+            .with( "program", pi.getProgram() )
+            .with( "organisationUnit", pi.getOrganisationUnit() ) );
+    }
+
+    public void insertEvents( Session session, List<ProgramStageInstance> events )
+    {
+        if ( events.isEmpty() )
+        {
+            return;
+        }
+
+        session.flush();
+
+        assignIds( "programstageinstance_sequence", events );
+
+        insert( "programstageinstance", EVENT_COLUMNS, events, psi -> new Object[] {
+            psi.getId(),
+            psi.getUid(),
+            psi.getCode(),
+            psi.getCreated(),
+            toJson( psi.getCreatedByUserInfo() ),
+            psi.getLastUpdated(),
+            toJson( psi.getLastUpdatedByUserInfo() ),
+            psi.getCreatedAtClient(),
+            psi.getLastUpdatedAtClient(),
+            psi.getLastSynchronized(),
+            getId( psi.getProgramInstance() ),
+            getId( psi.getProgramStage() ),
+            getId( psi.getAttributeOptionCombo() ),
+            psi.isDeleted(),
+            psi.getStoredBy(),
+            psi.getDueDate(),
+            psi.getExecutionDate(),
+            getId( psi.getOrganisationUnit() ),
+            psi.getStatus() != null ? psi.getStatus().name() : null,
+            psi.getCompletedBy(),
+            psi.getCompletedDate(),
+            toGeometry( psi.getGeometry() ),
+            getId( psi.getAssignedUser() ),
+            toDataValuesJson( psi ) } );
+
+        insertComments( "programstageinstancecomments", "programstageinstanceid", events,
+            ProgramStageInstance::getComments );
+
+        audit( events, psi -> entry( psi )
+            .with( "programInstance", psi.getProgramInstance() )
+            .with( "programStage", psi.getProgramStage() )
+            .with( "attributeOptionCombo", psi.getAttributeOptionCombo() )
+            .with( "organisationUnit", psi.getOrganisationUnit() )
+            .with( "status", psi.getStatus() )
+            .with( "dueDate", psi.getDueDate() )
+            .with( "executionDate", psi.getExecutionDate() )
+            .with( "completedBy", psi.getCompletedBy() )
+            .with( "completedDate", psi.getCompletedDate() )
+            .with( "storedBy", psi.getStoredBy() )
+            .with( "deleted", psi.isDeleted() )
+            .with( "assignedUser", psi.getAssignedUser() )
+            .with( "eventDataValues", psi.getEventDataValues() ) );
+    }
+
+    /**
+     * Inserts new attribute values of tracked entities that already exist in
+     * the database. Values of confidential attributes are encrypted by
+     * Hibernate and are therefore persisted through the session.
+     */
+    public void insertAttributeValues( Session session, List<TrackedEntityAttributeValue> attributeValues )
+    {
+        if ( attributeValues.isEmpty() )
+        {
+            return;
+        }
+
+        List<TrackedEntityAttributeValue> plainValues = new ArrayList<>( attributeValues.size() );
+
+        for ( TrackedEntityAttributeValue attributeValue : attributeValues )
+        {
+            if ( Boolean.TRUE.equals( attributeValue.getAttribute().getConfidential() ) )
+            {
+                session.persist( attributeValue );
+            }
+            else
+            {
+                attributeValue.setAutoFields();
+                plainValues.add( attributeValue );
+            }
+        }
+
+        session.flush();
+
+        insert( "trackedentityattributevalue", ATTRIBUTE_VALUE_COLUMNS, plainValues, teav -> new Object[] {
+            getId( teav.getEntityInstance() ),
+            getId( teav.getAttribute() ),
+            teav.getCreated(),
+            teav.getLastUpdated(),
+            teav.getPlainValue(),
+            teav.getStoredBy() } );
+
+        audit( plainValues, teav -> new AuditEntry()
+            .with( "entityInstance", teav.getEntityInstance() )
+            .with( "attribute", teav.getAttribute() )
+            .with( "created", teav.getCreated() )
+            .with( "lastUpdated", teav.getLastUpdated() )
+            .with( "value", teav.getPlainValue() )
+            .with( "storedBy", teav.getStoredBy() ) );
+    }
+
+    private <T> void insertComments( String table, String ownerColumn, List<T> owners,
+        Function<T, List<TrackedEntityComment>> comments )
+    {
+        List<Object[]> rows = new ArrayList<>();
+
+        for ( T owner : owners )
+        {
+            List<TrackedEntityComment> ownerComments = comments.apply( owner );
+
+            for ( int i = 0; i < ownerComments.size(); i++ )
+            {
+                rows.add( new Object[] { ((IdentifiableObject) owner).getId(), i + 1,
+                    ownerComments.get( i ).getId() } );
+            }
+        }
+
+        List<String> columns = new ArrayList<>( COMMENT_COLUMNS );
+        columns.set( 0, ownerColumn );
+
+        insert( table, columns, rows, Function.identity() );
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    /**
+     * Takes the next values of the given sequence for all entities in a single
+     * query and assigns them as primary keys.
+     */
+    private void assignIds( String sequence, List<? extends IdentifiableObject> entities )
+    {
+        List<Long> ids = jdbcTemplate.queryForList(
+            "select nextval('" + sequence + "') from generate_series(1, ?)", Long.class, entities.size() );
+
+        for ( int i = 0; i < entities.size(); i++ )
+        {
+            entities.get( i ).setId( ids.get( i ) );
+        }
+    }
+
+    /**
+     * Inserts the rows with statements of the form
+     * {@code insert into t (a, b) values (?, ?), (?, ?), ...}, holding up to
+     * batch size rows each.
+     */
+    private <T> void insert( String table, List<String> columns, List<T> objects, Function<T, Object[]> toRow )
+    {
+        if ( objects.isEmpty() )
+        {
+            return;
+        }
+
+        int rowsPerStatement = Math.min( batchSize, MAX_PARAMETERS / columns.size() );
+
+        String placeholders = "(" + String.join( ",", Collections.nCopies( columns.size(), "?" ) ) + ")";
+
+        for ( List<T> partition : Lists.partition( objects, rowsPerStatement ) )
+        {
+            String sql = "insert into " + table + " (" + String.join( ",", columns ) + ") values "
+                + String.join( ",", Collections.nCopies( partition.size(), placeholders ) );
+
+            jdbcTemplate.update( sql, ( PreparedStatement ps ) -> {
+                int index = 1;
+
+                for ( T object : partition )
+                {
+                    for ( Object value : toRow.apply( object ) )
+                    {
+                        bind( ps, index++, value );
+                    }
+                }
+            } );
+
+            log.debug( "Inserted {} rows into {}", partition.size(), table );
+        }
+    }
+
+    private static void bind( PreparedStatement ps, int index, Object value )
+        throws SQLException
+    {
+        if ( value == null )
+        {
+            ps.setNull( index, Types.NULL );
+        }
+        else if ( value instanceof Date && !(value instanceof Timestamp) )
+        {
+            ps.setTimestamp( index, new Timestamp( ((Date) value).getTime() ) );
+        }
+        else
+        {
+            ps.setObject( index, value );
+        }
+    }
+
+    private static Long getId( IdentifiableObject object )
+    {
+        return object != null ? object.getId() : null;
+    }
+
+    private Object toJson( UserInfoSnapshot userInfo )
+    {
+        return userInfo != null ? userInfoToJson( userInfo, jsonMapper ) : null;
+    }
+
+    private Object toDataValuesJson( ProgramStageInstance psi )
+    {
+        try
+        {
+            return eventDataValuesToJson( psi.getEventDataValues(), jsonMapper );
+        }
+        catch ( JsonProcessingException | SQLException e )
+        {
+            throw new PersistenceException( "Data values of event " + psi.getUid() + " could not be serialized",
+                e );
+        }
+    }
+
+    private static Object toGeometry( Geometry geometry )
+    {
+        if ( geometry == null )
+        {
+            return null;
+        }
+
+        try
+        {
+            String srid = geometry.getSRID() > 0 ? "SRID=" + geometry.getSRID() + ";" : "";
+
+            return new PGgeometry( srid + geometry.toText() );
+        }
+        catch ( SQLException e )
+        {
+            throw new PersistenceException( "Geometry could not be converted: " + geometry, e );
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Audit
+    // -------------------------------------------------------------------------
+
+    private static AuditEntry entry( IdentifiableObject object )
+    {
+        return new AuditEntry()
+            .with( "uid", object.getUid() )
+            .with( "code", object.getCode() )
+            .with( "created", object.getCreated() )
+            .with( "lastUpdated", object.getLastUpdated() );
+    }
+
+    /**
+     * Sends a create audit for every entity after the transaction commits,
+     * like the Hibernate post commit insert listener does.
+     */
+    private <T> void audit( List<T> entities, Function<T, AuditEntry> toEntry )
+    {
+        List<Audit> audits = new ArrayList<>( entities.size() );
+
+        for ( T entity : entities )
+        {
+            audits.add( Audit.builder()
+                .auditType( AuditType.CREATE )
+                .auditScope( AuditScope.TRACKER )
+                .createdAt( LocalDateTime.now() )
+                .object( entity )
+                .attributes( auditManager.collectAuditAttributes( entity, entity.getClass() ) )
+                .auditableEntity( new AuditableEntity( entity.getClass(), toEntry.apply( entity ) ) )
+                .build() );
+        }
+
+        if ( TransactionSynchronizationManager.isSynchronizationActive() )
+        {
+            TransactionSynchronizationManager.registerSynchronization( new TransactionSynchronization()
+            {
+                @Override
+                public void afterCommit()
+                {
+                    audits.forEach( auditManager::send );
+                }
+            } );
+        }
+        else
+        {
+            audits.forEach( auditManager::send );
+        }
+    }
+
+    /**
+     * Audited properties of an entity, references to other objects are
+     * replaced by their UID.
+     */
+    private static class AuditEntry
+        extends HashMap<String, Object>
+    {
+        AuditEntry with( String property, Object value )
+        {
+            if ( value != null )
+            {
+                put( property, value instanceof IdentifiableObject ? ((IdentifiableObject) value).getUid() : value );
+            }
+
+            return this;
+        }
+    }
+}
@@ -31,9 +31,12 @@ import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
+import org.hisp.dhis.external.conf.ConfigurationKey;
+import org.hisp.dhis.external.conf.DhisConfigurationProvider;
 import org.hisp.dhis.tracker.preheat.supplier.*;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import com.google.common.collect.ImmutableList;
 
@@ -66,4 +69,24 @@ public class TrackerPreheatConfig
     {
         return new PreheatStrategyScanner().scanSupplierStrategies();
     }
+
+    /**
+     * Preheats the next chunk of chunked imports. At most one preheat is in
+     * flight per import, so the pool is sized by the number of concurrent
+     * imports.
+     */
+    @Bean( "trackerPreheatExecutor" )
+    public ThreadPoolTaskExecutor trackerPreheatExecutor( DhisConfigurationProvider config )
+    {
+        int poolSize = Math.max( 1,
+            Integer.parseInt( config.getProperty( ConfigurationKey.TRACKER_IMPORT_MAX_CONCURRENT ) ) );
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize( poolSize );
+        executor.setMaxPoolSize( poolSize );
+        executor.setAllowCoreThreadTimeOut( true );
+        executor.setThreadNamePrefix( "TRACKER-PREHEAT-" );
+        executor.setDaemon( true );
+        return executor;
+    }
 }
@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.tracker.job;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.hisp.dhis.common.AsyncTaskExecutor;
+import org.hisp.dhis.external.conf.ConfigurationKey;
+import org.hisp.dhis.external.conf.DhisConfigurationProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Queue of async tracker imports which runs a limited number of imports at the
+ * same time and starts queued imports in turns per user, so that a user
+ * submitting many imports cannot starve the imports of other users.
+ */
+@Slf4j
+@Component
+public class TrackerImportQueue
+{
+    private final AsyncTaskExecutor taskExecutor;
+
+    private final int maxConcurrent;
+
+    /**
+     * Queued imports per user, guarded by this.
+     */
+    private final Map<String, Deque<Runnable>> queues = new HashMap<>();
+
+    /**
+     * Users with queued imports in the order of their next turn, guarded by
+     * this.
+     */
+    private final Deque<String> turns = new ArrayDeque<>();
+
+    private int running;
+
+    @Autowired
+    public TrackerImportQueue( AsyncTaskExecutor taskExecutor, DhisConfigurationProvider config )
+    {
+        this( taskExecutor, Integer.parseInt( config.getProperty( ConfigurationKey.TRACKER_IMPORT_MAX_CONCURRENT ) ) );
+    }
+
+    TrackerImportQueue( AsyncTaskExecutor taskExecutor, int maxConcurrent )
+    {
+        this.taskExecutor = taskExecutor;
+        this.maxConcurrent = Math.max( 1, maxConcurrent );
+    }
+
+    /**
+     * Adds an import of the given user to the queue. The import is started
+     * right away if fewer than the max number of imports are running.
+     *
+     * @param userId the identifier of the importing user.
+     * @param job the import.
+     */
+    public synchronized void submit( String userId, Runnable job )
+    {
+        String key = String.valueOf( userId );
+
+        Deque<Runnable> queue = queues.computeIfAbsent( key, k -> new ArrayDeque<>() );
+
+        if ( queue.isEmpty() )
+        {
+            turns.add( key );
+        }
+
+        queue.add( job );
+
+        log.debug( "Queued tracker import of user: {}, running: {}, queued users: {}", key, running, turns.size() );
+
+        dispatch();
+    }
+
+    public synchronized int getRunningCount()
+    {
+        return running;
+    }
+
+    public synchronized int getQueuedCount()
+    {
+        return queues.values().stream().mapToInt( Deque::size ).sum();
+    }
+
+    private void dispatch()
+    {
+        while ( running < maxConcurrent && !turns.isEmpty() )
+        {
+            String key = turns.poll();
+            Deque<Runnable> queue = queues.get( key );
+            Runnable job = queue.poll();
+
+            if ( queue.isEmpty() )
+            {
+                queues.remove( key );
+            }
+            else
+            {
+                turns.add( key );
+            }
+
+            running++;
+
+            try
+            {
+                taskExecutor.executeTask( () -> {
+                    try
+                    {
+                        job.run();
+                    }
+                    finally
+                    {
+                        completed();
+                    }
+                } );
+            }
+            catch ( RuntimeException ex )
+            {
+                running--;
+                throw ex;
+            }
+        }
+    }
+
+    private synchronized void completed()
+    {
+        running--;
+
+        dispatch();
+    }
+}
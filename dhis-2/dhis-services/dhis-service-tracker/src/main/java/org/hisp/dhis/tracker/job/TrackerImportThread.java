@@ -27,6 +27,10 @@
  */
 package org.hisp.dhis.tracker.job;
 
+import java.util.function.Supplier;
+
+import lombok.extern.slf4j.Slf4j;
+
 import org.hisp.dhis.security.SecurityContextRunnable;
 import org.hisp.dhis.tracker.TrackerImportParams;
 import org.hisp.dhis.tracker.TrackerImportService;
@@ -38,6 +42,7 @@ import org.springframework.util.Assert;
 /**
  * @author Morten Olav Hansen <mortenoh@gmail.com>
  */
+@Slf4j
 @Component
 @Scope( BeanDefinition.SCOPE_PROTOTYPE )
 public class TrackerImportThread
@@ -45,7 +50,7 @@ public class TrackerImportThread
 {
     private final TrackerImportService trackerImportService;
 
-    private TrackerImportParams trackerImportParams;
+    private Supplier<TrackerImportParams> trackerImportParams;
 
     public TrackerImportThread( TrackerImportService trackerImportService )
     {
@@ -58,12 +63,27 @@ public class TrackerImportThread
         Assert.notNull( trackerImportParams, "Field trackerImportParams can not be null. " );
 
         trackerImportService
-            .importTracker( trackerImportParams ); // discard returned report,
-                                                   // it has been put on the
-                                                   // jobs endpoint
+            .importTracker( trackerImportParams.get() ); // discard returned report,
+                                                         // it has been put on the
+                                                         // jobs endpoint
+    }
+
+    @Override
+    public void handleError( Throwable ex )
+    {
+        log.error( "Tracker import failed", ex );
     }
 
     public void setTrackerImportParams( TrackerImportParams trackerImportParams )
+    {
+        this.trackerImportParams = () -> trackerImportParams;
+    }
+
+    /**
+     * Sets a supplier of the import parameters which is invoked when the
+     * import starts, used to load spooled payloads only when needed.
+     */
+    public void setTrackerImportParams( Supplier<TrackerImportParams> trackerImportParams )
     {
         this.trackerImportParams = trackerImportParams;
     }
@@ -34,6 +34,7 @@ import org.hisp.dhis.artemis.MessageType;
 import org.hisp.dhis.artemis.SerializableMessage;
 import org.hisp.dhis.tracker.TrackerImportParams;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.databind.annotation.JsonPOJOBuilder;
@@ -55,9 +56,27 @@ public class TrackerMessage implements SerializableMessage
     @JsonProperty
     private String authentication;
 
+    @JsonProperty
+    private final String userId;
+
+    /**
+     * The import parameters, null if the payload is spooled.
+     */
     @JsonProperty
     private final TrackerImportParams trackerImportParams;
 
+    /**
+     * Reference of the spooled payload, see {@link TrackerPayloadSpool}.
+     */
+    @JsonProperty
+    private final String payloadReference;
+
+    @JsonIgnore
+    public boolean isSpooled()
+    {
+        return payloadReference != null;
+    }
+
     @Override
     public MessageType getMessageType()
     {
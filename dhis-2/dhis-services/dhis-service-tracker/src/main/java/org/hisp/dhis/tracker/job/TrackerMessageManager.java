@@ -27,17 +27,20 @@
  */
 package org.hisp.dhis.tracker.job;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
 import javax.jms.JMSException;
 import javax.jms.TextMessage;
 
 import org.hisp.dhis.artemis.Topics;
-import org.hisp.dhis.common.AsyncTaskExecutor;
 import org.hisp.dhis.scheduling.JobConfiguration;
 import org.hisp.dhis.scheduling.JobType;
 import org.hisp.dhis.security.AuthenticationSerializer;
 import org.hisp.dhis.tracker.TrackerImportParams;
 import org.springframework.beans.factory.ObjectFactory;
 import org.springframework.jms.annotation.JmsListener;
+import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 
@@ -52,17 +55,21 @@ public class TrackerMessageManager
 {
     private final ObjectMapper objectMapper;
 
-    private final AsyncTaskExecutor taskExecutor;
+    private final TrackerImportQueue trackerImportQueue;
+
+    private final TrackerPayloadSpool payloadSpool;
 
     private final ObjectFactory<TrackerImportThread> trackerImportThreadFactory;
 
     public TrackerMessageManager(
         ObjectMapper objectMapper,
-        AsyncTaskExecutor taskExecutor,
+        TrackerImportQueue trackerImportQueue,
+        TrackerPayloadSpool payloadSpool,
         ObjectFactory<TrackerImportThread> trackerImportThreadFactory )
     {
         this.objectMapper = objectMapper;
-        this.taskExecutor = taskExecutor;
+        this.trackerImportQueue = trackerImportQueue;
+        this.payloadSpool = payloadSpool;
         this.trackerImportThreadFactory = trackerImportThreadFactory;
     }
 
@@ -74,23 +81,65 @@ public class TrackerMessageManager
         String payload = message.getText();
 
         TrackerMessage trackerMessage = objectMapper.readValue( payload, TrackerMessage.class );
-        TrackerImportParams trackerImportParams = trackerMessage.getTrackerImportParams();
+
+        String userId = trackerMessage.getUserId() != null ? trackerMessage.getUserId()
+            : trackerMessage.getTrackerImportParams().getUserId();
 
         JobConfiguration jobConfiguration = new JobConfiguration(
             "",
             JobType.TRACKER_IMPORT_JOB,
-            trackerImportParams.getUserId(),
+            userId,
             true );
 
         jobConfiguration.setUid( trackerMessage.getUid() );
-        trackerImportParams.setJobConfiguration( jobConfiguration );
 
-        TrackerImportThread trackerImportThread = trackerImportThreadFactory.getObject();
-        trackerImportThread.setTrackerImportParams( trackerImportParams );
-
-        SecurityContextHolder.getContext()
+        // the import may be queued, so it needs a security context of its own
+        // rather than the one of this listener thread
+        SecurityContext securityContext = SecurityContextHolder.createEmptyContext();
+        securityContext
             .setAuthentication( AuthenticationSerializer.deserialize( trackerMessage.getAuthentication() ) );
+        SecurityContextHolder.setContext( securityContext );
+
+        try
+        {
+            TrackerImportThread trackerImportThread = trackerImportThreadFactory.getObject();
 
-        taskExecutor.executeTask( trackerImportThread );
+            if ( trackerMessage.isSpooled() )
+            {
+                trackerImportThread.setTrackerImportParams( () -> {
+                    TrackerImportParams trackerImportParams = readSpooled( trackerMessage.getPayloadReference() );
+                    trackerImportParams.setJobConfiguration( jobConfiguration );
+                    return trackerImportParams;
+                } );
+            }
+            else
+            {
+                TrackerImportParams trackerImportParams = trackerMessage.getTrackerImportParams();
+                trackerImportParams.setJobConfiguration( jobConfiguration );
+                trackerImportThread.setTrackerImportParams( trackerImportParams );
+            }
+
+            trackerImportQueue.submit( userId, trackerImportThread );
+        }
+        finally
+        {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    private TrackerImportParams readSpooled( String reference )
+    {
+        try
+        {
+            return payloadSpool.read( reference );
+        }
+        catch ( IOException ex )
+        {
+            throw new UncheckedIOException( "Failed to read spooled tracker import payload: " + reference, ex );
+        }
+        finally
+        {
+            payloadSpool.delete( reference );
+        }
     }
 }
@@ -0,0 +1,270 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.tracker.job;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import javax.annotation.PostConstruct;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.apache.commons.lang3.StringUtils;
+import org.hisp.dhis.external.conf.ConfigurationKey;
+import org.hisp.dhis.external.conf.DhisConfigurationProvider;
+import org.hisp.dhis.external.location.LocationManager;
+import org.hisp.dhis.tracker.TrackerImportParams;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Spools the payload of async tracker imports to GZIP compressed JSON files, so
+ * that the {@link TrackerMessage} only carries a reference to the file rather
+ * than all tracked entities, enrollments and events, and the payload is not
+ * held in memory while the import is queued. The whole payload is read back into
+ * {@link TrackerImportParams} when the import starts.
+ * <p>
+ * Files of imports which never ran, for instance after a crash, are deleted
+ * once they are older than the configured retention, at startup and then
+ * periodically. Removal is based on age rather than done at startup only, as
+ * persistent queued messages may still refer to the files after a restart.
+ */
+@Slf4j
+@Component
+public class TrackerPayloadSpool
+{
+    private static final String SUFFIX = ".json.gz";
+
+    private static final Pattern REFERENCE_PATTERN = Pattern.compile( "^[a-zA-Z0-9]{11}\\.json\\.gz$" );
+
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final Duration CLEANUP_INTERVAL = Duration.ofHours( 1 );
+
+    private final ObjectMapper objectMapper;
+
+    private final TaskScheduler taskScheduler;
+
+    private final boolean enabled;
+
+    private final Path directory;
+
+    private final Duration retention;
+
+    public TrackerPayloadSpool( ObjectMapper objectMapper, DhisConfigurationProvider config,
+        LocationManager locationManager, @Qualifier( "taskScheduler" ) TaskScheduler taskScheduler )
+    {
+        this.objectMapper = objectMapper;
+        this.taskScheduler = taskScheduler;
+        this.enabled = config.isEnabled( ConfigurationKey.TRACKER_IMPORT_SPOOL_ENABLED );
+        this.directory = getDirectory( config, locationManager );
+        this.retention = Duration.ofHours(
+            Integer.parseInt( config.getProperty( ConfigurationKey.TRACKER_IMPORT_SPOOL_RETENTION_HOURS ) ) );
+    }
+
+    TrackerPayloadSpool( ObjectMapper objectMapper, Path directory, Duration retention )
+    {
+        this.objectMapper = objectMapper;
+        this.taskScheduler = null;
+        this.enabled = true;
+        this.directory = directory;
+        this.retention = retention;
+    }
+
+    @PostConstruct
+    public void init()
+    {
+        if ( enabled )
+        {
+            taskScheduler.scheduleWithFixedDelay( this::deleteOrphans, CLEANUP_INTERVAL );
+        }
+    }
+
+    public boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    /**
+     * Writes the given import parameters to a new spool file.
+     *
+     * @param uid the UID of the import job.
+     * @param params the {@link TrackerImportParams}.
+     * @return the reference of the spool file.
+     * @throws IOException if the file could not be written.
+     */
+    public String write( String uid, TrackerImportParams params )
+        throws IOException
+    {
+        String reference = uid + SUFFIX;
+
+        Files.createDirectories( directory );
+
+        Path temp = Files.createTempFile( directory, uid, TEMP_SUFFIX );
+
+        try ( OutputStream out = new GZIPOutputStream( Files.newOutputStream( temp ), BUFFER_SIZE ) )
+        {
+            objectMapper.writeValue( out, params );
+        }
+        catch ( IOException | RuntimeException ex )
+        {
+            Files.deleteIfExists( temp );
+            throw ex;
+        }
+
+        Files.move( temp, resolve( reference ), StandardCopyOption.ATOMIC_MOVE );
+
+        log.debug( "Spooled tracker import payload: {}", reference );
+
+        return reference;
+    }
+
+    /**
+     * Reads the import parameters of the given spool file.
+     *
+     * @param reference the reference of the spool file.
+     * @return the {@link TrackerImportParams}.
+     * @throws IOException if the file could not be read.
+     */
+    public TrackerImportParams read( String reference )
+        throws IOException
+    {
+        try ( InputStream in = new GZIPInputStream( Files.newInputStream( resolve( reference ) ), BUFFER_SIZE ) )
+        {
+            return objectMapper.readValue( in, TrackerImportParams.class );
+        }
+    }
+
+    /**
+     * Deletes the given spool file, if it exists.
+     *
+     * @param reference the reference of the spool file.
+     */
+    public void delete( String reference )
+    {
+        try
+        {
+            Files.deleteIfExists( resolve( reference ) );
+        }
+        catch ( IOException ex )
+        {
+            log.warn( "Failed to delete spooled tracker import payload: " + reference, ex );
+        }
+    }
+
+    /**
+     * Deletes spool files and partially written temporary files which are
+     * older than the retention, as the import they belong to will not run.
+     *
+     * @return the number of deleted files.
+     */
+    public int deleteOrphans()
+    {
+        if ( !Files.isDirectory( directory ) )
+        {
+            return 0;
+        }
+
+        Instant cutoff = Instant.now().minus( retention );
+
+        int deleted = 0;
+
+        try ( DirectoryStream<Path> files = Files.newDirectoryStream( directory,
+            file -> isSpoolFile( file ) && Files.getLastModifiedTime( file ).toInstant().isBefore( cutoff ) ) )
+        {
+            for ( Path file : files )
+            {
+                if ( Files.deleteIfExists( file ) )
+                {
+                    deleted++;
+                }
+            }
+        }
+        catch ( IOException ex )
+        {
+            log.warn( "Failed to delete orphaned tracker import payloads in: " + directory, ex );
+        }
+
+        if ( deleted > 0 )
+        {
+            log.info( "Deleted {} orphaned tracker import payloads", deleted );
+        }
+
+        return deleted;
+    }
+
+    private static boolean isSpoolFile( Path file )
+    {
+        String name = file.getFileName().toString();
+
+        return name.endsWith( SUFFIX ) || name.endsWith( TEMP_SUFFIX );
+    }
+
+    private Path resolve( String reference )
+    {
+        if ( reference == null || !REFERENCE_PATTERN.matcher( reference ).matches() )
+        {
+            throw new IllegalArgumentException( "Invalid tracker import payload reference: " + reference );
+        }
+
+        return directory.resolve( reference );
+    }
+
+    private static Path getDirectory( DhisConfigurationProvider config, LocationManager locationManager )
+    {
+        String dir = config.getProperty( ConfigurationKey.TRACKER_IMPORT_SPOOL_DIR );
+
+        if ( StringUtils.isNotBlank( dir ) )
+        {
+            return Paths.get( dir );
+        }
+
+        if ( locationManager.externalDirectorySet() )
+        {
+            return Paths.get( locationManager.getExternalDirectoryPath(), "tracker", "spool" );
+        }
+
+        return Paths.get( System.getProperty( "java.io.tmpdir" ), "dhis2", "tracker", "spool" );
+    }
+}
@@ -150,6 +150,32 @@ public class TrackerImportReport
             .build();
     }
 
+    /**
+     * Factory method to use in case of an unrecoverable error during a Tracker
+     * Import of which some parts were already persisted, as with imports in
+     * chunks. This factory method will set the status to ERROR.
+     *
+     * Import statistics only count the persisted bundle objects.
+     *
+     * @param message The error message
+     * @param bundleReport The report of the bundle objects persisted before
+     *        the error
+     * @param validationReport The validation report if available
+     * @param timingsStats The timing stats if available
+     */
+    public static TrackerImportReport withError( String message, TrackerBundleReport bundleReport,
+        TrackerValidationReport validationReport, TrackerTimingsStats timingsStats )
+    {
+        return builder()
+            .status( TrackerStatus.ERROR )
+            .validationReport( validationReport )
+            .timingsStats( timingsStats )
+            .bundleReport( bundleReport )
+            .stats( bundleReport.getStats() )
+            .message( message )
+            .build();
+    }
+
     /**
      * Factory method to use when a Tracker Import process completes.
      *
@@ -27,15 +27,20 @@
  */
 package org.hisp.dhis.tracker.report;
 
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
 
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 
 import org.hisp.dhis.commons.timer.SystemTimer;
 import org.hisp.dhis.commons.timer.Timer;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 /**
@@ -106,7 +111,19 @@ public class TrackerTimingsStats
         return timers.getOrDefault( TOTAL_REQUEST_OPS, DEFAULT_VALUE );
     }
 
-    private static Timer timer;
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private final Timer timer;
+
+    /**
+     * Elapsed nanoseconds of the operations timed by this instance, used to
+     * add up the timings of several imports.
+     */
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private final Map<String, Long> durations = new HashMap<>();
 
     public TrackerTimingsStats()
     {
@@ -134,7 +151,7 @@ public class TrackerTimingsStats
 
         timer.stop();
 
-        this.set( timedOperation, timer.toString() );
+        this.setElapsed( timedOperation, timer );
 
         return result;
     }
@@ -153,6 +170,30 @@ public class TrackerTimingsStats
 
         timer.stop();
 
+        this.setElapsed( timedOperation, timer );
+    }
+
+    /**
+     * Adds the timings of the given stats to the timings of this instance, for
+     * imports split in several parts.
+     *
+     * @param other the stats to add
+     * @return this instance
+     */
+    public TrackerTimingsStats add( TrackerTimingsStats other )
+    {
+        other.durations.forEach( ( timedOperation, duration ) -> {
+            long total = this.durations.merge( timedOperation, duration, Long::sum );
+
+            this.set( timedOperation, String.format( "%f sec.", total / (double) TimeUnit.SECONDS.toNanos( 1 ) ) );
+        } );
+
+        return this;
+    }
+
+    private void setElapsed( String timedOperation, Timer timer )
+    {
+        this.durations.put( timedOperation, timer.duration() );
         this.set( timedOperation, timer.toString() );
     }
 
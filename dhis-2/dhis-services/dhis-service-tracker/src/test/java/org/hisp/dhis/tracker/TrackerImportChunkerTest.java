@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.tracker;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.hisp.dhis.tracker.domain.Enrollment;
+import org.hisp.dhis.tracker.domain.Event;
+import org.hisp.dhis.tracker.domain.Relationship;
+import org.hisp.dhis.tracker.domain.TrackedEntity;
+import org.hisp.dhis.user.User;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.Lists;
+
+class TrackerImportChunkerTest
+{
+    @Test
+    void shouldKeepTrackedEntityWithEnrollmentsAndEvents()
+    {
+        TrackerImportParams params = TrackerImportParams.builder()
+            .trackedEntities( Lists.newArrayList( trackedEntity( "TEI_A" ), trackedEntity( "TEI_B" ) ) )
+            .enrollments( Lists.newArrayList( enrollment( "ENR_B", "TEI_B" ), enrollment( "ENR_A", "TEI_A" ) ) )
+            .events( Lists.newArrayList( event( "EVT_B1", "ENR_B" ), event( "EVT_A1", "ENR_A" ),
+                event( "EVT_B2", "ENR_B" ) ) )
+            .build();
+
+        List<TrackerImportChunk> chunks = TrackerImportChunker.split( params, 3 );
+
+        assertEquals( 2, chunks.size() );
+
+        TrackerImportChunk first = chunks.get( 0 );
+        assertEquals( "TEI_A", first.getParams().getTrackedEntities().get( 0 ).getTrackedEntity() );
+        assertEquals( "ENR_A", first.getParams().getEnrollments().get( 0 ).getEnrollment() );
+        assertEquals( "EVT_A1", first.getParams().getEvents().get( 0 ).getEvent() );
+        assertEquals( 1, first.getOriginalIndex( TrackerType.ENROLLMENT, 0 ) );
+        assertEquals( 1, first.getOriginalIndex( TrackerType.EVENT, 0 ) );
+
+        TrackerImportChunk second = chunks.get( 1 );
+        assertEquals( 4, second.size() );
+        assertEquals( "TEI_B", second.getParams().getTrackedEntities().get( 0 ).getTrackedEntity() );
+        assertEquals( 2, second.getParams().getEvents().size() );
+        assertEquals( 2, second.getOriginalIndex( TrackerType.EVENT, 1 ) );
+    }
+
+    @Test
+    void shouldGroupEnrollmentsAndEventsWithoutTrackedEntityInPayload()
+    {
+        TrackerImportParams params = TrackerImportParams.builder()
+            .enrollments( Lists.newArrayList( enrollment( "ENR_A", "TEI_A" ) ) )
+            .events( Lists.newArrayList( event( "EVT_X", null ), event( "EVT_A1", "ENR_A" ),
+                event( "EVT_Y", "ENR_MISSING" ) ) )
+            .build();
+
+        List<TrackerImportChunk> chunks = TrackerImportChunker.split( params, 2 );
+
+        assertEquals( 2, chunks.size() );
+        assertEquals( 2, chunks.get( 0 ).size() );
+        assertEquals( "EVT_A1", chunks.get( 0 ).getParams().getEvents().get( 0 ).getEvent() );
+        assertEquals( 2, chunks.get( 1 ).getParams().getEvents().size() );
+    }
+
+    @Test
+    void shouldPutRelationshipsInTrailingDependentChunks()
+    {
+        TrackerImportParams params = TrackerImportParams.builder()
+            .trackedEntities( Lists.newArrayList( trackedEntity( "TEI_A" ), trackedEntity( "TEI_B" ) ) )
+            .relationships( Lists.newArrayList( relationship( "REL_1" ), relationship( "REL_2" ),
+                relationship( "REL_3" ) ) )
+            .build();
+
+        List<TrackerImportChunk> chunks = TrackerImportChunker.split( params, 2 );
+
+        assertEquals( 3, chunks.size() );
+        assertFalse( chunks.get( 0 ).isDependent() );
+        assertTrue( chunks.get( 0 ).getParams().getRelationships().isEmpty() );
+        assertTrue( chunks.get( 1 ).isDependent() );
+        assertEquals( 2, chunks.get( 1 ).getParams().getRelationships().size() );
+        assertTrue( chunks.get( 2 ).isDependent() );
+        assertEquals( 2, chunks.get( 2 ).getOriginalIndex( TrackerType.RELATIONSHIP, 0 ) );
+    }
+
+    @Test
+    void shouldCopySettingsToChunks()
+    {
+        User user = new User();
+        user.setUid( "user1234" );
+
+        TrackerImportParams params = TrackerImportParams.builder()
+            .atomicMode( AtomicMode.OBJECT )
+            .skipRuleEngine( true )
+            .chunkSize( 1 )
+            .events( Lists.newArrayList( event( "EVT_1", null ), event( "EVT_2", null ) ) )
+            .build()
+            .setUser( user );
+
+        List<TrackerImportChunk> chunks = TrackerImportChunker.split( params, 1 );
+
+        assertEquals( 2, chunks.size() );
+
+        for ( TrackerImportChunk chunk : chunks )
+        {
+            assertEquals( AtomicMode.OBJECT, chunk.getParams().getAtomicMode() );
+            assertTrue( chunk.getParams().isSkipRuleEngine() );
+            assertSame( user, chunk.getParams().getUser() );
+            assertEquals( 0, chunk.getParams().getChunkSize() );
+        }
+    }
+
+    @Test
+    void shouldRejectInvalidChunkSize()
+    {
+        TrackerImportParams params = TrackerImportParams.builder().build();
+
+        assertThrows( IllegalArgumentException.class, () -> TrackerImportChunker.split( params, 0 ) );
+    }
+
+    private static TrackedEntity trackedEntity( String uid )
+    {
+        return TrackedEntity.builder().trackedEntity( uid ).build();
+    }
+
+    private static Enrollment enrollment( String uid, String trackedEntity )
+    {
+        return Enrollment.builder().enrollment( uid ).trackedEntity( trackedEntity ).build();
+    }
+
+    private static Event event( String uid, String enrollment )
+    {
+        return Event.builder().event( uid ).enrollment( enrollment ).build();
+    }
+
+    private static Relationship relationship( String uid )
+    {
+        return Relationship.builder().relationship( uid ).build();
+    }
+}
@@ -27,10 +27,12 @@
  */
 package org.hisp.dhis.tracker.bundle;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -44,16 +46,21 @@ import org.hisp.dhis.system.notification.Notifier;
 import org.hisp.dhis.tracker.DefaultTrackerImportService;
 import org.hisp.dhis.tracker.ParamsConverter;
 import org.hisp.dhis.tracker.TrackerImportParams;
+import org.hisp.dhis.tracker.TrackerType;
 import org.hisp.dhis.tracker.TrackerUserService;
 import org.hisp.dhis.tracker.domain.Event;
 import org.hisp.dhis.tracker.preprocess.TrackerPreprocessService;
 import org.hisp.dhis.tracker.report.TrackerBundleReport;
+import org.hisp.dhis.tracker.report.TrackerImportReport;
+import org.hisp.dhis.tracker.report.TrackerStatus;
+import org.hisp.dhis.tracker.report.TrackerTypeReport;
 import org.hisp.dhis.tracker.report.TrackerValidationReport;
 import org.hisp.dhis.tracker.validation.TrackerValidationService;
 import org.hisp.dhis.user.User;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
@@ -90,7 +97,7 @@ class TrackerImporterServiceTest
     {
         subject = new DefaultTrackerImportService( trackerBundleService, trackerValidationService,
             trackerPreprocessService,
-            trackerUserService, notifier );
+            trackerUserService, notifier, Runnable::run );
 
         final List<Event> events = rnd.objects( Event.class, 3 ).collect( Collectors.toList() );
 
@@ -147,6 +154,62 @@ class TrackerImporterServiceTest
         verify( trackerBundleService, times( 1 ) ).handleTrackerSideEffects( anyList() );
     }
 
+    @Test
+    void testChunkedImportCommitsEveryChunk()
+    {
+        params.setChunkSize( 1 );
+
+        when( trackerBundleService.create( any( TrackerImportParams.class ) ) )
+            .thenAnswer( invocation -> ParamsConverter.convert( invocation.getArgument( 0 ) ) );
+
+        TrackerImportReport report = subject.importTracker( params );
+
+        verify( trackerBundleService, times( 3 ) ).create( any( TrackerImportParams.class ) );
+        verify( trackerBundleService, times( 3 ) ).commit( any( TrackerBundle.class ) );
+        assertEquals( TrackerStatus.OK, report.getStatus() );
+    }
+
+    @Test
+    void testChunkedImportPreheatsNextChunkAfterCommit()
+    {
+        params.setChunkSize( 1 );
+
+        when( trackerBundleService.create( any( TrackerImportParams.class ) ) )
+            .thenAnswer( invocation -> ParamsConverter.convert( invocation.getArgument( 0 ) ) );
+
+        subject.importTracker( params );
+
+        InOrder inOrder = inOrder( trackerBundleService );
+        for ( int i = 0; i < 3; i++ )
+        {
+            inOrder.verify( trackerBundleService ).create( any( TrackerImportParams.class ) );
+            inOrder.verify( trackerBundleService ).commit( any( TrackerBundle.class ) );
+        }
+    }
+
+    @Test
+    void testChunkedImportErrorReportsCommittedChunks()
+    {
+        params.setChunkSize( 1 );
+
+        TrackerTypeReport typeReport = new TrackerTypeReport( TrackerType.EVENT );
+        typeReport.getStats().incCreated();
+        TrackerBundleReport bundleReport = TrackerBundleReport.builder().build();
+        bundleReport.getTypeReportMap().put( TrackerType.EVENT, typeReport );
+
+        when( trackerBundleService.create( any( TrackerImportParams.class ) ) )
+            .thenAnswer( invocation -> ParamsConverter.convert( invocation.getArgument( 0 ) ) );
+        when( trackerBundleService.commit( any( TrackerBundle.class ) ) )
+            .thenReturn( bundleReport )
+            .thenThrow( new IllegalStateException( "commit failed" ) );
+
+        TrackerImportReport report = subject.importTracker( params );
+
+        assertEquals( TrackerStatus.ERROR, report.getStatus() );
+        assertEquals( 1, report.getStats().getCreated() );
+        assertEquals( 1, report.getBundleReport().getStats().getCreated() );
+    }
+
     private User getUser()
     {
         User user = new User();
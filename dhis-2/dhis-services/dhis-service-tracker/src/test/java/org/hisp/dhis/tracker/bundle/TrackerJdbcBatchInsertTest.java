@@ -0,0 +1,177 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.tracker.bundle;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.hisp.dhis.common.CodeGenerator;
+import org.hisp.dhis.tracker.TrackerImportParams;
+import org.hisp.dhis.tracker.TrackerImportService;
+import org.hisp.dhis.tracker.TrackerTest;
+import org.hisp.dhis.tracker.bundle.persister.TrackerJdbcBatchWriter;
+import org.hisp.dhis.tracker.report.TrackerImportReport;
+import org.hisp.dhis.tracker.report.TrackerStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.StreamUtils;
+
+/**
+ * Imports the same payload through the Hibernate path and, with other uids,
+ * through the JDBC batch path, and compares the written rows.
+ */
+class TrackerJdbcBatchInsertTest extends TrackerTest
+{
+    private static final String DATA = "tracker/tracker_basic_data_before_deletion.json";
+
+    private static final Pattern UID_PATTERN = Pattern
+        .compile( "\"(?:trackedEntity|enrollment|event)\"\\s*:\\s*\"(\\w{11})\"" );
+
+    @Autowired
+    private TrackerImportService trackerImportService;
+
+    @Autowired
+    private TrackerJdbcBatchWriter batchWriter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    protected void initTest()
+        throws IOException
+    {
+        setUpMetadata( "tracker/tracker_basic_metadata.json" );
+    }
+
+    @Test
+    void testBatchInsertWritesSameRowsAsHibernate()
+        throws IOException
+    {
+        String json = StreamUtils.copyToString( new ClassPathResource( DATA ).getInputStream(),
+            StandardCharsets.UTF_8 );
+        Map<String, String> uids = new HashMap<>();
+        Matcher matcher = UID_PATTERN.matcher( json );
+
+        while ( matcher.find() )
+        {
+            uids.computeIfAbsent( matcher.group( 1 ), uid -> CodeGenerator.generateUid() );
+        }
+
+        String batchJson = json;
+
+        for ( Map.Entry<String, String> uid : uids.entrySet() )
+        {
+            batchJson = batchJson.replace( "\"" + uid.getKey() + "\"", "\"" + uid.getValue() + "\"" );
+        }
+
+        assertEquals( TrackerStatus.OK, importTracker( json ).getStatus() );
+
+        boolean enabled = batchWriter.isEnabled();
+        int batchSize = batchWriter.getBatchSize();
+
+        try
+        {
+            ReflectionTestUtils.setField( batchWriter, "enabled", true );
+            ReflectionTestUtils.setField( batchWriter, "batchSize", 5 );
+
+            assertEquals( TrackerStatus.OK, importTracker( batchJson ).getStatus() );
+        }
+        finally
+        {
+            ReflectionTestUtils.setField( batchWriter, "enabled", enabled );
+            ReflectionTestUtils.setField( batchWriter, "batchSize", batchSize );
+        }
+
+        manager.flush();
+
+        for ( Map.Entry<String, String> uid : uids.entrySet() )
+        {
+            assertSameRow( "trackedentityinstance", uid.getKey(), uid.getValue() );
+            assertSameRow( "programinstance", uid.getKey(), uid.getValue() );
+            assertSameRow( "programstageinstance", uid.getKey(), uid.getValue() );
+        }
+
+        assertEquals( getAttributeValues( uids.keySet() ), getAttributeValues( uids.values() ) );
+        assertFalse( getAttributeValues( uids.keySet() ).isEmpty() );
+    }
+
+    private TrackerImportReport importTracker( String json )
+        throws IOException
+    {
+        TrackerImportParams params = renderService.fromJson( json, TrackerImportParams.class );
+        params.setUser( currentUserService.getCurrentUser() );
+        return trackerImportService.importTracker( params );
+    }
+
+    /**
+     * Asserts that the rows with the given uids are equal, apart from keys and
+     * timestamps set at import time, or that neither exists.
+     */
+    private void assertSameRow( String table, String uid, String batchUid )
+    {
+        assertEquals( getRow( table, uid ), getRow( table, batchUid ), table + " " + uid );
+    }
+
+    private Map<String, Object> getRow( String table, String uid )
+    {
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList( "select * from " + table + " where uid = ?",
+            uid );
+
+        if ( rows.isEmpty() )
+        {
+            return Map.of();
+        }
+
+        Map<String, Object> row = new HashMap<>( rows.get( 0 ) );
+        row.keySet().removeAll( List.of( table + "id", "uid", "created", "lastupdated",
+            "trackedentityinstanceid", "programinstanceid" ) );
+        return row;
+    }
+
+    private List<Map<String, Object>> getAttributeValues( Iterable<String> uids )
+    {
+        String in = "'" + String.join( "','", uids ) + "'";
+
+        return jdbcTemplate.queryForList( "select tea.uid as attribute, av.value, av.storedby "
+            + "from trackedentityattributevalue av "
+            + "inner join trackedentityinstance tei on av.trackedentityinstanceid = tei.trackedentityinstanceid "
+            + "inner join trackedentityattribute tea on av.trackedentityattributeid = tea.trackedentityattributeid "
+            + "where tei.uid in (" + in + ") order by tea.uid, av.value" );
+    }
+}
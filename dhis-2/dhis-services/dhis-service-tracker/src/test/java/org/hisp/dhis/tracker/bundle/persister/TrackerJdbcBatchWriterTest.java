@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.tracker.bundle.persister;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.hibernate.Session;
+import org.hisp.dhis.artemis.audit.AuditManager;
+import org.hisp.dhis.external.conf.ConfigurationKey;
+import org.hisp.dhis.external.conf.DhisConfigurationProvider;
+import org.hisp.dhis.trackedentity.TrackedEntityAttribute;
+import org.hisp.dhis.trackedentity.TrackedEntityInstance;
+import org.hisp.dhis.trackedentityattributevalue.TrackedEntityAttributeValue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@ExtendWith( MockitoExtension.class )
+class TrackerJdbcBatchWriterTest
+{
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private AuditManager auditManager;
+
+    @Mock
+    private DhisConfigurationProvider config;
+
+    @Mock
+    private Session session;
+
+    private TrackerJdbcBatchWriter writer;
+
+    @BeforeEach
+    void setUp()
+    {
+        when( config.isEnabled( ConfigurationKey.TRACKER_IMPORT_JDBC_BATCH_ENABLED ) ).thenReturn( true );
+        when( config.getProperty( ConfigurationKey.TRACKER_IMPORT_JDBC_BATCH_SIZE ) ).thenReturn( "2" );
+
+        writer = new TrackerJdbcBatchWriter( jdbcTemplate, new ObjectMapper(), auditManager, config );
+    }
+
+    @Test
+    void shouldInsertAttributeValuesWithMultiRowStatements()
+    {
+        TrackedEntityInstance tei = new TrackedEntityInstance();
+        tei.setId( 1L );
+
+        List<TrackedEntityAttributeValue> values = Arrays.asList(
+            attributeValue( tei, 10L, false ), attributeValue( tei, 11L, false ), attributeValue( tei, 12L, false ) );
+
+        writer.insertAttributeValues( session, values );
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass( String.class );
+        verify( jdbcTemplate, times( 2 ) ).update( sql.capture(), any( PreparedStatementSetter.class ) );
+
+        assertTrue( sql.getAllValues().get( 0 ).startsWith( "insert into trackedentityattributevalue (" ) );
+        assertTrue( sql.getAllValues().get( 0 ).endsWith( "values (?,?,?,?,?,?),(?,?,?,?,?,?)" ) );
+        assertTrue( sql.getAllValues().get( 1 ).endsWith( "values (?,?,?,?,?,?)" ) );
+        verify( session, never() ).persist( any() );
+    }
+
+    @Test
+    void shouldPersistConfidentialAttributeValuesWithSession()
+    {
+        TrackedEntityInstance tei = new TrackedEntityInstance();
+        tei.setId( 1L );
+
+        TrackedEntityAttributeValue confidential = attributeValue( tei, 10L, true );
+
+        writer.insertAttributeValues( session, Collections.singletonList( confidential ) );
+
+        verify( session ).persist( confidential );
+        verify( jdbcTemplate, never() ).update( anyString(), any( PreparedStatementSetter.class ) );
+    }
+
+    @Test
+    void shouldAssignIdsFromSequence()
+    {
+        TrackedEntityInstance teiA = new TrackedEntityInstance();
+        TrackedEntityInstance teiB = new TrackedEntityInstance();
+
+        when( jdbcTemplate.queryForList( anyString(), eq( Long.class ), eq( 2 ) ) )
+            .thenReturn( Arrays.asList( 5L, 6L ) );
+
+        writer.insertTrackedEntities( session, Arrays.asList( teiA, teiB ) );
+
+        assertEquals( 5L, teiA.getId() );
+        assertEquals( 6L, teiB.getId() );
+        verify( session ).flush();
+        verify( jdbcTemplate ).update( anyString(), any( PreparedStatementSetter.class ) );
+    }
+
+    private static TrackedEntityAttributeValue attributeValue( TrackedEntityInstance tei, long attributeId,
+        boolean confidential )
+    {
+        TrackedEntityAttribute attribute = new TrackedEntityAttribute();
+        attribute.setId( attributeId );
+        attribute.setConfidential( confidential );
+
+        return new TrackedEntityAttributeValue()
+            .setEntityInstance( tei )
+            .setAttribute( attribute )
+            .setValue( "value" );
+    }
+}
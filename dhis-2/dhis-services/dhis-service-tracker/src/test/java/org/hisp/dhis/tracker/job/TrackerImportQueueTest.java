@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.tracker.job;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+
+import org.hisp.dhis.common.AsyncTaskExecutor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link TrackerImportQueue}.
+ */
+class TrackerImportQueueTest
+{
+    private final List<Runnable> started = new ArrayList<>();
+
+    private final List<String> executed = new ArrayList<>();
+
+    private TrackerImportQueue queue;
+
+    @BeforeEach
+    void setUp()
+    {
+        AsyncTaskExecutor executor = new AsyncTaskExecutor()
+        {
+            @Override
+            public void executeTask( Runnable task )
+            {
+                started.add( task );
+            }
+
+            @Override
+            public Future<?> executeTaskWithCancelation( Runnable task )
+            {
+                throw new UnsupportedOperationException();
+            }
+        };
+
+        queue = new TrackerImportQueue( executor, 1 );
+    }
+
+    @Test
+    void testLimitsConcurrentImports()
+    {
+        queue.submit( "userA", job( "A1" ) );
+        queue.submit( "userA", job( "A2" ) );
+
+        assertEquals( 1, queue.getRunningCount() );
+        assertEquals( 1, queue.getQueuedCount() );
+
+        runNext();
+
+        assertEquals( 1, queue.getRunningCount() );
+        assertEquals( 0, queue.getQueuedCount() );
+
+        runNext();
+
+        assertEquals( 0, queue.getRunningCount() );
+        assertEquals( List.of( "A1", "A2" ), executed );
+    }
+
+    @Test
+    void testImportsStartInTurnsPerUser()
+    {
+        queue.submit( "userA", job( "A1" ) );
+        queue.submit( "userA", job( "A2" ) );
+        queue.submit( "userA", job( "A3" ) );
+        queue.submit( "userB", job( "B1" ) );
+        queue.submit( "userC", job( "C1" ) );
+        queue.submit( "userB", job( "B2" ) );
+
+        while ( !started.isEmpty() )
+        {
+            runNext();
+        }
+
+        assertEquals( List.of( "A1", "A2", "B1", "C1", "A3", "B2" ), executed );
+    }
+
+    private Runnable job( String name )
+    {
+        return () -> executed.add( name );
+    }
+
+    private void runNext()
+    {
+        started.remove( 0 ).run();
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.tracker.job;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import org.hisp.dhis.commons.jackson.config.JacksonObjectMapperConfig;
+import org.hisp.dhis.tracker.TrackerImportParams;
+import org.hisp.dhis.tracker.TrackerImportStrategy;
+import org.hisp.dhis.tracker.domain.TrackedEntity;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Unit tests for {@link TrackerPayloadSpool}.
+ */
+class TrackerPayloadSpoolTest
+{
+    @TempDir
+    Path directory;
+
+    private TrackerPayloadSpool spool;
+
+    @BeforeEach
+    void setUp()
+    {
+        spool = new TrackerPayloadSpool( JacksonObjectMapperConfig.staticJsonMapper(), directory,
+            Duration.ofHours( 24 ) );
+    }
+
+    @Test
+    void testWriteAndRead()
+        throws IOException
+    {
+        TrackerImportParams params = TrackerImportParams.builder()
+            .userId( "userUid0001" )
+            .importStrategy( TrackerImportStrategy.CREATE_AND_UPDATE )
+            .trackedEntities( List.of( TrackedEntity.builder()
+                .trackedEntity( "teiUid00001" )
+                .orgUnit( "ouUid000001" )
+                .build() ) )
+            .build();
+
+        String reference = spool.write( "jobUid00001", params );
+
+        assertEquals( "jobUid00001.json.gz", reference );
+        assertTrue( Files.exists( directory.resolve( reference ) ) );
+
+        TrackerImportParams read = spool.read( reference );
+
+        assertEquals( "userUid0001", read.getUserId() );
+        assertEquals( TrackerImportStrategy.CREATE_AND_UPDATE, read.getImportStrategy() );
+        assertEquals( 1, read.getTrackedEntities().size() );
+        assertEquals( "teiUid00001", read.getTrackedEntities().get( 0 ).getTrackedEntity() );
+        assertEquals( "ouUid000001", read.getTrackedEntities().get( 0 ).getOrgUnit() );
+    }
+
+    @Test
+    void testDelete()
+        throws IOException
+    {
+        String reference = spool.write( "jobUid00001", TrackerImportParams.builder().build() );
+
+        spool.delete( reference );
+
+        assertFalse( Files.exists( directory.resolve( reference ) ) );
+    }
+
+    @Test
+    void testInvalidReference()
+    {
+        assertThrows( IllegalArgumentException.class, () -> spool.read( "../secret.json.gz" ) );
+        assertThrows( IllegalArgumentException.class, () -> spool.delete( "jobUid00001.txt" ) );
+        assertThrows( IllegalArgumentException.class, () -> spool.read( null ) );
+    }
+
+    @Test
+    void testDeleteOrphans()
+        throws IOException
+    {
+        FileTime old = FileTime.from( Instant.now().minus( Duration.ofHours( 25 ) ) );
+
+        Path orphan = Files.createFile( directory.resolve( "jobUid00001.json.gz" ) );
+        Files.setLastModifiedTime( orphan, old );
+
+        Path orphanTemp = Files.createFile( directory.resolve( "jobUid000021234.tmp" ) );
+        Files.setLastModifiedTime( orphanTemp, old );
+
+        Path other = Files.createFile( directory.resolve( "readme.txt" ) );
+        Files.setLastModifiedTime( other, old );
+
+        Path recent = Files.createFile( directory.resolve( "jobUid00003.json.gz" ) );
+
+        assertEquals( 2, spool.deleteOrphans() );
+
+        assertFalse( Files.exists( orphan ) );
+        assertFalse( Files.exists( orphanTemp ) );
+        assertTrue( Files.exists( other ) );
+        assertTrue( Files.exists( recent ) );
+    }
+
+    @Test
+    void testDeleteOrphansWithoutDirectory()
+    {
+        spool = new TrackerPayloadSpool( JacksonObjectMapperConfig.staticJsonMapper(), directory.resolve( "missing" ),
+            Duration.ofHours( 24 ) );
+
+        assertEquals( 0, spool.deleteOrphans() );
+    }
+}
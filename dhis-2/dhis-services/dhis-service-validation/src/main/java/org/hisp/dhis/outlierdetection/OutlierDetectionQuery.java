@@ -75,4 +75,7 @@ public class OutlierDetectionQuery
 
     @JsonProperty
     private Integer maxResults;
+
+    @JsonProperty
+    private boolean precomputedStatistics;
 }
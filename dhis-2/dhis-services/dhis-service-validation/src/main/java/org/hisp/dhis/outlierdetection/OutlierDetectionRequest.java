@@ -69,6 +69,8 @@ public class OutlierDetectionRequest
 
     private int maxResults;
 
+    private boolean precomputedStatistics;
+
     public List<Long> getDataElementIds()
     {
         return dataElements.stream()
@@ -85,6 +87,11 @@ public class OutlierDetectionRequest
         return dataStartDate != null && dataEndDate != null;
     }
 
+    public boolean hasDataStartOrEndDate()
+    {
+        return dataStartDate != null || dataEndDate != null;
+    }
+
     public static class Builder
     {
         private OutlierDetectionRequest request;
@@ -158,6 +165,12 @@ public class OutlierDetectionRequest
             return this;
         }
 
+        public Builder withPrecomputedStatistics( boolean precomputedStatistics )
+        {
+            this.request.precomputedStatistics = precomputedStatistics;
+            return this;
+        }
+
         public OutlierDetectionRequest build()
         {
             Preconditions.checkNotNull( this.request.orgUnitSelection );
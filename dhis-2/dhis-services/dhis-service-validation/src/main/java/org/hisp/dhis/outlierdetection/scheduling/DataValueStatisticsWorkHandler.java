@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.outlierdetection.scheduling;
+
+import static java.util.stream.Collectors.joining;
+import static java.util.stream.Collectors.toList;
+
+import java.util.Arrays;
+import java.util.List;
+
+import lombok.RequiredArgsConstructor;
+
+import org.hisp.dhis.outlierdetection.service.DataValueStatisticsManager;
+import org.hisp.dhis.scheduling.JobWorkHandler;
+import org.springframework.stereotype.Component;
+
+/**
+ * Refreshes the data value statistics of a shard of data elements. A work item
+ * is the comma separated list of the data element identifiers of a shard.
+ */
+@Component
+@RequiredArgsConstructor
+public class DataValueStatisticsWorkHandler implements JobWorkHandler
+{
+    public static final String WORK_TYPE = "DATA_VALUE_STATISTICS";
+
+    private final DataValueStatisticsManager statisticsManager;
+
+    @Override
+    public String getWorkType()
+    {
+        return WORK_TYPE;
+    }
+
+    @Override
+    public void execute( String item )
+    {
+        statisticsManager.refreshStatistics( fromItem( item ) );
+    }
+
+    public static String toItem( List<Long> dataElementIds )
+    {
+        return dataElementIds.stream().map( String::valueOf ).collect( joining( "," ) );
+    }
+
+    public static List<Long> fromItem( String item )
+    {
+        return Arrays.stream( item.split( "," ) ).map( Long::valueOf ).collect( toList() );
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.outlierdetection.scheduling;
+
+import static java.util.stream.Collectors.toList;
+
+import java.util.List;
+
+import lombok.RequiredArgsConstructor;
+
+import org.hisp.dhis.commons.util.SystemUtils;
+import org.hisp.dhis.outlierdetection.service.DataValueStatisticsManager;
+import org.hisp.dhis.scheduling.Job;
+import org.hisp.dhis.scheduling.JobConfiguration;
+import org.hisp.dhis.scheduling.JobProgress;
+import org.hisp.dhis.scheduling.JobType;
+import org.hisp.dhis.scheduling.JobWorkService;
+import org.springframework.stereotype.Component;
+
+import com.google.common.collect.Lists;
+
+/**
+ * Job which refreshes the precomputed data value statistics used for z-score
+ * outlier detection. Data elements are refreshed in shards in parallel, which
+ * are distributed to all instances of a cluster if enabled.
+ */
+@Component( "outlierDetectionStatisticsJob" )
+@RequiredArgsConstructor
+public class OutlierDetectionStatisticsJob implements Job
+{
+    private static final int SHARD_SIZE = 20;
+
+    private final DataValueStatisticsManager statisticsManager;
+
+    private final JobWorkService jobWorkService;
+
+    @Override
+    public JobType getJobType()
+    {
+        return JobType.OUTLIER_DETECTION_STATISTICS;
+    }
+
+    @Override
+    public void execute( JobConfiguration jobConfiguration, JobProgress progress )
+    {
+        progress.startingProcess( "Refresh outlier detection statistics" );
+
+        progress.startingStage( "Fetching numeric data elements" );
+        List<Long> dataElementIds = progress.runStage( List.of(),
+            () -> statisticsManager.getNumericDataElementIds() );
+
+        List<List<Long>> shards = Lists.partition( dataElementIds, SHARD_SIZE );
+        int parallelism = Math.max( 1, Math.min( SystemUtils.getCpuCores(), shards.size() ) );
+
+        progress.startingStage( "Refreshing statistics of " + dataElementIds.size() + " data elements",
+            shards.size() );
+        List<String> items = shards.stream().map( DataValueStatisticsWorkHandler::toItem ).collect( toList() );
+        jobWorkService.runStageDistributed( progress, DataValueStatisticsWorkHandler.WORK_TYPE, parallelism, items,
+            OutlierDetectionStatisticsJob::getDescription );
+
+        progress.completedProcess( null );
+    }
+
+    private static String getDescription( String item )
+    {
+        List<Long> shard = DataValueStatisticsWorkHandler.fromItem( item );
+        return "Data elements " + shard.get( 0 ) + " to " + shard.get( shard.size() - 1 );
+    }
+}
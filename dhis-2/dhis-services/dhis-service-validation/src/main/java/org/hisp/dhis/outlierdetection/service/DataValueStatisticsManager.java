@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.outlierdetection.service;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.hisp.dhis.common.ValueType;
+import org.hisp.dhis.system.util.MathUtils;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Manager for the precomputed statistics of numeric data values used by
+ * {@link ZScoreOutlierDetectionManager}.
+ *
+ * The <code>datavaluestatistics</code> table holds the count, mean, sum of
+ * squared differences from the mean (M2) and median of the values of each data
+ * element, org unit, category option combo and attribute option combo. The
+ * population standard deviation is derived as <code>sqrt(m2 / count)</code>.
+ *
+ * Statistics are refreshed incrementally. Only combinations with data values
+ * updated since the last refresh of the data element, or without statistics,
+ * are recomputed, data elements without statistics are computed in full.
+ * Statistics of combinations without remaining data values are removed.
+ *
+ * Hard deletes of data values do not update the last updated timestamp of the
+ * remaining data values. Operations which hard delete some of the data values
+ * of a combination must remove the statistics of the combination, which are
+ * then recomputed on the next refresh.
+ */
+@Slf4j
+@Repository
+public class DataValueStatisticsManager
+{
+    /**
+     * Data values updated this long before the last refresh are considered
+     * changed, to account for transactions which were not committed when the
+     * last refresh was run.
+     */
+    private static final String REFRESH_MARGIN = "1 hour";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public DataValueStatisticsManager( NamedParameterJdbcTemplate jdbcTemplate )
+    {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Returns the identifiers of all data elements with a numeric value type.
+     *
+     * @return a list of data element identifiers.
+     */
+    public List<Long> getNumericDataElementIds()
+    {
+        final String sql = "select de.dataelementid from dataelement de " +
+            "where de.valuetype in (:value_types) " +
+            "order by de.dataelementid;";
+
+        final SqlParameterSource params = new MapSqlParameterSource()
+            .addValue( "value_types", ValueType.NUMERIC_TYPES.stream()
+                .map( ValueType::name )
+                .collect( Collectors.toList() ) );
+
+        return jdbcTemplate.queryForList( sql, params, Long.class );
+    }
+
+    /**
+     * Refreshes the statistics of the given data elements. Data values which
+     * are not numeric are ignored.
+     *
+     * @param dataElementIds the data element identifiers.
+     */
+    public void refreshStatistics( List<Long> dataElementIds )
+    {
+        // @formatter:off
+        final String changedKeys =
+            "select dv.dataelementid, dv.sourceid, dv.categoryoptioncomboid, dv.attributeoptioncomboid " +
+            "from datavalue dv " +
+            "left join (" +
+                "select dataelementid, max(lastupdated) as refreshed " +
+                "from datavaluestatistics " +
+                "where dataelementid in (:data_element_ids) " +
+                "group by dataelementid" +
+            ") as rf on dv.dataelementid = rf.dataelementid " +
+            "where dv.dataelementid in (:data_element_ids) " +
+            "and (rf.refreshed is null " +
+                "or dv.lastupdated >= rf.refreshed - interval '" + REFRESH_MARGIN + "' " +
+                "or not exists (" +
+                    "select 1 from datavaluestatistics ds " +
+                    "where ds.dataelementid = dv.dataelementid " +
+                    "and ds.sourceid = dv.sourceid " +
+                    "and ds.categoryoptioncomboid = dv.categoryoptioncomboid " +
+                    "and ds.attributeoptioncomboid = dv.attributeoptioncomboid))";
+
+        final String deleteSql =
+            "delete from datavaluestatistics s " +
+            "where s.dataelementid in (:data_element_ids) " +
+            "and not exists (" +
+                "select 1 from datavalue dv " +
+                "where dv.dataelementid = s.dataelementid " +
+                "and dv.sourceid = s.sourceid " +
+                "and dv.categoryoptioncomboid = s.categoryoptioncomboid " +
+                "and dv.attributeoptioncomboid = s.attributeoptioncomboid " +
+                "and dv.deleted is false " +
+                "and dv.value ~* :numeric_regexp" +
+            ");";
+
+        final String upsertSql =
+            "insert into datavaluestatistics (dataelementid, sourceid, categoryoptioncomboid, " +
+                "attributeoptioncomboid, valuecount, mean, m2, median, lastupdated) " +
+            "select dv.dataelementid, dv.sourceid, dv.categoryoptioncomboid, dv.attributeoptioncomboid, " +
+                "count(dv.value), " +
+                "avg(dv.value::double precision), " +
+                "var_pop(dv.value::double precision) * count(dv.value), " +
+                "percentile_cont(0.5) within group(order by dv.value::double precision), " +
+                "now() " +
+            "from datavalue dv " +
+            "where dv.dataelementid in (:data_element_ids) " +
+            "and (dv.dataelementid, dv.sourceid, dv.categoryoptioncomboid, dv.attributeoptioncomboid) in (" +
+                changedKeys + ") " +
+            "and dv.deleted is false " +
+            "and dv.value ~* :numeric_regexp " +
+            "group by dv.dataelementid, dv.sourceid, dv.categoryoptioncomboid, dv.attributeoptioncomboid " +
+            "on conflict (dataelementid, sourceid, categoryoptioncomboid, attributeoptioncomboid) do update " +
+            "set valuecount = excluded.valuecount, " +
+                "mean = excluded.mean, " +
+                "m2 = excluded.m2, " +
+                "median = excluded.median, " +
+                "lastupdated = excluded.lastupdated;";
+        // @formatter:on
+
+        final SqlParameterSource params = new MapSqlParameterSource()
+            .addValue( "data_element_ids", dataElementIds )
+            .addValue( "numeric_regexp", MathUtils.NUMERIC_LENIENT_REGEXP );
+
+        int deleted = jdbcTemplate.update( deleteSql, params );
+        int updated = jdbcTemplate.update( upsertSql, params );
+
+        log.debug( "Refreshed data value statistics for {} data elements, updated: {}, deleted: {}",
+            dataElementIds.size(), updated, deleted );
+    }
+}
@@ -123,6 +123,10 @@ public class DefaultOutlierDetectionService
         {
             error = new ErrorMessage( ErrorCode.E2207 );
         }
+        else if ( request.isPrecomputedStatistics() && request.hasDataStartOrEndDate() )
+        {
+            error = new ErrorMessage( ErrorCode.E2209 );
+        }
 
         return error;
     }
@@ -153,7 +157,8 @@ public class DefaultOutlierDetectionService
             .withStartEndDate( query.getStartDate(), query.getEndDate() )
             .withOrgUnits( orgUnits )
             .withDataStartDate( query.getDataStartDate() )
-            .withDataEndDate( query.getDataEndDate() );
+            .withDataEndDate( query.getDataEndDate() )
+            .withPrecomputedStatistics( query.isPrecomputedStatistics() );
 
         if ( query.getAlgorithm() != null )
         {
@@ -60,6 +60,9 @@ import org.springframework.stereotype.Repository;
  * middle value whereas the modified z-score uses the median as middle value or
  * more mathematically correct as the <em>measure of central tendency</em>.
  *
+ * The middle value and standard deviation are either computed from the data
+ * values for each request, or read from the statistics precomputed by
+ * {@link DataValueStatisticsManager} if requested.
  *
  * @author Lars Helge Overland
  */
@@ -96,6 +99,10 @@ public class ZScoreOutlierDetectionManager
             ? "middle_value_abs_dev"
             : request.getOrderBy().getKey();
 
+        final String statsSql = request.isPrecomputedStatistics()
+            ? getPrecomputedStatsSql( modifiedZ )
+            : getStatsSql( middle_stats_calc, ouPathClause, dataStartDateClause, dataEndDateClause );
+
         // @formatter:off
         final String sql =
             "select dvs.de_uid, dvs.ou_uid, dvs.coc_uid, dvs.aoc_uid, " +
@@ -129,22 +136,7 @@ public class ZScoreOutlierDetectionManager
                 "and dv.deleted is false" +
             ") as dvs " +
             // Mean or Median and std dev mapping query
-            "inner join (" +
-                "select dv.dataelementid as dataelementid, dv.sourceid as sourceid, " +
-                "dv.categoryoptioncomboid as categoryoptioncomboid, " +
-                "dv.attributeoptioncomboid as attributeoptioncomboid, " +
-                middle_stats_calc +" as middle_value, "+
-                "stddev_pop(dv.value::double precision) as std_dev " +
-                "from datavalue dv " +
-                "inner join period pe on dv.periodid = pe.periodid " +
-                "inner join organisationunit ou on dv.sourceid = ou.organisationunitid " +
-                "where dv.dataelementid in (:data_element_ids) " +
-                dataStartDateClause +
-                dataEndDateClause +
-                "and " + ouPathClause + " " +
-                "and dv.deleted is false " +
-                "group by dv.dataelementid, dv.sourceid, dv.categoryoptioncomboid, dv.attributeoptioncomboid" +
-            ") as stats " +
+            "inner join (" + statsSql + ") as stats " +
             // Query join
             "on dvs.dataelementid = stats.dataelementid " +
             "and dvs.sourceid = stats.sourceid " +
@@ -184,6 +176,49 @@ public class ZScoreOutlierDetectionManager
         }
     }
 
+    /**
+     * Returns a query computing the middle value and standard deviation of the
+     * data values of each data element, org unit, category option combo and
+     * attribute option combo.
+     */
+    private String getStatsSql( String middleStatsCalc, String ouPathClause, String dataStartDateClause,
+        String dataEndDateClause )
+    {
+        // @formatter:off
+        return
+            "select dv.dataelementid as dataelementid, dv.sourceid as sourceid, " +
+            "dv.categoryoptioncomboid as categoryoptioncomboid, " +
+            "dv.attributeoptioncomboid as attributeoptioncomboid, " +
+            middleStatsCalc +" as middle_value, "+
+            "stddev_pop(dv.value::double precision) as std_dev " +
+            "from datavalue dv " +
+            "inner join period pe on dv.periodid = pe.periodid " +
+            "inner join organisationunit ou on dv.sourceid = ou.organisationunitid " +
+            "where dv.dataelementid in (:data_element_ids) " +
+            dataStartDateClause +
+            dataEndDateClause +
+            "and " + ouPathClause + " " +
+            "and dv.deleted is false " +
+            "group by dv.dataelementid, dv.sourceid, dv.categoryoptioncomboid, dv.attributeoptioncomboid";
+        // @formatter:on
+    }
+
+    /**
+     * Returns a query reading the middle value and standard deviation from the
+     * statistics precomputed by {@link DataValueStatisticsManager}.
+     */
+    private String getPrecomputedStatsSql( boolean modifiedZ )
+    {
+        // @formatter:off
+        return
+            "select s.dataelementid, s.sourceid, s.categoryoptioncomboid, s.attributeoptioncomboid, " +
+            ( modifiedZ ? "s.median" : "s.mean" ) + " as middle_value, " +
+            "sqrt(s.m2 / s.valuecount) as std_dev " +
+            "from datavaluestatistics s " +
+            "where s.dataelementid in (:data_element_ids)";
+        // @formatter:on
+    }
+
     /**
      * Returns a {@link RowMapper} for {@link OutlierValue}.
      *
@@ -182,4 +182,18 @@ class OutlierDetectionServiceValidationTest
 
         assertEquals( ErrorCode.E2207, subject.validateForErrorMessage( request ).getErrorCode() );
     }
+
+    @Test
+    void testErrorPrecomputedStatisticsWithDataStartDate()
+    {
+        OutlierDetectionRequest request = new OutlierDetectionRequest.Builder()
+            .withDataElements( Lists.newArrayList( deA, deB, deC ) )
+            .withStartEndDate( getDate( 2020, 1, 1 ), getDate( 2020, 6, 1 ) )
+            .withOrgUnits( Lists.newArrayList( ouA, ouB ) )
+            .withDataStartDate( getDate( 2019, 1, 1 ) )
+            .withPrecomputedStatistics( true )
+            .build();
+
+        assertEquals( ErrorCode.E2209, subject.validateForErrorMessage( request ).getErrorCode() );
+    }
 }
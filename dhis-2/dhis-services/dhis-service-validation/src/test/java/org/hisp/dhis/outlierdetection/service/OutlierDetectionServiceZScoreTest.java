@@ -60,6 +60,7 @@ import org.hisp.dhis.period.PeriodService;
 import org.hisp.dhis.system.util.MathUtils;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
 
 import com.google.common.collect.Lists;
 import com.google.common.math.StatsAccumulator;
@@ -82,6 +83,12 @@ class OutlierDetectionServiceZScoreTest extends IntegrationTestBase
     @Autowired
     private DataValueService dataValueService;
 
+    @Autowired
+    private DataValueStatisticsManager statisticsManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     @Autowired
     private OutlierDetectionService subject;
 
@@ -275,6 +282,77 @@ class OutlierDetectionServiceZScoreTest extends IntegrationTestBase
         assertFalse( outlier.getFollowup() );
     }
 
+    @Test
+    void testGetOutlierValuesWithPrecomputedStatistics()
+    {
+        // 12, 91 are outlier values with a z-score above 2.0
+        addDataValues( new DataValue( deA, m01, ouA, coc, coc, "50" ), new DataValue( deA, m07, ouA, coc, coc, "51" ),
+            new DataValue( deA, m02, ouA, coc, coc, "53" ), new DataValue( deA, m08, ouA, coc, coc, "59" ),
+            new DataValue( deA, m03, ouA, coc, coc, "58" ), new DataValue( deA, m09, ouA, coc, coc, "55" ),
+            new DataValue( deA, m04, ouA, coc, coc, "55" ), new DataValue( deA, m10, ouA, coc, coc, "52" ),
+            new DataValue( deA, m05, ouA, coc, coc, "51" ), new DataValue( deA, m11, ouA, coc, coc, "58" ),
+            new DataValue( deA, m06, ouA, coc, coc, "12" ), new DataValue( deA, m12, ouA, coc, coc, "91" ) );
+        statisticsManager.refreshStatistics( List.of( deA.getId(), deB.getId() ) );
+        OutlierDetectionRequest.Builder builder = new OutlierDetectionRequest.Builder()
+            .withDataElements( Lists.newArrayList( deA, deB ) )
+            .withStartEndDate( getDate( 2020, 1, 1 ), getDate( 2021, 1, 1 ) ).withOrgUnits( Lists.newArrayList( ouA ) )
+            .withThreshold( 2.0 );
+        for ( OutlierDetectionAlgorithm algorithm : List.of( OutlierDetectionAlgorithm.Z_SCORE,
+            OutlierDetectionAlgorithm.MOD_Z_SCORE ) )
+        {
+            List<OutlierValue> expected = subject.getOutlierValues( builder.withAlgorithm( algorithm )
+                .withPrecomputedStatistics( false ).build() ).getOutlierValues();
+            List<OutlierValue> actual = subject.getOutlierValues( builder.withAlgorithm( algorithm )
+                .withPrecomputedStatistics( true ).build() ).getOutlierValues();
+            assertEquals( expected.size(), actual.size() );
+            for ( int i = 0; i < expected.size(); i++ )
+            {
+                assertEquals( expected.get( i ).getValue(), actual.get( i ).getValue(), DELTA );
+                assertEquals( expected.get( i ).getStdDev(), actual.get( i ).getStdDev(), DELTA );
+                assertEquals( expected.get( i ).getZScore(), actual.get( i ).getZScore(), DELTA );
+            }
+        }
+    }
+
+    @Test
+    void testRefreshPrecomputedStatistics()
+    {
+        addDataValues( new DataValue( deA, m01, ouA, coc, coc, "31" ), new DataValue( deA, m02, ouA, coc, coc, "34" ),
+            new DataValue( deA, m03, ouA, coc, coc, "38" ), new DataValue( deA, m04, ouA, coc, coc, "39" ),
+            new DataValue( deA, m05, ouA, coc, coc, "33" ) );
+        statisticsManager.refreshStatistics( List.of( deA.getId() ) );
+        addDataValues( new DataValue( deA, m06, ouA, coc, coc, "81" ) );
+        statisticsManager.refreshStatistics( List.of( deA.getId() ) );
+        OutlierDetectionRequest request = new OutlierDetectionRequest.Builder()
+            .withDataElements( Lists.newArrayList( deA ) )
+            .withStartEndDate( getDate( 2020, 1, 1 ), getDate( 2021, 1, 1 ) ).withOrgUnits( Lists.newArrayList( ouA ) )
+            .withAlgorithm( OutlierDetectionAlgorithm.Z_SCORE ).withThreshold( 2.0 ).withPrecomputedStatistics( true )
+            .build();
+        OutlierDetectionResponse response = subject.getOutlierValues( request );
+        assertEquals( 1, response.getOutlierValues().size() );
+        assertEquals( 81d, response.getOutlierValues().get( 0 ).getValue(), DELTA );
+        assertEquals( 42.666, response.getOutlierValues().get( 0 ).getMean(), DELTA );
+    }
+
+    @Test
+    void testRefreshPrecomputedStatisticsRemovesDeletedCombinations()
+    {
+        addDataValues( new DataValue( deA, m01, ouA, coc, coc, "31" ), new DataValue( deA, m02, ouA, coc, coc, "34" ),
+            new DataValue( deA, m01, ouB, coc, coc, "38" ), new DataValue( deA, m02, ouB, coc, coc, "39" ) );
+        statisticsManager.refreshStatistics( List.of( deA.getId() ) );
+        assertEquals( 1, countStatistics( ouB ) );
+        dataValueService.deleteDataValues( ouB );
+        statisticsManager.refreshStatistics( List.of( deA.getId() ) );
+        assertEquals( 1, countStatistics( ouA ) );
+        assertEquals( 0, countStatistics( ouB ) );
+    }
+
+    private int countStatistics( OrganisationUnit orgUnit )
+    {
+        return jdbcTemplate.queryForObject( "select count(*) from datavaluestatistics where sourceid = ?",
+            Integer.class, orgUnit.getId() );
+    }
+
     private void assertContainsOutlierValue( OutlierDetectionResponse response, Double value )
     {
         assertTrue( response.getOutlierValues().stream().anyMatch( ov -> MathUtils.isEqual( ov.getValue(), value ) ) );
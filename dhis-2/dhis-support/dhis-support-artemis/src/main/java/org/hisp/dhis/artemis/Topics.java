@@ -47,4 +47,6 @@ public final class Topics
     public static final String TRACKER_IMPORT_NOTIFICATION_TOPIC_NAME = "dhis2.jobs.tracker.notifications";
 
     public static final String TRACKER_IMPORT_RULE_ENGINE_TOPIC_NAME = "dhis2.jobs.tracker.rule.engine";
+
+    public static final String CACHE_INVALIDATION_TOPIC_NAME = "dhis2.topic.cache.invalidation";
 }
@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.artemis.cache;
+
+import java.util.function.Consumer;
+
+import javax.jms.BytesMessage;
+import javax.jms.ConnectionFactory;
+import javax.jms.JMSException;
+import javax.jms.MessageListener;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.apache.activemq.artemis.jms.client.ActiveMQTopic;
+import org.hisp.dhis.artemis.Topics;
+import org.hisp.dhis.condition.PropertiesAwareConfigurationCondition;
+import org.hisp.dhis.external.conf.ConfigurationKey;
+import org.hisp.dhis.external.conf.DhisConfigurationProvider;
+import org.hisp.dhis.hibernate.cache.CacheInvalidationBatch;
+import org.hisp.dhis.hibernate.cache.CacheInvalidationBus;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.context.annotation.ConditionContext;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.core.type.AnnotatedTypeMetadata;
+import org.springframework.jms.core.JmsTemplate;
+import org.springframework.jms.listener.DefaultMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@link CacheInvalidationBus} publishing second level cache invalidations on
+ * an Artemis topic. Note that the embedded broker is only reachable from within
+ * the same JVM, so instances of a cluster must share a native broker.
+ */
+@Slf4j
+@Component
+@Conditional( ArtemisCacheInvalidationBus.ArtemisCacheInvalidationBusCondition.class )
+public class ArtemisCacheInvalidationBus
+    implements CacheInvalidationBus, DisposableBean
+{
+    private final ActiveMQTopic topic = new ActiveMQTopic( Topics.CACHE_INVALIDATION_TOPIC_NAME );
+
+    private final JmsTemplate jmsTopicTemplate;
+
+    private final DefaultMessageListenerContainer listenerContainer;
+
+    public ArtemisCacheInvalidationBus( JmsTemplate jmsTopicTemplate, ConnectionFactory connectionFactory )
+    {
+        this.jmsTopicTemplate = jmsTopicTemplate;
+        this.listenerContainer = new DefaultMessageListenerContainer();
+        this.listenerContainer.setConnectionFactory( connectionFactory );
+        this.listenerContainer.setDestination( topic );
+        this.listenerContainer.setPubSubDomain( true );
+        // a single consumer, to receive each batch once per instance
+        this.listenerContainer.setConcurrentConsumers( 1 );
+        this.listenerContainer.setAutoStartup( false );
+    }
+
+    @Override
+    public void publish( CacheInvalidationBatch batch )
+    {
+        byte[] message = batch.toBytes();
+
+        jmsTopicTemplate.send( topic, session -> {
+            BytesMessage bytesMessage = session.createBytesMessage();
+            bytesMessage.writeBytes( message );
+            return bytesMessage;
+        } );
+    }
+
+    @Override
+    public synchronized void subscribe( Consumer<CacheInvalidationBatch> subscriber )
+    {
+        listenerContainer.setMessageListener( (MessageListener) message -> {
+            try
+            {
+                BytesMessage bytesMessage = (BytesMessage) message;
+                byte[] bytes = new byte[(int) bytesMessage.getBodyLength()];
+                bytesMessage.readBytes( bytes );
+
+                subscriber.accept( CacheInvalidationBatch.fromBytes( bytes ) );
+            }
+            catch ( JMSException | RuntimeException ex )
+            {
+                log.error( "Failed to apply second level cache invalidations", ex );
+            }
+        } );
+
+        listenerContainer.afterPropertiesSet();
+        listenerContainer.start();
+    }
+
+    @Override
+    public void destroy()
+    {
+        listenerContainer.destroy();
+    }
+
+    static class ArtemisCacheInvalidationBusCondition
+        extends PropertiesAwareConfigurationCondition
+    {
+        @Override
+        public boolean matches( ConditionContext context, AnnotatedTypeMetadata metadata )
+        {
+            if ( isTestRun( context ) )
+            {
+                return false;
+            }
+
+            DhisConfigurationProvider config = getConfiguration();
+
+            return "local".equals( config.getProperty( ConfigurationKey.CACHE_L2_PROVIDER ) )
+                && "artemis".equals( config.getProperty( ConfigurationKey.CACHE_L2_INVALIDATION_BUS ) );
+        }
+
+        @Override
+        public ConfigurationPhase getConfigurationPhase()
+        {
+            return ConfigurationPhase.REGISTER_BEAN;
+        }
+    }
+}
@@ -42,6 +42,7 @@ import org.apache.kafka.connect.source.SourceRecord;
 import org.hibernate.HibernateException;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
+import org.hisp.dhis.cache.ChangeVersionManager;
 import org.hisp.dhis.cache.PaginationCacheManager;
 import org.hisp.dhis.cache.QueryCacheManager;
 import org.hisp.dhis.category.CategoryOptionCombo;
@@ -94,6 +95,9 @@ public class DbChangeEventHandler
     @Autowired
     private QueryCacheManager queryCacheManager;
 
+    @Autowired
+    private ChangeVersionManager changeVersionManager;
+
     @Autowired
     private TableNameToEntityMapping tableNameToEntityMapping;
 
@@ -325,6 +329,7 @@ public class DbChangeEventHandler
             queryCacheManager.evictQueryCache( sessionFactory.getCache(), firstEntityClass );
             paginationCacheManager.evictCache( firstEntityClass.getName() );
             evictCollections( entityClasses, entityId );
+            registerChanges( entityClasses );
 
             // Try to fetch the new entity, so it might get cached.
             tryFetchNewEntity( entityId, firstEntityClass );
@@ -335,6 +340,20 @@ public class DbChangeEventHandler
         {
             sessionFactory.getCache().evict( firstEntityClass, entityId );
             evictCollections( entityClasses, entityId );
+            registerChanges( entityClasses );
+        }
+    }
+
+    /**
+     * Registers the change with the {@link ChangeVersionManager}. Must be
+     * called after the caches were evicted, so that no query reads stale data
+     * with the new change version.
+     */
+    private void registerChanges( List<Object[]> entityClasses )
+    {
+        for ( Object[] entityClass : entityClasses )
+        {
+            changeVersionManager.registerChange( (Class<?>) entityClass[0] );
         }
     }
 
@@ -0,0 +1,14 @@
+-- Precomputed statistics of numeric data values for z-score outlier detection
+
+create table if not exists datavaluestatistics (
+    dataelementid bigint not null,
+    sourceid bigint not null,
+    categoryoptioncomboid bigint not null,
+    attributeoptioncomboid bigint not null,
+    valuecount bigint not null,
+    mean double precision not null,
+    m2 double precision not null,
+    median double precision not null,
+    lastupdated timestamp not null,
+    constraint datavaluestatistics_pkey primary key (dataelementid, sourceid, categoryoptioncomboid, attributeoptioncomboid)
+);
@@ -0,0 +1,16 @@
+-- Materialized data approval states per workflow, period, org unit and attribute option combo
+
+create table if not exists dataapprovalstate (
+    workflowid bigint not null,
+    periodid bigint not null,
+    organisationunitid bigint not null,
+    attributeoptioncomboid bigint not null,
+    highestapproved character varying(255),
+    readybelow boolean,
+    lastupdated timestamp not null,
+    constraint dataapprovalstate_pkey primary key (workflowid, periodid, organisationunitid, attributeoptioncomboid),
+    constraint fk_dataapprovalstate_workflowid foreign key (workflowid) references dataapprovalworkflow (workflowid),
+    constraint fk_dataapprovalstate_periodid foreign key (periodid) references period (periodid),
+    constraint fk_dataapprovalstate_organisationunitid foreign key (organisationunitid) references organisationunit (organisationunitid),
+    constraint fk_dataapprovalstate_attributeoptioncomboid foreign key (attributeoptioncomboid) references categoryoptioncombo (categoryoptioncomboid)
+);
@@ -0,0 +1,19 @@
+-- Queue of job work items shared by the instances of a cluster
+
+create table if not exists jobworkitem (
+    jobworkitemid bigserial not null,
+    batchid character varying(11) not null,
+    worktype character varying(255) not null,
+    item text not null,
+    description text,
+    status character varying(16) not null,
+    nodeid character varying(255),
+    attempts integer not null default 0,
+    duration bigint,
+    error text,
+    created timestamp not null default now(),
+    lastupdated timestamp not null default now(),
+    constraint jobworkitem_pkey primary key (jobworkitemid)
+);
+
+create index if not exists in_jobworkitem_status_batchid on jobworkitem (status, batchid);
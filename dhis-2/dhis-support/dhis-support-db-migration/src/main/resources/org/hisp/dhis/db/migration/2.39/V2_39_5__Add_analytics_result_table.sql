@@ -0,0 +1,13 @@
+-- Persistent analytics results, valid until the next analytics table update
+
+create table if not exists analyticsresult (
+    resultkey character varying(255) not null,
+    tableversion bigint not null,
+    content bytea not null,
+    size integer not null,
+    created timestamp not null,
+    lastaccessed timestamp not null,
+    constraint analyticsresult_pkey primary key (resultkey)
+);
+
+create index if not exists in_analyticsresult_lastaccessed on analyticsresult (lastaccessed);
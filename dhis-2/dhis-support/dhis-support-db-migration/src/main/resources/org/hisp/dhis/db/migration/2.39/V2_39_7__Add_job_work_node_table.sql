@@ -0,0 +1,7 @@
+-- Heartbeats of the instances working on job work items
+
+create table if not exists jobworknode (
+    nodeid character varying(255) not null,
+    lastseen timestamp not null,
+    constraint jobworknode_pkey primary key (nodeid)
+);
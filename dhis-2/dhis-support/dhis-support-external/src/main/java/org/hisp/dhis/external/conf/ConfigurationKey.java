@@ -290,6 +290,40 @@ public enum ConfigurationKey
      */
     CLUSTER_CACHE_REMOTE_OBJECT_PORT( "cluster.cache.remote.object.port", "0", false ),
 
+    /**
+     * Distribution of job work items to all instances of the cluster through
+     * a shared queue in the database. Requires PostgreSQL. (default: off)
+     */
+    CLUSTER_WORK_DISTRIBUTION_ENABLED( "cluster.work.distribution.enabled", Constants.OFF, false ),
+
+    /**
+     * Number of threads of each instance which execute distributed job work
+     * items. (default: 2)
+     */
+    CLUSTER_WORK_DISTRIBUTION_THREADS( "cluster.work.distribution.threads", "2", false ),
+
+    /**
+     * Hibernate second level cache provider, can be 'ehcache' or 'local'.
+     * (default: ehcache)
+     */
+    CACHE_L2_PROVIDER( "cache.l2.provider", "ehcache", false ),
+
+    /**
+     * Bus for invalidating the 'local' second level cache across instances,
+     * can be 'none', 'redis' or 'artemis'. (default: none)
+     */
+    CACHE_L2_INVALIDATION_BUS( "cache.l2.invalidation.bus", "none", false ),
+
+    /**
+     * Maximum number of entries per region of the 'local' second level cache.
+     */
+    CACHE_L2_MAX_ENTRIES( "cache.l2.max_entries", "1000000", false ),
+
+    /**
+     * Time to live in seconds of entries of the 'local' second level cache.
+     */
+    CACHE_L2_EXPIRY_SECONDS( "cache.l2.expiry_seconds", "21600", false ),
+
     /**
      * Redis host to use for cache. (default: localhost)
      */
@@ -339,6 +373,35 @@ public enum ConfigurationKey
      */
     ANALYTICS_CACHE_EXPIRATION( "analytics.cache.expiration", "0" ),
 
+    /**
+     * Persistent store of analytics results which are valid until the next
+     * analytics table update. Requires PostgreSQL. (default: off)
+     */
+    ANALYTICS_RESULT_STORE_ENABLED( "analytics.result.store.enabled", Constants.OFF, false ),
+
+    /**
+     * Maximum size of the analytics result store in MB. Least recently used
+     * results are evicted when exceeded. (default: 1024)
+     */
+    ANALYTICS_RESULT_STORE_MAX_SIZE( "analytics.result.store.max_size", "1024", false ),
+
+    /**
+     * Approximate distinct counts of tracked entity instances and enrollments
+     * in event and enrollment analytics with HyperLogLog, with a relative
+     * standard error of about 2.3%. Requires the PostgreSQL hll extension,
+     * which is checked at startup, otherwise exact counts are used. Analytics
+     * tables must be updated after enabling it, as queries read the hash
+     * columns stored during the update. (default: off)
+     */
+    ANALYTICS_APPROXIMATE_DISTINCT_COUNT( "analytics.approximate_distinct_count", Constants.OFF, false ),
+
+    /**
+     * Materialized data approval states, maintained on approval changes and
+     * used for single org unit approval status lookups. Requires PostgreSQL.
+     * (default: off)
+     */
+    DATA_APPROVAL_STATE_ENABLED( "data.approval.state.enabled", Constants.OFF, false ),
+
     /**
      * Artemis support mode, 2 modes supported: EMBEDDED (starts up an embedded
      * Artemis which lives in the same process as your DHIS2 instance), NATIVE
@@ -455,6 +518,16 @@ public enum ConfigurationKey
      */
     MONITORING_CPU_ENABLED( "monitoring.cpu.enabled", Constants.OFF, false ),
 
+    /**
+     * Analytics query pipeline monitoring. (default: off)
+     */
+    MONITORING_ANALYTICS_ENABLED( "monitoring.analytics.enabled", Constants.OFF, false ),
+
+    /**
+     * Data approval cache monitoring. (default: off)
+     */
+    MONITORING_DATA_APPROVAL_CACHE_ENABLED( "monitoring.dataapproval.cache.enabled", Constants.OFF, false ),
+
     /**
      * AppHub base URL. (default: https://apps.dhis2.org).
      */
@@ -509,6 +582,42 @@ public enum ConfigurationKey
      */
     AUDIT_TRACKER_MATRIX( "audit.tracker", "", false ),
 
+    /**
+     * Spool the payload of async tracker imports to compressed files instead of
+     * sending it through the message queue. (default: off).
+     */
+    TRACKER_IMPORT_SPOOL_ENABLED( "tracker.import.spool.enabled", Constants.OFF, false ),
+
+    /**
+     * Directory of spooled tracker import payloads, must be shared when
+     * instances use a shared message broker. (default: DHIS2_HOME/tracker/spool).
+     */
+    TRACKER_IMPORT_SPOOL_DIR( "tracker.import.spool.dir", "", false ),
+
+    /**
+     * Hours after which spooled tracker import payloads which were never
+     * imported, for instance after a crash, are deleted. (default: 24).
+     */
+    TRACKER_IMPORT_SPOOL_RETENTION_HOURS( "tracker.import.spool.retention_hours", "24", false ),
+
+    /**
+     * Max number of async tracker imports running at the same time. Queued
+     * imports are started in turns per user. (default: 5).
+     */
+    TRACKER_IMPORT_MAX_CONCURRENT( "tracker.import.max_concurrent", "5", false ),
+
+    /**
+     * Insert new tracked entities, enrollments, events and attribute values of
+     * tracker imports with JDBC batches instead of Hibernate. (default: off).
+     */
+    TRACKER_IMPORT_JDBC_BATCH_ENABLED( "tracker.import.jdbc_batch.enabled", Constants.OFF, false ),
+
+    /**
+     * Max number of rows in one JDBC batch insert of a tracker import.
+     * (default: 500).
+     */
+    TRACKER_IMPORT_JDBC_BATCH_SIZE( "tracker.import.jdbc_batch.size", "500", false ),
+
     /**
      * Enable OIDC. (default: off).
      */
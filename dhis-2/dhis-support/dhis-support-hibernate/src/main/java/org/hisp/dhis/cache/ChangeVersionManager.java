@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.cache;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.hisp.dhis.external.conf.ConfigurationKey;
+import org.hisp.dhis.external.conf.DhisConfigurationProvider;
+import org.springframework.stereotype.Service;
+
+/**
+ * Keeps a monotonically increasing change version per entity class, which is
+ * incremented after each committed insert, update or delete of an entity of the
+ * class, and for changes observed from other instances through the Debezium
+ * cache invalidation. This allows to tell whether the result of a query may
+ * have changed without running it.
+ * <p>
+ * Versions are local to this instance and restart at zero, so they are only
+ * comparable when combined with the {@link #getEpoch() epoch}. In a cluster,
+ * changes made on other instances are only observed when the Debezium cache
+ * invalidation is enabled, see {@link #isObservingAllChanges()}.
+ */
+@Service
+public class ChangeVersionManager
+{
+    private final String epoch = UUID.randomUUID().toString();
+
+    private final Map<String, AtomicLong> versions = new ConcurrentHashMap<>();
+
+    private final AtomicLong globalVersion = new AtomicLong();
+
+    private final boolean observingAllChanges;
+
+    public ChangeVersionManager( DhisConfigurationProvider config )
+    {
+        this.observingAllChanges = !config.isClusterEnabled()
+            || config.isEnabled( ConfigurationKey.DEBEZIUM_ENABLED );
+    }
+
+    /**
+     * Marks a change of an entity of the given class.
+     *
+     * @param klass the entity class.
+     */
+    public void registerChange( Class<?> klass )
+    {
+        versions.computeIfAbsent( klass.getName(), key -> new AtomicLong() ).incrementAndGet();
+        globalVersion.incrementAndGet();
+    }
+
+    /**
+     * Returns the change version of the given class.
+     *
+     * @param klass the entity class.
+     * @return the change version, 0 if no change was observed.
+     */
+    public long getVersion( Class<?> klass )
+    {
+        AtomicLong version = versions.get( klass.getName() );
+
+        return version != null ? version.get() : 0L;
+    }
+
+    /**
+     * Returns the sum of the change versions of the given classes, which
+     * increases with a change of any of the classes.
+     *
+     * @param classes the entity classes.
+     * @return the combined change version.
+     */
+    public long getCombinedVersion( Class<?>... classes )
+    {
+        long version = 0;
+
+        for ( Class<?> klass : classes )
+        {
+            version += getVersion( klass );
+        }
+
+        return version;
+    }
+
+    /**
+     * Returns the change version across all entity classes.
+     *
+     * @return the global change version.
+     */
+    public long getGlobalVersion()
+    {
+        return globalVersion.get();
+    }
+
+    /**
+     * Indicates whether all changes are observed, which is not the case for a
+     * clustered instance without the Debezium cache invalidation, as changes
+     * made on other instances are not seen. Versions must not be used to
+     * tell that data is unchanged if this is false.
+     *
+     * @return true if changes of all instances are observed.
+     */
+    public boolean isObservingAllChanges()
+    {
+        return observingAllChanges;
+    }
+
+    /**
+     * Returns an identifier which is unique for the lifetime of this instance.
+     *
+     * @return the epoch.
+     */
+    public String getEpoch()
+    {
+        return epoch;
+    }
+}
@@ -27,6 +27,8 @@
  */
 package org.hisp.dhis.config;
 
+import static org.hibernate.cfg.AvailableSettings.CACHE_REGION_FACTORY;
+
 import java.util.List;
 import java.util.Objects;
 import java.util.Properties;
@@ -41,6 +43,7 @@ import org.hisp.dhis.deletedobject.DeletedObject;
 import org.hisp.dhis.external.conf.DhisConfigurationProvider;
 import org.hisp.dhis.hibernate.DefaultHibernateConfigurationProvider;
 import org.hisp.dhis.hibernate.HibernateConfigurationProvider;
+import org.hisp.dhis.hibernate.cache.LocalRegionFactory;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -71,7 +74,8 @@ public class HibernateConfig
     @Bean
     @DependsOn( "flyway" )
     public LocalSessionFactoryBean sessionFactory( DataSource dataSource,
-        @Qualifier( "hibernateConfigurationProvider" ) HibernateConfigurationProvider hibernateConfigurationProvider )
+        @Qualifier( "hibernateConfigurationProvider" ) HibernateConfigurationProvider hibernateConfigurationProvider,
+        LocalRegionFactory localRegionFactory )
     {
         Objects.requireNonNull( dataSource );
         Objects.requireNonNull( hibernateConfigurationProvider );
@@ -89,9 +93,21 @@ public class HibernateConfig
         sessionFactory.setAnnotatedClasses( DeletedObject.class );
         sessionFactory.setHibernateProperties( hibernateProperties );
 
+        if ( LocalRegionFactory.class.getName().equals( hibernateProperties.getProperty( CACHE_REGION_FACTORY ) ) )
+        {
+            // Use the bean so that it can be connected to the invalidation bus
+            sessionFactory.setCacheRegionFactory( localRegionFactory );
+        }
+
         return sessionFactory;
     }
 
+    @Bean
+    public LocalRegionFactory localRegionFactory()
+    {
+        return new LocalRegionFactory();
+    }
+
     @Bean
     public HibernateTransactionManager hibernateTransactionManager( DataSource dataSource,
         SessionFactory sessionFactory )
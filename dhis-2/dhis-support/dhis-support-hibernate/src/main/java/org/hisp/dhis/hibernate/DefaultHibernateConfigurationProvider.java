@@ -58,6 +58,7 @@ import org.hisp.dhis.commons.util.SystemUtils;
 import org.hisp.dhis.external.conf.ConfigurationKey;
 import org.hisp.dhis.external.conf.DhisConfigurationProvider;
 import org.hisp.dhis.external.location.LocationManagerException;
+import org.hisp.dhis.hibernate.cache.LocalRegionFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.core.io.FileSystemResource;
@@ -89,6 +90,8 @@ public class DefaultHibernateConfigurationProvider
 
     private static final String FILENAME_EHCACHE_REPLICATION = "/ehcache-replication.xml";
 
+    private static final String L2_PROVIDER_LOCAL = "local";
+
     @Autowired
     private org.springframework.core.env.Environment environment;
     // -------------------------------------------------------------------------
@@ -182,9 +185,20 @@ public class DefaultHibernateConfigurationProvider
         }
 
         // ---------------------------------------------------------------------
-        // Handle ehcache replication
+        // Handle local second level cache or ehcache replication
         // ---------------------------------------------------------------------
-        if ( configProvider.isClusterEnabled() )
+        if ( L2_PROVIDER_LOCAL.equals( configProvider.getProperty( ConfigurationKey.CACHE_L2_PROVIDER ) ) )
+        {
+            config.setProperty( CACHE_REGION_FACTORY, LocalRegionFactory.class.getName() );
+            config.setProperty( LocalRegionFactory.MAX_ENTRIES,
+                configProvider.getProperty( ConfigurationKey.CACHE_L2_MAX_ENTRIES ) );
+            config.setProperty( LocalRegionFactory.EXPIRY_SECONDS,
+                configProvider.getProperty( ConfigurationKey.CACHE_L2_EXPIRY_SECONDS ) );
+
+            log.info( "Local second level cache enabled, invalidation bus: "
+                + configProvider.getProperty( ConfigurationKey.CACHE_L2_INVALIDATION_BUS ) );
+        }
+        else if ( configProvider.isClusterEnabled() )
         {
             config.setProperty( "net.sf.ehcache.configurationResourceName", FILENAME_EHCACHE_REPLICATION );
 
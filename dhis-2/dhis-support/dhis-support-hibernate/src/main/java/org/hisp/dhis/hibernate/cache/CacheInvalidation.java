@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.hibernate.cache;
+
+import java.io.Serializable;
+
+import lombok.Value;
+
+/**
+ * A single change of a second level cache region which must be applied by the
+ * other instances of a cluster.
+ */
+@Value
+public class CacheInvalidation
+    implements Serializable
+{
+    public enum Type
+    {
+        /**
+         * Removes the entry of the key.
+         */
+        EVICT,
+
+        /**
+         * Removes all entries of the region.
+         */
+        CLEAR,
+
+        /**
+         * Puts the value for the key, used for the update timestamps region
+         * where a missing entry is not equivalent to a stale one.
+         */
+        PUT
+    }
+
+    private final String region;
+
+    private final Type type;
+
+    private final Object key;
+
+    private final Object value;
+
+    public static CacheInvalidation evict( String region, Object key )
+    {
+        return new CacheInvalidation( region, Type.EVICT, key, null );
+    }
+
+    public static CacheInvalidation clear( String region )
+    {
+        return new CacheInvalidation( region, Type.CLEAR, null, null );
+    }
+
+    public static CacheInvalidation put( String region, Object key, Object value )
+    {
+        return new CacheInvalidation( region, Type.PUT, key, value );
+    }
+}
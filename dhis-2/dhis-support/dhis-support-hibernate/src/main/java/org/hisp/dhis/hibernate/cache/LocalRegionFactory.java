@@ -0,0 +1,301 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.hibernate.cache;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.hibernate.boot.spi.SessionFactoryOptions;
+import org.hibernate.cache.cfg.spi.DomainDataRegionBuildingContext;
+import org.hibernate.cache.cfg.spi.DomainDataRegionConfig;
+import org.hibernate.cache.spi.support.DomainDataStorageAccess;
+import org.hibernate.cache.spi.support.RegionFactoryTemplate;
+import org.hibernate.cache.spi.support.StorageAccess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hisp.dhis.hibernate.cache.LocalStorageAccess.Kind;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Hibernate second level cache {@link org.hibernate.cache.spi.RegionFactory}
+ * keeping all regions in in-process caches. Instances of a cluster keep each
+ * other consistent by exchanging {@link CacheInvalidation} over a
+ * {@link CacheInvalidationBus}.
+ * <p>
+ * The invalidations of a transaction are collected and published as one
+ * {@link CacheInvalidationBatch} once the transaction has completed, which
+ * includes the cache updates Hibernate does on commit. Outside of a transaction
+ * they are published right away. Without a connected bus the factory acts as a
+ * plain local cache.
+ */
+@Slf4j
+public class LocalRegionFactory
+    extends RegionFactoryTemplate
+{
+    /**
+     * Maximum number of entries of each entity, collection and query region.
+     */
+    public static final String MAX_ENTRIES = "hibernate.cache.local.max_entries";
+
+    /**
+     * Time to live in seconds of entries of each entity, collection and query
+     * region.
+     */
+    public static final String EXPIRY_SECONDS = "hibernate.cache.local.expiry_seconds";
+
+    private static final long DEFAULT_MAX_ENTRIES = 1_000_000;
+
+    private static final long DEFAULT_EXPIRY_SECONDS = 21600;
+
+    private final String origin = UUID.randomUUID().toString();
+
+    private final Map<String, LocalStorageAccess> regions = new ConcurrentHashMap<>();
+
+    private final ThreadLocal<InvalidationSynchronization> currentSynchronization = new ThreadLocal<>();
+
+    private volatile CacheInvalidationBus bus;
+
+    private long maxEntries = DEFAULT_MAX_ENTRIES;
+
+    private long expirySeconds = DEFAULT_EXPIRY_SECONDS;
+
+    public LocalRegionFactory()
+    {
+    }
+
+    public LocalRegionFactory( CacheInvalidationBus bus )
+    {
+        connect( bus );
+    }
+
+    /**
+     * Connects this factory to the given bus, so that invalidations are
+     * published to and received from the other instances.
+     *
+     * @param bus the {@link CacheInvalidationBus}.
+     */
+    public synchronized void connect( CacheInvalidationBus bus )
+    {
+        if ( this.bus != null )
+        {
+            throw new IllegalStateException( "Region factory is already connected to a cache invalidation bus" );
+        }
+
+        bus.subscribe( this::receive );
+
+        this.bus = bus;
+
+        log.info( "Second level cache connected to invalidation bus: " + bus.getClass().getSimpleName() );
+    }
+
+    /**
+     * Returns the statistics of all regions, keyed by region name.
+     *
+     * @return a map of region name and {@link LocalRegionStatistics}.
+     */
+    public Map<String, LocalRegionStatistics> getRegionStatistics()
+    {
+        Map<String, LocalRegionStatistics> statistics = new ConcurrentHashMap<>();
+
+        regions.forEach( ( name, storage ) -> statistics.put( name, storage.getStatistics() ) );
+
+        return Collections.unmodifiableMap( statistics );
+    }
+
+    // -------------------------------------------------------------------------
+    // RegionFactoryTemplate implementation
+    // -------------------------------------------------------------------------
+
+    @Override
+    protected void prepareForUse( SessionFactoryOptions settings, @SuppressWarnings( "rawtypes" ) Map configValues )
+    {
+        maxEntries = getLong( configValues, MAX_ENTRIES, DEFAULT_MAX_ENTRIES );
+        expirySeconds = getLong( configValues, EXPIRY_SECONDS, DEFAULT_EXPIRY_SECONDS );
+
+        log.info( String.format( "Local second level cache started, max entries: %d, expiry seconds: %d",
+            maxEntries, expirySeconds ) );
+    }
+
+    @Override
+    protected void releaseFromUse()
+    {
+        regions.values().forEach( LocalStorageAccess::release );
+        regions.clear();
+    }
+
+    @Override
+    protected DomainDataStorageAccess createDomainDataStorageAccess( DomainDataRegionConfig regionConfig,
+        DomainDataRegionBuildingContext buildingContext )
+    {
+        return getStorageAccess( regionConfig.getRegionName(), Kind.DOMAIN_DATA );
+    }
+
+    @Override
+    protected StorageAccess createQueryResultsRegionStorageAccess( String regionName,
+        SessionFactoryImplementor sessionFactory )
+    {
+        return getStorageAccess( regionName, Kind.QUERY_RESULTS );
+    }
+
+    @Override
+    protected StorageAccess createTimestampsRegionStorageAccess( String regionName,
+        SessionFactoryImplementor sessionFactory )
+    {
+        return getStorageAccess( regionName, Kind.TIMESTAMPS );
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    LocalStorageAccess getStorageAccess( String regionName, Kind kind )
+    {
+        return regions.computeIfAbsent( regionName,
+            name -> new LocalStorageAccess( name, kind, maxEntries, expirySeconds, this::publish ) );
+    }
+
+    /**
+     * Adds the given invalidation to the batch of the current transaction, or
+     * publishes it right away if there is no transaction or the transaction has
+     * completed already.
+     */
+    void publish( CacheInvalidation invalidation )
+    {
+        if ( bus == null )
+        {
+            return;
+        }
+
+        InvalidationSynchronization synchronization = currentSynchronization.get();
+
+        if ( synchronization != null && !synchronization.isCompleted() )
+        {
+            synchronization.add( invalidation );
+            return;
+        }
+
+        if ( !TransactionSynchronizationManager.isSynchronizationActive()
+            || (synchronization != null
+                && TransactionSynchronizationManager.getSynchronizations().contains( synchronization )) )
+        {
+            // No transaction, or invoked from the completion callbacks of the
+            // transaction which already published its batch
+            send( Collections.singleton( invalidation ) );
+            return;
+        }
+
+        synchronization = new InvalidationSynchronization();
+        synchronization.add( invalidation );
+
+        TransactionSynchronizationManager.registerSynchronization( synchronization );
+        currentSynchronization.set( synchronization );
+    }
+
+    private void send( Set<CacheInvalidation> invalidations )
+    {
+        try
+        {
+            bus.publish( new CacheInvalidationBatch( origin, new ArrayList<>( invalidations ) ) );
+        }
+        catch ( RuntimeException ex )
+        {
+            // Other instances will keep stale entries until they expire, which
+            // must not fail the already committed transaction
+            log.error( "Failed to publish second level cache invalidations", ex );
+        }
+    }
+
+    private void receive( CacheInvalidationBatch batch )
+    {
+        if ( origin.equals( batch.getOrigin() ) )
+        {
+            return;
+        }
+
+        for ( CacheInvalidation invalidation : batch.getInvalidations() )
+        {
+            LocalStorageAccess storage = regions.get( invalidation.getRegion() );
+
+            if ( storage != null )
+            {
+                storage.apply( invalidation );
+            }
+        }
+    }
+
+    private static long getLong( Map<?, ?> configValues, String key, long defaultValue )
+    {
+        Object value = configValues != null ? configValues.get( key ) : null;
+
+        return value != null ? Long.parseLong( value.toString().trim() ) : defaultValue;
+    }
+
+    /**
+     * Collects the invalidations of one transaction and publishes them after
+     * completion. Rolled back transactions are published as well, since the
+     * evictions done on rollback must reach the other instances too.
+     */
+    private class InvalidationSynchronization
+        implements TransactionSynchronization
+    {
+        private final Set<CacheInvalidation> invalidations = new LinkedHashSet<>();
+
+        private boolean completed;
+
+        void add( CacheInvalidation invalidation )
+        {
+            // keeps the position of the last occurrence, as the invalidations
+            // are applied in order by the other instances
+            invalidations.remove( invalidation );
+            invalidations.add( invalidation );
+        }
+
+        boolean isCompleted()
+        {
+            return completed;
+        }
+
+        @Override
+        public void afterCompletion( int status )
+        {
+            completed = true;
+
+            if ( !invalidations.isEmpty() )
+            {
+                send( invalidations );
+            }
+        }
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.hibernate.cache;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.cache2k.Cache;
+import org.cache2k.Cache2kBuilder;
+import org.cache2k.event.CacheEntryEvictedListener;
+import org.hibernate.cache.spi.support.DomainDataStorageAccess;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+
+/**
+ * Storage of a single region of the {@link LocalRegionFactory}, backed by an
+ * in-process cache2k cache.
+ * <p>
+ * Values loaded from the database stay local, whereas writes done by this
+ * instance are published as {@link CacheInvalidation} so that the other
+ * instances drop their copy and load it again.
+ */
+class LocalStorageAccess
+    implements DomainDataStorageAccess
+{
+    enum Kind
+    {
+        DOMAIN_DATA,
+        QUERY_RESULTS,
+        TIMESTAMPS
+    }
+
+    private final String region;
+
+    private final Kind kind;
+
+    private final Cache<Object, Object> cache;
+
+    private final LocalRegionStatistics statistics;
+
+    private final Consumer<CacheInvalidation> publisher;
+
+    LocalStorageAccess( String region, Kind kind, long maxEntries, long expirySeconds,
+        Consumer<CacheInvalidation> publisher )
+    {
+        this.region = region;
+        this.kind = kind;
+        this.publisher = publisher;
+        this.statistics = new LocalRegionStatistics( () -> this.cache.asMap().size() );
+
+        Cache2kBuilder<Object, Object> builder = Cache2kBuilder.of( Object.class, Object.class )
+            .addListener( (CacheEntryEvictedListener<Object, Object>) ( c, e ) -> statistics.recordEviction() );
+
+        if ( kind == Kind.TIMESTAMPS )
+        {
+            // A missing timestamp is taken as "not modified" by Hibernate, so
+            // entries of this region must never be evicted or expire
+            builder.eternal( true ).entryCapacity( Long.MAX_VALUE );
+        }
+        else
+        {
+            builder.expireAfterWrite( expirySeconds, TimeUnit.SECONDS ).entryCapacity( maxEntries );
+        }
+
+        this.cache = builder.build();
+    }
+
+    String getRegion()
+    {
+        return region;
+    }
+
+    LocalRegionStatistics getStatistics()
+    {
+        return statistics;
+    }
+
+    @Override
+    public Object getFromCache( Object key, SharedSessionContractImplementor session )
+    {
+        Object value = cache.peek( key );
+
+        if ( value != null )
+        {
+            statistics.recordHit();
+        }
+        else
+        {
+            statistics.recordMiss();
+        }
+
+        return value;
+    }
+
+    @Override
+    public void putFromLoad( Object key, Object value, SharedSessionContractImplementor session )
+    {
+        cache.put( key, value );
+        statistics.recordPut();
+    }
+
+    @Override
+    public void putIntoCache( Object key, Object value, SharedSessionContractImplementor session )
+    {
+        cache.put( key, value );
+        statistics.recordPut();
+
+        if ( kind == Kind.DOMAIN_DATA )
+        {
+            publisher.accept( CacheInvalidation.evict( region, key ) );
+        }
+        else if ( kind == Kind.TIMESTAMPS )
+        {
+            publisher.accept( CacheInvalidation.put( region, key, value ) );
+        }
+    }
+
+    @Override
+    public boolean contains( Object key )
+    {
+        return cache.containsKey( key );
+    }
+
+    @Override
+    public void evictData()
+    {
+        cache.clear();
+        publisher.accept( CacheInvalidation.clear( region ) );
+    }
+
+    @Override
+    public void evictData( Object key )
+    {
+        cache.remove( key );
+        publisher.accept( CacheInvalidation.evict( region, key ) );
+    }
+
+    @Override
+    public void release()
+    {
+        cache.close();
+    }
+
+    /**
+     * Applies a change published by another instance, without publishing it
+     * again.
+     *
+     * @param invalidation the {@link CacheInvalidation}.
+     */
+    void apply( CacheInvalidation invalidation )
+    {
+        statistics.recordRemoteInvalidation();
+
+        switch ( invalidation.getType() )
+        {
+        case EVICT:
+            cache.remove( invalidation.getKey() );
+            break;
+        case CLEAR:
+            cache.clear();
+            break;
+        case PUT:
+            // Applied in batch order, the last write wins. Hibernate puts a
+            // timestamp in the future before a transaction writes and the
+            // actual one once it completes, so the later put may be smaller
+            cache.put( invalidation.getKey(), invalidation.getValue() );
+            break;
+        default:
+            break;
+        }
+    }
+}
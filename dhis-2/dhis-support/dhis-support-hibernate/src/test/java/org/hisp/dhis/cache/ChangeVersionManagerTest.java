@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.hisp.dhis.external.conf.ConfigurationKey;
+import org.hisp.dhis.external.conf.DhisConfigurationProvider;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link ChangeVersionManager}.
+ */
+class ChangeVersionManagerTest
+{
+    private final ChangeVersionManager manager = new ChangeVersionManager( mock( DhisConfigurationProvider.class ) );
+
+    @Test
+    void testRegisterChange()
+    {
+        assertEquals( 0L, manager.getVersion( String.class ) );
+
+        manager.registerChange( String.class );
+        manager.registerChange( String.class );
+        manager.registerChange( Integer.class );
+
+        assertEquals( 2L, manager.getVersion( String.class ) );
+        assertEquals( 1L, manager.getVersion( Integer.class ) );
+        assertEquals( 0L, manager.getVersion( Long.class ) );
+        assertEquals( 3L, manager.getCombinedVersion( String.class, Integer.class, Long.class ) );
+        assertEquals( 3L, manager.getGlobalVersion() );
+    }
+
+    @Test
+    void testIsObservingAllChanges()
+    {
+        assertTrue( manager.isObservingAllChanges() );
+        assertFalse( createManager( true, false ).isObservingAllChanges() );
+        assertTrue( createManager( true, true ).isObservingAllChanges() );
+    }
+
+    private static ChangeVersionManager createManager( boolean cluster, boolean debezium )
+    {
+        DhisConfigurationProvider config = mock( DhisConfigurationProvider.class );
+        when( config.isClusterEnabled() ).thenReturn( cluster );
+        when( config.isEnabled( ConfigurationKey.DEBEZIUM_ENABLED ) ).thenReturn( debezium );
+
+        return new ChangeVersionManager( config );
+    }
+}
@@ -0,0 +1,225 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.hibernate.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.hisp.dhis.hibernate.cache.LocalStorageAccess.Kind;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Unit tests for {@link LocalRegionFactory} using an
+ * {@link InMemoryCacheInvalidationBus} to connect two instances.
+ */
+class LocalRegionFactoryTest
+{
+    private static final String REGION = "org.hisp.dhis.dataelement.DataElement";
+
+    private final InMemoryCacheInvalidationBus bus = new InMemoryCacheInvalidationBus();
+
+    private final List<CacheInvalidationBatch> published = new ArrayList<>();
+
+    private LocalRegionFactory factoryA;
+
+    private LocalRegionFactory factoryB;
+
+    @BeforeEach
+    void setUp()
+    {
+        bus.subscribe( published::add );
+
+        factoryA = new LocalRegionFactory( bus );
+        factoryB = new LocalRegionFactory( bus );
+
+        factoryA.start( null, Collections.emptyMap() );
+        factoryB.start( null, Collections.emptyMap() );
+    }
+
+    @AfterEach
+    void tearDown()
+    {
+        factoryA.stop();
+        factoryB.stop();
+    }
+
+    @Test
+    void testPutFromLoadIsLocal()
+    {
+        LocalStorageAccess storageA = factoryA.getStorageAccess( REGION, Kind.DOMAIN_DATA );
+        LocalStorageAccess storageB = factoryB.getStorageAccess( REGION, Kind.DOMAIN_DATA );
+
+        storageA.putFromLoad( "a", "A", null );
+        storageB.putFromLoad( "a", "A", null );
+
+        assertTrue( published.isEmpty() );
+        assertEquals( "A", storageA.getFromCache( "a", null ) );
+        assertEquals( "A", storageB.getFromCache( "a", null ) );
+    }
+
+    @Test
+    void testPutIntoCacheInvalidatesOtherInstances()
+    {
+        LocalStorageAccess storageA = factoryA.getStorageAccess( REGION, Kind.DOMAIN_DATA );
+        LocalStorageAccess storageB = factoryB.getStorageAccess( REGION, Kind.DOMAIN_DATA );
+
+        storageA.putFromLoad( "a", "A", null );
+        storageB.putFromLoad( "a", "A", null );
+
+        storageA.putIntoCache( "a", "A2", null );
+
+        assertEquals( "A2", storageA.getFromCache( "a", null ) );
+        assertFalse( storageB.contains( "a" ) );
+        assertEquals( 1, storageB.getStatistics().getRemoteInvalidationCount() );
+        assertEquals( 0, storageA.getStatistics().getRemoteInvalidationCount() );
+    }
+
+    @Test
+    void testEvictData()
+    {
+        LocalStorageAccess storageA = factoryA.getStorageAccess( REGION, Kind.DOMAIN_DATA );
+        LocalStorageAccess storageB = factoryB.getStorageAccess( REGION, Kind.DOMAIN_DATA );
+
+        storageB.putFromLoad( "a", "A", null );
+        storageB.putFromLoad( "b", "B", null );
+
+        storageA.evictData( "a" );
+
+        assertFalse( storageB.contains( "a" ) );
+        assertTrue( storageB.contains( "b" ) );
+
+        storageA.evictData();
+
+        assertFalse( storageB.contains( "b" ) );
+    }
+
+    @Test
+    void testTimestampsArePropagated()
+    {
+        LocalStorageAccess timestampsA = factoryA.getStorageAccess( "timestamps", Kind.TIMESTAMPS );
+        LocalStorageAccess timestampsB = factoryB.getStorageAccess( "timestamps", Kind.TIMESTAMPS );
+
+        timestampsA.putIntoCache( "dataelement", 5L, null );
+
+        assertEquals( 5L, timestampsB.getFromCache( "dataelement", null ) );
+
+        timestampsB.apply( CacheInvalidation.put( "timestamps", "dataelement", 3L ) );
+
+        assertEquals( 3L, timestampsB.getFromCache( "dataelement", null ) );
+    }
+
+    @Test
+    void testTimestampsAreAppliedInBatchOrder()
+    {
+        LocalStorageAccess timestampsA = factoryA.getStorageAccess( "timestamps", Kind.TIMESTAMPS );
+        LocalStorageAccess timestampsB = factoryB.getStorageAccess( "timestamps", Kind.TIMESTAMPS );
+
+        TransactionSynchronizationManager.initSynchronization();
+
+        try
+        {
+            // pre-invalidations in the future, each followed by the actual
+            // timestamp
+            timestampsA.putIntoCache( "dataelement", 9L, null );
+            timestampsA.putIntoCache( "dataelement", 5L, null );
+            timestampsA.putIntoCache( "dataelement", 9L, null );
+            timestampsA.putIntoCache( "dataelement", 5L, null );
+
+            TransactionSynchronizationManager.getSynchronizations()
+                .forEach( s -> s.afterCompletion( TransactionSynchronization.STATUS_COMMITTED ) );
+        }
+        finally
+        {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals( 5L, timestampsA.getFromCache( "dataelement", null ) );
+        assertEquals( 5L, timestampsB.getFromCache( "dataelement", null ) );
+    }
+
+    @Test
+    void testInvalidationsAreBatchedPerTransaction()
+    {
+        LocalStorageAccess storageA = factoryA.getStorageAccess( REGION, Kind.DOMAIN_DATA );
+        LocalStorageAccess storageB = factoryB.getStorageAccess( REGION, Kind.DOMAIN_DATA );
+
+        storageB.putFromLoad( "a", "A", null );
+        storageB.putFromLoad( "b", "B", null );
+
+        TransactionSynchronizationManager.initSynchronization();
+
+        try
+        {
+            storageA.evictData( "a" );
+            storageA.putIntoCache( "b", "B2", null );
+            storageA.putIntoCache( "b", "B3", null );
+
+            assertTrue( published.isEmpty() );
+            assertTrue( storageB.contains( "a" ) );
+
+            TransactionSynchronizationManager.getSynchronizations()
+                .forEach( s -> s.afterCompletion( TransactionSynchronization.STATUS_COMMITTED ) );
+        }
+        finally
+        {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals( 1, published.size() );
+        assertEquals( 2, published.get( 0 ).getInvalidations().size() );
+        assertFalse( storageB.contains( "a" ) );
+        assertFalse( storageB.contains( "b" ) );
+    }
+
+    @Test
+    void testStatistics()
+    {
+        LocalStorageAccess storage = factoryA.getStorageAccess( REGION, Kind.DOMAIN_DATA );
+
+        storage.putFromLoad( "a", "A", null );
+        storage.getFromCache( "a", null );
+        assertNull( storage.getFromCache( "b", null ) );
+
+        LocalRegionStatistics statistics = factoryA.getRegionStatistics().get( REGION );
+
+        assertEquals( 1, statistics.getHitCount() );
+        assertEquals( 1, statistics.getMissCount() );
+        assertEquals( 1, statistics.getPutCount() );
+        assertEquals( 1, statistics.getSize() );
+    }
+}
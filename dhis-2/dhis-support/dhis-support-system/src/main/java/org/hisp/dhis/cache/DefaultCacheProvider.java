@@ -131,7 +131,8 @@ public class DefaultCacheProvider
         jobCancelRequested,
         dataIntegritySummaryCache,
         dataIntegrityDetailsCache,
-        subExpressionCache
+        subExpressionCache,
+        analyticsTile
     }
 
     private final Map<String, Cache<?>> allCaches = new ConcurrentHashMap<>();
@@ -626,4 +627,18 @@ public class DefaultCacheProvider
             .forRegion( Region.subExpressionCache.name() )
             .expireAfterWrite( 5, TimeUnit.MINUTES ) );
     }
+
+    /**
+     * Cache for analytics vector tiles. Keys include the analytics table
+     * version, so entries of previous table versions are never read and just
+     * expire.
+     */
+    @Override
+    public <V> Cache<V> createAnalyticsTileCache()
+    {
+        return registerCache( this.<V> newBuilder()
+            .forRegion( Region.analyticsTile.name() )
+            .expireAfterWrite( 1, HOURS )
+            .withMaximumSize( orZeroInTestRun( getActualSize( SIZE_10K ) ) ) );
+    }
 }
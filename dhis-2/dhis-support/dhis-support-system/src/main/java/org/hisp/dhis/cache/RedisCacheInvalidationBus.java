@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.hisp.dhis.condition.PropertiesAwareConfigurationCondition;
+import org.hisp.dhis.external.conf.ConfigurationKey;
+import org.hisp.dhis.external.conf.DhisConfigurationProvider;
+import org.hisp.dhis.hibernate.cache.CacheInvalidationBatch;
+import org.hisp.dhis.hibernate.cache.CacheInvalidationBus;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.ConditionContext;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.core.type.AnnotatedTypeMetadata;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@link CacheInvalidationBus} publishing second level cache invalidations on a
+ * redis pub/sub channel shared by all instances.
+ */
+@Slf4j
+@Component
+@Conditional( RedisCacheInvalidationBus.RedisCacheInvalidationBusCondition.class )
+public class RedisCacheInvalidationBus
+    implements CacheInvalidationBus, DisposableBean
+{
+    private static final String CHANNEL = "dhis2:cache:l2:invalidation";
+
+    private static final byte[] CHANNEL_BYTES = CHANNEL.getBytes( StandardCharsets.UTF_8 );
+
+    private final RedisTemplate<?, ?> redisTemplate;
+
+    private final RedisMessageListenerContainer listenerContainer;
+
+    public RedisCacheInvalidationBus( @Qualifier( "redisTemplate" ) RedisTemplate<?, ?> redisTemplate,
+        RedisConnectionFactory redisConnectionFactory )
+    {
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = new RedisMessageListenerContainer();
+        this.listenerContainer.setConnectionFactory( redisConnectionFactory );
+        this.listenerContainer.afterPropertiesSet();
+        this.listenerContainer.start();
+    }
+
+    @Override
+    public void publish( CacheInvalidationBatch batch )
+    {
+        byte[] message = batch.toBytes();
+
+        redisTemplate.execute( (RedisCallback<Long>) connection -> connection.publish( CHANNEL_BYTES, message ) );
+    }
+
+    @Override
+    public void subscribe( Consumer<CacheInvalidationBatch> subscriber )
+    {
+        listenerContainer.addMessageListener( ( message, pattern ) -> {
+            try
+            {
+                subscriber.accept( CacheInvalidationBatch.fromBytes( message.getBody() ) );
+            }
+            catch ( RuntimeException ex )
+            {
+                log.error( "Failed to apply second level cache invalidations", ex );
+            }
+        }, new ChannelTopic( CHANNEL ) );
+    }
+
+    @Override
+    public void destroy()
+        throws Exception
+    {
+        listenerContainer.destroy();
+    }
+
+    static class RedisCacheInvalidationBusCondition
+        extends PropertiesAwareConfigurationCondition
+    {
+        @Override
+        public boolean matches( ConditionContext context, AnnotatedTypeMetadata metadata )
+        {
+            if ( isTestRun( context ) )
+            {
+                return false;
+            }
+
+            DhisConfigurationProvider config = getConfiguration();
+
+            return config.isEnabled( ConfigurationKey.REDIS_ENABLED )
+                && "local".equals( config.getProperty( ConfigurationKey.CACHE_L2_PROVIDER ) )
+                && "redis".equals( config.getProperty( ConfigurationKey.CACHE_L2_INVALIDATION_BUS ) );
+        }
+
+        @Override
+        public ConfigurationPhase getConfigurationPhase()
+        {
+            return ConfigurationPhase.REGISTER_BEAN;
+        }
+    }
+}
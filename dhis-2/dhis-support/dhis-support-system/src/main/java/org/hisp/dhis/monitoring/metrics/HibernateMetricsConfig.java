@@ -37,7 +37,10 @@ import javax.persistence.PersistenceException;
 
 import org.apache.commons.lang3.StringUtils;
 import org.hibernate.SessionFactory;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
 import org.hisp.dhis.external.conf.ConfigurationKey;
+import org.hisp.dhis.hibernate.cache.LocalRegionFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Conditional;
 import org.springframework.context.annotation.Configuration;
@@ -68,8 +71,19 @@ public class HibernateMetricsConfig
         String entityManagerFactoryName = getEntityManagerFactoryName( beanName );
         try
         {
-            new HibernateMetrics( entityManagerFactory.unwrap( SessionFactory.class ), entityManagerFactoryName,
-                Collections.emptyList() ).bindTo( registry );
+            SessionFactory sessionFactory = entityManagerFactory.unwrap( SessionFactory.class );
+
+            new HibernateMetrics( sessionFactory, entityManagerFactoryName, Collections.emptyList() )
+                .bindTo( registry );
+
+            RegionFactory regionFactory = sessionFactory.unwrap( SessionFactoryImplementor.class ).getCache()
+                .getRegionFactory();
+
+            if ( regionFactory instanceof LocalRegionFactory )
+            {
+                new LocalRegionMetrics( (LocalRegionFactory) regionFactory, entityManagerFactoryName )
+                    .bindTo( registry );
+            }
         }
         catch ( PersistenceException ex )
         {
@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.monitoring.metrics;
+
+import java.util.function.ToDoubleFunction;
+
+import org.hisp.dhis.hibernate.cache.LocalRegionFactory;
+import org.hisp.dhis.hibernate.cache.LocalRegionStatistics;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Binds the per region statistics of the {@link LocalRegionFactory} second
+ * level cache.
+ */
+public class LocalRegionMetrics
+    implements MeterBinder
+{
+    private static final String PREFIX = "hibernate.cache.local.";
+
+    private final LocalRegionFactory regionFactory;
+
+    private final Tags tags;
+
+    public LocalRegionMetrics( LocalRegionFactory regionFactory, String entityManagerFactoryName )
+    {
+        this.regionFactory = regionFactory;
+        this.tags = Tags.of( "entityManagerFactory", entityManagerFactoryName );
+    }
+
+    @Override
+    public void bindTo( MeterRegistry registry )
+    {
+        regionFactory.getRegionStatistics().forEach( ( region, statistics ) -> {
+            Tags regionTags = tags.and( "region", region );
+
+            counter( registry, "requests", "The number of requests to the region", statistics,
+                LocalRegionStatistics::getHitCount, regionTags.and( "result", "hit" ) );
+            counter( registry, "requests", "The number of requests to the region", statistics,
+                LocalRegionStatistics::getMissCount, regionTags.and( "result", "miss" ) );
+            counter( registry, "puts", "The number of entries put into the region", statistics,
+                LocalRegionStatistics::getPutCount, regionTags );
+            counter( registry, "evictions", "The number of entries evicted because of the region capacity",
+                statistics, LocalRegionStatistics::getEvictionCount, regionTags );
+            counter( registry, "remote.invalidations", "The number of changes received from other instances",
+                statistics, LocalRegionStatistics::getRemoteInvalidationCount, regionTags );
+
+            Gauge.builder( PREFIX + "size", statistics, LocalRegionStatistics::getSize )
+                .tags( regionTags )
+                .description( "The number of entries in the region" )
+                .register( registry );
+        } );
+    }
+
+    private void counter( MeterRegistry registry, String name, String description,
+        LocalRegionStatistics statistics, ToDoubleFunction<LocalRegionStatistics> function, Tags tags )
+    {
+        FunctionCounter.builder( PREFIX + name, statistics, function )
+            .tags( tags )
+            .description( description )
+            .register( registry );
+    }
+}
@@ -54,6 +54,8 @@ public class DatabaseInfo
 
     private boolean spatialSupport;
 
+    private boolean hllSupport;
+
     // -------------------------------------------------------------------------
     // Constructor
     // -------------------------------------------------------------------------
@@ -149,6 +151,22 @@ public class DatabaseInfo
         this.spatialSupport = spatialSupport;
     }
 
+    /**
+     * Indicates whether approximate distinct counts are enabled for analytics
+     * and the hll extension they require is installed.
+     */
+    @JsonProperty
+    @JacksonXmlProperty( namespace = DxfNamespaces.DXF_2_0 )
+    public boolean isHllSupport()
+    {
+        return hllSupport;
+    }
+
+    public void setHllSupport( boolean hllSupport )
+    {
+        this.hllSupport = hllSupport;
+    }
+
     /**
      * @return a cloned instance of this object.
      */
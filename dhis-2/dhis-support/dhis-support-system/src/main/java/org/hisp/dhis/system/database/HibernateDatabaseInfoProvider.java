@@ -61,6 +61,10 @@ public class HibernateDatabaseInfoProvider
 
     private static final String BTREE_GIN_EXTENSION = "btree_gin";
 
+    private static final String HLL_EXTENSION = "hll";
+
+    private static final String HLL_MISSING_WARNING = "%s extension is not installed, distinct counts in analytics are not approximated. Execute \"CREATE EXTENSION %s;\" as a superuser and restart the application.";
+
     private static final String POSTGRES_VERSION_REGEX = "^([a-zA-Z_-]+ \\d+\\.+\\d+)?[ ,].*$";
 
     private static final Pattern POSTGRES_VERSION_PATTERN = Pattern.compile( POSTGRES_VERSION_REGEX );
@@ -100,6 +104,8 @@ public class HibernateDatabaseInfoProvider
 
         boolean btreeGinSupport = false;
 
+        boolean hllSupport = false;
+
         if ( !SystemUtils.isTestRun( environment.getActiveProfiles() ) )
         {
             // Check if postgis extension is installed, fail startup if not
@@ -131,6 +137,18 @@ public class HibernateDatabaseInfoProvider
                 throw new IllegalStateException(
                     String.format( EXTENSION_MISSING_ERROR, BTREE_GIN_EXTENSION, BTREE_GIN_EXTENSION ) );
             }
+
+            // Check if hll extension is installed if approximate distinct
+            // counts are enabled, fall back to exact counts if not
+            if ( config.isEnabled( ConfigurationKey.ANALYTICS_APPROXIMATE_DISTINCT_COUNT ) )
+            {
+                hllSupport = isHllExtensionCreated();
+
+                if ( !hllSupport )
+                {
+                    log.warn( String.format( HLL_MISSING_WARNING, HLL_EXTENSION, HLL_EXTENSION ) );
+                }
+            }
         }
 
         String url = config.getProperty( ConfigurationKey.CONNECTION_URL );
@@ -144,6 +162,7 @@ public class HibernateDatabaseInfoProvider
         info.setPassword( password );
         info.setUrl( url );
         info.setSpatialSupport( spatialSupport );
+        info.setHllSupport( hllSupport );
         info.setDatabaseVersion( internalDatabaseInfo.getVersion() );
     }
 
@@ -269,6 +288,34 @@ public class HibernateDatabaseInfoProvider
         }
     }
 
+    /**
+     * Attempts to create a hll database extension. Checks if extension is
+     * created
+     */
+    private boolean isHllExtensionCreated()
+    {
+        try
+        {
+            jdbcTemplate.execute( "create extension hll;" );
+        }
+        catch ( Exception ex )
+        {
+            // swallowing exception as this is just an attempt to create the
+            // extension if possible.
+        }
+
+        try
+        {
+            return Boolean.TRUE.equals( jdbcTemplate.queryForObject(
+                "select exists (select 1 from pg_extension where extname='hll');", Boolean.class ) );
+        }
+        catch ( Exception ex )
+        {
+            log.error( "Exception when checking hll extension. Extension may not be created", ex );
+            return false;
+        }
+    }
+
     /**
      * Attempts to create a btree_gin database extension. Checks if extension is
      * created
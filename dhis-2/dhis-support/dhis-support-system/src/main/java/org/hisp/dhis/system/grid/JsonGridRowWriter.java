@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.system.grid;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+import org.hisp.dhis.common.GridHeader;
+import org.hisp.dhis.common.GridRowWriter;
+import org.hisp.dhis.commons.jackson.config.JacksonObjectMapperConfig;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+/**
+ * Writes tabular data row by row as JSON. The document has the same shape as
+ * a serialized {@link org.hisp.dhis.common.Grid} with {@code title},
+ * {@code subtitle}, {@code headers}, {@code rows} and {@code height}, where
+ * {@code height} is written last as it is only known once all rows are
+ * written.
+ */
+public final class JsonGridRowWriter implements GridRowWriter
+{
+    private final JsonGenerator generator;
+
+    private final String title;
+
+    private final String subtitle;
+
+    private long height = 0;
+
+    public JsonGridRowWriter( OutputStream out, String title, String subtitle )
+    {
+        this.generator = createGenerator( out );
+        this.title = title;
+        this.subtitle = subtitle;
+    }
+
+    private static JsonGenerator createGenerator( OutputStream out )
+    {
+        try
+        {
+            JsonFactory factory = JacksonObjectMapperConfig.jsonMapper.getFactory();
+            JsonGenerator generator = factory.createGenerator( out );
+            // Disables flushing every time that an object property is written
+            // to the stream
+            generator.disable( JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM );
+            return generator;
+        }
+        catch ( IOException ex )
+        {
+            throw new UncheckedIOException( ex );
+        }
+    }
+
+    @Override
+    public void writeHeaders( List<GridHeader> headers )
+    {
+        try
+        {
+            generator.writeStartObject();
+            generator.writeStringField( "title", title );
+            generator.writeStringField( "subtitle", subtitle );
+            generator.writeArrayFieldStart( "headers" );
+
+            for ( GridHeader header : headers )
+            {
+                generator.writeObject( header );
+            }
+
+            generator.writeEndArray();
+            generator.writeNumberField( "width", headers.size() );
+            generator.writeArrayFieldStart( "rows" );
+        }
+        catch ( IOException ex )
+        {
+            throw new UncheckedIOException( ex );
+        }
+    }
+
+    @Override
+    public void writeRow( List<Object> row )
+    {
+        try
+        {
+            generator.writeStartArray();
+
+            for ( Object value : row )
+            {
+                generator.writeObject( value );
+            }
+
+            generator.writeEndArray();
+
+            height++;
+        }
+        catch ( IOException ex )
+        {
+            throw new UncheckedIOException( ex );
+        }
+    }
+
+    @Override
+    public void close()
+    {
+        try
+        {
+            generator.writeEndArray();
+            generator.writeNumberField( "height", height );
+            generator.writeEndObject();
+            generator.close();
+        }
+        catch ( IOException ex )
+        {
+            throw new UncheckedIOException( ex );
+        }
+    }
+}
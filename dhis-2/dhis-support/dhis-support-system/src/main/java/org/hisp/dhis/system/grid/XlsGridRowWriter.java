@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.system.grid;
+
+import static org.hisp.dhis.common.adapter.OutputFormatter.maybeFormat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.hisp.dhis.common.GridHeader;
+import org.hisp.dhis.common.GridRowWriter;
+import org.hisp.dhis.commons.collection.ListUtils;
+import org.hisp.dhis.system.util.CodecUtils;
+
+/**
+ * Writes tabular data row by row as an XLS workbook. The XLS format is
+ * limited to {@link SpreadsheetVersion#EXCEL97} max rows, rows beyond that
+ * limit are skipped, which also bounds the memory held by the workbook until
+ * it is written on {@link #close()}.
+ */
+@Slf4j
+public final class XlsGridRowWriter implements GridRowWriter
+{
+    public static final int MAX_ROWS = SpreadsheetVersion.EXCEL97.getMaxRows();
+
+    private static final int MAX_COLS = SpreadsheetVersion.EXCEL97.getMaxColumns();
+
+    private static final String FONT_ARIAL = "Arial";
+
+    private final OutputStream out;
+
+    private final Workbook workbook;
+
+    private final Sheet sheet;
+
+    private final CellStyle headerCellStyle;
+
+    private final CellStyle cellStyle;
+
+    private int rowNumber = 0;
+
+    private long skipped = 0;
+
+    public XlsGridRowWriter( OutputStream out, String title )
+    {
+        this.out = out;
+        this.workbook = new HSSFWorkbook();
+        this.sheet = workbook.createSheet( CodecUtils.filenameEncode( StringUtils.defaultIfEmpty( title, "Sheet 1" ) ) );
+        this.headerCellStyle = createCellStyle( workbook, true );
+        this.cellStyle = createCellStyle( workbook, false );
+
+        if ( StringUtils.isNotEmpty( title ) )
+        {
+            Cell cell = sheet.createRow( rowNumber++ ).createCell( 0, CellType.STRING );
+            cell.setCellValue( title );
+            cell.setCellStyle( headerCellStyle );
+            rowNumber++;
+        }
+    }
+
+    @Override
+    public void writeHeaders( List<GridHeader> headers )
+    {
+        Row headerRow = sheet.createRow( rowNumber++ );
+
+        int columnIndex = 0;
+
+        for ( GridHeader header : ListUtils.subList( headers, 0, MAX_COLS ) )
+        {
+            Cell cell = headerRow.createCell( columnIndex++, CellType.STRING );
+            cell.setCellStyle( headerCellStyle );
+            cell.setCellValue( header.getColumn() );
+        }
+    }
+
+    @Override
+    public void writeRow( List<Object> row )
+    {
+        if ( rowNumber >= MAX_ROWS )
+        {
+            skipped++;
+            return;
+        }
+
+        Row xlsRow = sheet.createRow( rowNumber++ );
+        xlsRow.setRowStyle( cellStyle );
+
+        int columnIndex = 0;
+
+        for ( Object value : ListUtils.subList( row, 0, MAX_COLS ) )
+        {
+            xlsRow.createCell( columnIndex++, CellType.STRING )
+                .setCellValue( value != null ? String.valueOf( maybeFormat( value ) ) : StringUtils.EMPTY );
+        }
+    }
+
+    @Override
+    public void close()
+    {
+        if ( skipped > 0 )
+        {
+            log.warn( "XLS output truncated at max rows: " + MAX_ROWS + ", skipped rows: " + skipped );
+        }
+
+        try
+        {
+            workbook.write( out );
+            workbook.close();
+        }
+        catch ( IOException ex )
+        {
+            throw new UncheckedIOException( ex );
+        }
+    }
+
+    private static CellStyle createCellStyle( Workbook workbook, boolean bold )
+    {
+        CellStyle cellStyle = workbook.createCellStyle();
+        Font font = workbook.createFont();
+        font.setBold( bold );
+        font.setFontHeightInPoints( (short) 10 );
+        font.setFontName( FONT_ARIAL );
+        cellStyle.setFont( font );
+        return cellStyle;
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.system.grid;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.hisp.dhis.common.GridHeader;
+import org.hisp.dhis.common.GridRowWriter;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the streaming {@link GridRowWriter} implementations.
+ */
+class GridRowWriterTest
+{
+    private static final List<GridHeader> HEADERS = List.of(
+        new GridHeader( "uid", false, false ),
+        new GridHeader( "value", false, false ) );
+
+    @Test
+    void testCsvGridRowWriter()
+    {
+        StringWriter out = new StringWriter();
+
+        GridRowWriter writer = new CsvGridRowWriter( out );
+        writer.writeHeaders( HEADERS );
+        writer.writeRow( List.of( "fbfJHSPpUQD", 5 ) );
+        writer.writeRow( Arrays.asList( "cYeuwXTCPkU", null ) );
+        writer.close();
+
+        String nl = System.lineSeparator();
+
+        assertEquals( "uid,value" + nl + "fbfJHSPpUQD,5" + nl + "cYeuwXTCPkU," + nl, out.toString() );
+    }
+
+    @Test
+    void testJsonGridRowWriter()
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        GridRowWriter writer = new JsonGridRowWriter( out, "Title", null );
+        writer.writeHeaders( List.of( new GridHeader( "uid", false, false ) ) );
+        writer.writeRow( List.of( "fbfJHSPpUQD" ) );
+        writer.writeRow( List.of( "cYeuwXTCPkU" ) );
+        writer.close();
+
+        String json = out.toString( StandardCharsets.UTF_8 );
+
+        assertTrue( json.startsWith( "{\"title\":\"Title\",\"subtitle\":null,\"headers\":[{" ) );
+        assertTrue( json.endsWith( "\"width\":1,\"rows\":[[\"fbfJHSPpUQD\"],[\"cYeuwXTCPkU\"]],\"height\":2}" ) );
+    }
+
+    @Test
+    void testXlsGridRowWriter()
+        throws IOException
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        GridRowWriter writer = new XlsGridRowWriter( out, "Title" );
+        writer.writeHeaders( HEADERS );
+        writer.writeRow( List.of( "fbfJHSPpUQD", 5 ) );
+        writer.writeRow( Arrays.asList( "cYeuwXTCPkU", null ) );
+        writer.close();
+
+        try ( Workbook workbook = new HSSFWorkbook( new ByteArrayInputStream( out.toByteArray() ) ) )
+        {
+            Sheet sheet = workbook.getSheetAt( 0 );
+
+            assertEquals( "Title", sheet.getRow( 0 ).getCell( 0 ).getStringCellValue() );
+            assertEquals( "uid", sheet.getRow( 2 ).getCell( 0 ).getStringCellValue() );
+            assertEquals( "value", sheet.getRow( 2 ).getCell( 1 ).getStringCellValue() );
+            assertTrue( workbook.getFontAt( sheet.getRow( 2 ).getCell( 0 ).getCellStyle().getFontIndex() ).getBold() );
+            assertEquals( "fbfJHSPpUQD", sheet.getRow( 3 ).getCell( 0 ).getStringCellValue() );
+            assertEquals( "5", sheet.getRow( 3 ).getCell( 1 ).getStringCellValue() );
+            assertEquals( "cYeuwXTCPkU", sheet.getRow( 4 ).getCell( 0 ).getStringCellValue() );
+            assertEquals( "", sheet.getRow( 4 ).getCell( 1 ).getStringCellValue() );
+            assertEquals( 4, sheet.getLastRowNum() );
+        }
+    }
+}
@@ -31,16 +31,21 @@ import static java.util.Collections.emptyList;
 import static java.util.Collections.singletonList;
 import static org.hisp.dhis.webapi.WebClient.Body;
 import static org.hisp.dhis.webapi.WebClient.ContentType;
+import static org.hisp.dhis.webapi.WebClient.Header;
 import static org.hisp.dhis.webapi.utils.WebClientUtils.assertSeries;
 import static org.hisp.dhis.webapi.utils.WebClientUtils.assertStatus;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.http.HttpStatus.Series.SUCCESSFUL;
 
 import java.util.List;
 
+import org.hisp.dhis.cache.ChangeVersionManager;
+import org.hisp.dhis.constant.Constant;
 import org.hisp.dhis.feedback.ErrorCode;
 import org.hisp.dhis.jsontree.JsonArray;
 import org.hisp.dhis.jsontree.JsonList;
@@ -48,6 +53,7 @@ import org.hisp.dhis.jsontree.JsonObject;
 import org.hisp.dhis.jsontree.JsonResponse;
 import org.hisp.dhis.user.User;
 import org.hisp.dhis.webapi.DhisControllerConvenienceTest;
+import org.hisp.dhis.webapi.WebClient.HttpResponse;
 import org.hisp.dhis.webapi.json.domain.JsonError;
 import org.hisp.dhis.webapi.json.domain.JsonErrorReport;
 import org.hisp.dhis.webapi.json.domain.JsonGeoMap;
@@ -59,6 +65,7 @@ import org.hisp.dhis.webapi.json.domain.JsonUser;
 import org.hisp.dhis.webapi.json.domain.JsonWebMessage;
 import org.hisp.dhis.webapi.snippets.SomeUserId;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 
@@ -70,6 +77,8 @@ import org.springframework.http.MediaType;
  */
 class AbstractCrudControllerTest extends DhisControllerConvenienceTest
 {
+    @Autowired
+    private ChangeVersionManager changeVersionManager;
 
     @Test
     void testGetObjectList()
@@ -91,6 +100,44 @@ class AbstractCrudControllerTest extends DhisControllerConvenienceTest
         assertEquals( id, userById.getId() );
     }
 
+    @Test
+    void testGetObjectList_NotModified()
+    {
+        HttpResponse response = GET( "/constants/" );
+        assertEquals( HttpStatus.OK, response.status() );
+        String etag = response.header( "ETag" );
+        assertNotNull( etag );
+
+        assertEquals( HttpStatus.NOT_MODIFIED, GET( "/constants/", Header( "If-None-Match", etag ) ).status() );
+    }
+
+    @Test
+    void testGetObjectList_ModifiedAfterChange()
+    {
+        String etag = GET( "/constants/" ).header( "ETag" );
+
+        // changes are registered after commit, which tests never do
+        changeVersionManager.registerChange( Constant.class );
+
+        HttpResponse response = GET( "/constants/", Header( "If-None-Match", etag ) );
+        assertEquals( HttpStatus.OK, response.status() );
+        assertNotEquals( etag, response.header( "ETag" ) );
+    }
+
+    @Test
+    void testGetObject_NotModified()
+    {
+        String id = assertStatus( HttpStatus.CREATED, POST( "/constants/", "{'name':'Pi', 'value': 3.14}" ) );
+        String etag = GET( "/constants/{id}", id ).header( "ETag" );
+        assertNotNull( etag );
+
+        assertEquals( HttpStatus.NOT_MODIFIED, GET( "/constants/{id}", id, Header( "If-None-Match", etag ) ).status() );
+
+        changeVersionManager.registerChange( Constant.class );
+
+        assertEquals( HttpStatus.OK, GET( "/constants/{id}", id, Header( "If-None-Match", etag ) ).status() );
+    }
+
     @Test
     void testGetObjectProperty()
     {
@@ -38,6 +38,7 @@ import java.io.IOException;
 import org.geojson.GeoJsonObject;
 import org.geojson.Polygon;
 import org.hisp.dhis.feedback.ErrorCode;
+import org.hisp.dhis.jsontree.JsonArray;
 import org.hisp.dhis.jsontree.JsonObject;
 import org.hisp.dhis.jsontree.JsonResponse;
 import org.hisp.dhis.webapi.DhisControllerConvenienceTest;
@@ -308,4 +309,28 @@ class MetadataImportExportControllerTest extends DhisControllerConvenienceTest
         assertNotNull( response.get( "options[0].sortOrder" ) );
         assertNotNull( response.get( "options[1].sortOrder" ) );
     }
+
+    @Test
+    void testGetMetadataStream()
+    {
+        POST( "/metadata", "{'organisationUnits':["
+            + "{'name':'Unit A', 'shortName':'OUA', 'openingDate': '2020-01-01'},"
+            + "{'name':'Unit B', 'shortName':'OUB', 'openingDate': '2020-01-01'},"
+            + "{'name':'Unit C', 'shortName':'OUC', 'openingDate': '2020-01-01'}]}" ).content( HttpStatus.OK );
+
+        JsonArray expected = GET( "/metadata?organisationUnits=true&fields=id" ).content( HttpStatus.OK )
+            .getArray( "organisationUnits" );
+        JsonObject metadata = GET( "/metadata?stream=true&pageSize=2&organisationUnits=true&fields=id" )
+            .content( HttpStatus.OK );
+        JsonArray units = metadata.getArray( "organisationUnits" );
+
+        assertTrue( metadata.getObject( "system" ).exists() );
+        assertEquals( expected.size(), units.size() );
+
+        for ( int i = 0; i < units.size(); i++ )
+        {
+            assertEquals( expected.getObject( i ).getString( "id" ).string(),
+                units.getObject( i ).getString( "id" ).string() );
+        }
+    }
 }
@@ -182,7 +182,7 @@ public abstract class AbstractFullReadOnlyController<T extends IdentifiableObjec
     @GetMapping
     public @ResponseBody RootNode getObjectList(
         @RequestParam Map<String, String> rpParameters, OrderParams orderParams,
-        HttpServletResponse response, @CurrentUser User currentUser )
+        HttpServletRequest request, HttpServletResponse response, @CurrentUser User currentUser )
         throws QueryParserException
     {
         List<Order> orders = orderParams.getOrders( getSchema() );
@@ -204,6 +204,13 @@ public abstract class AbstractFullReadOnlyController<T extends IdentifiableObjec
                 "You don't have the proper permissions to read objects of this type." );
         }
 
+        cachePrivate( response );
+
+        if ( isNotModifiedSinceLastChange( request, response, fields ) )
+        {
+            return null;
+        }
+
         List<T> entities = getEntityList( metadata, options, filters, orders );
 
         Pager pager = metadata.getPager();
@@ -249,8 +256,6 @@ public abstract class AbstractFullReadOnlyController<T extends IdentifiableObjec
         rootNode.addChild( oldFieldFilterService.toCollectionNode( getEntityClass(),
             new FieldFilterParams( entities, fields, Defaults.valueOf( options.get( "defaults", DEFAULTS ) ) ) ) );
 
-        cachePrivate( response );
-
         return rootNode;
     }
 
@@ -387,6 +392,11 @@ public abstract class AbstractFullReadOnlyController<T extends IdentifiableObjec
 
         cachePrivate( response );
 
+        if ( isNotModifiedSinceLastChange( request, response, fields ) )
+        {
+            return null;
+        }
+
         return getObjectInternal( pvUid, rpParameters, filters, fields, currentUser );
     }
 
@@ -34,14 +34,18 @@ import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
 import java.io.IOException;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Locale;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+import org.apache.commons.lang3.StringUtils;
+import org.hisp.dhis.cache.ChangeVersionManager;
 import org.hisp.dhis.common.DhisApiVersion;
 import org.hisp.dhis.common.IdentifiableObject;
+import org.hisp.dhis.common.MetadataObject;
 import org.hisp.dhis.common.NamedParams;
 import org.hisp.dhis.common.PrimaryKeyObject;
 import org.hisp.dhis.common.UserContext;
@@ -54,6 +58,11 @@ import org.hisp.dhis.gist.GistService;
 import org.hisp.dhis.schema.Property;
 import org.hisp.dhis.schema.Schema;
 import org.hisp.dhis.schema.SchemaService;
+import org.hisp.dhis.setting.SystemSetting;
+import org.hisp.dhis.user.User;
+import org.hisp.dhis.user.UserGroup;
+import org.hisp.dhis.user.UserRole;
+import org.hisp.dhis.user.UserSetting;
 import org.hisp.dhis.user.UserSettingKey;
 import org.hisp.dhis.webapi.CsvBuilder;
 import org.hisp.dhis.webapi.JsonBuilder;
@@ -63,6 +72,7 @@ import org.hisp.dhis.webapi.mvc.annotation.ApiVersion;
 import org.hisp.dhis.webapi.utils.ContextUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -70,6 +80,7 @@ import org.springframework.web.bind.annotation.ResponseBody;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.hash.Hashing;
 
 /**
  * Base controller for APIs that only want to offer read-only access though Gist
@@ -90,6 +101,75 @@ public abstract class AbstractGistReadOnlyController<T extends PrimaryKeyObject>
     @Autowired
     private GistService gistService;
 
+    @Autowired
+    private ChangeVersionManager changeVersionManager;
+
+    // --------------------------------------------------------------------------
+    // Hooks
+    // --------------------------------------------------------------------------
+
+    /**
+     * Override to disable answering conditional requests from the change
+     * versions of the entity classes, for controllers whose responses depend
+     * on state which is not changed through Hibernate. Enabled for metadata by
+     * default.
+     */
+    protected boolean isChangeVersionETagEnabled()
+    {
+        return MetadataObject.class.isAssignableFrom( getEntityClass() );
+    }
+
+    // --------------------------------------------------------------------------
+    // Conditional requests
+    // --------------------------------------------------------------------------
+
+    /**
+     * Sets an ETag derived from the change versions of the entity classes, the
+     * current user and the request, and checks it against the If-None-Match
+     * header of the request. This happens before any query, so that a client
+     * polling for unchanged data is answered without loading it.
+     * <p>
+     * When the requested fields may include properties of referenced objects,
+     * the version across all entity classes is used, as those can change
+     * without a change of the entity class itself.
+     * <p>
+     * Nothing is checked if the change versions do not observe all changes,
+     * i.e. on a clustered instance without the Debezium cache invalidation.
+     *
+     * @param request the request.
+     * @param response the response.
+     * @param fields the requested fields.
+     * @return true if the response is not modified and a 304 status was set.
+     */
+    protected final boolean isNotModifiedSinceLastChange( HttpServletRequest request, HttpServletResponse response,
+        List<String> fields )
+    {
+        if ( !isChangeVersionETagEnabled() || !changeVersionManager.isObservingAllChanges() )
+        {
+            return false;
+        }
+
+        long version = includesReferences( fields )
+            ? changeVersionManager.getGlobalVersion()
+            : changeVersionManager.getCombinedVersion( getEntityClass(), User.class, UserGroup.class,
+                UserRole.class, UserSetting.class, SystemSetting.class );
+
+        User user = UserContext.getUser();
+
+        String key = String.join( "|", changeVersionManager.getEpoch(), String.valueOf( version ),
+            user != null ? user.getUid() : "", request.getRequestURI(),
+            String.valueOf( request.getQueryString() ), String.valueOf( request.getHeader( HttpHeaders.ACCEPT ) ) );
+
+        String tag = Hashing.sha256().hashString( key, StandardCharsets.UTF_8 ).toString();
+
+        return ContextUtils.isNotModified( request, response, tag );
+    }
+
+    private static boolean includesReferences( List<String> fields )
+    {
+        return fields.stream().anyMatch( field -> StringUtils.containsAny( field, '[', ':', '*', '.', '(' ) );
+    }
+
     // --------------------------------------------------------------------------
     // GET Gist
     // --------------------------------------------------------------------------
@@ -100,6 +180,11 @@ public abstract class AbstractGistReadOnlyController<T extends PrimaryKeyObject>
         HttpServletRequest request, HttpServletResponse response )
         throws NotFoundException
     {
+        if ( isNotModifiedSinceLastChange( request, response, getGistFields( request ) ) )
+        {
+            return ResponseEntity.status( HttpStatus.NOT_MODIFIED ).build();
+        }
+
         return gistToJsonObjectResponse( uid, createGistQuery( request, getEntityClass(), GistAutoType.L )
             .withFilter( new Filter( "id", Comparison.EQ, uid ) ) );
     }
@@ -117,6 +202,11 @@ public abstract class AbstractGistReadOnlyController<T extends PrimaryKeyObject>
     public @ResponseBody ResponseEntity<JsonNode> getObjectListGist(
         HttpServletRequest request, HttpServletResponse response )
     {
+        if ( isNotModifiedSinceLastChange( request, response, getGistFields( request ) ) )
+        {
+            return ResponseEntity.status( HttpStatus.NOT_MODIFIED ).build();
+        }
+
         return gistToJsonArrayResponse( request, createGistQuery( request, getEntityClass(), GistAutoType.S ),
             getSchema() );
     }
@@ -179,6 +269,17 @@ public abstract class AbstractGistReadOnlyController<T extends PrimaryKeyObject>
                 .build() );
     }
 
+    /**
+     * Gist fields default to all direct properties, which include the sizes of
+     * collections and thereby depend on other classes, hence the wildcard.
+     */
+    private static List<String> getGistFields( HttpServletRequest request )
+    {
+        String fields = request.getParameter( "fields" );
+
+        return fields != null ? asList( fields.split( "," ) ) : asList( "*" );
+    }
+
     private static GistQuery createGistQuery( HttpServletRequest request,
         Class<? extends PrimaryKeyObject> elementType, GistAutoType autoDefault )
     {
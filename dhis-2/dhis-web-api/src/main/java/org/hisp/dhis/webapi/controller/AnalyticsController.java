@@ -41,6 +41,7 @@ import org.hisp.dhis.analytics.AnalyticsService;
 import org.hisp.dhis.analytics.AnalyticsTableType;
 import org.hisp.dhis.analytics.DataQueryParams;
 import org.hisp.dhis.analytics.DataQueryService;
+import org.hisp.dhis.analytics.metrics.AnalyticsMetrics;
 import org.hisp.dhis.analytics.util.AnalyticsUtils;
 import org.hisp.dhis.common.AggregateAnalyticsQueryCriteria;
 import org.hisp.dhis.common.DataQueryRequest;
@@ -56,6 +57,8 @@ import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.ResponseBody;
 
+import io.micrometer.core.instrument.Timer;
+
 /**
  * @author Lars Helge Overland
  */
@@ -81,6 +84,9 @@ public class AnalyticsController
     @NonNull
     private final ContextUtils contextUtils;
 
+    @NonNull
+    private final AnalyticsMetrics analyticsMetrics;
+
     // -------------------------------------------------------------------------
     // Resources
     // -------------------------------------------------------------------------
@@ -111,8 +117,18 @@ public class AnalyticsController
         HttpServletResponse response )
         throws Exception
     {
-        GridUtils.toXml( getGrid( criteria, apiVersion, ContextUtils.CONTENT_TYPE_XML, response ),
-            response.getOutputStream() );
+        Grid grid = getGrid( criteria, apiVersion, ContextUtils.CONTENT_TYPE_XML, response );
+
+        Timer.Sample sample = analyticsMetrics.start();
+
+        try
+        {
+            GridUtils.toXml( grid, response.getOutputStream() );
+        }
+        finally
+        {
+            analyticsMetrics.recordSerialization( sample, "xml" );
+        }
     }
 
     @GetMapping( value = RESOURCE_PATH + ".html" )
@@ -122,8 +138,18 @@ public class AnalyticsController
         HttpServletResponse response )
         throws Exception
     {
-        GridUtils.toHtml( getGrid( criteria, apiVersion, ContextUtils.CONTENT_TYPE_HTML, response ),
-            response.getWriter() );
+        Grid grid = getGrid( criteria, apiVersion, ContextUtils.CONTENT_TYPE_HTML, response );
+
+        Timer.Sample sample = analyticsMetrics.start();
+
+        try
+        {
+            GridUtils.toHtml( grid, response.getWriter() );
+        }
+        finally
+        {
+            analyticsMetrics.recordSerialization( sample, "html" );
+        }
     }
 
     @GetMapping( value = RESOURCE_PATH + ".html+css" )
@@ -133,8 +159,18 @@ public class AnalyticsController
         HttpServletResponse response )
         throws Exception
     {
-        GridUtils.toHtmlCss( getGrid( criteria, apiVersion, ContextUtils.CONTENT_TYPE_HTML, response ),
-            response.getWriter() );
+        Grid grid = getGrid( criteria, apiVersion, ContextUtils.CONTENT_TYPE_HTML, response );
+
+        Timer.Sample sample = analyticsMetrics.start();
+
+        try
+        {
+            GridUtils.toHtmlCss( grid, response.getWriter() );
+        }
+        finally
+        {
+            analyticsMetrics.recordSerialization( sample, "html+css" );
+        }
     }
 
     @GetMapping( value = RESOURCE_PATH + ".csv" )
@@ -144,8 +180,19 @@ public class AnalyticsController
         HttpServletResponse response )
         throws Exception
     {
-        GridUtils.toCsv( getGridWithAttachment( criteria, apiVersion, ContextUtils.CONTENT_TYPE_CSV,
-            "data.csv", response ), response.getWriter() );
+        Grid grid = getGridWithAttachment( criteria, apiVersion, ContextUtils.CONTENT_TYPE_CSV, "data.csv",
+            response );
+
+        Timer.Sample sample = analyticsMetrics.start();
+
+        try
+        {
+            GridUtils.toCsv( grid, response.getWriter() );
+        }
+        finally
+        {
+            analyticsMetrics.recordSerialization( sample, "csv" );
+        }
     }
 
     @GetMapping( value = RESOURCE_PATH + ".xls" )
@@ -155,8 +202,19 @@ public class AnalyticsController
         HttpServletResponse response )
         throws Exception
     {
-        GridUtils.toXls( getGridWithAttachment( criteria, apiVersion, ContextUtils.CONTENT_TYPE_EXCEL,
-            "data.xls", response ), response.getOutputStream() );
+        Grid grid = getGridWithAttachment( criteria, apiVersion, ContextUtils.CONTENT_TYPE_EXCEL, "data.xls",
+            response );
+
+        Timer.Sample sample = analyticsMetrics.start();
+
+        try
+        {
+            GridUtils.toXls( grid, response.getOutputStream() );
+        }
+        finally
+        {
+            analyticsMetrics.recordSerialization( sample, "xls" );
+        }
     }
 
     @GetMapping( value = RESOURCE_PATH + ".jrxml" )
@@ -177,7 +235,16 @@ public class AnalyticsController
             CacheStrategy.RESPECT_SYSTEM_SETTING, "data.jrxml", false, params.getLatestEndDate() );
         Grid grid = analyticsService.getAggregatedDataValues( params );
 
-        GridUtils.toJrxml( grid, null, response.getWriter() );
+        Timer.Sample sample = analyticsMetrics.start();
+
+        try
+        {
+            GridUtils.toJrxml( grid, null, response.getWriter() );
+        }
+        finally
+        {
+            analyticsMetrics.recordSerialization( sample, "jrxml" );
+        }
     }
 
     @GetMapping( value = RESOURCE_PATH + "/debug/sql", produces = { TEXT_HTML_VALUE, TEXT_PLAIN_VALUE } )
@@ -30,6 +30,7 @@ package org.hisp.dhis.webapi.controller;
 import static org.hisp.dhis.common.DimensionalObjectUtils.getItemsFromParam;
 import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
 
+import java.io.IOException;
 import java.util.List;
 
 import javax.servlet.http.HttpServletResponse;
@@ -39,6 +40,7 @@ import lombok.AllArgsConstructor;
 import lombok.NonNull;
 
 import org.hisp.dhis.analytics.Rectangle;
+import org.hisp.dhis.analytics.Tile;
 import org.hisp.dhis.analytics.analyze.ExecutionPlanStore;
 import org.hisp.dhis.analytics.dimension.DimensionFilteringAndPagingService;
 import org.hisp.dhis.analytics.dimension.DimensionMapperService;
@@ -272,6 +274,35 @@ public class EventAnalyticsController
         return analyticsService.getEventClusters( params );
     }
 
+    @GetMapping( value = RESOURCE_PATH + "/tile/{program}/{z}/{x}/{y}.pbf",
+        produces = ContextUtils.CONTENT_TYPE_MVT )
+    public void getTile(
+        @PathVariable String program,
+        @PathVariable int z,
+        @PathVariable int x,
+        @PathVariable int y,
+        EventsAnalyticsQueryCriteria criteria,
+        @RequestParam( required = false ) Long clusterSize,
+        DhisApiVersion apiVersion,
+        HttpServletResponse response )
+        throws IOException
+    {
+        Tile tile = Tile.of( z, x, y );
+
+        EventQueryParams params = getEventQueryParams( program, criteria, apiVersion, false );
+
+        params = new EventQueryParams.Builder( params )
+            .withClusterSize( clusterSize )
+            .build();
+
+        byte[] mvt = analyticsService.getEventTile( params, tile );
+
+        contextUtils.configureResponse( response, ContextUtils.CONTENT_TYPE_MVT,
+            CacheStrategy.RESPECT_SYSTEM_SETTING );
+        response.setContentLength( mvt.length );
+        response.getOutputStream().write( mvt );
+    }
+
     // -------------------------------------------------------------------------
     // Query
     // -------------------------------------------------------------------------
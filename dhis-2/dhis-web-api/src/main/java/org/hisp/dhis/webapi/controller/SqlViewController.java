@@ -32,12 +32,16 @@ import static org.hisp.dhis.dxf2.webmessage.WebMessageUtils.created;
 import static org.hisp.dhis.dxf2.webmessage.WebMessageUtils.notFound;
 import static org.hisp.dhis.dxf2.webmessage.WebMessageUtils.ok;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.Set;
 
 import javax.servlet.http.HttpServletResponse;
 
+import lombok.extern.slf4j.Slf4j;
+
 import org.hisp.dhis.common.Grid;
+import org.hisp.dhis.common.GridRowWriter;
 import org.hisp.dhis.dxf2.webmessage.WebMessage;
 import org.hisp.dhis.dxf2.webmessage.WebMessageException;
 import org.hisp.dhis.node.NodeService;
@@ -47,7 +51,11 @@ import org.hisp.dhis.schema.descriptors.SqlViewSchemaDescriptor;
 import org.hisp.dhis.sqlview.SqlView;
 import org.hisp.dhis.sqlview.SqlViewQuery;
 import org.hisp.dhis.sqlview.SqlViewService;
+import org.hisp.dhis.sqlview.SqlViewStreamParams;
+import org.hisp.dhis.system.grid.CsvGridRowWriter;
 import org.hisp.dhis.system.grid.GridUtils;
+import org.hisp.dhis.system.grid.JsonGridRowWriter;
+import org.hisp.dhis.system.grid.XlsGridRowWriter;
 import org.hisp.dhis.system.util.CodecUtils;
 import org.hisp.dhis.webapi.utils.ContextUtils;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -64,6 +72,7 @@ import com.google.common.collect.Lists;
 /**
  * @author Morten Olav Hansen <mortenoh@gmail.com>
  */
+@Slf4j
 @Controller
 @RequestMapping( value = SqlViewSchemaDescriptor.API_ENDPOINT )
 public class SqlViewController
@@ -207,6 +216,66 @@ public class SqlViewController
         GridUtils.toPdf( grid, response.getOutputStream() );
     }
 
+    // -------------------------------------------------------------------------
+    // Get streamed
+    // -------------------------------------------------------------------------
+
+    @GetMapping( "/{uid}/data/stream.json" )
+    public void streamViewJson( @PathVariable( "uid" ) String uid,
+        @RequestParam( required = false ) Set<String> criteria, @RequestParam( required = false ) Set<String> var,
+        @RequestParam( defaultValue = "0" ) int maxRows, @RequestParam( defaultValue = "0" ) int timeout,
+        @RequestParam( defaultValue = "" + SqlViewStreamParams.DEFAULT_FETCH_SIZE ) int fetchSize,
+        HttpServletResponse response )
+        throws Exception
+    {
+        SqlView sqlView = validateView( uid );
+
+        contextUtils.configureResponse( response, ContextUtils.CONTENT_TYPE_JSON, sqlView.getCacheStrategy() );
+
+        streamView( sqlView, criteria, var, getStreamParams( maxRows, timeout, fetchSize, response ),
+            new JsonGridRowWriter( response.getOutputStream(), sqlView.getName(), sqlView.getDescription() ) );
+    }
+
+    @GetMapping( "/{uid}/data/stream.csv" )
+    public void streamViewCsv( @PathVariable( "uid" ) String uid,
+        @RequestParam( required = false ) Set<String> criteria, @RequestParam( required = false ) Set<String> var,
+        @RequestParam( defaultValue = "0" ) int maxRows, @RequestParam( defaultValue = "0" ) int timeout,
+        @RequestParam( defaultValue = "" + SqlViewStreamParams.DEFAULT_FETCH_SIZE ) int fetchSize,
+        HttpServletResponse response )
+        throws Exception
+    {
+        SqlView sqlView = validateView( uid );
+
+        String filename = CodecUtils.filenameEncode( sqlView.getName() ) + ".csv";
+
+        contextUtils.configureResponse( response, ContextUtils.CONTENT_TYPE_CSV, sqlView.getCacheStrategy(), filename,
+            true );
+
+        streamView( sqlView, criteria, var, getStreamParams( maxRows, timeout, fetchSize, response ),
+            new CsvGridRowWriter( response.getWriter() ) );
+    }
+
+    @GetMapping( "/{uid}/data/stream.xls" )
+    public void streamViewXls( @PathVariable( "uid" ) String uid,
+        @RequestParam( required = false ) Set<String> criteria, @RequestParam( required = false ) Set<String> var,
+        @RequestParam( defaultValue = "0" ) int maxRows, @RequestParam( defaultValue = "0" ) int timeout,
+        @RequestParam( defaultValue = "" + SqlViewStreamParams.DEFAULT_FETCH_SIZE ) int fetchSize,
+        HttpServletResponse response )
+        throws Exception
+    {
+        SqlView sqlView = validateView( uid );
+
+        String filename = CodecUtils.filenameEncode( sqlView.getName() ) + ".xls";
+
+        contextUtils.configureResponse( response, ContextUtils.CONTENT_TYPE_EXCEL, sqlView.getCacheStrategy(), filename,
+            true );
+
+        int xlsMaxRows = maxRows > 0 ? Math.min( maxRows, XlsGridRowWriter.MAX_ROWS ) : XlsGridRowWriter.MAX_ROWS;
+
+        streamView( sqlView, criteria, var, getStreamParams( xlsMaxRows, timeout, fetchSize, response ),
+            new XlsGridRowWriter( response.getOutputStream(), sqlView.getName() ) );
+    }
+
     // -------------------------------------------------------------------------
     // Post
     // -------------------------------------------------------------------------
@@ -268,6 +337,72 @@ public class SqlViewController
         return sqlView;
     }
 
+    private SqlViewStreamParams getStreamParams( int maxRows, int timeout, int fetchSize,
+        HttpServletResponse response )
+    {
+        return SqlViewStreamParams.builder()
+            .maxRows( maxRows )
+            .timeoutSeconds( timeout )
+            .fetchSize( fetchSize )
+            .cancellationRequested( () -> isCancelled( response ) )
+            .build();
+    }
+
+    /**
+     * Indicates whether streaming should stop because the request thread was
+     * interrupted or the client disconnected. A disconnect is detected by
+     * flushing the response, which fails once the connection is closed. XLS
+     * output is buffered until the end, so for XLS only the interrupt applies.
+     */
+    private boolean isCancelled( HttpServletResponse response )
+    {
+        if ( Thread.currentThread().isInterrupted() )
+        {
+            return true;
+        }
+
+        try
+        {
+            response.flushBuffer();
+
+            return false;
+        }
+        catch ( IOException ex )
+        {
+            return true;
+        }
+    }
+
+    /**
+     * Streams the SQL view to the given writer. A client disconnect surfaces
+     * as an {@link java.io.UncheckedIOException} from the writer, upon which
+     * the database statement is cancelled. A timeout or cancellation fails
+     * with a {@link org.hisp.dhis.common.QueryRuntimeException}. The writer is
+     * only closed when streaming succeeds, so that a failed stream is never
+     * terminated as a complete document. If the response is not committed
+     * yet, the failure is returned as an error response instead.
+     */
+    private void streamView( SqlView sqlView, Set<String> criteria, Set<String> var, SqlViewStreamParams params,
+        GridRowWriter writer )
+    {
+        List<String> filters = Lists.newArrayList( contextService.getParameterValues( "filter" ) );
+        List<String> fields = Lists.newArrayList( contextService.getParameterValues( "fields" ) );
+
+        try
+        {
+            sqlViewService.streamSqlView( sqlView, SqlView.getCriteria( criteria ), SqlView.getCriteria( var ),
+                filters, fields, params, writer );
+        }
+        catch ( RuntimeException ex )
+        {
+            log.error( "Streaming of SQL view failed, output is incomplete: " + sqlView.getUid(), ex );
+
+            throw ex;
+        }
+
+        writer.close();
+    }
+
     private RootNode buildResponse( SqlView sqlView, SqlViewQuery query )
         throws WebMessageException
     {
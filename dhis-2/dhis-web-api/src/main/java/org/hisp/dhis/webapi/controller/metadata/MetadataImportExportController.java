@@ -42,6 +42,7 @@ import java.util.Locale;
 import java.util.Map;
 
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -82,6 +83,7 @@ import org.hisp.dhis.webapi.mvc.annotation.ApiVersion;
 import org.hisp.dhis.webapi.service.ContextService;
 import org.springframework.beans.factory.ObjectFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -91,6 +93,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 /**
@@ -146,11 +149,21 @@ public class MetadataImportExportController
 
     @PostMapping( value = "", consumes = APPLICATION_JSON_VALUE, produces = APPLICATION_JSON_VALUE )
     @ResponseBody
-    public WebMessage postJsonMetadata( HttpServletRequest request )
+    public WebMessage postJsonMetadata(
+        @RequestParam( required = false, defaultValue = "false" ) boolean stream,
+        HttpServletRequest request )
         throws IOException
     {
         MetadataImportParams params = metadataImportService.getParamsFromMap( contextService.getParameterValuesMap() );
 
+        if ( stream && !params.hasJobId() )
+        {
+            ImportReport importReport = metadataImportService.importMetadata( params,
+                StreamUtils.wrapAndCheckCompressionFormat( request.getInputStream() ) );
+
+            return importReport( importReport ).withPlainResponseBefore( DhisApiVersion.V38 );
+        }
+
         final Map<Class<? extends IdentifiableObject>, List<IdentifiableObject>> objects = renderService
             .fromMetadata( StreamUtils.wrapAndCheckCompressionFormat( request.getInputStream() ), RenderFormat.JSON );
         params.setObjects( objects );
@@ -238,6 +251,36 @@ public class MetadataImportExportController
         return MetadataExportControllerUtils.createResponseEntity( rootNode, download );
     }
 
+    @GetMapping( params = "stream=true", produces = APPLICATION_JSON_VALUE )
+    public void getMetadataStream(
+        @RequestParam( required = false, defaultValue = "false" ) boolean translate,
+        @RequestParam( required = false ) String locale,
+        @RequestParam( required = false, defaultValue = "false" ) boolean download,
+        HttpServletResponse response )
+        throws IOException
+    {
+        if ( translate )
+        {
+            TranslateParams translateParams = new TranslateParams( true, locale );
+            setUserContext( currentUserService.getCurrentUser(), translateParams );
+        }
+
+        MetadataExportParams params = metadataExportService.getParamsFromMap( contextService.getParameterValuesMap() );
+        metadataExportService.validate( params );
+
+        response.setContentType( APPLICATION_JSON_VALUE );
+
+        if ( download )
+        {
+            response.setHeader( HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=metadata.json" );
+        }
+
+        try ( JsonGenerator generator = jsonMapper.getFactory().createGenerator( response.getOutputStream() ) )
+        {
+            metadataExportService.writeMetadata( params, generator );
+        }
+    }
+
     @ResponseBody
     @PatchMapping( value = "sharing", consumes = "application/json-patch+json", produces = APPLICATION_JSON_VALUE )
     public WebMessage bulkSharing( @RequestParam( required = false, defaultValue = "false" ) boolean atomic,
@@ -36,6 +36,7 @@ import static org.hisp.dhis.tracker.bundle.TrackerBundleMode.COMMIT;
 import static org.hisp.dhis.webapi.controller.tracker.TrackerImportParamsBuilder.TrackerImportParamKey.ATOMIC_MODE_KEY;
 import static org.hisp.dhis.webapi.controller.tracker.TrackerImportParamsBuilder.TrackerImportParamKey.CATEGORY_OPTION_COMBO_ID_SCHEME_KEY;
 import static org.hisp.dhis.webapi.controller.tracker.TrackerImportParamsBuilder.TrackerImportParamKey.CATEGORY_OPTION_ID_SCHEME_KEY;
+import static org.hisp.dhis.webapi.controller.tracker.TrackerImportParamsBuilder.TrackerImportParamKey.CHUNK_SIZE_KEY;
 import static org.hisp.dhis.webapi.controller.tracker.TrackerImportParamsBuilder.TrackerImportParamKey.DATA_ELEMENT_ID_SCHEME_KEY;
 import static org.hisp.dhis.webapi.controller.tracker.TrackerImportParamsBuilder.TrackerImportParamKey.FLUSH_MODE_KEY;
 import static org.hisp.dhis.webapi.controller.tracker.TrackerImportParamsBuilder.TrackerImportParamKey.ID_SCHEME_KEY;
@@ -54,6 +55,7 @@ import java.util.Map;
 import lombok.Getter;
 
 import org.apache.commons.lang3.BooleanUtils;
+import org.apache.commons.lang3.math.NumberUtils;
 import org.hisp.dhis.common.CodeGenerator;
 import org.hisp.dhis.common.IdScheme;
 import org.hisp.dhis.tracker.AtomicMode;
@@ -92,7 +94,8 @@ public class TrackerImportParamsBuilder
             .atomicMode( getEnumWithDefault( AtomicMode.class, parameters, ATOMIC_MODE_KEY, ALL ) )
             .flushMode( getEnumWithDefault( FlushMode.class, parameters, FLUSH_MODE_KEY, AUTO ) )
             .skipSideEffects( getBooleanValueOrDefault( parameters, SKIP_SIDE_EFFECTS ) )
-            .skipRuleEngine( getBooleanValueOrDefault( parameters, SKIP_RULE_ENGINE_KEY ) );
+            .skipRuleEngine( getBooleanValueOrDefault( parameters, SKIP_RULE_ENGINE_KEY ) )
+            .chunkSize( getIntegerValueOrDefault( parameters, CHUNK_SIZE_KEY ) );
     }
 
     private static <T extends Enum<T>> T getEnumWithDefault( Class<T> enumKlass, Map<String, List<String>> parameters,
@@ -142,6 +145,18 @@ public class TrackerImportParamsBuilder
         return BooleanUtils.toBooleanObject( parameters.get( trackerImportParamKey.getKey() ).get( 0 ) );
     }
 
+    private static int getIntegerValueOrDefault( Map<String, List<String>> parameters,
+        TrackerImportParamKey trackerImportParamKey )
+    {
+        if ( parameters == null || parameters.get( trackerImportParamKey.getKey() ) == null
+            || parameters.get( trackerImportParamKey.getKey() ).isEmpty() )
+        {
+            return 0;
+        }
+
+        return Math.max( 0, NumberUtils.toInt( parameters.get( trackerImportParamKey.getKey() ).get( 0 ) ) );
+    }
+
     private static String getAttributeUidOrNull( Map<String, List<String>> parameters,
         TrackerImportParamKey trackerImportParamKey )
     {
@@ -192,6 +207,7 @@ public class TrackerImportParamsBuilder
         FLUSH_MODE_KEY( "flushMode" ),
         SKIP_RULE_ENGINE_KEY( "skipRuleEngine" ),
         SKIP_SIDE_EFFECTS( "skipSideEffects" ),
+        CHUNK_SIZE_KEY( "chunkSize" ),
         ID_SCHEME_KEY( "idScheme" ),
         ORG_UNIT_ID_SCHEME_KEY( "orgUnitIdScheme" ),
         PROGRAM_ID_SCHEME_KEY( "programIdScheme" ),
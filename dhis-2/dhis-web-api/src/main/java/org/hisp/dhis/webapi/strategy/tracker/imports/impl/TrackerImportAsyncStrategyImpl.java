@@ -27,12 +27,17 @@
  */
 package org.hisp.dhis.webapi.strategy.tracker.imports.impl;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
 import lombok.RequiredArgsConstructor;
 
 import org.hisp.dhis.artemis.MessageManager;
 import org.hisp.dhis.artemis.Topics;
 import org.hisp.dhis.security.AuthenticationSerializer;
+import org.hisp.dhis.tracker.TrackerImportParams;
 import org.hisp.dhis.tracker.job.TrackerMessage;
+import org.hisp.dhis.tracker.job.TrackerPayloadSpool;
 import org.hisp.dhis.tracker.report.TrackerImportReport;
 import org.hisp.dhis.webapi.controller.tracker.TrackerImportReportRequest;
 import org.hisp.dhis.webapi.strategy.tracker.imports.TrackerImportStrategyHandler;
@@ -47,19 +52,43 @@ public class TrackerImportAsyncStrategyImpl implements TrackerImportStrategyHand
 {
     private final MessageManager messageManager;
 
+    private final TrackerPayloadSpool payloadSpool;
+
     @Override
     public TrackerImportReport importReport( TrackerImportReportRequest trackerImportReportRequest )
     {
-        TrackerMessage trackerMessage = TrackerMessage.builder()
-            .trackerImportParams( trackerImportReportRequest.getTrackerImportParams() )
+        TrackerImportParams trackerImportParams = trackerImportReportRequest.getTrackerImportParams();
+
+        TrackerMessage.TrackerMessageBuilder trackerMessage = TrackerMessage.builder()
+            .userId( trackerImportParams.getUserId() )
             .authentication( AuthenticationSerializer.serialize( trackerImportReportRequest.getAuthentication() ) )
-            .uid( trackerImportReportRequest.getUid() )
-            .build();
+            .uid( trackerImportReportRequest.getUid() );
+
+        if ( payloadSpool.isEnabled() )
+        {
+            trackerMessage.payloadReference( spool( trackerImportReportRequest.getUid(), trackerImportParams ) );
+        }
+        else
+        {
+            trackerMessage.trackerImportParams( trackerImportParams );
+        }
 
-        messageManager.sendQueue( Topics.TRACKER_IMPORT_JOB_TOPIC_NAME, trackerMessage );
+        messageManager.sendQueue( Topics.TRACKER_IMPORT_JOB_TOPIC_NAME, trackerMessage.build() );
 
         return null; // empty report is not
                      // returned
                      // in async creation
     }
+
+    private String spool( String uid, TrackerImportParams trackerImportParams )
+    {
+        try
+        {
+            return payloadSpool.write( uid, trackerImportParams );
+        }
+        catch ( IOException ex )
+        {
+            throw new UncheckedIOException( "Failed to spool tracker import payload", ex );
+        }
+    }
 }
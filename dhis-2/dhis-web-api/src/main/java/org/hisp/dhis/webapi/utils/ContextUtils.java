@@ -85,6 +85,8 @@ public class ContextUtils
 
     public static final String CONTENT_TYPE_JPG = "image/jpeg";
 
+    public static final String CONTENT_TYPE_MVT = "application/vnd.mapbox-vector-tile";
+
     public static final String CONTENT_TYPE_EXCEL = "application/vnd.ms-excel";
 
     public static final String CONTENT_TYPE_JAVASCRIPT = "application/javascript; charset=UTF-8";
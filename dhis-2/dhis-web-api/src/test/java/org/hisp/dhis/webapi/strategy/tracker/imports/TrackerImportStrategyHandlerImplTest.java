@@ -41,6 +41,7 @@ import org.hisp.dhis.tracker.TrackerBundleReportMode;
 import org.hisp.dhis.tracker.TrackerImportParams;
 import org.hisp.dhis.tracker.TrackerImportService;
 import org.hisp.dhis.tracker.job.TrackerMessage;
+import org.hisp.dhis.tracker.job.TrackerPayloadSpool;
 import org.hisp.dhis.webapi.controller.tracker.TrackerImportReportRequest;
 import org.hisp.dhis.webapi.strategy.tracker.imports.impl.TrackerImportAsyncStrategyImpl;
 import org.hisp.dhis.webapi.strategy.tracker.imports.impl.TrackerImportSyncStrategyImpl;
@@ -66,6 +67,9 @@ class TrackerImportStrategyHandlerImplTest
     @Mock
     MessageManager messageManager;
 
+    @Mock
+    TrackerPayloadSpool payloadSpool;
+
     @Test
     void shouldCreateReportAsyncFalse()
     {